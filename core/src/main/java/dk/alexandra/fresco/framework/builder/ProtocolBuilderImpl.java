@@ -47,6 +47,28 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
     return producer;
   }
 
+  /**
+   * Tells whether the protocols appended to this builder are evaluated in parallel.
+   *
+   * @return true if this builder is parallel, false if it is sequential
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  /**
+   * Returns the number of protocol producers appended to this builder so far. Native protocol
+   * factories can use this to tell if nothing else has been appended since their last protocol.
+   *
+   * @return the number of appended protocol producers
+   */
+  public int getNumberOfProducers() {
+    if (protocols == null) {
+      throw new IllegalStateException("Cannot count protocols, it has all ready been constructed");
+    }
+    return protocols.size();
+  }
+
   /**
    * Building the actual protocol producer. Implementors decide which producer to create.
    *
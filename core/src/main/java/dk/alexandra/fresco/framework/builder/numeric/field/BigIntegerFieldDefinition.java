@@ -95,4 +95,29 @@ public final class BigIntegerFieldDefinition implements FieldDefinition {
   public List<FieldElement> deserializeList(byte[] bytes) {
     return utils.deserializeList(bytes);
   }
+
+  @Override
+  public int getElementByteLength() {
+    return utils.getElementByteLength();
+  }
+
+  @Override
+  public void serialize(FieldElement fieldElement, byte[] bytes, int offset) {
+    utils.serialize(fieldElement, bytes, offset);
+  }
+
+  @Override
+  public void serialize(List<FieldElement> fieldElements, byte[] bytes, int offset) {
+    utils.serializeList(fieldElements, bytes, offset);
+  }
+
+  @Override
+  public FieldElement deserialize(byte[] bytes, int offset) {
+    return utils.deserialize(bytes, offset);
+  }
+
+  @Override
+  public List<FieldElement> deserializeList(byte[] bytes, int offset, int count) {
+    return utils.deserializeList(bytes, offset, count);
+  }
 }
@@ -3,11 +3,18 @@ package dk.alexandra.fresco.framework.builder.numeric.field;
 import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Describes a finite field.
  * The field is defined by a <i>modulus</i> (i.e., the order of the field) and each element is
  * represented as a non-negative integer smaller than the modulus.
+ * <p>
+ * Elements are serialized with a fixed length given by {@link #getElementByteLength()}, so vectors
+ * of elements can be written to and read from existing buffers at a given offset.
+ * </p>
  */
 public interface FieldDefinition extends ByteSerializer<FieldElement> {
 
@@ -85,5 +92,115 @@ public interface FieldDefinition extends ByteSerializer<FieldElement> {
    *     close to modulus
    */
   BigInteger convertToSigned(BigInteger asUnsigned);
-}
 
+  /**
+   * Gets the number of bytes used to serialize an element of this field.
+   *
+   * @return the byte length of a serialized element
+   */
+  default int getElementByteLength() {
+    return serialize(createElement(0)).length;
+  }
+
+  /**
+   * Serializes an element into an existing byte array, writing exactly {@link
+   * #getElementByteLength()} bytes.
+   *
+   * @param fieldElement the element to serialize
+   * @param bytes the array to write to
+   * @param offset the position in the array of the first byte to write
+   */
+  default void serialize(FieldElement fieldElement, byte[] bytes, int offset) {
+    byte[] serialized = serialize(fieldElement);
+    System.arraycopy(serialized, 0, bytes, offset, serialized.length);
+  }
+
+  /**
+   * Serializes a list of elements into an existing byte array, similar to {@link
+   * #serialize(List)}.
+   *
+   * @param fieldElements the elements to serialize
+   * @param bytes the array to write to
+   * @param offset the position in the array of the first byte to write
+   */
+  default void serialize(List<FieldElement> fieldElements, byte[] bytes, int offset) {
+    int elementLength = getElementByteLength();
+    for (FieldElement fieldElement : fieldElements) {
+      serialize(fieldElement, bytes, offset);
+      offset += elementLength;
+    }
+  }
+
+  /**
+   * Serializes a list of elements into a byte buffer, similar to {@link #serialize(List)}. The
+   * elements are written at the current position of the buffer which is advanced past them.
+   *
+   * @param fieldElements the elements to serialize
+   * @param buffer the buffer to write to
+   */
+  default void serialize(List<FieldElement> fieldElements, ByteBuffer buffer) {
+    int length = fieldElements.size() * getElementByteLength();
+    if (buffer.hasArray()) {
+      serialize(fieldElements, buffer.array(), buffer.arrayOffset() + buffer.position());
+      buffer.position(buffer.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      serialize(fieldElements, bytes, 0);
+      buffer.put(bytes);
+    }
+  }
+
+  /**
+   * Reads an element serialized at the given offset of a byte array.
+   *
+   * @param bytes the array to read from
+   * @param offset the position in the array of the first byte of the element
+   * @return the deserialized element
+   */
+  default FieldElement deserialize(byte[] bytes, int offset) {
+    int elementLength = getElementByteLength();
+    byte[] serialized = new byte[elementLength];
+    System.arraycopy(bytes, offset, serialized, 0, elementLength);
+    return deserialize(serialized);
+  }
+
+  /**
+   * Reads a number of elements serialized from the given offset of a byte array, similar to
+   * {@link #deserializeList(byte[])}.
+   *
+   * @param bytes the array to read from
+   * @param offset the position in the array of the first byte of the first element
+   * @param count the number of elements to read
+   * @return the deserialized elements
+   */
+  default List<FieldElement> deserializeList(byte[] bytes, int offset, int count) {
+    int elementLength = getElementByteLength();
+    List<FieldElement> elements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      elements.add(deserialize(bytes, offset + i * elementLength));
+    }
+    return elements;
+  }
+
+  /**
+   * Reads a number of elements from a byte buffer, similar to {@link #deserializeList(byte[])}.
+   * The elements are read from the current position of the buffer which is advanced past them.
+   *
+   * @param buffer the buffer to read from
+   * @param count the number of elements to read
+   * @return the deserialized elements
+   */
+  default List<FieldElement> deserializeList(ByteBuffer buffer, int count) {
+    int length = count * getElementByteLength();
+    List<FieldElement> elements;
+    if (buffer.hasArray()) {
+      elements = deserializeList(buffer.array(), buffer.arrayOffset() + buffer.position(), count);
+      buffer.position(buffer.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      elements = deserializeList(bytes, 0, count);
+    }
+    return elements;
+  }
+}
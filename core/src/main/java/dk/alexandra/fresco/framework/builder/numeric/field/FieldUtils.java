@@ -3,6 +3,7 @@ package dk.alexandra.fresco.framework.builder.numeric.field;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 
@@ -45,16 +46,26 @@ final class FieldUtils {
    * @return the value in a byte array
    */
   byte[] serialize(FieldElement value) {
-    return serializeWithOffset(value, 0, new byte[modulusLength]);
+    byte[] bytes = new byte[modulusLength];
+    serialize(value, bytes, 0);
+    return bytes;
   }
 
-  private byte[] serializeWithOffset(FieldElement value, int offset, byte[] res) {
-    byte[] bytes = toBigInteger.apply(value).toByteArray();
-    int arrayStart = bytes.length > modulusLength ? bytes.length - modulusLength : 0;
-    int resStart = bytes.length > modulusLength ? 0 : modulusLength - bytes.length;
-    int len = Math.min(modulusLength, bytes.length);
-    System.arraycopy(bytes, arrayStart, res, resStart + offset, len);
-    return res;
+  /**
+   * Serializes the field element into an existing byte array, writing exactly the byte length of
+   * the modulus from the given offset.
+   *
+   * @param value value to serialize
+   * @param bytes the array to write to
+   * @param offset the position of the first byte to write
+   */
+  void serialize(FieldElement value, byte[] bytes, int offset) {
+    byte[] valueBytes = toBigInteger.apply(value).toByteArray();
+    int arrayStart = valueBytes.length > modulusLength ? valueBytes.length - modulusLength : 0;
+    int resStart = valueBytes.length > modulusLength ? 0 : modulusLength - valueBytes.length;
+    int len = Math.min(modulusLength, valueBytes.length);
+    Arrays.fill(bytes, offset, offset + resStart, (byte) 0);
+    System.arraycopy(valueBytes, arrayStart, bytes, resStart + offset, len);
   }
 
   /**
@@ -65,12 +76,19 @@ final class FieldUtils {
    * @return value deserialized
    */
   FieldElement deserialize(byte[] bytes) {
-    return deserializeWithOffset(bytes, 0);
+    return deserialize(bytes, 0);
   }
 
-  private FieldElement deserializeWithOffset(byte[] bytes, int offset) {
+  /**
+   * Reads the serialized field element from the given offset of a byte array.
+   *
+   * @param bytes the array to read from
+   * @param offset the position of the first byte of the element
+   * @return value deserialized
+   */
+  FieldElement deserialize(byte[] bytes, int offset) {
     byte[] actual;
-    if (bytes.length == modulusLength) {
+    if (offset == 0 && bytes.length == modulusLength) {
       actual = bytes;
     } else {
       actual = new byte[modulusLength];
@@ -79,6 +97,13 @@ final class FieldUtils {
     return creator.apply(new BigInteger(1, actual));
   }
 
+  /**
+   * Gets the byte length of a serialized field element.
+   */
+  int getElementByteLength() {
+    return modulusLength;
+  }
+
   /**
    * Serializes a list of field elements to a byte array, similar to a single serialization.
    *
@@ -87,12 +112,24 @@ final class FieldUtils {
    */
   byte[] serializeList(List<FieldElement> fieldElements) {
     byte[] bytes = new byte[modulusLength * fieldElements.size()];
-    for (int i = 0; i < fieldElements.size(); i++) {
-      serializeWithOffset(fieldElements.get(i), i * modulusLength, bytes);
-    }
+    serializeList(fieldElements, bytes, 0);
     return bytes;
   }
 
+  /**
+   * Serializes a list of field elements into an existing byte array from the given offset.
+   *
+   * @param fieldElements values to serialize
+   * @param bytes the array to write to
+   * @param offset the position of the first byte to write
+   */
+  void serializeList(List<FieldElement> fieldElements, byte[] bytes, int offset) {
+    for (FieldElement fieldElement : fieldElements) {
+      serialize(fieldElement, bytes, offset);
+      offset += modulusLength;
+    }
+  }
+
   /**
    * Reads a list of serialized field elements from a byte array, the length is fixed and
    * determined as the the bit length of the modulus for each value.
@@ -101,9 +138,21 @@ final class FieldUtils {
    * @return value deserialized
    */
   List<FieldElement> deserializeList(byte[] bytes) {
-    ArrayList<FieldElement> elements = new ArrayList<>();
-    for (int i = 0; i < bytes.length; i += modulusLength) {
-      elements.add(deserializeWithOffset(bytes, i));
+    return deserializeList(bytes, 0, bytes.length / modulusLength);
+  }
+
+  /**
+   * Reads a number of serialized field elements from the given offset of a byte array.
+   *
+   * @param bytes the array to read from
+   * @param offset the position of the first byte of the first element
+   * @param count the number of elements to read
+   * @return values deserialized
+   */
+  List<FieldElement> deserializeList(byte[] bytes, int offset, int count) {
+    List<FieldElement> elements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      elements.add(deserialize(bytes, offset + i * modulusLength));
     }
     return elements;
   }
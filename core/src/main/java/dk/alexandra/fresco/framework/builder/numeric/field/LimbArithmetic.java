@@ -0,0 +1,36 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+/**
+ * Helper methods for arithmetic on unsigned <code>long</code> limbs, used by the field
+ * implementations that do not rely on {@link java.math.BigInteger}.
+ */
+final class LimbArithmetic {
+
+  private static final long LOWER_32_BITS = 0xFFFFFFFFL;
+
+  private LimbArithmetic() {
+  }
+
+  /**
+   * Returns one if the unsigned sum was smaller than the unsigned addend, i.e., if the addition
+   * overflowed, and zero otherwise. Equivalently, returns the borrow of <code>a - b</code> when
+   * called as <code>carry(a, a - b)</code>.
+   */
+  static long carry(long sum, long addend) {
+    return Long.compareUnsigned(sum, addend) < 0 ? 1 : 0;
+  }
+
+  /**
+   * Computes the upper 64 bits of the unsigned 128 bit product of two longs.
+   */
+  static long multiplyHigh(long x, long y) {
+    long x0 = x & LOWER_32_BITS;
+    long x1 = x >>> 32;
+    long y0 = y & LOWER_32_BITS;
+    long y1 = y >>> 32;
+    long w0 = x0 * y0;
+    long t = x1 * y0 + (w0 >>> 32);
+    long w1 = (t & LOWER_32_BITS) + x0 * y1;
+    return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+  }
+}
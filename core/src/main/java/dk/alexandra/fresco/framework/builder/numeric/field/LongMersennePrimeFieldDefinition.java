@@ -0,0 +1,136 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A finite field where the modulus is a pseudo Mersenne prime of {@value
+ * LongMersennePrimeModulus#MIN_BIT_LENGTH} to {@value LongMersennePrimeModulus#MAX_BIT_LENGTH}
+ * bits, such as <i>2<sup>61</sup> - 1</i> or <i>2<sup>127</sup> - 1</i>.
+ *
+ * <p>
+ * Contrary to the {@link MersennePrimeFieldDefinition} the elements are represented using two
+ * primitive <code>long</code> values instead of a {@link BigInteger}, and the arithmetic is done
+ * directly on these. This avoids most of the allocation and the generic modular reduction of the
+ * big integer based fields.
+ * </p>
+ */
+public final class LongMersennePrimeFieldDefinition implements FieldDefinition {
+
+  private final LongMersennePrimeModulus modulus;
+  private final BigInteger modulusHalf;
+  private final int modulusBitLength;
+  private final int modulusLength;
+
+  /**
+   * Construct a new field definition for a pseudo Mersenne prime.
+   *
+   * @param bitLength the bitlength of the prime
+   * @param constant the constant subtracted from 2^bitLength
+   */
+  public LongMersennePrimeFieldDefinition(int bitLength, int constant) {
+    this.modulus = new LongMersennePrimeModulus(bitLength, constant);
+    this.modulusHalf = modulus.getPrime().shiftRight(1);
+    this.modulusBitLength = bitLength;
+    this.modulusLength = 1 + ((modulusBitLength - 1) / 8);
+  }
+
+  @Override
+  public FieldElement createElement(long value) {
+    return LongMersennePrimeFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public FieldElement createElement(String value) {
+    return LongMersennePrimeFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public FieldElement createElement(BigInteger value) {
+    return LongMersennePrimeFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public BigInteger getModulus() {
+    return modulus.getPrime();
+  }
+
+  @Override
+  public int getBitLength() {
+    return modulusBitLength;
+  }
+
+  @Override
+  public StrictBitVector convertToBitVector(FieldElement fieldElement) {
+    return new StrictBitVector(serialize(fieldElement));
+  }
+
+  @Override
+  public BigInteger convertToUnsigned(FieldElement value) {
+    return LongMersennePrimeFieldElement.extractValue(value);
+  }
+
+  @Override
+  public BigInteger convertToSigned(BigInteger asUnsigned) {
+    return FieldUtils.convertRepresentation(asUnsigned, getModulus(), modulusHalf);
+  }
+
+  @Override
+  public byte[] serialize(FieldElement fieldElement) {
+    byte[] bytes = new byte[modulusLength];
+    serialize(fieldElement, bytes, 0);
+    return bytes;
+  }
+
+  @Override
+  public byte[] serialize(List<FieldElement> fieldElements) {
+    byte[] bytes = new byte[modulusLength * fieldElements.size()];
+    serialize(fieldElements, bytes, 0);
+    return bytes;
+  }
+
+  @Override
+  public FieldElement deserialize(byte[] bytes) {
+    return deserialize(bytes, 0);
+  }
+
+  @Override
+  public List<FieldElement> deserializeList(byte[] bytes) {
+    return deserializeList(bytes, 0, bytes.length / modulusLength);
+  }
+
+  @Override
+  public int getElementByteLength() {
+    return modulusLength;
+  }
+
+  @Override
+  public void serialize(FieldElement fieldElement, byte[] bytes, int offset) {
+    ((LongMersennePrimeFieldElement) fieldElement).toBytes(bytes, offset, modulusLength);
+  }
+
+  @Override
+  public void serialize(List<FieldElement> fieldElements, byte[] bytes, int offset) {
+    for (FieldElement fieldElement : fieldElements) {
+      ((LongMersennePrimeFieldElement) fieldElement).toBytes(bytes, offset, modulusLength);
+      offset += modulusLength;
+    }
+  }
+
+  @Override
+  public FieldElement deserialize(byte[] bytes, int offset) {
+    return LongMersennePrimeFieldElement.create(bytes, offset, modulusLength, modulus);
+  }
+
+  @Override
+  public List<FieldElement> deserializeList(byte[] bytes, int offset, int count) {
+    List<FieldElement> elements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      elements.add(
+          LongMersennePrimeFieldElement.create(bytes, offset + i * modulusLength, modulusLength, modulus));
+    }
+    return elements;
+  }
+}
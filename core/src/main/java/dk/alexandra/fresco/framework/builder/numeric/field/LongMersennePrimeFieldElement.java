@@ -0,0 +1,274 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import static dk.alexandra.fresco.framework.builder.numeric.field.LimbArithmetic.carry;
+import static dk.alexandra.fresco.framework.builder.numeric.field.LimbArithmetic.multiplyHigh;
+
+import dk.alexandra.fresco.framework.util.MathUtils;
+import java.math.BigInteger;
+
+/**
+ * An element of a field defined by a {@link LongMersennePrimeModulus}. The value is kept as two
+ * unsigned <code>long</code> limbs, and all arithmetic is done directly on these using the special
+ * form of the modulus for reduction.
+ */
+final class LongMersennePrimeFieldElement implements FieldElement {
+
+  private static final long serialVersionUID = -2357963426254930870L;
+
+  private final long high;
+  private final long low;
+  private final LongMersennePrimeModulus modulus;
+
+  private LongMersennePrimeFieldElement(long high, long low, LongMersennePrimeModulus modulus) {
+    this.high = high;
+    this.low = low;
+    this.modulus = modulus;
+  }
+
+  static FieldElement create(BigInteger value, LongMersennePrimeModulus modulus) {
+    BigInteger reduced = value.mod(modulus.getPrime());
+    return new LongMersennePrimeFieldElement(reduced.shiftRight(Long.SIZE).longValue(),
+        reduced.longValue(), modulus);
+  }
+
+  static FieldElement create(long value, LongMersennePrimeModulus modulus) {
+    if (value >= 0) {
+      return reduce(0, value, modulus);
+    } else {
+      // Note that the negation of Long.MIN_VALUE is 2^63 when read as unsigned
+      return reduce(0, -value, modulus).negate();
+    }
+  }
+
+  static FieldElement create(String string, LongMersennePrimeModulus modulus) {
+    return create(new BigInteger(string), modulus);
+  }
+
+  /**
+   * Reads an element from a big endian byte representation of the given length.
+   */
+  static FieldElement create(byte[] bytes, int offset, int length,
+      LongMersennePrimeModulus modulus) {
+    long high = 0;
+    long low = 0;
+    for (int i = offset; i < offset + length; i++) {
+      high = (high << Byte.SIZE) | (low >>> (Long.SIZE - Byte.SIZE));
+      low = (low << Byte.SIZE) | (bytes[i] & 0xFF);
+    }
+    return reduce(high, low, modulus);
+  }
+
+  /**
+   * Writes this element to a big endian byte representation of the given length.
+   */
+  void toBytes(byte[] bytes, int offset, int length) {
+    long high = this.high;
+    long low = this.low;
+    for (int i = offset + length - 1; i >= offset; i--) {
+      bytes[i] = (byte) low;
+      low = (low >>> Byte.SIZE) | (high << (Long.SIZE - Byte.SIZE));
+      high >>>= Byte.SIZE;
+    }
+  }
+
+  @Override
+  public FieldElement add(FieldElement operand) {
+    LongMersennePrimeFieldElement other = cast(operand);
+    long sumLow = low + other.low;
+    long sumHigh = high + other.high + carry(sumLow, low);
+    return subtractPrimeIfNeeded(sumHigh, sumLow, modulus);
+  }
+
+  @Override
+  public FieldElement subtract(FieldElement operand) {
+    LongMersennePrimeFieldElement other = cast(operand);
+    long differenceLow = low - other.low;
+    long differenceHigh = high - other.high - carry(low, differenceLow);
+    if (differenceHigh < 0) {
+      // Both values are less than 2^127, so a negative high limb means the difference is negative
+      long resultLow = differenceLow + modulus.getPrimeLow();
+      differenceHigh += modulus.getPrimeHigh() + carry(resultLow, differenceLow);
+      differenceLow = resultLow;
+    }
+    return new LongMersennePrimeFieldElement(differenceHigh, differenceLow, modulus);
+  }
+
+  @Override
+  public FieldElement negate() {
+    if (high == 0 && low == 0) {
+      return this;
+    }
+    long resultLow = modulus.getPrimeLow() - low;
+    long resultHigh = modulus.getPrimeHigh() - high - carry(modulus.getPrimeLow(), resultLow);
+    return new LongMersennePrimeFieldElement(resultHigh, resultLow, modulus);
+  }
+
+  @Override
+  public FieldElement multiply(FieldElement operand) {
+    LongMersennePrimeFieldElement other = cast(operand);
+    // Schoolbook multiplication of the limbs into the 256 bit product r3:r2:r1:r0
+    long ll = low * other.low;
+    long llHigh = multiplyHigh(low, other.low);
+    long lh = low * other.high;
+    long lhHigh = multiplyHigh(low, other.high);
+    long hl = high * other.low;
+    long hlHigh = multiplyHigh(high, other.low);
+    long hh = high * other.high;
+    long hhHigh = multiplyHigh(high, other.high);
+    long r1 = llHigh + lh;
+    long carry = carry(r1, lh);
+    r1 += hl;
+    carry += carry(r1, hl);
+    long r2 = lhHigh + hlHigh;
+    long carry2 = carry(r2, hlHigh);
+    r2 += hh;
+    carry2 += carry(r2, hh);
+    r2 += carry;
+    carry2 += carry(r2, carry);
+    long r3 = hhHigh + carry2;
+    return reduceProduct(r3, r2, r1, ll, modulus);
+  }
+
+  @Override
+  public FieldElement sqrt() {
+    return create(MathUtils.modularSqrt(toBigInteger(), modulus.getPrime()), modulus);
+  }
+
+  @Override
+  public FieldElement modInverse() {
+    return create(toBigInteger().modInverse(modulus.getPrime()), modulus);
+  }
+
+  static BigInteger extractValue(FieldElement element) {
+    return cast(element).toBigInteger();
+  }
+
+  private BigInteger toBigInteger() {
+    byte[] bytes = new byte[2 * Long.BYTES];
+    toBytes(bytes, 0, bytes.length);
+    return new BigInteger(1, bytes);
+  }
+
+  private static LongMersennePrimeFieldElement cast(FieldElement element) {
+    return (LongMersennePrimeFieldElement) element;
+  }
+
+  /**
+   * Reduces a product r3:r2:r1:r0 of two values less than <i>2<sup>k</sup></i> for bit length
+   * <i>k</i>. Writing the product as <i>h 2<sup>k</sup> + l</i> this uses that <i>2<sup>k</sup> =
+   * c</i> modulo the prime to fold it to <i>c h + l</i>, where <i>h</i> is less than
+   * <i>2<sup>k</sup></i>, leaving a value of at most <i>k + 32</i> bits which is folded once more.
+   */
+  private static FieldElement reduceProduct(long r3, long r2, long r1, long r0,
+      LongMersennePrimeModulus modulus) {
+    int bitLength = modulus.getBitLength();
+    long constant = modulus.getConstant();
+    long high0;
+    long high1;
+    long low0;
+    long low1;
+    if (bitLength >= Long.SIZE) {
+      int shift = bitLength - Long.SIZE;
+      if (shift == 0) {
+        high0 = r1;
+        high1 = r2;
+        low1 = 0;
+      } else {
+        high0 = (r1 >>> shift) | (r2 << (Long.SIZE - shift));
+        high1 = (r2 >>> shift) | (r3 << (Long.SIZE - shift));
+        low1 = r1 & ((1L << shift) - 1);
+      }
+      low0 = r0;
+    } else {
+      // The product is less than 2^(2 * bitLength) so r2 and r3 are zero
+      high0 = (r0 >>> bitLength) | (r1 << (Long.SIZE - bitLength));
+      high1 = r1 >>> bitLength;
+      low0 = r0 & ((1L << bitLength) - 1);
+      low1 = 0;
+    }
+    // t2:t1:t0 = constant * high1:high0 + low1:low0
+    long p0 = constant * high0;
+    long p1 = multiplyHigh(constant, high0);
+    long q0 = constant * high1;
+    long q1 = multiplyHigh(constant, high1);
+    long t0 = low0 + p0;
+    long carry = carry(t0, p0);
+    long middle = p1 + q0;
+    long t2 = q1 + carry(middle, q0);
+    long t1 = low1 + middle;
+    t2 += carry(t1, middle);
+    t1 += carry;
+    t2 += carry(t1, carry);
+    // Fold the at most 32 bits above the bit length
+    long fold;
+    if (bitLength >= Long.SIZE) {
+      int shift = bitLength - Long.SIZE;
+      if (shift == 0) {
+        fold = t1;
+        t1 = 0;
+      } else {
+        fold = (t1 >>> shift) | (t2 << (Long.SIZE - shift));
+        t1 &= (1L << shift) - 1;
+      }
+    } else {
+      fold = (t0 >>> bitLength) | (t1 << (Long.SIZE - bitLength));
+      t0 &= (1L << bitLength) - 1;
+      t1 = 0;
+    }
+    long product = constant * fold;
+    long resultLow = t0 + product;
+    return reduce(t1 + carry(resultLow, product), resultLow, modulus);
+  }
+
+  /**
+   * Reduces a value of at most <i>k + 64</i> bits for bit length <i>k</i>.
+   */
+  private static FieldElement reduce(long high, long low, LongMersennePrimeModulus modulus) {
+    int bitLength = modulus.getBitLength();
+    long constant = modulus.getConstant();
+    while (true) {
+      long fold;
+      if (bitLength >= Long.SIZE) {
+        int shift = bitLength - Long.SIZE;
+        fold = high >>> shift;
+        high = shift == 0 ? 0 : high & ((1L << shift) - 1);
+      } else {
+        fold = (low >>> bitLength) | (high << (Long.SIZE - bitLength));
+        low &= (1L << bitLength) - 1;
+        high = 0;
+      }
+      if (fold == 0) {
+        break;
+      }
+      long product = constant * fold;
+      long resultLow = low + product;
+      high += multiplyHigh(constant, fold) + carry(resultLow, product);
+      low = resultLow;
+    }
+    return subtractPrimeIfNeeded(high, low, modulus);
+  }
+
+  /**
+   * Creates an element from a value less than twice the prime.
+   */
+  private static FieldElement subtractPrimeIfNeeded(long high, long low,
+      LongMersennePrimeModulus modulus) {
+    long primeHigh = modulus.getPrimeHigh();
+    long primeLow = modulus.getPrimeLow();
+    int comparison = Long.compareUnsigned(high, primeHigh);
+    if (comparison > 0 || (comparison == 0 && Long.compareUnsigned(low, primeLow) >= 0)) {
+      long resultLow = low - primeLow;
+      high = high - primeHigh - carry(low, resultLow);
+      low = resultLow;
+    }
+    return new LongMersennePrimeFieldElement(high, low, modulus);
+  }
+
+  @Override
+  public String toString() {
+    return "LongMersennePrimeFieldElement{"
+        + "value=" + toBigInteger()
+        + ", modulus =" + modulus
+        + '}';
+  }
+}
@@ -0,0 +1,77 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+
+/**
+ * A psuedo Mersenne prime modulus of at most 127 bits, represented as two <code>long</code> limbs.
+ * The constants needed for reducing modulo the prime using its special form are precomputed.
+ */
+final class LongMersennePrimeModulus implements Serializable {
+
+  static final int MIN_BIT_LENGTH = 61;
+  static final int MAX_BIT_LENGTH = 127;
+  private static final long serialVersionUID = -3425326125395215254L;
+
+  private final int bitLength;
+  private final long constant;
+  private final long primeHigh;
+  private final long primeLow;
+  private final BigInteger prime;
+
+  /**
+   * Creates a modulus assuming a psuedo Mersenne prime in the form:
+   * <code>2<sup>bitLength</sup>-constant</code>. Users must choose constant adequately for
+   * the modulus to actually be a prime.
+   *
+   * @param bitLength the bitlength of the psuedo Mersenne, between {@value #MIN_BIT_LENGTH} and
+   *     {@value #MAX_BIT_LENGTH}
+   * @param constant the (small) constant
+   */
+  LongMersennePrimeModulus(int bitLength, int constant) {
+    if (bitLength < MIN_BIT_LENGTH || bitLength > MAX_BIT_LENGTH) {
+      throw new IllegalArgumentException("Bit length must be between " + MIN_BIT_LENGTH + " and "
+          + MAX_BIT_LENGTH + ", but was " + bitLength);
+    }
+    if (constant <= 0) {
+      throw new IllegalArgumentException("Negative constant");
+    }
+    this.bitLength = bitLength;
+    this.constant = constant;
+    this.prime = BigInteger.ONE.shiftLeft(bitLength).subtract(BigInteger.valueOf(constant));
+    this.primeHigh = prime.shiftRight(Long.SIZE).longValue();
+    this.primeLow = prime.longValue();
+  }
+
+  /**
+   * Gets the prime used for modulus as a BigInteger.
+   *
+   * @return the BigInteger equivalent
+   */
+  BigInteger getPrime() {
+    return prime;
+  }
+
+  int getBitLength() {
+    return bitLength;
+  }
+
+  long getConstant() {
+    return constant;
+  }
+
+  long getPrimeHigh() {
+    return primeHigh;
+  }
+
+  long getPrimeLow() {
+    return primeLow;
+  }
+
+  @Override
+  public String toString() {
+    return "LongMersennePrimeModulus{"
+        + "value=" + prime
+        + '}';
+  }
+}
@@ -0,0 +1,143 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A finite field for an arbitrary odd modulus, where elements are kept in Montgomery
+ * representation using a fixed number of <code>long</code> limbs.
+ *
+ * <p>
+ * Multiplication is done using Montgomery multiplication, i.e., without any division, and values
+ * are only converted to and from {@link BigInteger} when creating elements, extracting their value
+ * or serializing them. The serialized format is the same as for the {@link
+ * BigIntegerFieldDefinition}, hence this can be used in place of it for the same modulus.
+ * </p>
+ */
+public final class MontgomeryFieldDefinition implements FieldDefinition {
+
+  private final MontgomeryModulus modulus;
+  private final BigInteger modulusHalf;
+  private final int modulusBitLength;
+  private final int modulusLength;
+
+  /**
+   * Construct a new field definition for a specified modulus.
+   *
+   * @param modulus the modulus, which must be odd
+   */
+  public MontgomeryFieldDefinition(BigInteger modulus) {
+    this.modulus = new MontgomeryModulus(modulus);
+    this.modulusHalf = modulus.shiftRight(1);
+    this.modulusBitLength = modulus.bitLength();
+    this.modulusLength = 1 + ((modulusBitLength - 1) / 8);
+  }
+
+  /**
+   * Construct a new field definition for a specified modulus.
+   *
+   * @param modulus the modulus as a string.
+   */
+  public MontgomeryFieldDefinition(String modulus) {
+    this(new BigInteger(modulus));
+  }
+
+  @Override
+  public FieldElement createElement(long value) {
+    return MontgomeryFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public FieldElement createElement(String value) {
+    return MontgomeryFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public FieldElement createElement(BigInteger value) {
+    return MontgomeryFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public BigInteger getModulus() {
+    return modulus.getPrime();
+  }
+
+  @Override
+  public int getBitLength() {
+    return modulusBitLength;
+  }
+
+  @Override
+  public StrictBitVector convertToBitVector(FieldElement fieldElement) {
+    return new StrictBitVector(serialize(fieldElement));
+  }
+
+  @Override
+  public BigInteger convertToUnsigned(FieldElement value) {
+    return MontgomeryFieldElement.extractValue(value);
+  }
+
+  @Override
+  public BigInteger convertToSigned(BigInteger asUnsigned) {
+    return FieldUtils.convertRepresentation(asUnsigned, getModulus(), modulusHalf);
+  }
+
+  @Override
+  public byte[] serialize(FieldElement fieldElement) {
+    byte[] bytes = new byte[modulusLength];
+    serialize(fieldElement, bytes, 0);
+    return bytes;
+  }
+
+  @Override
+  public byte[] serialize(List<FieldElement> fieldElements) {
+    byte[] bytes = new byte[modulusLength * fieldElements.size()];
+    serialize(fieldElements, bytes, 0);
+    return bytes;
+  }
+
+  @Override
+  public FieldElement deserialize(byte[] bytes) {
+    return deserialize(bytes, 0);
+  }
+
+  @Override
+  public List<FieldElement> deserializeList(byte[] bytes) {
+    return deserializeList(bytes, 0, bytes.length / modulusLength);
+  }
+
+  @Override
+  public int getElementByteLength() {
+    return modulusLength;
+  }
+
+  @Override
+  public void serialize(FieldElement fieldElement, byte[] bytes, int offset) {
+    ((MontgomeryFieldElement) fieldElement).toBytes(bytes, offset, modulusLength);
+  }
+
+  @Override
+  public void serialize(List<FieldElement> fieldElements, byte[] bytes, int offset) {
+    for (FieldElement fieldElement : fieldElements) {
+      ((MontgomeryFieldElement) fieldElement).toBytes(bytes, offset, modulusLength);
+      offset += modulusLength;
+    }
+  }
+
+  @Override
+  public FieldElement deserialize(byte[] bytes, int offset) {
+    return MontgomeryFieldElement.create(bytes, offset, modulusLength, modulus);
+  }
+
+  @Override
+  public List<FieldElement> deserializeList(byte[] bytes, int offset, int count) {
+    List<FieldElement> elements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      elements.add(
+          MontgomeryFieldElement.create(bytes, offset + i * modulusLength, modulusLength, modulus));
+    }
+    return elements;
+  }
+}
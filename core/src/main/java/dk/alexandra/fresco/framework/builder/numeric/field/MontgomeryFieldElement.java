@@ -0,0 +1,95 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import dk.alexandra.fresco.framework.util.MathUtils;
+import java.math.BigInteger;
+
+/**
+ * An element of a field defined by a {@link MontgomeryModulus}. The value is kept in Montgomery
+ * representation, and is only converted to a {@link BigInteger} when extracted.
+ */
+final class MontgomeryFieldElement implements FieldElement {
+
+  private static final long serialVersionUID = 6472853910238476152L;
+
+  private final long[] value;
+  private final MontgomeryModulus modulus;
+
+  private MontgomeryFieldElement(long[] value, MontgomeryModulus modulus) {
+    this.value = value;
+    this.modulus = modulus;
+  }
+
+  static FieldElement create(BigInteger value, MontgomeryModulus modulus) {
+    return new MontgomeryFieldElement(modulus.toMontgomery(value.mod(modulus.getPrime())),
+        modulus);
+  }
+
+  static FieldElement create(long value, MontgomeryModulus modulus) {
+    if (value >= 0) {
+      return new MontgomeryFieldElement(modulus.toMontgomery(value), modulus);
+    } else {
+      // Note that the negation of Long.MIN_VALUE is 2^63 when read as unsigned
+      return new MontgomeryFieldElement(modulus.negate(modulus.toMontgomery(-value)), modulus);
+    }
+  }
+
+  static FieldElement create(String string, MontgomeryModulus modulus) {
+    return create(new BigInteger(string), modulus);
+  }
+
+  static FieldElement create(byte[] bytes, int offset, int length, MontgomeryModulus modulus) {
+    return new MontgomeryFieldElement(modulus.read(bytes, offset, length), modulus);
+  }
+
+  void toBytes(byte[] bytes, int offset, int length) {
+    modulus.write(value, bytes, offset, length);
+  }
+
+  @Override
+  public FieldElement add(FieldElement operand) {
+    return new MontgomeryFieldElement(modulus.add(value, extractLimbs(operand)), modulus);
+  }
+
+  @Override
+  public FieldElement subtract(FieldElement operand) {
+    return new MontgomeryFieldElement(modulus.subtract(value, extractLimbs(operand)), modulus);
+  }
+
+  @Override
+  public FieldElement negate() {
+    return new MontgomeryFieldElement(modulus.negate(value), modulus);
+  }
+
+  @Override
+  public FieldElement multiply(FieldElement operand) {
+    return new MontgomeryFieldElement(modulus.multiply(value, extractLimbs(operand)), modulus);
+  }
+
+  @Override
+  public FieldElement sqrt() {
+    return create(MathUtils.modularSqrt(modulus.fromMontgomery(value), modulus.getPrime()),
+        modulus);
+  }
+
+  @Override
+  public FieldElement modInverse() {
+    return create(modulus.fromMontgomery(value).modInverse(modulus.getPrime()), modulus);
+  }
+
+  static BigInteger extractValue(FieldElement element) {
+    MontgomeryFieldElement montgomeryElement = (MontgomeryFieldElement) element;
+    return montgomeryElement.modulus.fromMontgomery(montgomeryElement.value);
+  }
+
+  private static long[] extractLimbs(FieldElement element) {
+    return ((MontgomeryFieldElement) element).value;
+  }
+
+  @Override
+  public String toString() {
+    return "MontgomeryFieldElement{"
+        + "value=" + modulus.fromMontgomery(value)
+        + ", modulus =" + modulus
+        + '}';
+  }
+}
@@ -0,0 +1,269 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import static dk.alexandra.fresco.framework.builder.numeric.field.LimbArithmetic.carry;
+import static dk.alexandra.fresco.framework.builder.numeric.field.LimbArithmetic.multiplyHigh;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * An odd modulus supporting arithmetic on values in Montgomery representation.
+ *
+ * <p>
+ * Values are stored as little endian arrays of <i>n</i> unsigned <code>long</code> limbs, where
+ * <i>n</i> is the number of limbs needed for the modulus <i>p</i>. A value <i>x</i> is represented
+ * by <i>x R mod p</i> for <i>R = 2<sup>64 n</sup></i>, which allows multiplication modulo <i>p</i>
+ * without any division. All methods return new arrays and leave their arguments unchanged.
+ * </p>
+ */
+final class MontgomeryModulus implements Serializable {
+
+  private static final long serialVersionUID = 3546273819250495367L;
+
+  private final BigInteger prime;
+  private final int limbs;
+  private final long[] primeLimbs;
+  private final long inverse;
+  private final long[] rSquared;
+  private final long[] one;
+
+  /**
+   * Creates a new modulus.
+   *
+   * @param prime the modulus, which must be odd and larger than one
+   */
+  MontgomeryModulus(BigInteger prime) {
+    if (prime.compareTo(BigInteger.ONE) <= 0 || !prime.testBit(0)) {
+      throw new IllegalArgumentException("Modulus must be odd and larger than one, but was "
+          + prime);
+    }
+    this.prime = prime;
+    this.limbs = (prime.bitLength() + Long.SIZE - 1) / Long.SIZE;
+    this.primeLimbs = toLimbs(prime);
+    long primeInverse = primeLimbs[0];
+    // Newton iteration doubling the number of correct low bits of the inverse in each step
+    for (int i = 0; i < 5; i++) {
+      primeInverse *= 2 - primeLimbs[0] * primeInverse;
+    }
+    this.inverse = -primeInverse;
+    this.rSquared = toLimbs(BigInteger.ONE.shiftLeft(2 * Long.SIZE * limbs).mod(prime));
+    this.one = new long[limbs];
+    this.one[0] = 1;
+  }
+
+  BigInteger getPrime() {
+    return prime;
+  }
+
+  /**
+   * Converts a value in the range <i>0, ..., p - 1</i> to Montgomery representation.
+   */
+  long[] toMontgomery(BigInteger value) {
+    return multiply(toLimbs(value), rSquared);
+  }
+
+  /**
+   * Converts a non-negative value to Montgomery representation.
+   */
+  long[] toMontgomery(long value) {
+    long[] result = new long[limbs];
+    result[0] = value;
+    return multiply(result, rSquared);
+  }
+
+  /**
+   * Converts a value in Montgomery representation to a big integer in the range <i>0, ..., p -
+   * 1</i>.
+   */
+  BigInteger fromMontgomery(long[] value) {
+    long[] plain = multiply(value, one);
+    byte[] bytes = new byte[limbs * Long.BYTES];
+    toBytes(plain, bytes, 0, bytes.length);
+    return new BigInteger(1, bytes);
+  }
+
+  /**
+   * Writes a value in Montgomery representation to a big endian byte representation of the given
+   * length, which must be large enough to hold the modulus.
+   */
+  void write(long[] value, byte[] bytes, int offset, int length) {
+    toBytes(multiply(value, one), bytes, offset, length);
+  }
+
+  /**
+   * Reads a value from a big endian byte representation of the given length and converts it to
+   * Montgomery representation. The value is reduced if it is larger than the modulus.
+   */
+  long[] read(byte[] bytes, int offset, int length) {
+    long[] value = new long[limbs];
+    int end = offset + length;
+    for (int i = 0; i < length; i++) {
+      int limb = i / Long.BYTES;
+      if (limb == limbs) {
+        // The value is larger than R, which only happens for malformed input
+        return toMontgomery(new BigInteger(1, Arrays.copyOfRange(bytes, offset, end)).mod(prime));
+      }
+      value[limb] |= (bytes[end - 1 - i] & 0xFFL) << (Byte.SIZE * (i % Long.BYTES));
+    }
+    // A value less than R multiplied by R^2 mod p is reduced by the Montgomery multiplication
+    return multiply(value, rSquared);
+  }
+
+  long[] add(long[] a, long[] b) {
+    long[] result = new long[limbs];
+    long carry = 0;
+    for (int i = 0; i < limbs; i++) {
+      long sum = a[i] + carry;
+      carry = carry(sum, carry);
+      sum += b[i];
+      carry += carry(sum, b[i]);
+      result[i] = sum;
+    }
+    if (carry != 0 || compareToPrime(result) >= 0) {
+      subtractPrime(result);
+    }
+    return result;
+  }
+
+  long[] subtract(long[] a, long[] b) {
+    long[] result = new long[limbs];
+    long borrow = 0;
+    for (int i = 0; i < limbs; i++) {
+      long difference = a[i] - b[i];
+      long nextBorrow = carry(a[i], difference);
+      result[i] = difference - borrow;
+      borrow = nextBorrow + carry(difference, result[i]);
+    }
+    if (borrow != 0) {
+      addPrime(result);
+    }
+    return result;
+  }
+
+  long[] negate(long[] a) {
+    long[] result = new long[limbs];
+    if (isZero(a)) {
+      return result;
+    }
+    long borrow = 0;
+    for (int i = 0; i < limbs; i++) {
+      long difference = primeLimbs[i] - a[i];
+      long nextBorrow = carry(primeLimbs[i], difference);
+      result[i] = difference - borrow;
+      borrow = nextBorrow + carry(difference, result[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Computes <i>a b R<sup>-1</sup> mod p</i> using the coarsely integrated operand scanning
+   * method. Requires <i>a &lt; R</i> and <i>b &lt; p</i>.
+   */
+  long[] multiply(long[] a, long[] b) {
+    long[] result = new long[limbs];
+    long top = 0;
+    for (int i = 0; i < limbs; i++) {
+      // result += a * b[i]
+      long factor = b[i];
+      long carry = 0;
+      for (int j = 0; j < limbs; j++) {
+        long product = a[j] * factor;
+        long high = multiplyHigh(a[j], factor);
+        long sum = result[j] + product;
+        high += carry(sum, product);
+        sum += carry;
+        high += carry(sum, carry);
+        result[j] = sum;
+        carry = high;
+      }
+      long sum = top + carry;
+      long overflow = carry(sum, carry);
+      top = sum;
+      // result = (result + m * p) / 2^64, where m is chosen such that the lowest limb is zero
+      long m = result[0] * inverse;
+      long product = m * primeLimbs[0];
+      carry = multiplyHigh(m, primeLimbs[0]) + carry(result[0] + product, product);
+      for (int j = 1; j < limbs; j++) {
+        product = m * primeLimbs[j];
+        long high = multiplyHigh(m, primeLimbs[j]);
+        sum = result[j] + product;
+        high += carry(sum, product);
+        sum += carry;
+        high += carry(sum, carry);
+        result[j - 1] = sum;
+        carry = high;
+      }
+      sum = top + carry;
+      result[limbs - 1] = sum;
+      top = overflow + carry(sum, carry);
+    }
+    if (top != 0 || compareToPrime(result) >= 0) {
+      subtractPrime(result);
+    }
+    return result;
+  }
+
+  boolean isZero(long[] a) {
+    for (long limb : a) {
+      if (limb != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int compareToPrime(long[] a) {
+    for (int i = limbs - 1; i >= 0; i--) {
+      int comparison = Long.compareUnsigned(a[i], primeLimbs[i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+
+  private void subtractPrime(long[] a) {
+    long borrow = 0;
+    for (int i = 0; i < limbs; i++) {
+      long difference = a[i] - primeLimbs[i];
+      long nextBorrow = carry(a[i], difference);
+      a[i] = difference - borrow;
+      borrow = nextBorrow + carry(difference, a[i]);
+    }
+  }
+
+  private void addPrime(long[] a) {
+    long carry = 0;
+    for (int i = 0; i < limbs; i++) {
+      long sum = a[i] + carry;
+      carry = carry(sum, carry);
+      sum += primeLimbs[i];
+      carry += carry(sum, primeLimbs[i]);
+      a[i] = sum;
+    }
+  }
+
+  private long[] toLimbs(BigInteger value) {
+    long[] result = new long[limbs];
+    for (int i = 0; i < limbs; i++) {
+      result[i] = value.shiftRight(Long.SIZE * i).longValue();
+    }
+    return result;
+  }
+
+  private static void toBytes(long[] value, byte[] bytes, int offset, int length) {
+    for (int i = 0; i < length; i++) {
+      int limb = i / Long.BYTES;
+      bytes[offset + length - 1 - i] =
+          limb < value.length ? (byte) (value[limb] >>> (Byte.SIZE * (i % Long.BYTES))) : 0;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "MontgomeryModulus{"
+        + "value=" + prime
+        + '}';
+  }
+}
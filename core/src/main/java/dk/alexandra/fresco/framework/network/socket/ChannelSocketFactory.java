@@ -0,0 +1,99 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import javax.net.ServerSocketFactory;
+import javax.net.SocketFactory;
+
+/**
+ * Socket factories creating sockets backed by {@link java.nio.channels.SocketChannel}s.
+ *
+ * <p>
+ * This allows the {@link Connector} to connect a network to be used with the {@link NioNetwork}
+ * using the exact same handshake as for the {@link SocketNetwork}. The sockets are created in
+ * blocking mode, and are only switched to non-blocking mode by the network.
+ * </p>
+ */
+final class ChannelSocketFactory extends SocketFactory {
+
+  @Override
+  public Socket createSocket() throws IOException {
+    return SocketChannel.open().socket();
+  }
+
+  @Override
+  public Socket createSocket(String host, int port) throws IOException {
+    return SocketChannel.open(new InetSocketAddress(host, port)).socket();
+  }
+
+  @Override
+  public Socket createSocket(InetAddress host, int port) throws IOException {
+    return SocketChannel.open(new InetSocketAddress(host, port)).socket();
+  }
+
+  @Override
+  public Socket createSocket(String host, int port, InetAddress localHost, int localPort)
+      throws IOException {
+    return createSocket(new InetSocketAddress(host, port), localHost, localPort);
+  }
+
+  @Override
+  public Socket createSocket(InetAddress host, int port, InetAddress localHost, int localPort)
+      throws IOException {
+    return createSocket(new InetSocketAddress(host, port), localHost, localPort);
+  }
+
+  private Socket createSocket(InetSocketAddress remote, InetAddress localHost, int localPort)
+      throws IOException {
+    SocketChannel channel = SocketChannel.open();
+    try {
+      channel.bind(new InetSocketAddress(localHost, localPort));
+      channel.connect(remote);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return channel.socket();
+  }
+
+  /**
+   * Server socket factory creating server sockets backed by
+   * {@link java.nio.channels.ServerSocketChannel}s. Sockets accepted by these server sockets are
+   * backed by {@link SocketChannel}s.
+   */
+  static final class Server extends ServerSocketFactory {
+
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+      return ServerSocketChannel.open().socket();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+      return createServerSocket(port, 0, null);
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+      return createServerSocket(port, backlog, null);
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress bindAddr)
+        throws IOException {
+      ServerSocketChannel channel = ServerSocketChannel.open();
+      try {
+        channel.bind(new InetSocketAddress(bindAddr, port), backlog);
+      } catch (IOException e) {
+        channel.close();
+        throw e;
+      }
+      return channel.socket();
+    }
+  }
+}
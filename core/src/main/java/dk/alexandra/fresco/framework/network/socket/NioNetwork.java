@@ -0,0 +1,512 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CloseableNetwork} implementation based on Java's nio API.
+ *
+ * <p>
+ * As for the {@link SocketNetwork} the sockets are created and connected by the client of the
+ * class, but they must be backed by a {@link SocketChannel}. By default the network is connected
+ * by a {@link Connector} using channel backed sockets, i.e., using the same handshake as the
+ * {@link SocketNetwork}.
+ * </p>
+ * <p>
+ * All channels are handled by a single I/O thread using a {@link Selector}, regardless of the
+ * number of parties. Sending is non-blocking: messages are queued and written by the I/O thread,
+ * which packs the length prefixes and small messages into a direct buffer and writes these together
+ * with larger messages using gathering writes. Receiving blocks until a message has been read by
+ * the I/O thread. The message format is the same as for the {@link SocketNetwork}, i.e., each
+ * message is prefixed by an integer indicating the byte length of the message, and a negative
+ * length signals that the sending party has stopped.
+ * </p>
+ */
+public class NioNetwork implements CloseableNetwork {
+
+  static final int BUFFER_SIZE = 1 << 16;
+  private static final int MAX_WRAPPED_BYTES = 1 << 20;
+  private static final int MAX_GATHER = 64;
+  private static final int MAX_READS = 16;
+  private static final byte[] STOPPED = new byte[0];
+  private static final Logger logger = LoggerFactory.getLogger(NioNetwork.class);
+  private final BlockingQueue<byte[]> selfQueue;
+  private final NetworkConfiguration conf;
+  private final Map<Integer, Peer> peers;
+  private final Queue<Peer> pendingWrites;
+  private final Selector selector;
+  private final Thread thread;
+  private volatile boolean alive;
+  private volatile boolean stopping;
+
+  /**
+   * Creates a network with the given a configuration and a mapping from party ids to sockets.
+   *
+   * <p>
+   * The mapping of party ids to sockets must be consistent with the network configuration. I.e.,
+   * there should be exactly one mapping for each opposing party (but not for the local party).
+   * Also, the sockets must be connected and open, and must be backed by a {@link SocketChannel}.
+   * The channels are put in non-blocking mode, so the sockets should not be used by the client
+   * afterwards.
+   * </p>
+   *
+   * @param conf the network configuration
+   * @param socketMap a mapping from party ids to the socket to be used for communicating with
+   *     the given party.
+   * @throws IllegalArgumentException if {@code socketMap} and {@code conf} are inconsistent or
+   *     the sockets are not open, connected and backed by a channel.
+   */
+  public NioNetwork(NetworkConfiguration conf, Map<Integer, Socket> socketMap) {
+    Objects.requireNonNull(conf);
+    Objects.requireNonNull(socketMap);
+    for (int i = 1; i < conf.noOfParties() + 1; i++) {
+      if (i == conf.getMyId()) {
+        continue;
+      }
+      if (!socketMap.containsKey(i)) {
+        throw new IllegalArgumentException("Missing socket for P" + i);
+      }
+      Socket s = socketMap.get(i);
+      if (s.isClosed()) {
+        throw new IllegalArgumentException("Closed socket for P" + i);
+      }
+      if (!s.isConnected()) {
+        throw new IllegalArgumentException("Unconnected socket for P" + i);
+      }
+      if (s.getChannel() == null) {
+        throw new IllegalArgumentException("Socket for P" + i + " is not backed by a channel");
+      }
+      ExceptionConverter.safe(() -> {
+        s.setTcpNoDelay(true);
+        return null;
+      }, "Could not set delayless TCP connection");
+    }
+    this.conf = conf;
+    this.selfQueue = new LinkedBlockingQueue<>();
+    this.peers = new HashMap<>(conf.noOfParties() - 1);
+    this.pendingWrites = new ConcurrentLinkedQueue<>();
+    this.alive = true;
+    if (conf.noOfParties() > 1) {
+      this.selector = ExceptionConverter.safe(Selector::open, "Unable to open selector");
+      startCommunication(socketMap);
+      this.thread = new Thread(this::run);
+      this.thread.setDaemon(true);
+      this.thread.setName("NioNetwork-P" + conf.getMyId());
+      this.thread.start();
+    } else {
+      this.selector = null;
+      this.thread = null;
+    }
+  }
+
+  /**
+   * Default constructor using one minute timeout.
+   *
+   * @param conf the configuration to load the network from.
+   */
+  public NioNetwork(NetworkConfiguration conf) {
+    this(conf, new Connector(conf, Connector.DEFAULT_CONNECTION_TIMEOUT, new ChannelSocketFactory(),
+        new ChannelSocketFactory.Server()).getSocketMap());
+  }
+
+  /**
+   * Registers the channels of the given sockets with the selector.
+   *
+   * @param sockets a map from party ids to the associated communication channels
+   */
+  private void startCommunication(Map<Integer, Socket> sockets) {
+    for (Entry<Integer, Socket> entry : sockets.entrySet()) {
+      final int id = entry.getKey();
+      inRange(id);
+      SocketChannel channel = entry.getValue().getChannel();
+      Peer peer = new Peer(channel);
+      peer.key = ExceptionConverter.safe(() -> {
+        channel.configureBlocking(false);
+        return channel.register(selector, SelectionKey.OP_READ, peer);
+      }, "Unable to register channel for P" + id);
+      this.peers.put(id, peer);
+    }
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    if (partyId == conf.getMyId()) {
+      this.selfQueue.add(data);
+    } else {
+      inRange(partyId);
+      Peer peer = peers.get(partyId);
+      if (!alive || peer.failed) {
+        throw new RuntimeException(
+            "P" + conf.getMyId() + ": Unable to send to P" + partyId + ". Channel not running");
+      }
+      peer.queueMessage(data);
+    }
+  }
+
+  @Override
+  public byte[] receive(final int partyId) {
+    if (partyId == conf.getMyId()) {
+      return ExceptionConverter.safe(selfQueue::take, "Receiving from self failed");
+    }
+    inRange(partyId);
+    BlockingQueue<byte[]> incoming = peers.get(partyId).incoming;
+    byte[] data = ExceptionConverter.safe(incoming::take, "Receive interrupted");
+    if (data == STOPPED) {
+      // Leave the marker so that later calls fail as well
+      incoming.add(STOPPED);
+      throw new RuntimeException("P" + conf.getMyId() + ": Unable to recieve from P" + partyId
+          + ". Channel not running");
+    }
+    return data;
+  }
+
+  /**
+   * Check if a party ID is in the range of known parties.
+   *
+   * @param partyId an ID for a party
+   */
+  private void inRange(final int partyId) {
+    if (!(0 < partyId && partyId < getNoOfParties() + 1)) {
+      throw new IllegalArgumentException(
+          "Party id " + partyId + " not in range 1 ... " + getNoOfParties());
+    }
+  }
+
+  /**
+   * The loop run by the I/O thread. Writes queued messages and reads incoming messages until the
+   * network is closed and all queued messages have been written.
+   */
+  private void run() {
+    try {
+      while (true) {
+        // Read the flag before writing, so that all messages queued before closing are written
+        boolean flush = stopping;
+        Peer pending;
+        while ((pending = pendingWrites.poll()) != null) {
+          write(pending);
+        }
+        if (flush && isFlushed()) {
+          break;
+        }
+        selector.select();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          Peer peer = (Peer) key.attachment();
+          try {
+            if (key.isValid() && key.isReadable()) {
+              peer.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+              peer.write();
+            }
+          } catch (IOException e) {
+            peer.fail(e);
+          }
+        }
+      }
+    } catch (IOException e) {
+      logger.error("P" + conf.getMyId() + ": Network failed unexpectedly", e);
+    } finally {
+      closeCommunication();
+    }
+  }
+
+  private void write(Peer peer) {
+    try {
+      peer.write();
+    } catch (IOException e) {
+      peer.fail(e);
+    }
+  }
+
+  private boolean isFlushed() {
+    for (Peer peer : peers.values()) {
+      if (!peer.failed && peer.writeScheduled.get()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Closes the channels and the selector, and stops any receivers waiting for messages. Called by
+   * the I/O thread when it stops.
+   */
+  private void closeCommunication() {
+    for (Peer peer : peers.values()) {
+      peer.failed = true;
+      peer.incoming.add(STOPPED);
+      try {
+        peer.channel.close();
+      } catch (IOException e) {
+        logger.warn("P" + conf.getMyId() + ": Unable to properly close channel", e);
+      }
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      logger.warn("P" + conf.getMyId() + ": Unable to properly close selector", e);
+    }
+  }
+
+  /**
+   * Closes the network down and releases held resources. This will block until all queued messages
+   * has been written.
+   */
+  @Override
+  public void close() {
+    if (alive) {
+      alive = false;
+      if (thread != null) {
+        for (Peer peer : peers.values()) {
+          peer.queueMessage(STOPPED);
+        }
+        stopping = true;
+        selector.wakeup();
+        ExceptionConverter.safe(() -> {
+          thread.join();
+          return null;
+        }, "Interrupted while closing the network");
+      }
+      logger.info("P{}: Network closed", conf.getMyId());
+    } else {
+      logger.info("P{}: Network already closed", conf.getMyId());
+    }
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return this.conf.noOfParties();
+  }
+
+  /**
+   * The state of the connection to a single opposing party. Apart from queuing messages, all
+   * methods must be called by the I/O thread.
+   */
+  private final class Peer {
+
+    private final SocketChannel channel;
+    private final Queue<byte[]> outgoing;
+    private final BlockingQueue<byte[]> incoming;
+    private final AtomicBoolean writeScheduled;
+    private final ByteBuffer readBuffer;
+    private final ByteBuffer writeBuffer;
+    private final ByteBuffer[] gather;
+    private SelectionKey key;
+    private volatile boolean failed;
+    private boolean reading;
+    private int gatherOffset;
+    private int gatherLength;
+    private byte[] large;
+    private int largeOffset;
+    private byte[] message;
+    private int messageOffset;
+
+    Peer(SocketChannel channel) {
+      this.channel = channel;
+      this.outgoing = new ConcurrentLinkedQueue<>();
+      this.incoming = new LinkedBlockingQueue<>();
+      this.writeScheduled = new AtomicBoolean(false);
+      this.readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      this.writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      this.gather = new ByteBuffer[MAX_GATHER];
+      this.reading = true;
+    }
+
+    /**
+     * Queues a message and wakes up the I/O thread, unless it has already been asked to write to
+     * this party.
+     */
+    void queueMessage(byte[] data) {
+      outgoing.add(data);
+      if (writeScheduled.compareAndSet(false, true)) {
+        pendingWrites.add(this);
+        selector.wakeup();
+      }
+    }
+
+    /**
+     * Writes queued messages until there are no more messages or the channel cannot take more
+     * data, in which case the I/O thread will continue once the channel is writable.
+     */
+    void write() throws IOException {
+      if (failed) {
+        return;
+      }
+      while (true) {
+        if (gatherOffset == gatherLength && !fill()) {
+          writeScheduled.set(false);
+          // A message may have been queued after the queue was found empty
+          if (outgoing.isEmpty() || !writeScheduled.compareAndSet(false, true)) {
+            updateInterest(false);
+            return;
+          }
+          continue;
+        }
+        channel.write(gather, gatherOffset, gatherLength - gatherOffset);
+        while (gatherOffset < gatherLength && !gather[gatherOffset].hasRemaining()) {
+          gather[gatherOffset++] = null;
+        }
+        if (gatherOffset < gatherLength) {
+          updateInterest(true);
+          return;
+        }
+      }
+    }
+
+    /**
+     * Fills the gather array with the next queued messages. Length prefixes and messages fitting
+     * in the direct write buffer are copied to it, while larger messages are wrapped in chunks.
+     *
+     * @return true if there is anything to write
+     */
+    private boolean fill() {
+      writeBuffer.clear();
+      gatherOffset = 0;
+      gatherLength = 0;
+      int start = 0;
+      int wrapped = 0;
+      while (gatherLength + 2 < gather.length && wrapped < MAX_WRAPPED_BYTES) {
+        if (large == null) {
+          if (writeBuffer.remaining() < Integer.BYTES) {
+            break;
+          }
+          byte[] data = outgoing.poll();
+          if (data == null) {
+            break;
+          }
+          if (data == STOPPED) {
+            writeBuffer.putInt(-1);
+            continue;
+          }
+          writeBuffer.putInt(data.length);
+          if (data.length <= writeBuffer.remaining()) {
+            writeBuffer.put(data);
+            continue;
+          }
+          large = data;
+          largeOffset = 0;
+        }
+        start = addSlice(start);
+        int length = Math.min(large.length - largeOffset, MAX_WRAPPED_BYTES - wrapped);
+        gather[gatherLength++] = ByteBuffer.wrap(large, largeOffset, length);
+        wrapped += length;
+        largeOffset += length;
+        if (largeOffset == large.length) {
+          large = null;
+        }
+      }
+      addSlice(start);
+      return gatherLength > 0;
+    }
+
+    /**
+     * Adds the part of the write buffer filled since the given position to the gather array.
+     */
+    private int addSlice(int start) {
+      int end = writeBuffer.position();
+      if (end > start) {
+        ByteBuffer slice = writeBuffer.duplicate();
+        slice.limit(end);
+        slice.position(start);
+        gather[gatherLength++] = slice;
+      }
+      return end;
+    }
+
+    /**
+     * Reads available data from the channel and queues the completed messages.
+     */
+    void read() throws IOException {
+      for (int i = 0; i < MAX_READS && reading; i++) {
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+          stopReading();
+        } else if (read == 0) {
+          return;
+        }
+        readBuffer.flip();
+        parse();
+        readBuffer.compact();
+      }
+    }
+
+    private void parse() {
+      while (reading) {
+        if (message == null) {
+          if (readBuffer.remaining() < Integer.BYTES) {
+            return;
+          }
+          int length = readBuffer.getInt();
+          if (length < 0) {
+            stopReading();
+            return;
+          }
+          message = new byte[length];
+          messageOffset = 0;
+        }
+        int length = Math.min(readBuffer.remaining(), message.length - messageOffset);
+        readBuffer.get(message, messageOffset, length);
+        messageOffset += length;
+        if (messageOffset < message.length) {
+          return;
+        }
+        incoming.add(message);
+        message = null;
+      }
+    }
+
+    private void stopReading() {
+      reading = false;
+      incoming.add(STOPPED);
+      updateInterest(gatherOffset < gatherLength);
+    }
+
+    private void updateInterest(boolean writing) {
+      if (key.isValid()) {
+        key.interestOps((reading ? SelectionKey.OP_READ : 0)
+            | (writing ? SelectionKey.OP_WRITE : 0));
+      }
+    }
+
+    /**
+     * Stops all communication with the party after an I/O error.
+     */
+    void fail(IOException e) {
+      if (!stopping) {
+        logger.error("P" + conf.getMyId() + ": Communication failed unexpectedly", e);
+      }
+      failed = true;
+      reading = false;
+      outgoing.clear();
+      incoming.add(STOPPED);
+      key.cancel();
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        // Already failing
+      }
+    }
+  }
+}
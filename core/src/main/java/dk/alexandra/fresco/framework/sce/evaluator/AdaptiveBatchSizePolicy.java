@@ -0,0 +1,206 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link BatchSizePolicy} adjusting the batch size at runtime based on measurements of the
+ * evaluated batches.
+ *
+ * <p>
+ * The policy searches for the batch size giving the best throughput, i.e., native protocols
+ * evaluated per second. Throughput is measured over a window of batches which were filled up to
+ * the batch size, as smaller batches tell nothing about the effect of the batch size. After each
+ * window the batch size is doubled or halved: the policy keeps going in the same direction as long
+ * as the throughput improves and turns around when it gets worse.
+ * </p>
+ * <p>
+ * Independently of the throughput, the batch size is halved whenever a batch takes longer than the
+ * maximum batch duration, sends more than the maximum number of bytes, or when the fraction of the
+ * heap occupied after the latest garbage collection exceeds the maximum heap usage. Garbage which
+ * has not been collected yet is therefore not counted, and as the measurement only changes when the
+ * garbage collector runs, each measurement is only acted upon once. After decreasing the batch size
+ * in this way, the batch size is not grown beyond the decreased size until a number of batches have
+ * been evaluated without exceeding any of the limits. Then the limit is doubled, until it is back
+ * at the maximum batch size. The batch size is always kept between the minimum and maximum batch
+ * size.
+ * </p>
+ */
+public class AdaptiveBatchSizePolicy implements BatchSizePolicy {
+
+  static final int DEFAULT_MIN_BATCH_SIZE = 256;
+  static final int DEFAULT_MAX_BATCH_SIZE = 65536;
+  static final int DEFAULT_INITIAL_BATCH_SIZE = 4096;
+  static final long DEFAULT_MAX_BATCH_NANOS = 10_000_000_000L;
+  static final long DEFAULT_MAX_BATCH_BYTES = 64L * 1024 * 1024;
+  static final double DEFAULT_MAX_HEAP_USAGE = 0.75;
+  static final int DEFAULT_WINDOW = 4;
+  static final int DEFAULT_RECOVERY_BATCHES = 64;
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final long maxBatchNanos;
+  private final long maxBatchBytes;
+  private final double maxHeapUsage;
+  private final int window;
+  private final int recoveryBatches;
+  private final DoubleSupplier heapUsage;
+  private int batchSize;
+  private int ceiling;
+  private int calmBatches;
+  private double shrunkHeapUsage;
+  private boolean growing;
+  private double previousThroughput;
+  private int windowBatchSize;
+  private int windowBatches;
+  private long windowProtocols;
+  private long windowNanos;
+
+  /**
+   * Creates a new adaptive policy with default bounds, measuring heap usage of this JVM after
+   * garbage collection.
+   */
+  public AdaptiveBatchSizePolicy() {
+    this(DEFAULT_INITIAL_BATCH_SIZE, DEFAULT_MIN_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE,
+        DEFAULT_MAX_BATCH_NANOS, DEFAULT_MAX_BATCH_BYTES, DEFAULT_MAX_HEAP_USAGE, DEFAULT_WINDOW,
+        DEFAULT_RECOVERY_BATCHES, AdaptiveBatchSizePolicy::collectedHeapUsage);
+  }
+
+  /**
+   * Creates a new adaptive policy.
+   *
+   * @param initialBatchSize the batch size to start from
+   * @param minBatchSize the smallest batch size to use
+   * @param maxBatchSize the largest batch size to use
+   * @param maxBatchNanos the time a batch may take before the batch size is decreased
+   * @param maxBatchBytes the number of bytes a batch may send before the batch size is decreased
+   * @param maxHeapUsage the fraction of the heap that may be in use before the batch size is
+   *     decreased
+   * @param window the number of full batches to measure throughput over before adjusting
+   * @param recoveryBatches the number of batches which must be evaluated within the limits before
+   *     the batch size may grow beyond a size it was decreased to
+   * @param heapUsage supplies the fraction of the heap in use after the latest garbage collection
+   */
+  public AdaptiveBatchSizePolicy(int initialBatchSize, int minBatchSize, int maxBatchSize,
+      long maxBatchNanos, long maxBatchBytes, double maxHeapUsage, int window,
+      int recoveryBatches, DoubleSupplier heapUsage) {
+    if (minBatchSize < 1 || minBatchSize > maxBatchSize) {
+      throw new IllegalArgumentException(
+          "Invalid batch size bounds [" + minBatchSize + ", " + maxBatchSize + "]");
+    }
+    if (initialBatchSize < minBatchSize || initialBatchSize > maxBatchSize) {
+      throw new IllegalArgumentException(
+          "Initial batch size " + initialBatchSize + " is out of bounds");
+    }
+    if (window < 1) {
+      throw new IllegalArgumentException("Window must be positive, but was " + window);
+    }
+    if (recoveryBatches < 1) {
+      throw new IllegalArgumentException(
+          "Recovery batches must be positive, but was " + recoveryBatches);
+    }
+    this.batchSize = initialBatchSize;
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchNanos = maxBatchNanos;
+    this.maxBatchBytes = maxBatchBytes;
+    this.maxHeapUsage = maxHeapUsage;
+    this.window = window;
+    this.recoveryBatches = recoveryBatches;
+    this.heapUsage = heapUsage;
+    this.ceiling = maxBatchSize;
+    this.growing = true;
+    this.shrunkHeapUsage = Double.NaN;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public void batchEvaluated(int batchSize, int noOfProtocols, long durationNanos,
+      long bytesSent) {
+    double usage = heapUsage.getAsDouble();
+    boolean heapPressure = usage > maxHeapUsage && usage != shrunkHeapUsage;
+    if (durationNanos > maxBatchNanos || bytesSent > maxBatchBytes || heapPressure) {
+      if (heapPressure) {
+        shrunkHeapUsage = usage;
+      }
+      shrink(batchSize);
+      return;
+    }
+    recover();
+    if (noOfProtocols < batchSize) {
+      return;
+    }
+    if (batchSize != windowBatchSize) {
+      resetWindow(batchSize);
+    }
+    windowBatches++;
+    windowProtocols += noOfProtocols;
+    windowNanos += durationNanos;
+    if (windowBatches == window) {
+      double throughput = (double) windowProtocols / Math.max(1, windowNanos);
+      if (previousThroughput > 0 && throughput < previousThroughput) {
+        growing = !growing;
+      }
+      previousThroughput = throughput;
+      this.batchSize = growing ? grow(batchSize) : halve(batchSize);
+      resetWindow(this.batchSize);
+    }
+  }
+
+  private void shrink(int batchSize) {
+    this.batchSize = halve(batchSize);
+    this.ceiling = this.batchSize;
+    this.calmBatches = 0;
+    this.growing = true;
+    this.previousThroughput = 0;
+    resetWindow(this.batchSize);
+  }
+
+  /**
+   * Doubles the limit on the batch size when enough batches have been evaluated within the limits
+   * since it was last changed.
+   */
+  private void recover() {
+    if (ceiling < maxBatchSize && ++calmBatches >= recoveryBatches) {
+      ceiling = (int) Math.min(maxBatchSize, 2L * ceiling);
+      calmBatches = 0;
+    }
+  }
+
+  private int grow(int batchSize) {
+    return (int) Math.min(ceiling, 2L * batchSize);
+  }
+
+  private int halve(int batchSize) {
+    return Math.max(minBatchSize, batchSize / 2);
+  }
+
+  private void resetWindow(int batchSize) {
+    windowBatchSize = batchSize;
+    windowBatches = 0;
+    windowProtocols = 0;
+    windowNanos = 0;
+  }
+
+  /**
+   * Computes the fraction of the maximum heap size which was in use right after the latest
+   * garbage collection of each heap memory pool.
+   */
+  private static double collectedHeapUsage() {
+    long used = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+      if (usage != null) {
+        used += usage.getUsed();
+      }
+    }
+    return (double) used / Runtime.getRuntime().maxMemory();
+  }
+}
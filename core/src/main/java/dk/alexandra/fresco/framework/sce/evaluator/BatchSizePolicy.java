@@ -0,0 +1,31 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+/**
+ * Policy deciding the maximum number of native protocols in each batch evaluated by the
+ * {@link BatchedProtocolEvaluator}.
+ *
+ * <p>
+ * The evaluator reports the measurements of each evaluated batch to the policy. As all parties
+ * must evaluate batches of the same size, the evaluator does not use the size proposed by the
+ * policy directly, but regularly lets the parties agree on the smallest of their proposals.
+ * </p>
+ */
+public interface BatchSizePolicy {
+
+  /**
+   * Gets the batch size currently proposed by this policy.
+   *
+   * @return the proposed maximum number of protocols in a batch
+   */
+  int getBatchSize();
+
+  /**
+   * Informs the policy about a batch that has been evaluated.
+   *
+   * @param batchSize the maximum batch size used for the batch
+   * @param noOfProtocols the number of native protocols in the batch
+   * @param durationNanos the time spent evaluating the batch in nanoseconds
+   * @param bytesSent the number of bytes sent while evaluating the batch
+   */
+  void batchEvaluated(int batchSize, int noOfProtocols, long durationNanos, long bytesSent);
+}
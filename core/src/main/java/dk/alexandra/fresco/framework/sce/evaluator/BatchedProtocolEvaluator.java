@@ -5,6 +5,7 @@ import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
+import java.nio.ByteBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,17 +14,26 @@ import org.slf4j.LoggerFactory;
  * certain batch size. How each batch is evaluated is up to the given batch evaluation strategy.
  * Each batch is required to contain only functionally independent native protocols.
  *
+ * <p>
+ * The batch size is decided by a {@link BatchSizePolicy}. When the policy may change the batch
+ * size, the parties agree on the batch size every {@value #DEFAULT_AGREEMENT_INTERVAL} batches by
+ * exchanging their proposals and taking the smallest one, as all parties must evaluate batches of
+ * the same size.
+ * </p>
+ *
  * @param <ResourcePoolT> The resource pool type to use
  */
 public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
     implements ProtocolEvaluator<ResourcePoolT> {
 
+  static final int DEFAULT_AGREEMENT_INTERVAL = 16;
   private Logger logger = LoggerFactory.getLogger(BatchedProtocolEvaluator.class);
   private static final int MAX_EMPTY_BATCHES_IN_A_ROW = 10;
 
   private final BatchEvaluationStrategy<ResourcePoolT> batchEvaluator;
   private final ProtocolSuite<ResourcePoolT, ?> protocolSuite;
-  private final int maxBatchSize;
+  private final BatchSizePolicy batchSizePolicy;
+  private final int agreementInterval;
 
   public BatchedProtocolEvaluator(
       BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
@@ -34,9 +44,43 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
   public BatchedProtocolEvaluator(
       BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
       ProtocolSuite<ResourcePoolT, ?> protocolSuite, int maxBatchSize) {
+    this(batchEvaluator, protocolSuite, new FixedBatchSizePolicy(maxBatchSize), 0);
+  }
+
+  /**
+   * Creates a new evaluator where the batch size is controlled by the given policy.
+   *
+   * @param batchEvaluator the strategy used to evaluate each batch
+   * @param protocolSuite the protocol suite
+   * @param batchSizePolicy the policy deciding the batch size
+   */
+  public BatchedProtocolEvaluator(
+      BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite, BatchSizePolicy batchSizePolicy) {
+    this(batchEvaluator, protocolSuite, batchSizePolicy, DEFAULT_AGREEMENT_INTERVAL);
+  }
+
+  /**
+   * Creates a new evaluator where the batch size is controlled by the given policy.
+   *
+   * @param batchEvaluator the strategy used to evaluate each batch
+   * @param protocolSuite the protocol suite
+   * @param batchSizePolicy the policy deciding the batch size
+   * @param agreementInterval the number of batches between each agreement on the batch size, or
+   *     zero if the batch size never changes. Must be the same for all parties.
+   */
+  public BatchedProtocolEvaluator(
+      BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite, BatchSizePolicy batchSizePolicy,
+      int agreementInterval) {
+    if (agreementInterval < 0) {
+      throw new IllegalArgumentException(
+          "Agreement interval must be non-negative, but was " + agreementInterval);
+    }
     this.batchEvaluator = batchEvaluator;
-    this.maxBatchSize = maxBatchSize;
     this.protocolSuite = protocolSuite;
+    this.batchSizePolicy = batchSizePolicy;
+    this.agreementInterval = agreementInterval;
   }
 
   @Override
@@ -49,13 +93,19 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
     NetworkBatchDecorator networkBatchDecorator = createSceNetwork(resourcePool, network);
     ProtocolSuite.RoundSynchronization<ResourcePoolT> roundSynchronization =
         protocolSuite.createRoundSynchronization();
+    int batchSize = agreeOnBatchSize(network);
+    ProtocolCollectionList<ResourcePoolT> protocols = new ProtocolCollectionList<>(batchSize);
     do {
-      ProtocolCollectionList<ResourcePoolT> protocols = new ProtocolCollectionList<>(maxBatchSize);
+      protocols.clear();
       protocolProducer.getNextProtocols(protocols);
       int size = protocols.size();
 
+      long then = System.nanoTime();
+      long bytesBefore = networkBatchDecorator.getBytesSent();
       roundSynchronization.beforeBatch(protocols, resourcePool, network);
       batchEvaluator.processBatch(protocols, resourcePool, networkBatchDecorator);
+      batchSizePolicy.batchEvaluated(batchSize, size, System.nanoTime() - then,
+          networkBatchDecorator.getBytesSent() - bytesBefore);
       logger.trace("Done evaluating batch: " + batch++ + " with " + size + " native protocols");
       if (size == 0) {
         logger.debug("Batch " + batch + " is empty");
@@ -63,12 +113,39 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
       totalProtocols += size;
       totalBatches += 1;
       roundSynchronization.finishedBatch(size, resourcePool, network);
+      if (agreementInterval > 0 && totalBatches % agreementInterval == 0
+          && protocolProducer.hasNextProtocols()) {
+        int agreed = agreeOnBatchSize(network);
+        if (agreed != batchSize) {
+          logger.debug("Changing batch size from " + batchSize + " to " + agreed);
+          batchSize = agreed;
+          protocols.clear();
+          protocols.setCapacity(batchSize);
+        }
+      }
     } while (protocolProducer.hasNextProtocols());
 
     roundSynchronization.finishedEval(resourcePool, network);
     return new EvaluationStatistics(totalProtocols, totalBatches);
   }
 
+  /**
+   * Lets the parties agree on the batch size by taking the smallest proposal of all parties.
+   * Nothing is exchanged if the batch size is fixed.
+   */
+  private int agreeOnBatchSize(Network network) {
+    int proposal = batchSizePolicy.getBatchSize();
+    if (agreementInterval == 0 || network.getNoOfParties() < 2) {
+      return proposal;
+    }
+    network.sendToAll(ByteBuffer.allocate(Integer.BYTES).putInt(proposal).array());
+    int agreed = proposal;
+    for (byte[] bytes : network.receiveFromAll()) {
+      agreed = Math.min(agreed, ByteBuffer.wrap(bytes).getInt());
+    }
+    return agreed;
+  }
+
   private NetworkBatchDecorator createSceNetwork(ResourcePool resourcePool, Network network) {
     return new NetworkBatchDecorator(resourcePool.getNoOfParties(), network);
   }
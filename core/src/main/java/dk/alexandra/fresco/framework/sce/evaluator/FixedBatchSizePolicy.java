@@ -0,0 +1,32 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+/**
+ * A {@link BatchSizePolicy} using the same batch size for all batches.
+ */
+public class FixedBatchSizePolicy implements BatchSizePolicy {
+
+  private final int batchSize;
+
+  /**
+   * Creates a new fixed policy.
+   *
+   * @param batchSize the batch size to use
+   */
+  public FixedBatchSizePolicy(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive, but was " + batchSize);
+    }
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public void batchEvaluated(int batchSize, int noOfProtocols, long durationNanos,
+      long bytesSent) {
+    // The batch size never changes
+  }
+}
@@ -13,6 +13,10 @@ import java.util.Map;
  * on the network.
  * <br/>
  * It is important to call flush to empty all buffers after sending and before receiving data
+ * <br/>
+ * Each message in a batch is prefixed by its length encoded as a varint, i.e., using seven bits
+ * per byte with the most significant bit set on all but the last byte. Hence messages shorter than
+ * 128 bytes only take a single byte of overhead, while messages of any length can be batched.
  */
 public class NetworkBatchDecorator implements Network {
 
@@ -20,6 +24,7 @@ public class NetworkBatchDecorator implements Network {
   private final Network network;
   private Map<Integer, ByteArrayOutputStream> output;
   private Map<Integer, ByteArrayInputStream> input;
+  private long bytesSent;
 
   public NetworkBatchDecorator(int noOfParties, Network network) {
     this.noOfParties = noOfParties;
@@ -37,12 +42,41 @@ public class NetworkBatchDecorator implements Network {
       input.put(id, byteInputStream);
     }
 
-    int count = byteInputStream.read();
+    int count = readLength(byteInputStream);
     byte[] bytes = new byte[count];
+    if (byteInputStream.available() < count) {
+      throw new IllegalStateException("Message from P" + id + " was truncated");
+    }
     byteInputStream.read(bytes, 0, count);
     return bytes;
   }
 
+  private static int readLength(ByteArrayInputStream in) {
+    int length = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new IllegalStateException("No more messages to receive in the current batch");
+      }
+      length |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        if (length < 0) {
+          break;
+        }
+        return length;
+      }
+    }
+    throw new IllegalStateException("Malformed message length");
+  }
+
+  private static void writeLength(ByteArrayOutputStream out, int length) {
+    while ((length & ~0x7f) != 0) {
+      out.write((length & 0x7f) | 0x80);
+      length >>>= 7;
+    }
+    out.write(length);
+  }
+
   @Override
   public int getNoOfParties() {
     return noOfParties;
@@ -52,11 +86,7 @@ public class NetworkBatchDecorator implements Network {
   public void send(int id, byte[] data) {
     ByteArrayOutputStream buffer = this.output
         .computeIfAbsent(id, (i) -> new ByteArrayOutputStream());
-    if (data.length > Byte.MAX_VALUE) {
-      throw new IllegalStateException(
-          "Current implementation only supports small packages, data.length=" + data.length);
-    }
-    buffer.write(data.length);
+    writeLength(buffer, data.length);
     buffer.write(data, 0, data.length);
   }
 
@@ -68,10 +98,20 @@ public class NetworkBatchDecorator implements Network {
       if (output.containsKey(i)) {
         ByteArrayOutputStream byteArrayOutputStream = output.get(i);
         byte[] data = byteArrayOutputStream.toByteArray();
+        bytesSent += data.length;
         network.send(i, data);
       }
       output.remove(i);
     }
     input.clear();
   }
+
+  /**
+   * Gets the total number of bytes flushed to the underlying network by this decorator.
+   *
+   * @return the number of bytes sent
+   */
+  public long getBytesSent() {
+    return bytesSent;
+  }
 }
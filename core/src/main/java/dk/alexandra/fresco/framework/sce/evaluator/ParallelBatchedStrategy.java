@@ -0,0 +1,258 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A batched evaluation strategy which evaluates the rounds of a batch of protocols on multiple
+ * threads.
+ *
+ * <p>
+ * At the beginning of a batch the protocols are split into chunks of a fixed size. In each round
+ * the chunks are evaluated concurrently, each chunk evaluating its protocols sequentially against
+ * its own view of the network. When all chunks are done with the round, the messages of the chunks
+ * are merged in chunk order, so that the communication is deterministic regardless of the
+ * scheduling of the threads. For each party and each chunk the merged stream holds the number of
+ * messages sent by the chunk followed by the messages themselves. In the next round the incoming
+ * messages are split up by the same rules and handed to the chunk which the receiving protocols
+ * belong to.
+ * </p>
+ * <p>
+ * As the chunking only depends on the chunk size, parties may use different numbers of threads,
+ * but all parties must use this strategy with the same chunk size.
+ * </p>
+ * <p>
+ * A batch is only split into chunks if it holds more than one chunk of protocols and all of them
+ * are marked as {@link ThreadSafeProtocol}. Any other batch is evaluated exactly as by {@link
+ * BatchedStrategy}, on the calling thread and without the message counts, so that protocols drawing
+ * preprocessed material or storing opened values in the resource pool do so in protocol order.
+ * </p>
+ */
+public class ParallelBatchedStrategy<ResourcePoolT extends ResourcePool>
+    implements BatchEvaluationStrategy<ResourcePoolT> {
+
+  static final int DEFAULT_CHUNK_SIZE = 256;
+  private final ExecutorService executorService;
+  private final int chunkSize;
+  private final BatchedStrategy<ResourcePoolT> sequential;
+
+  /**
+   * Creates a new strategy evaluating chunks of {@value #DEFAULT_CHUNK_SIZE} protocols using the
+   * common fork join pool.
+   */
+  public ParallelBatchedStrategy() {
+    this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates a new strategy.
+   *
+   * @param executorService the executor service used to evaluate the chunks of a batch
+   * @param chunkSize the number of protocols in each chunk, must be the same for all parties
+   */
+  public ParallelBatchedStrategy(ExecutorService executorService, int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive, but was " + chunkSize);
+    }
+    this.executorService = executorService;
+    this.chunkSize = chunkSize;
+    this.sequential = new BatchedStrategy<>();
+  }
+
+  @Override
+  public void processBatch(
+      ProtocolCollection<ResourcePoolT> protocols, ResourcePoolT resourcePool,
+      NetworkBatchDecorator networkBatchDecorator) {
+    if (protocols.size() <= chunkSize || !isThreadSafe(protocols)) {
+      sequential.processBatch(protocols, resourcePool, networkBatchDecorator);
+      return;
+    }
+    List<Chunk<ResourcePoolT>> chunks =
+        createChunks(protocols, networkBatchDecorator.getNoOfParties());
+    int round = 0;
+    int remaining = protocols.size();
+    while (remaining > 0) {
+      if (round > 0) {
+        distributeIncoming(chunks, networkBatchDecorator);
+      }
+      remaining = evaluateConcurrently(chunks, resourcePool, round);
+      mergeOutgoing(chunks, networkBatchDecorator, remaining > 0);
+      networkBatchDecorator.flush();
+      round++;
+    }
+  }
+
+  private List<Chunk<ResourcePoolT>> createChunks(ProtocolCollection<ResourcePoolT> protocols,
+      int noOfParties) {
+    List<Chunk<ResourcePoolT>> chunks = new ArrayList<>(protocols.size() / chunkSize + 1);
+    Chunk<ResourcePoolT> current = null;
+    for (NativeProtocol<?, ResourcePoolT> protocol : protocols) {
+      if (current == null || current.size() == chunkSize) {
+        current = new Chunk<>(noOfParties, chunkSize);
+        chunks.add(current);
+      }
+      current.add(protocol);
+    }
+    return chunks;
+  }
+
+  private boolean isThreadSafe(ProtocolCollection<ResourcePoolT> protocols) {
+    for (NativeProtocol<?, ResourcePoolT> protocol : protocols) {
+      if (!(protocol instanceof ThreadSafeProtocol)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int evaluateConcurrently(List<Chunk<ResourcePoolT>> chunks, ResourcePoolT resourcePool,
+      int round) {
+    List<Future<Integer>> futures = new ArrayList<>(chunks.size());
+    for (Chunk<ResourcePoolT> chunk : chunks) {
+      if (chunk.size() > 0) {
+        futures.add(executorService.submit(() -> chunk.evaluate(round, resourcePool)));
+      }
+    }
+    int remaining = 0;
+    for (Future<Integer> future : futures) {
+      try {
+        remaining += future.get();
+      } catch (InterruptedException e) {
+        throw new RuntimeException("Interrupted while evaluating round " + round, e);
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Failed to evaluate round " + round, e.getCause());
+      }
+    }
+    return remaining;
+  }
+
+  private void mergeOutgoing(List<Chunk<ResourcePoolT>> chunks, Network network,
+      boolean hasMoreRounds) {
+    boolean hasOutgoing = hasMoreRounds;
+    for (int i = 0; i < chunks.size() && !hasOutgoing; i++) {
+      hasOutgoing = chunks.get(i).hasOutgoing();
+    }
+    if (!hasOutgoing) {
+      return;
+    }
+    for (int partyId = 1; partyId <= network.getNoOfParties(); partyId++) {
+      for (Chunk<ResourcePoolT> chunk : chunks) {
+        List<byte[]> messages = chunk.takeOutgoing(partyId);
+        network.send(partyId, ByteBuffer.allocate(Integer.BYTES).putInt(messages.size()).array());
+        for (byte[] message : messages) {
+          network.send(partyId, message);
+        }
+      }
+    }
+  }
+
+  private void distributeIncoming(List<Chunk<ResourcePoolT>> chunks, Network network) {
+    for (int partyId = 1; partyId <= network.getNoOfParties(); partyId++) {
+      for (Chunk<ResourcePoolT> chunk : chunks) {
+        int count = ByteBuffer.wrap(network.receive(partyId)).getInt();
+        for (int i = 0; i < count; i++) {
+          chunk.putIncoming(partyId, network.receive(partyId));
+        }
+      }
+    }
+  }
+
+  /**
+   * A fixed part of a batch which is evaluated by a single thread. Acts as the network of the
+   * protocols in the chunk, collecting their outgoing messages and serving the incoming messages
+   * received on their behalf.
+   */
+  private static class Chunk<ResourcePoolT extends ResourcePool> implements Network {
+
+    private final List<NativeProtocol<?, ResourcePoolT>> protocols;
+    private final List<List<byte[]>> outgoing;
+    private final List<Deque<byte[]>> incoming;
+
+    Chunk(int noOfParties, int chunkSize) {
+      this.protocols = new ArrayList<>(chunkSize);
+      this.outgoing = new ArrayList<>(noOfParties);
+      this.incoming = new ArrayList<>(noOfParties);
+      for (int i = 0; i < noOfParties; i++) {
+        outgoing.add(new ArrayList<>());
+        incoming.add(new ArrayDeque<>());
+      }
+    }
+
+    void add(NativeProtocol<?, ResourcePoolT> protocol) {
+      protocols.add(protocol);
+    }
+
+    int size() {
+      return protocols.size();
+    }
+
+    /**
+     * Evaluates a single round of all unfinished protocols in the chunk and discards the protocols
+     * which are done.
+     *
+     * @return the number of protocols with more rounds
+     */
+    int evaluate(int round, ResourcePoolT resourcePool) {
+      int kept = 0;
+      for (int i = 0; i < protocols.size(); i++) {
+        NativeProtocol<?, ResourcePoolT> protocol = protocols.get(i);
+        EvaluationStatus status = protocol.evaluate(round, resourcePool, this);
+        if (status.equals(EvaluationStatus.HAS_MORE_ROUNDS)) {
+          protocols.set(kept++, protocol);
+        }
+      }
+      protocols.subList(kept, protocols.size()).clear();
+      return kept;
+    }
+
+    boolean hasOutgoing() {
+      for (List<byte[]> messages : outgoing) {
+        if (!messages.isEmpty()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    List<byte[]> takeOutgoing(int partyId) {
+      List<byte[]> messages = outgoing.get(partyId - 1);
+      outgoing.set(partyId - 1, new ArrayList<>());
+      return messages;
+    }
+
+    void putIncoming(int partyId, byte[] message) {
+      incoming.get(partyId - 1).add(message);
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      outgoing.get(partyId - 1).add(data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      byte[] data = incoming.get(partyId - 1).poll();
+      if (data == null) {
+        throw new IllegalStateException("No more messages received from P" + partyId);
+      }
+      return data;
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return incoming.size();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batched evaluation strategy which overlaps the local computation of a batch with its
+ * communication.
+ *
+ * <p>
+ * The protocols of a batch are split into a fixed number of lanes. A round is evaluated one lane
+ * at a time, and the messages of each lane are flushed as soon as the lane has been evaluated. In
+ * this way the messages of one lane are in flight while the next lanes are being evaluated, and by
+ * the time the next round of a lane is evaluated its incoming messages have typically arrived. This
+ * lowers the latency of each round compared to {@link BatchedStrategy}, which only sends when the
+ * whole batch is evaluated, at the cost of one network message per lane and party in each round.
+ * </p>
+ * <p>
+ * Note that the batch itself can not be overlapped with the construction of the next batch, as
+ * the next batch may depend on the output of the current one. The lanes are formed only from the
+ * protocols of a single batch, which are known to be independent.
+ * </p>
+ * <p>
+ * All parties must use this strategy with the same number of lanes.
+ * </p>
+ */
+public class PipelinedStrategy<ResourcePoolT extends ResourcePool>
+    implements BatchEvaluationStrategy<ResourcePoolT> {
+
+  static final int DEFAULT_LANES = 2;
+  private final int lanes;
+
+  /**
+   * Creates a new strategy using {@value #DEFAULT_LANES} lanes.
+   */
+  public PipelinedStrategy() {
+    this(DEFAULT_LANES);
+  }
+
+  /**
+   * Creates a new strategy.
+   *
+   * @param lanes the number of lanes each batch is split into
+   */
+  public PipelinedStrategy(int lanes) {
+    if (lanes < 1) {
+      throw new IllegalArgumentException("Number of lanes must be positive, but was " + lanes);
+    }
+    this.lanes = lanes;
+  }
+
+  @Override
+  public void processBatch(
+      ProtocolCollection<ResourcePoolT> protocols, ResourcePoolT resourcePool,
+      NetworkBatchDecorator networkBatchDecorator) {
+    List<List<NativeProtocol<?, ResourcePoolT>>> laneList = createLanes(protocols);
+    int round = 0;
+    int remaining = protocols.size();
+    while (remaining > 0) {
+      remaining = 0;
+      for (List<NativeProtocol<?, ResourcePoolT>> lane : laneList) {
+        if (!lane.isEmpty()) {
+          remaining += evaluateLane(lane, resourcePool, networkBatchDecorator, round);
+          networkBatchDecorator.flush();
+        }
+      }
+      round++;
+    }
+  }
+
+  private List<List<NativeProtocol<?, ResourcePoolT>>> createLanes(
+      ProtocolCollection<ResourcePoolT> protocols) {
+    int laneSize = (protocols.size() + lanes - 1) / lanes;
+    List<List<NativeProtocol<?, ResourcePoolT>>> laneList = new ArrayList<>(lanes);
+    List<NativeProtocol<?, ResourcePoolT>> current = null;
+    for (NativeProtocol<?, ResourcePoolT> protocol : protocols) {
+      if (current == null || current.size() == laneSize) {
+        current = new ArrayList<>(laneSize);
+        laneList.add(current);
+      }
+      current.add(protocol);
+    }
+    return laneList;
+  }
+
+  private int evaluateLane(List<NativeProtocol<?, ResourcePoolT>> lane,
+      ResourcePoolT resourcePool, NetworkBatchDecorator networkBatchDecorator, int round) {
+    int kept = 0;
+    for (int i = 0; i < lane.size(); i++) {
+      NativeProtocol<?, ResourcePoolT> protocol = lane.get(i);
+      EvaluationStatus status = protocol.evaluate(round, resourcePool, networkBatchDecorator);
+      if (status.equals(EvaluationStatus.HAS_MORE_ROUNDS)) {
+        lane.set(kept++, protocol);
+      }
+    }
+    lane.subList(kept, lane.size()).clear();
+    return kept;
+  }
+}
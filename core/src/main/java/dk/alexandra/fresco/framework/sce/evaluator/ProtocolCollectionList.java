@@ -3,37 +3,151 @@ package dk.alexandra.fresco.framework.sce.evaluator;
 import dk.alexandra.fresco.framework.NativeProtocol;
 import dk.alexandra.fresco.framework.ProtocolCollection;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.NoSuchElementException;
 
+/**
+ * Array backed {@link ProtocolCollection} which can be reused across batches.
+ *
+ * <p>
+ * Protocols removed through the iterator are compacted in place while iterating, so a batch can be
+ * evaluated round by round without reallocating. The collection is emptied for reuse by calling
+ * {@link #clear()} and its capacity can be changed between batches with {@link #setCapacity(int)}.
+ * To avoid allocating on every traversal the same iterator instance is returned
+ * by each call to {@link #iterator()}, hence only one traversal may be in progress at a time.
+ * </p>
+ */
 public class ProtocolCollectionList<ResourcePoolT extends ResourcePool>
     implements ProtocolCollection<ResourcePoolT> {
 
+  private static final int INITIAL_SIZE = 16;
   private int capacity;
-  private List<NativeProtocol<?, ResourcePoolT>> protocols;
+  private final CompactingIterator iterator;
+  private NativeProtocol<?, ResourcePoolT>[] protocols;
+  private int size;
 
+  /**
+   * Creates a new empty collection.
+   *
+   * @param capacity the maximum number of protocols the collection can hold
+   */
   public ProtocolCollectionList(int capacity) {
     this.capacity = capacity;
-    this.protocols = new LinkedList<>();
+    this.protocols = newArray(Math.min(capacity, INITIAL_SIZE));
+    this.iterator = new CompactingIterator();
   }
 
   @Override
   public void addProtocol(NativeProtocol<?, ResourcePoolT> protocol) {
-    protocols.add(protocol);
+    iterator.compact();
+    if (size == protocols.length) {
+      int newLength = (int) Math.min(capacity, Math.max(1L, 2L * protocols.length));
+      protocols = Arrays.copyOf(protocols, Math.max(newLength, size + 1));
+    }
+    protocols[size++] = protocol;
   }
 
   @Override
   public boolean hasFreeCapacity() {
-    return protocols.size() < capacity;
+    return size() < capacity;
   }
 
   @Override
   public Iterator<NativeProtocol<?, ResourcePoolT>> iterator() {
-    return protocols.iterator();
+    iterator.reset();
+    return iterator;
   }
 
+  @Override
   public int size() {
-    return protocols.size();
+    iterator.compact();
+    return size;
+  }
+
+  /**
+   * Removes all protocols from the collection, keeping the allocated storage for the next batch.
+   */
+  public void clear() {
+    iterator.compact();
+    Arrays.fill(protocols, 0, size, null);
+    size = 0;
+  }
+
+  /**
+   * Changes the maximum number of protocols the collection can hold. The allocated storage is kept,
+   * so lowering the capacity and raising it again later does not reallocate.
+   *
+   * @param capacity the new capacity, which must be at least the current size
+   */
+  public void setCapacity(int capacity) {
+    if (capacity < size()) {
+      throw new IllegalArgumentException(
+          "Capacity " + capacity + " is smaller than the current size " + size);
+    }
+    this.capacity = capacity;
+  }
+
+  @SuppressWarnings("unchecked")
+  private NativeProtocol<?, ResourcePoolT>[] newArray(int length) {
+    return (NativeProtocol<?, ResourcePoolT>[]) new NativeProtocol<?, ?>[length];
+  }
+
+  /**
+   * Iterator which moves the protocols it passes towards the front of the array, skipping over
+   * those which have been removed. The protocols not yet visited are moved when the collection is
+   * next accessed.
+   */
+  private class CompactingIterator implements Iterator<NativeProtocol<?, ResourcePoolT>> {
+
+    private int read;
+    private int write;
+    private boolean canRemove;
+
+    void reset() {
+      compact();
+      read = 0;
+      write = 0;
+      canRemove = false;
+    }
+
+    /**
+     * Closes the gaps left by removed protocols.
+     */
+    void compact() {
+      if (read != write) {
+        int remaining = size - read;
+        System.arraycopy(protocols, read, protocols, write, remaining);
+        int newSize = write + remaining;
+        Arrays.fill(protocols, newSize, size, null);
+        size = newSize;
+        read = write;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return read < size;
+    }
+
+    @Override
+    public NativeProtocol<?, ResourcePoolT> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      NativeProtocol<?, ResourcePoolT> protocol = protocols[read++];
+      protocols[write++] = protocol;
+      canRemove = true;
+      return protocol;
+    }
+
+    @Override
+    public void remove() {
+      if (!canRemove) {
+        throw new IllegalStateException();
+      }
+      write--;
+      canRemove = false;
+    }
   }
 }
@@ -0,0 +1,19 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+/**
+ * Marker interface that indicates that a native protocol may be evaluated concurrently with the
+ * other protocols of its batch.
+ *
+ * <p>
+ * A protocol should only be marked as thread safe if its evaluation does not modify state shared
+ * through the resource pool, nor depend on the order in which it is evaluated relative to the other
+ * protocols of the batch. In particular, protocols drawing preprocessed material from a data
+ * supplier or storing opened values in the resource pool are not thread safe, since the parties
+ * must consume the material in the same order.
+ * </p>
+ *
+ * @see ParallelBatchedStrategy
+ */
+public interface ThreadSafeProtocol {
+
+}
@@ -7,6 +7,10 @@ public class NoMoreElementsException extends Exception {
    */
   private static final long serialVersionUID = -3816913230150343707L;
 
+  public NoMoreElementsException(String s) {
+    super(s);
+  }
+
   public NoMoreElementsException(String s, Exception e) {
     super(s, e);
   }
@@ -4,7 +4,8 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /**
- * Factory class for {@link AesCtrDrbg} providing various ways to seed the DRBG.
+ * Factory class for {@link AesCtrDrbg} and {@link BufferedAesCtrDrbg} providing various ways to
+ * seed the DRBG.
  */
 public class AesCtrDrbgFactory {
 
@@ -63,6 +64,28 @@ public class AesCtrDrbgFactory {
     return new AesCtrDrbg();
   }
 
+  /**
+   * Creates a new {@link BufferedAesCtrDrbg} with a seed derived from a given sequence of bytes (of
+   * any length), in the same way as {@link #fromDerivedSeed(byte...)}.
+   *
+   * @param bytes a sequence of bytes from which to derive the seed
+   * @return a new DRBG
+   */
+  public static Drbg bufferedFromDerivedSeed(final byte... bytes) {
+    return ExceptionConverter.safe(() -> bufferedFromRandomSeed(hash(bytes)),
+          "Unable to derive seed for BufferedAesCtrDrbg");
+  }
+
+  /**
+   * Creates a new {@link BufferedAesCtrDrbg} using a given array of bytes as seed directly.
+   *
+   * @param seed {@link BufferedAesCtrDrbg#SEED_LENGTH} uniformly random bytes
+   * @return a new DRBG
+   */
+  public static Drbg bufferedFromRandomSeed(final byte[] seed) {
+    return new BufferedAesCtrDrbg(seed);
+  }
+
   private static byte[] hash(final byte[] bytes) throws NoSuchAlgorithmException {
     MessageDigest md = MessageDigest.getInstance(HASH_ALGORITHM);
     // This prefix is specified in NIST SP 800-90A rev. 1
@@ -0,0 +1,169 @@
+package dk.alexandra.fresco.framework.util;
+
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Implementation of a deterministic random bit generator (DRBG) using AES in counter mode, aimed at
+ * generating large amounts of pseudo-random bytes.
+ *
+ * <p>
+ * Contrary to {@link AesCtrDrbg} the key stream is written directly into the array supplied by the
+ * caller for large requests, while small requests are served from an internal buffer of key
+ * stream, so that the cost of calling the cipher is amortized over many requests. The cipher is
+ * rekeyed with key stream generated by itself for every {@value #UPDATE_LIMIT} bytes generated
+ * rather than for every 64 KiB. The bytes generated only depend on the seed, not on how they are
+ * requested, i.e., generating <i>n</i> bytes in one request gives the same bytes as generating
+ * them in several smaller requests.
+ * </p>
+ *
+ * <p>
+ * Note that for the same seed this does not in general generate the same bytes as {@link
+ * AesCtrDrbg}, so parties that need to generate the same bytes must use the same implementation.
+ * </p>
+ */
+public class BufferedAesCtrDrbg implements Drbg {
+
+  /**
+   * The byte length required of the seed to a BufferedAesCtrDrbg.
+   */
+  public static final int SEED_LENGTH = 32;
+  private static final int IV_LENGTH = 16;
+  private static final int KEY_LENGTH = 16;
+  private static final long RESEED_LIMIT = 1L << 48;
+  private static final int UPDATE_LIMIT = 1 << 24;
+  private static final int BUFFER_LENGTH = 1 << 12;
+  /**
+   * Input to the cipher, as the key stream is generated by encrypting zeroes. Never written to.
+   */
+  private static final byte[] ZEROES = new byte[1 << 16];
+  private final Cipher cipher;
+  private final byte[] buffer;
+  private int bufferOffset;
+  private int generatedBytes;
+  private long reseedCounter;
+
+  /**
+   * Creates a new DRBG based on AES in counter mode with securely-generated random seed.
+   */
+  public BufferedAesCtrDrbg() {
+    this(generateSeed());
+  }
+
+  /**
+   * Creates a new DRBG based on AES in counter mode.
+   *
+   * @param seed the seed for the DRBG. This must be a must be {@value #SEED_LENGTH} bytes long and
+   *        should be uniformly random.
+   * @throws IllegalArgumentException if seed is not of the correct length ({@value #SEED_LENGTH}
+   *         bytes)
+   */
+  public BufferedAesCtrDrbg(byte[] seed) {
+    if (seed.length != SEED_LENGTH) {
+      throw new IllegalArgumentException("Seed must be exactly " + SEED_LENGTH
+          + " bytes, but the given seed is " + seed.length + " bytes long");
+    }
+    this.cipher = ExceptionConverter.safe(() -> Cipher.getInstance("AES/CTR/NoPadding"),
+        "General exception in creating the cipher");
+    initCipher(seed, 0);
+    this.buffer = new byte[BUFFER_LENGTH];
+    this.bufferOffset = buffer.length;
+    this.generatedBytes = 0;
+    this.reseedCounter = 0;
+  }
+
+  @Override
+  public void nextBytes(byte[] bytes) {
+    nextBytes(bytes, 0, bytes.length);
+  }
+
+  @Override
+  public void nextBytes(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > bytes.length - length) {
+      throw new IndexOutOfBoundsException("Cannot write " + length + " bytes at offset " + offset
+          + " in an array of length " + bytes.length);
+    }
+    int buffered = Math.min(length, buffer.length - bufferOffset);
+    System.arraycopy(buffer, bufferOffset, bytes, offset, buffered);
+    bufferOffset += buffered;
+    offset += buffered;
+    length -= buffered;
+    if (length >= buffer.length) {
+      // Large requests are written directly, leaving less than a buffer of bytes
+      int direct = length - length % buffer.length;
+      generate(bytes, offset, direct);
+      offset += direct;
+      length -= direct;
+    }
+    if (length > 0) {
+      generate(buffer, 0, buffer.length);
+      System.arraycopy(buffer, 0, bytes, offset, length);
+      bufferOffset = length;
+    }
+  }
+
+  /**
+   * Writes key stream into an array, rekeying the cipher whenever {@value #UPDATE_LIMIT} bytes have
+   * been generated.
+   *
+   * @param output the array to write to
+   * @param offset the position in the array to start writing
+   * @param length the amount of bytes to write
+   */
+  private void generate(byte[] output, int offset, int length) {
+    while (length > 0) {
+      if (generatedBytes == UPDATE_LIMIT) {
+        update();
+      }
+      int chunk = Math.min(Math.min(length, ZEROES.length), UPDATE_LIMIT - generatedBytes);
+      try {
+        cipher.update(ZEROES, 0, chunk, output, offset);
+      } catch (ShortBufferException e) {
+        throw new IllegalArgumentException("Exception generating bits", e);
+      }
+      generatedBytes += chunk;
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  /**
+   * Initializes the cipher with a key and iv read from an array.
+   *
+   * @param keyAndIv an array holding the key followed by the iv
+   * @param offset the position of the key in the array
+   */
+  private void initCipher(byte[] keyAndIv, int offset) {
+    SecretKeySpec keySpec = new SecretKeySpec(keyAndIv, offset, KEY_LENGTH, "AES");
+    IvParameterSpec ivSpec = new IvParameterSpec(keyAndIv, offset + KEY_LENGTH, IV_LENGTH);
+    ExceptionConverter.safe(() -> {
+      cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
+      return null;
+    }, "Exception in initializing the cipher");
+  }
+
+  private void update() {
+    if (reseedCounter == RESEED_LIMIT) {
+      throw new IllegalStateException(
+          "Exceeded limit on generation requests. A DRBG with a fresh seed should be used.");
+    }
+    reseedCounter++;
+    byte[] keyAndIv = new byte[KEY_LENGTH + IV_LENGTH];
+    try {
+      cipher.update(ZEROES, 0, keyAndIv.length, keyAndIv, 0);
+    } catch (ShortBufferException e) {
+      throw new IllegalArgumentException("Exception generating bits", e);
+    }
+    initCipher(keyAndIv, 0);
+    generatedBytes = 0;
+  }
+
+  private static byte[] generateSeed() {
+    byte[] randomSeed = new byte[SEED_LENGTH];
+    new SecureRandom().nextBytes(randomSeed);
+    return randomSeed;
+  }
+}
@@ -25,4 +25,23 @@ public interface Drbg {
    * @param bytes The byte array which will be overwritten with random data.
    */
   void nextBytes(byte[] bytes);
+
+  /**
+   * Fills part of the given byte array with deterministic pseudo-random bytes. The default
+   * implementation generates the bytes into a temporary array, implementations may write them
+   * directly.
+   *
+   * @param bytes The byte array which will be partly overwritten with random data.
+   * @param offset The position in the array of the first byte to overwrite
+   * @param length The amount of bytes to overwrite
+   */
+  default void nextBytes(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > bytes.length - length) {
+      throw new IndexOutOfBoundsException("Cannot write " + length + " bytes at offset " + offset
+          + " in an array of length " + bytes.length);
+    }
+    byte[] temp = new byte[length];
+    nextBytes(temp);
+    System.arraycopy(temp, 0, bytes, offset, length);
+  }
 }
@@ -1,12 +1,14 @@
 package dk.alexandra.fresco.suite.dummy.arithmetic;
 
 import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.sce.evaluator.ThreadSafeProtocol;
 
 /**
- * The {@link NativeProtocol} for the Dummy Arithmetic suite.
+ * The {@link NativeProtocol} for the Dummy Arithmetic suite. The protocols only read the immutable
+ * field definition from the resource pool, so they are thread safe.
  *
  * @param <OutputT> The output type of the protocol
  */
 public abstract class DummyArithmeticNativeProtocol<OutputT>
-    implements NativeProtocol<OutputT, DummyArithmeticResourcePool> {
+    implements NativeProtocol<OutputT, DummyArithmeticResourcePool>, ThreadSafeProtocol {
 }
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertThat;
 
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -45,14 +46,17 @@ public final class FieldDefinitionTest {
         BigIntegerFieldElement::extractValue);
     test.accept(new MersennePrimeFieldDefinition(bitLength, constant),
         MersennePrimeFieldElement::extractValue);
+    test.accept(new MontgomeryFieldDefinition(modulusValue),
+        MontgomeryFieldElement::extractValue);
   }
 
   /**
-   * Runs the test on two field definitions, simple and mersenne
+   * Runs the test on three field definitions, simple, mersenne and montgomery
    */
   private void testDefinition(Consumer<FieldDefinition> test) {
     test.accept(new BigIntegerFieldDefinition(modulusValue));
     test.accept(new MersennePrimeFieldDefinition(bitLength, constant));
+    test.accept(new MontgomeryFieldDefinition(modulusValue));
   }
 
   private List<BigInteger> toBigIntegers(List<FieldElement> elements,
@@ -137,4 +141,65 @@ public final class FieldDefinitionTest {
           Is.is(toBigIntegers(getElements(definition), converter)));
     });
   }
+
+  @Test
+  public void elementByteLength() {
+    testDefinition(definition -> assertThat(definition.getElementByteLength(), Is.is(16)));
+  }
+
+  @Test
+  public void serializeListAtOffset() {
+    testDefinition(definition -> {
+      byte[] result = new byte[bytes.length + 5];
+      Arrays.fill(result, (byte) -1);
+      definition.serialize(getElements(definition), result, 3);
+      assertThat(Arrays.copyOfRange(result, 3, 3 + bytes.length), Is.is(bytes));
+      assertThat(result[2], Is.is((byte) -1));
+      assertThat(result[3 + bytes.length], Is.is((byte) -1));
+    });
+  }
+
+  @Test
+  public void serializeAtOffset() {
+    testDefinition(definition -> {
+      List<FieldElement> elements = getElements(definition);
+      byte[] result = new byte[bytes.length];
+      Arrays.fill(result, (byte) -1);
+      for (int i = 0; i < elements.size(); i++) {
+        definition.serialize(elements.get(i), result, i * 16);
+      }
+      assertThat(result, Is.is(bytes));
+    });
+  }
+
+  @Test
+  public void deserializeAtOffset() {
+    testDefinition((definition, converter) -> {
+      List<BigInteger> expected = toBigIntegers(getElements(definition), converter);
+      for (int i = 0; i < expected.size(); i++) {
+        assertThat(converter.apply(definition.deserialize(bytes, i * 16)), Is.is(expected.get(i)));
+      }
+      assertThat(toBigIntegers(definition.deserializeList(bytes, 16, 2), converter),
+          Is.is(expected.subList(1, 3)));
+    });
+  }
+
+  @Test
+  public void byteBufferRoundTrip() {
+    testDefinition((definition, converter) -> {
+      List<FieldElement> elements = getElements(definition);
+      for (ByteBuffer buffer : Arrays.asList(ByteBuffer.allocate(bytes.length + 1),
+          ByteBuffer.allocateDirect(bytes.length + 1))) {
+        buffer.put((byte) 1);
+        definition.serialize(elements, buffer);
+        assertThat(buffer.position(), Is.is(bytes.length + 1));
+        buffer.flip();
+        assertThat(buffer.get(), Is.is((byte) 1));
+        List<FieldElement> result = definition.deserializeList(buffer, elements.size());
+        assertThat(buffer.hasRemaining(), Is.is(false));
+        assertThat(toBigIntegers(result, converter),
+            Is.is(toBigIntegers(elements, converter)));
+      }
+    });
+  }
 }
@@ -0,0 +1,70 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+public class LongMersennePrimeFieldDefinitionTest {
+
+  private final LongMersennePrimeFieldDefinition definition =
+      new LongMersennePrimeFieldDefinition(127, 1);
+  private final BigInteger prime = BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE);
+
+  @Test
+  public void getModulus() {
+    assertThat(definition.getModulus(), Is.is(prime));
+    assertThat(definition.getBitLength(), Is.is(127));
+    assertThat(new LongMersennePrimeFieldDefinition(61, 1).getModulus(),
+        Is.is(BigInteger.valueOf(Long.MAX_VALUE >>> 2)));
+  }
+
+  @Test
+  public void serializeMatchesBigIntegerField() {
+    BigIntegerFieldDefinition reference = new BigIntegerFieldDefinition(prime);
+    List<BigInteger> values = Arrays.asList(BigInteger.ZERO, BigInteger.valueOf(42),
+        prime.shiftRight(1), prime.subtract(BigInteger.ONE));
+    for (BigInteger value : values) {
+      FieldElement element = definition.createElement(value);
+      byte[] bytes = definition.serialize(element);
+      assertThat(bytes, Is.is(reference.serialize(reference.createElement(value))));
+      assertThat(definition.convertToUnsigned(definition.deserialize(bytes)), Is.is(value));
+      assertThat(definition.convertToBitVector(element),
+          Is.is(new StrictBitVector(bytes)));
+    }
+    List<FieldElement> elements =
+        values.stream().map(definition::createElement).collect(Collectors.toList());
+    byte[] bytes = definition.serialize(elements);
+    assertThat(bytes.length, Is.is(16 * values.size()));
+    assertThat(definition.deserializeList(bytes).stream().map(definition::convertToUnsigned)
+        .collect(Collectors.toList()), Is.is(values));
+  }
+
+  @Test
+  public void serializeAtOffset() {
+    List<FieldElement> elements = Arrays.asList(definition.createElement(7),
+        definition.createElement(prime.subtract(BigInteger.ONE)));
+    byte[] bytes = new byte[2 + 2 * definition.getElementByteLength()];
+    Arrays.fill(bytes, (byte) -1);
+    definition.serialize(elements, bytes, 1);
+    assertThat(bytes[0], Is.is((byte) -1));
+    assertThat(bytes[bytes.length - 1], Is.is((byte) -1));
+    assertThat(definition.convertToUnsigned(definition.deserialize(bytes, 1)),
+        Is.is(BigInteger.valueOf(7)));
+    assertThat(definition.deserializeList(bytes, 1, 2).stream()
+            .map(definition::convertToUnsigned).collect(Collectors.toList()),
+        Is.is(Arrays.asList(BigInteger.valueOf(7), prime.subtract(BigInteger.ONE))));
+  }
+
+  @Test
+  public void convertToSigned() {
+    assertThat(definition.convertToSigned(prime.subtract(BigInteger.ONE)),
+        Is.is(BigInteger.ONE.negate()));
+    assertThat(definition.convertToSigned(BigInteger.TEN), Is.is(BigInteger.TEN));
+  }
+}
@@ -0,0 +1,131 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import static org.junit.Assert.assertThat;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.StringContains;
+import org.junit.Test;
+
+public class LongMersennePrimeFieldElementTest {
+
+  private static final int[][] MODULI = {
+      {61, 1}, {62, 57}, {63, 25}, {64, 59}, {65, 49}, {89, 1}, {107, 1}, {126, 137}, {127, 1}};
+  private static final int ITERATIONS = 2000;
+
+  @Test
+  public void creators() {
+    for (int[] parameters : MODULI) {
+      LongMersennePrimeModulus modulus = modulus(parameters);
+      BigInteger prime = modulus.getPrime();
+      long[] values = {0, 1, -1, 27, -27, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+      for (long value : values) {
+        BigInteger expected = BigInteger.valueOf(value).mod(prime);
+        assertThat(value(LongMersennePrimeFieldElement.create(value, modulus)), Is.is(expected));
+        assertThat(value(LongMersennePrimeFieldElement.create("" + value, modulus)),
+            Is.is(expected));
+      }
+      assertThat(value(LongMersennePrimeFieldElement.create(prime, modulus)),
+          Is.is(BigInteger.ZERO));
+      assertThat(value(LongMersennePrimeFieldElement.create(prime.negate(), modulus)),
+          Is.is(BigInteger.ZERO));
+    }
+  }
+
+  @Test
+  public void arithmetic() {
+    Random random = new Random(42);
+    for (int[] parameters : MODULI) {
+      LongMersennePrimeModulus modulus = modulus(parameters);
+      BigInteger prime = modulus.getPrime();
+      BigInteger[] edges = {BigInteger.ZERO, BigInteger.ONE, prime.subtract(BigInteger.ONE),
+          prime.shiftRight(1), BigInteger.ONE.shiftLeft(Long.SIZE).mod(prime)};
+      for (int i = 0; i < ITERATIONS; i++) {
+        BigInteger a = i < edges.length * edges.length
+            ? edges[i % edges.length] : new BigInteger(parameters[0], random).mod(prime);
+        BigInteger b = i < edges.length * edges.length
+            ? edges[i / edges.length] : new BigInteger(parameters[0], random).mod(prime);
+        FieldElement elementA = LongMersennePrimeFieldElement.create(a, modulus);
+        FieldElement elementB = LongMersennePrimeFieldElement.create(b, modulus);
+        assertThat(message("add", a, b, prime), value(elementA.add(elementB)),
+            Is.is(a.add(b).mod(prime)));
+        assertThat(message("subtract", a, b, prime), value(elementA.subtract(elementB)),
+            Is.is(a.subtract(b).mod(prime)));
+        assertThat(message("multiply", a, b, prime), value(elementA.multiply(elementB)),
+            Is.is(a.multiply(b).mod(prime)));
+        assertThat(message("negate", a, b, prime), value(elementA.negate()),
+            Is.is(a.negate().mod(prime)));
+      }
+    }
+  }
+
+  @Test
+  public void bytes() {
+    Random random = new Random(42);
+    for (int[] parameters : MODULI) {
+      LongMersennePrimeModulus modulus = modulus(parameters);
+      int length = 1 + (parameters[0] - 1) / 8;
+      for (int i = 0; i < 100; i++) {
+        BigInteger value = new BigInteger(parameters[0], random).mod(modulus.getPrime());
+        byte[] bytes = new byte[length + 2];
+        ((LongMersennePrimeFieldElement) LongMersennePrimeFieldElement.create(value, modulus))
+            .toBytes(bytes, 1, length);
+        assertThat(new BigInteger(1, bytes).shiftRight(8), Is.is(value));
+        assertThat(value(LongMersennePrimeFieldElement.create(bytes, 1, length, modulus)),
+            Is.is(value));
+      }
+    }
+  }
+
+  @Test
+  public void sqrt() {
+    LongMersennePrimeModulus modulus = new LongMersennePrimeModulus(127, 1);
+    FieldElement element = LongMersennePrimeFieldElement.create(7, modulus);
+    FieldElement square = element.multiply(element);
+    assertThat(value(square.sqrt().multiply(square.sqrt())), Is.is(BigInteger.valueOf(49)));
+  }
+
+  @Test
+  public void modInverse() {
+    for (int[] parameters : MODULI) {
+      LongMersennePrimeModulus modulus = modulus(parameters);
+      FieldElement element = LongMersennePrimeFieldElement.create(123456789, modulus);
+      assertThat(value(element.multiply(element.modInverse())), Is.is(BigInteger.ONE));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void tooShortBitLength() {
+    new LongMersennePrimeModulus(60, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void tooLongBitLength() {
+    new LongMersennePrimeModulus(128, 173);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeConstant() {
+    new LongMersennePrimeModulus(127, -1);
+  }
+
+  @Test
+  public void toStringTest() {
+    FieldElement element = LongMersennePrimeFieldElement.create(BigInteger.valueOf(7854),
+        new LongMersennePrimeModulus(127, 1));
+    assertThat(element.toString(), StringContains.containsString("7854"));
+  }
+
+  private static String message(String operation, BigInteger a, BigInteger b, BigInteger prime) {
+    return operation + " of " + a + " and " + b + " modulo " + prime;
+  }
+
+  private static LongMersennePrimeModulus modulus(int[] parameters) {
+    return new LongMersennePrimeModulus(parameters[0], parameters[1]);
+  }
+
+  private static BigInteger value(FieldElement element) {
+    return LongMersennePrimeFieldElement.extractValue(element);
+  }
+}
@@ -0,0 +1,129 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.StringContains;
+import org.junit.Test;
+
+public class MontgomeryFieldElementTest {
+
+  private static final int ITERATIONS = 500;
+
+  private static List<MontgomeryModulus> moduli() {
+    List<MontgomeryModulus> moduli = new ArrayList<>();
+    moduli.add(new MontgomeryModulus(BigInteger.valueOf(251)));
+    moduli.add(new MontgomeryModulus(
+        BigInteger.ONE.shiftLeft(64).subtract(BigInteger.valueOf(59))));
+    moduli.add(new MontgomeryModulus(BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE)));
+    for (int bitLength : new int[] {8, 64, 72, 128, 192, 256, 512}) {
+      moduli.add(new MontgomeryModulus(ModulusFinder.findSuitableModulus(bitLength)));
+    }
+    return moduli;
+  }
+
+  @Test
+  public void creators() {
+    for (MontgomeryModulus modulus : moduli()) {
+      BigInteger prime = modulus.getPrime();
+      long[] values = {0, 1, -1, 27, -27, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+      for (long value : values) {
+        BigInteger expected = BigInteger.valueOf(value).mod(prime);
+        assertThat(value(MontgomeryFieldElement.create(value, modulus)), Is.is(expected));
+        assertThat(value(MontgomeryFieldElement.create("" + value, modulus)), Is.is(expected));
+      }
+      assertThat(value(MontgomeryFieldElement.create(prime, modulus)), Is.is(BigInteger.ZERO));
+      assertThat(value(MontgomeryFieldElement.create(prime.negate(), modulus)),
+          Is.is(BigInteger.ZERO));
+    }
+  }
+
+  @Test
+  public void arithmetic() {
+    Random random = new Random(42);
+    for (MontgomeryModulus modulus : moduli()) {
+      BigInteger prime = modulus.getPrime();
+      BigInteger[] edges = {BigInteger.ZERO, BigInteger.ONE, prime.subtract(BigInteger.ONE),
+          prime.shiftRight(1), prime.subtract(BigInteger.valueOf(2))};
+      for (int i = 0; i < ITERATIONS; i++) {
+        BigInteger a = i < edges.length * edges.length
+            ? edges[i % edges.length] : new BigInteger(prime.bitLength(), random).mod(prime);
+        BigInteger b = i < edges.length * edges.length
+            ? edges[i / edges.length] : new BigInteger(prime.bitLength(), random).mod(prime);
+        FieldElement elementA = MontgomeryFieldElement.create(a, modulus);
+        FieldElement elementB = MontgomeryFieldElement.create(b, modulus);
+        assertThat(message("add", a, b, prime), value(elementA.add(elementB)),
+            Is.is(a.add(b).mod(prime)));
+        assertThat(message("subtract", a, b, prime), value(elementA.subtract(elementB)),
+            Is.is(a.subtract(b).mod(prime)));
+        assertThat(message("multiply", a, b, prime), value(elementA.multiply(elementB)),
+            Is.is(a.multiply(b).mod(prime)));
+        assertThat(message("negate", a, b, prime), value(elementA.negate()),
+            Is.is(a.negate().mod(prime)));
+      }
+    }
+  }
+
+  @Test
+  public void bytes() {
+    Random random = new Random(42);
+    for (MontgomeryModulus modulus : moduli()) {
+      int length = 1 + (modulus.getPrime().bitLength() - 1) / 8;
+      for (int i = 0; i < 100; i++) {
+        BigInteger value = new BigInteger(modulus.getPrime().bitLength(), random)
+            .mod(modulus.getPrime());
+        byte[] bytes = new byte[length + 2];
+        ((MontgomeryFieldElement) MontgomeryFieldElement.create(value, modulus))
+            .toBytes(bytes, 1, length);
+        assertThat(new BigInteger(1, bytes).shiftRight(8), Is.is(value));
+        assertThat(value(MontgomeryFieldElement.create(bytes, 1, length, modulus)),
+            Is.is(value));
+      }
+    }
+  }
+
+  @Test
+  public void sqrt() {
+    MontgomeryModulus modulus = new MontgomeryModulus(BigInteger.valueOf(113));
+    FieldElement sqrt = MontgomeryFieldElement.create(2, modulus).sqrt();
+    assertThat(value(sqrt), Is.is(BigInteger.valueOf(62)));
+  }
+
+  @Test
+  public void modInverse() {
+    for (MontgomeryModulus modulus : moduli()) {
+      FieldElement element = MontgomeryFieldElement.create(123456789, modulus);
+      assertThat(value(element.multiply(element.modInverse())), Is.is(BigInteger.ONE));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void evenModulus() {
+    new MontgomeryModulus(BigInteger.valueOf(256));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void modulusOne() {
+    new MontgomeryModulus(BigInteger.ONE);
+  }
+
+  @Test
+  public void toStringTest() {
+    FieldElement element = MontgomeryFieldElement.create(BigInteger.valueOf(7854),
+        new MontgomeryModulus(ModulusFinder.findSuitableModulus(128)));
+    assertThat(element.toString(), StringContains.containsString("7854"));
+  }
+
+  private static String message(String operation, BigInteger a, BigInteger b, BigInteger prime) {
+    return operation + " of " + a + " and " + b + " modulo " + prime;
+  }
+
+  private static BigInteger value(FieldElement element) {
+    return MontgomeryFieldElement.extractValue(element);
+  }
+}
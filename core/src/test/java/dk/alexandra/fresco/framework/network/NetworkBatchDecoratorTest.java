@@ -1,6 +1,7 @@
 package dk.alexandra.fresco.framework.network;
 
 import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -65,25 +66,46 @@ public class NetworkBatchDecoratorTest {
     Assert.assertArrayEquals(new byte[]{1, 123}, transmissions.get(3));
   }
 
-  @Test(expected = RuntimeException.class)
-  public void errorOnBigPackets() throws Exception {
-    networkBatchDecorator.sendToAll(
-        new byte[]{
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-        });
+  @Test
+  public void sendBigPackets() throws Exception {
+    byte[] data = new byte[300];
+    Arrays.fill(data, (byte) 123);
+    networkBatchDecorator.sendToAll(data);
+    networkBatchDecorator.flush();
+    byte[] transmission = transmissions.get(1);
+    Assert.assertEquals(302, transmission.length);
+    // 300 = 0b10_0101100, so the low seven bits come first with the continuation bit set
+    Assert.assertEquals((byte) 0xac, transmission[0]);
+    Assert.assertEquals(0x02, transmission[1]);
+    Assert.assertArrayEquals(data, networkBatchDecorator.receive(1));
+  }
+
+  @Test
+  public void sendMixedSizes() throws Exception {
+    int[] sizes = {0, 1, 127, 128, 16383, 16384, 1 << 21};
+    for (int size : sizes) {
+      byte[] data = new byte[size];
+      Arrays.fill(data, (byte) size);
+      networkBatchDecorator.send(2, data);
+    }
+    networkBatchDecorator.flush();
+    for (int size : sizes) {
+      byte[] expected = new byte[size];
+      Arrays.fill(expected, (byte) size);
+      Assert.assertArrayEquals(expected, networkBatchDecorator.receive(2));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void receiveTruncated() throws Exception {
+    transmissions.put(1, new byte[]{(byte) 0x81, 0x01, 1, 2});
+    networkBatchDecorator.receive(1);
+  }
 
+  @Test(expected = IllegalStateException.class)
+  public void receiveMalformedLength() throws Exception {
+    transmissions.put(1, new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x7f});
+    networkBatchDecorator.receive(1);
   }
 
   private class DummyNetwork implements Network {
@@ -0,0 +1,187 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import static dk.alexandra.fresco.framework.network.socket.Connector.DEFAULT_CONNECTION_TIMEOUT;
+import static org.junit.Assert.assertArrayEquals;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.AbstractCloseableNetworkTest;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class TestNioNetwork extends AbstractCloseableNetworkTest {
+
+  @Override
+  protected CloseableNetwork newCloseableNetwork(NetworkConfiguration conf) {
+    return newCloseableNetwork(conf, DEFAULT_CONNECTION_TIMEOUT);
+  }
+
+  @Override
+  protected CloseableNetwork newCloseableNetwork(NetworkConfiguration conf, Duration timeout) {
+    return new NioNetwork(conf, connect(conf, timeout).getSocketMap());
+  }
+
+  private static NetworkConnector connect(NetworkConfiguration conf, Duration timeout) {
+    return new Connector(conf, timeout, new ChannelSocketFactory(),
+        new ChannelSocketFactory.Server());
+  }
+
+  private List<Map<Integer, Socket>> connectAll(List<NetworkConfiguration> confs,
+      boolean channels) throws InterruptedException, ExecutionException {
+    ExecutorService es = Executors.newFixedThreadPool(confs.size());
+    List<Future<NetworkConnector>> fs = new ArrayList<>(confs.size());
+    try {
+      for (NetworkConfiguration conf : confs) {
+        fs.add(es.submit(() -> channels
+            ? connect(conf, DEFAULT_CONNECTION_TIMEOUT)
+            : new Connector(conf, DEFAULT_CONNECTION_TIMEOUT)));
+      }
+      List<Map<Integer, Socket>> socketMaps = new ArrayList<>(confs.size());
+      for (Future<NetworkConnector> f : fs) {
+        socketMaps.add(f.get().getSocketMap());
+      }
+      return socketMaps;
+    } finally {
+      es.shutdownNow();
+    }
+  }
+
+  private void closeAll(List<Map<Integer, Socket>> socketMaps) throws IOException {
+    for (Map<Integer, Socket> socketMap : socketMaps) {
+      for (Socket s : socketMap.values()) {
+        s.close();
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @SuppressWarnings("resource")
+  public void testMissingParty() throws Exception {
+    List<NetworkConfiguration> confs = getNetConfs(3);
+    List<Map<Integer, Socket>> socketMaps = connectAll(confs, true);
+    try {
+      Map<Integer, Socket> missingPartyMap = socketMaps.get(0);
+      missingPartyMap.remove(2).close();
+      new NioNetwork(confs.get(0), missingPartyMap);
+    } finally {
+      closeAll(socketMaps);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @SuppressWarnings("resource")
+  public void testClosedSockets() throws Exception {
+    List<NetworkConfiguration> confs = getNetConfs(3);
+    List<Map<Integer, Socket>> socketMaps = connectAll(confs, true);
+    try {
+      socketMaps.get(0).get(3).close();
+      new NioNetwork(confs.get(0), socketMaps.get(0));
+    } finally {
+      closeAll(socketMaps);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @SuppressWarnings("resource")
+  public void testSocketsWithoutChannels() throws Exception {
+    List<NetworkConfiguration> confs = getNetConfs(2);
+    List<Map<Integer, Socket>> socketMaps = connectAll(confs, false);
+    try {
+      new NioNetwork(confs.get(0), socketMaps.get(0));
+    } finally {
+      closeAll(socketMaps);
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testStoppedReceiver() throws Exception {
+    List<NetworkConfiguration> confs = getNetConfs(2);
+    List<Map<Integer, Socket>> socketMaps = connectAll(confs, true);
+    try (CloseableNetwork network = new NioNetwork(confs.get(0), socketMaps.get(0))) {
+      DataOutputStream out = new DataOutputStream(socketMaps.get(1).get(1).getOutputStream());
+      out.writeInt(1);
+      out.write(42);
+      out.writeInt(-1);
+      assertArrayEquals(new byte[] { 42 }, network.receive(2));
+      network.receive(2);
+    } finally {
+      closeAll(socketMaps);
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testClosedSocketReceiver() throws Exception {
+    List<NetworkConfiguration> confs = getNetConfs(2);
+    List<Map<Integer, Socket>> socketMaps = connectAll(confs, true);
+    try (CloseableNetwork network = new NioNetwork(confs.get(0), socketMaps.get(0))) {
+      socketMaps.get(1).get(1).close();
+      network.receive(2);
+    } finally {
+      closeAll(socketMaps);
+    }
+  }
+
+  @Test(timeout = TWO_MINUTE_TIMEOUT_MILLIS)
+  public void testInteroperatesWithSocketNetwork() throws Exception {
+    List<NetworkConfiguration> confs = getNetConfs(2);
+    List<Map<Integer, Socket>> socketMaps = connectAll(confs, true);
+    try (CloseableNetwork nio = new NioNetwork(confs.get(0), socketMaps.get(0));
+        CloseableNetwork blocking = new SocketNetwork(confs.get(1), socketMaps.get(1))) {
+      Random random = new Random(42);
+      for (int size : new int[] { 0, 1, NioNetwork.BUFFER_SIZE, 3 * NioNetwork.BUFFER_SIZE + 5 }) {
+        byte[] data = new byte[size];
+        random.nextBytes(data);
+        nio.send(2, data);
+        assertArrayEquals(data, blocking.receive(1));
+        blocking.send(1, data);
+        assertArrayEquals(data, nio.receive(2));
+      }
+    }
+  }
+
+  @Test(timeout = TWO_MINUTE_TIMEOUT_MILLIS)
+  public void testManySmallAndLargeMessages() throws Exception {
+    networks = createNetworks(3);
+    ExecutorService es = Executors.newFixedThreadPool(3);
+    try {
+      List<Future<?>> fs = new ArrayList<>();
+      for (int i = 1; i <= 3; i++) {
+        final int id = i;
+        fs.add(es.submit(() -> {
+          for (int j = 0; j < 2000; j++) {
+            for (int k = 1; k <= 3; k++) {
+              networks.get(id).send(k, message(id, j));
+            }
+          }
+          for (int j = 0; j < 2000; j++) {
+            for (int k = 1; k <= 3; k++) {
+              assertArrayEquals(message(k, j), networks.get(id).receive(k));
+            }
+          }
+        }));
+      }
+      for (Future<?> f : fs) {
+        f.get();
+      }
+    } finally {
+      es.shutdownNow();
+    }
+  }
+
+  private static byte[] message(int sender, int index) {
+    byte[] data = new byte[index % 100 == 0 ? 100_000 : index % 37];
+    new Random(31L * sender + index).nextBytes(data);
+    return data;
+  }
+}
@@ -0,0 +1,119 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class TestAdaptiveBatchSizePolicy {
+
+  private static final long LATENCY = 1_000_000;
+  private static final long PROTOCOL_COST = 1_000;
+  private static final int RECOVERY_BATCHES = 50;
+  private double heapUsage = 0.1;
+
+  @Test
+  public void testGrowsToMaxOnHighLatency() {
+    AdaptiveBatchSizePolicy policy = createPolicy();
+    simulate(policy, 200, Long.MAX_VALUE);
+    assertThat(policy.getBatchSize(), is(1 << 16));
+  }
+
+  @Test
+  public void testFindsBestThroughput() {
+    AdaptiveBatchSizePolicy policy = createPolicy();
+    // Best throughput is at sqrt(LATENCY * 4096 / PROTOCOL_COST), i.e., around 2048
+    for (int i = 0; i < 100; i++) {
+      simulate(policy, 4, 4096);
+      assertThat(policy.getBatchSize(), greaterThanOrEqualTo(512));
+      assertThat(policy.getBatchSize(), lessThanOrEqualTo(8192));
+    }
+  }
+
+  @Test
+  public void testShrinksOnHeapPressure() {
+    AdaptiveBatchSizePolicy policy = createPolicy();
+    heapUsage = 0.9;
+    simulate(policy, 1, Long.MAX_VALUE);
+    assertThat(policy.getBatchSize(), is(2048));
+    heapUsage = 0.1;
+    simulate(policy, RECOVERY_BATCHES - 1, Long.MAX_VALUE);
+    assertThat(policy.getBatchSize(), is(2048));
+  }
+
+  @Test
+  public void testRecoversAfterHeapPressure() {
+    AdaptiveBatchSizePolicy policy = createPolicy();
+    heapUsage = 0.9;
+    simulate(policy, 1, Long.MAX_VALUE);
+    heapUsage = 0.1;
+    simulate(policy, 10 * RECOVERY_BATCHES, Long.MAX_VALUE);
+    assertThat(policy.getBatchSize(), is(1 << 16));
+  }
+
+  @Test
+  public void testActsOnceOnEachHeapMeasurement() {
+    AdaptiveBatchSizePolicy policy = createPolicy();
+    heapUsage = 0.9;
+    simulate(policy, 10, Long.MAX_VALUE);
+    assertThat(policy.getBatchSize(), is(2048));
+    heapUsage = 0.95;
+    simulate(policy, 1, Long.MAX_VALUE);
+    assertThat(policy.getBatchSize(), is(1024));
+  }
+
+  @Test
+  public void testShrinksOnBytes() {
+    AdaptiveBatchSizePolicy policy = createPolicy();
+    policy.batchEvaluated(4096, 4096, LATENCY, 1L << 30);
+    assertThat(policy.getBatchSize(), is(2048));
+  }
+
+  @Test
+  public void testShrinksOnDuration() {
+    AdaptiveBatchSizePolicy policy = createPolicy();
+    for (int i = 0; i < 20; i++) {
+      policy.batchEvaluated(policy.getBatchSize(), policy.getBatchSize(), Long.MAX_VALUE, 0);
+    }
+    assertThat(policy.getBatchSize(), is(256));
+  }
+
+  @Test
+  public void testIgnoresPartialBatches() {
+    AdaptiveBatchSizePolicy policy = createPolicy();
+    for (int i = 0; i < 100; i++) {
+      policy.batchEvaluated(4096, 10, LATENCY, 100);
+    }
+    assertThat(policy.getBatchSize(), is(4096));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBounds() {
+    new AdaptiveBatchSizePolicy(10, 100, 50, 1, 1, 0.5, 1, 1, () -> 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitialOutOfBounds() {
+    new AdaptiveBatchSizePolicy(10, 100, 1000, 1, 1, 0.5, 1, 1, () -> 0.0);
+  }
+
+  private AdaptiveBatchSizePolicy createPolicy() {
+    return new AdaptiveBatchSizePolicy(4096, 256, 1 << 16, 10_000_000_000L, 64L * 1024 * 1024,
+        0.75, 2, RECOVERY_BATCHES, () -> heapUsage);
+  }
+
+  /**
+   * Simulates evaluating full batches on a network with a fixed latency per batch, where the
+   * local cost of each protocol grows with the batch size divided by the given scale.
+   */
+  private void simulate(BatchSizePolicy policy, int batches, long scale) {
+    for (int i = 0; i < batches; i++) {
+      int batchSize = policy.getBatchSize();
+      long duration = LATENCY + batchSize * PROTOCOL_COST
+          + (long) ((double) batchSize * batchSize * PROTOCOL_COST / scale);
+      policy.batchEvaluated(batchSize, batchSize, duration, 8L * batchSize);
+    }
+  }
+}
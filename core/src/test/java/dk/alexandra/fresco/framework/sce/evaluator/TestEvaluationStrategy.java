@@ -11,5 +11,7 @@ public class TestEvaluationStrategy {
  public void testEnums(){
    assertThat(EvaluationStrategy.valueOf("SEQUENTIAL"), is(EvaluationStrategy.SEQUENTIAL));
    assertThat(EvaluationStrategy.valueOf("SEQUENTIAL_BATCHED"), is(EvaluationStrategy.SEQUENTIAL_BATCHED));
+   assertThat(EvaluationStrategy.valueOf("PARALLEL_BATCHED"), is(EvaluationStrategy.PARALLEL_BATCHED));
+   assertThat(EvaluationStrategy.valueOf("PIPELINED"), is(EvaluationStrategy.PIPELINED));
  }
 }
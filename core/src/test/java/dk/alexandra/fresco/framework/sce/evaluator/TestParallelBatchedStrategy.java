@@ -0,0 +1,165 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestParallelBatchedStrategy {
+
+  private static final int PROTOCOLS = 1000;
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+  private final ParallelBatchedStrategy<ResourcePool> strategy =
+      new ParallelBatchedStrategy<>(executor, 10);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testProtocolsWhichAreNotThreadSafeAreEvaluatedInOrder() {
+    List<Integer> draws = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    ProtocolCollectionList<ResourcePool> protocols = new ProtocolCollectionList<>(PROTOCOLS);
+    List<DrawingProtocol> drawing = new ArrayList<>();
+    for (int i = 0; i < PROTOCOLS; i++) {
+      DrawingProtocol protocol = new DrawingProtocol(draws, threads);
+      drawing.add(protocol);
+      protocols.addProtocol(protocol);
+    }
+    strategy.processBatch(protocols, null, new NetworkBatchDecorator(1, new LoopbackNetwork()));
+    for (int i = 0; i < PROTOCOLS; i++) {
+      assertThat(drawing.get(i).out(), is(i));
+      assertThat(draws.get(PROTOCOLS + i), is(PROTOCOLS + i));
+      assertThat(threads.get(i), is(Thread.currentThread()));
+    }
+  }
+
+  @Test
+  public void testProtocolsWhichAreNotThreadSafeSendAsBatchedStrategy() {
+    NetworkBatchDecorator parallel = new NetworkBatchDecorator(1, new LoopbackNetwork());
+    strategy.processBatch(echoes(false), null, parallel);
+    NetworkBatchDecorator batched = new NetworkBatchDecorator(1, new LoopbackNetwork());
+    new BatchedStrategy<>().processBatch(echoes(false), null, batched);
+    assertThat(parallel.getBytesSent(), is(batched.getBytesSent()));
+  }
+
+  @Test
+  public void testThreadSafeProtocolsReceiveTheirOwnMessages() {
+    ProtocolCollectionList<ResourcePool> protocols = new ProtocolCollectionList<>(PROTOCOLS);
+    List<EchoProtocol> echoes = new ArrayList<>();
+    for (int i = 0; i < PROTOCOLS; i++) {
+      EchoProtocol protocol = new ThreadSafeEchoProtocol(i);
+      echoes.add(protocol);
+      protocols.addProtocol(protocol);
+    }
+    strategy.processBatch(protocols, null, new NetworkBatchDecorator(1, new LoopbackNetwork()));
+    for (int i = 0; i < PROTOCOLS; i++) {
+      assertThat(echoes.get(i).out(), is(i));
+    }
+  }
+
+  private static ProtocolCollectionList<ResourcePool> echoes(boolean threadSafe) {
+    ProtocolCollectionList<ResourcePool> protocols = new ProtocolCollectionList<>(PROTOCOLS);
+    for (int i = 0; i < PROTOCOLS; i++) {
+      protocols.addProtocol(threadSafe ? new ThreadSafeEchoProtocol(i) : new EchoProtocol(i));
+    }
+    return protocols;
+  }
+
+  /**
+   * Draws from a shared, unsynchronized list in two rounds, as a protocol consuming preprocessed
+   * material would.
+   */
+  private static class DrawingProtocol implements NativeProtocol<Integer, ResourcePool> {
+
+    private final List<Integer> draws;
+    private final List<Thread> threads;
+    private Integer drawn;
+
+    DrawingProtocol(List<Integer> draws, List<Thread> threads) {
+      this.draws = draws;
+      this.threads = threads;
+    }
+
+    @Override
+    public EvaluationStatus evaluate(int round, ResourcePool resourcePool, Network network) {
+      draws.add(draws.size());
+      if (round == 0) {
+        drawn = draws.get(draws.size() - 1);
+        threads.add(Thread.currentThread());
+        return EvaluationStatus.HAS_MORE_ROUNDS;
+      }
+      return EvaluationStatus.IS_DONE;
+    }
+
+    @Override
+    public Integer out() {
+      return drawn;
+    }
+  }
+
+  private static class EchoProtocol implements NativeProtocol<Integer, ResourcePool> {
+
+    private final int value;
+    private Integer received;
+
+    EchoProtocol(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public EvaluationStatus evaluate(int round, ResourcePool resourcePool, Network network) {
+      if (round == 0) {
+        network.send(1, ByteBuffer.allocate(Integer.BYTES).putInt(value).array());
+        return EvaluationStatus.HAS_MORE_ROUNDS;
+      }
+      received = ByteBuffer.wrap(network.receive(1)).getInt();
+      return EvaluationStatus.IS_DONE;
+    }
+
+    @Override
+    public Integer out() {
+      return received;
+    }
+  }
+
+  private static class ThreadSafeEchoProtocol extends EchoProtocol implements ThreadSafeProtocol {
+
+    ThreadSafeEchoProtocol(int value) {
+      super(value);
+    }
+  }
+
+  private static class LoopbackNetwork implements Network {
+
+    private final Deque<byte[]> messages = new ArrayDeque<>();
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      messages.add(data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return messages.remove();
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return 1;
+    }
+  }
+}
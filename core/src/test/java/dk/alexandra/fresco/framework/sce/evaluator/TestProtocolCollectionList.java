@@ -0,0 +1,158 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+
+public class TestProtocolCollectionList {
+
+  @Test
+  public void testCapacity() {
+    ProtocolCollectionList<ResourcePool> list = new ProtocolCollectionList<>(40);
+    for (int i = 0; i < 39; i++) {
+      list.addProtocol(new DummyProtocol(i));
+      assertTrue(list.hasFreeCapacity());
+    }
+    list.addProtocol(new DummyProtocol(39));
+    assertFalse(list.hasFreeCapacity());
+    assertThat(list.size(), is(40));
+  }
+
+  @Test
+  public void testRemoveCompactsInOrder() {
+    ProtocolCollectionList<ResourcePool> list = filled(100);
+    Iterator<NativeProtocol<?, ResourcePool>> iterator = list.iterator();
+    while (iterator.hasNext()) {
+      if ((Integer) iterator.next().out() % 3 == 0) {
+        iterator.remove();
+      }
+    }
+    assertThat(list.size(), is(66));
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      if (i % 3 != 0) {
+        expected.add(i);
+      }
+    }
+    assertThat(values(list), is(expected));
+  }
+
+  @Test
+  public void testAbortedIterationKeepsRemaining() {
+    ProtocolCollectionList<ResourcePool> list = filled(10);
+    Iterator<NativeProtocol<?, ResourcePool>> iterator = list.iterator();
+    iterator.next();
+    iterator.remove();
+    iterator.next();
+    iterator.next();
+    iterator.remove();
+    assertThat(list.size(), is(8));
+    List<Integer> expected = new ArrayList<>();
+    expected.add(1);
+    for (int i = 3; i < 10; i++) {
+      expected.add(i);
+    }
+    assertThat(values(list), is(expected));
+  }
+
+  @Test
+  public void testRemoveAll() {
+    ProtocolCollectionList<ResourcePool> list = filled(10);
+    Iterator<NativeProtocol<?, ResourcePool>> iterator = list.iterator();
+    while (iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+    assertThat(list.size(), is(0));
+    assertFalse(list.iterator().hasNext());
+  }
+
+  @Test
+  public void testClearAndReuse() {
+    ProtocolCollectionList<ResourcePool> list = filled(10);
+    list.clear();
+    assertThat(list.size(), is(0));
+    assertTrue(list.hasFreeCapacity());
+    list.addProtocol(new DummyProtocol(42));
+    List<Integer> expected = new ArrayList<>();
+    expected.add(42);
+    assertThat(values(list), is(expected));
+  }
+
+  @Test
+  public void testSetCapacity() {
+    ProtocolCollectionList<ResourcePool> list = filled(10);
+    list.clear();
+    list.setCapacity(4);
+    for (int i = 0; i < 4; i++) {
+      list.addProtocol(new DummyProtocol(i));
+    }
+    assertFalse(list.hasFreeCapacity());
+    list.setCapacity(20);
+    for (int i = 4; i < 20; i++) {
+      assertTrue(list.hasFreeCapacity());
+      list.addProtocol(new DummyProtocol(i));
+    }
+    assertFalse(list.hasFreeCapacity());
+    assertThat(list.size(), is(20));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetCapacityBelowSize() {
+    ProtocolCollectionList<ResourcePool> list = filled(10);
+    list.setCapacity(9);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRemoveTwice() {
+    ProtocolCollectionList<ResourcePool> list = filled(2);
+    Iterator<NativeProtocol<?, ResourcePool>> iterator = list.iterator();
+    iterator.next();
+    iterator.remove();
+    iterator.remove();
+  }
+
+  private ProtocolCollectionList<ResourcePool> filled(int size) {
+    ProtocolCollectionList<ResourcePool> list = new ProtocolCollectionList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.addProtocol(new DummyProtocol(i));
+    }
+    return list;
+  }
+
+  private List<Integer> values(ProtocolCollectionList<ResourcePool> list) {
+    List<Integer> values = new ArrayList<>();
+    for (NativeProtocol<?, ResourcePool> protocol : list) {
+      values.add((Integer) protocol.out());
+    }
+    return values;
+  }
+
+  private static class DummyProtocol implements NativeProtocol<Integer, ResourcePool> {
+
+    private final int value;
+
+    DummyProtocol(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public EvaluationStatus evaluate(int round, ResourcePool resourcePool, Network network) {
+      return EvaluationStatus.IS_DONE;
+    }
+
+    @Override
+    public Integer out() {
+      return value;
+    }
+  }
+}
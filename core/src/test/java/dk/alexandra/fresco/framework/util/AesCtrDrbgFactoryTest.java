@@ -41,6 +41,23 @@ public class AesCtrDrbgFactoryTest {
     assertArrayEquals(bytesA, bytesB);
   }
 
+  @Test
+  public void testBufferedFromDerivedSeed() throws NoSuchAlgorithmException {
+    MessageDigest md = MessageDigest.getInstance(AesCtrDrbgFactory.HASH_ALGORITHM);
+    Drbg drbgA = AesCtrDrbgFactory.bufferedFromDerivedSeed((byte) 0x01, (byte) 0x02);
+    byte[] seed = md.digest(new byte[] { 0x01, 0x00, 0x00, 0x01, 0x00, 0x01, 0x02 });
+    Drbg drbgB = AesCtrDrbgFactory.bufferedFromRandomSeed(seed);
+    Drbg drbgC = new BufferedAesCtrDrbg(seed);
+    byte[] bytesA = new byte[100000];
+    byte[] bytesB = new byte[100000];
+    byte[] bytesC = new byte[100000];
+    drbgA.nextBytes(bytesA);
+    drbgB.nextBytes(bytesB);
+    drbgC.nextBytes(bytesC);
+    assertArrayEquals(bytesA, bytesB);
+    assertArrayEquals(bytesA, bytesC);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testFromRandomSeedShortSeed() {
     AesCtrDrbgFactory.fromRandomSeed(new byte[] { 0x42 });
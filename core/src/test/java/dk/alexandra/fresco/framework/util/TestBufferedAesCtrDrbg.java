@@ -0,0 +1,111 @@
+package dk.alexandra.fresco.framework.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestBufferedAesCtrDrbg {
+
+  @Test
+  public void testDefaultConstructor() {
+    byte[] bytes = new byte[16];
+    new BufferedAesCtrDrbg().nextBytes(bytes);
+    byte[] otherBytes = new byte[16];
+    new BufferedAesCtrDrbg().nextBytes(otherBytes);
+    assertFalse(Arrays.equals(bytes, otherBytes));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLongSeed() {
+    new BufferedAesCtrDrbg(new byte[33]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShortSeed() {
+    new BufferedAesCtrDrbg(new byte[1]);
+  }
+
+  @Test
+  public void testDeterministic() {
+    byte[] seed = new byte[32];
+    new Random(42).nextBytes(seed);
+    byte[] bytes = new byte[1000];
+    new BufferedAesCtrDrbg(seed).nextBytes(bytes);
+    byte[] otherBytes = new byte[1000];
+    new BufferedAesCtrDrbg(seed).nextBytes(otherBytes);
+    assertArrayEquals(bytes, otherBytes);
+  }
+
+  @Test
+  public void testFirstBytesAreKeyStream() {
+    // Before the first rekeying the output is the plain AES-CTR key stream, like AesCtrDrbg
+    byte[] seed = new byte[32];
+    new Random(1).nextBytes(seed);
+    byte[] bytes = new byte[10000];
+    new BufferedAesCtrDrbg(seed).nextBytes(bytes);
+    byte[] expected = new byte[10000];
+    new AesCtrDrbg(seed).nextBytes(expected);
+    assertArrayEquals(expected, bytes);
+  }
+
+  @Test
+  public void testIndependentOfRequestSizes() {
+    // Generate enough bytes to pass the rekeying limit of 16 MiB
+    int length = (1 << 24) + 123457;
+    byte[] seed = new byte[32];
+    new Random(2).nextBytes(seed);
+    byte[] expected = new byte[length];
+    new BufferedAesCtrDrbg(seed).nextBytes(expected);
+    byte[] actual = new byte[length];
+    Drbg drbg = new BufferedAesCtrDrbg(seed);
+    Random random = new Random(3);
+    int offset = 0;
+    while (offset < length) {
+      int size = Math.min(length - offset,
+          random.nextBoolean() ? random.nextInt(100) : random.nextInt(100000));
+      drbg.nextBytes(actual, offset, size);
+      offset += size;
+    }
+    assertArrayEquals(expected, actual);
+    // Sanity check that the key stream changed after rekeying
+    byte[] keyStream = new byte[length];
+    new AesCtrDrbg(seed).nextBytes(keyStream);
+    assertFalse(Arrays.equals(keyStream, expected));
+  }
+
+  @Test
+  public void testNextBytesWithOffset() {
+    byte[] seed = new byte[32];
+    byte[] expected = new byte[50];
+    new BufferedAesCtrDrbg(seed).nextBytes(expected);
+    byte[] bytes = new byte[70];
+    new BufferedAesCtrDrbg(seed).nextBytes(bytes, 10, 50);
+    assertArrayEquals(expected, Arrays.copyOfRange(bytes, 10, 60));
+    assertEquals(0, bytes[9]);
+    assertEquals(0, bytes[60]);
+  }
+
+  @Test
+  public void testDefaultNextBytesWithOffset() {
+    byte[] seed = new byte[32];
+    byte[] expected = new byte[50];
+    new AesCtrDrbg(seed).nextBytes(expected);
+    byte[] bytes = new byte[70];
+    new AesCtrDrbg(seed).nextBytes(bytes, 20, 50);
+    assertArrayEquals(expected, Arrays.copyOfRange(bytes, 20, 70));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testNextBytesOutOfBounds() {
+    new BufferedAesCtrDrbg(new byte[32]).nextBytes(new byte[10], 5, 6);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testDefaultNextBytesOutOfBounds() {
+    new AesCtrDrbg(new byte[32]).nextBytes(new byte[10], -1, 6);
+  }
+}
@@ -12,6 +12,7 @@ import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
 import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
 import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchSizePolicy;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.lib.real.BasicFixedPointTests;
@@ -28,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
 
 /**
  * Abstract class which handles a lot of boiler plate testing code. This makes running a single test
@@ -60,7 +62,8 @@ public abstract class AbstractDummyArithmeticTest {
         p.modulus,
         p.maxBitLength,
         p.fixedPointPrecesion,
-        p.performanceLogging);
+        p.performanceLogging,
+        p.batchSizePolicy);
   }
 
   /**
@@ -71,14 +74,15 @@ public abstract class AbstractDummyArithmeticTest {
       TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, int noOfParties) {
     runTest(f, evalStrategy, noOfParties, DEFAULT_FIELD, DEFAULT_MAX_BIT_LENGTH,
-        DEFAULT_FIXED_POINT_PRECISION, DEFAULT_PERFORMANCE_LOGGING);
+        DEFAULT_FIXED_POINT_PRECISION, DEFAULT_PERFORMANCE_LOGGING, null);
   }
 
   private void runTest(
       TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, int noOfParties, FieldDefinition fieldDefinition,
       int maxBitLength,
-      int fixedPointPrecision, boolean logPerformance) {
+      int fixedPointPrecision, boolean logPerformance,
+      IntFunction<BatchSizePolicy> batchSizePolicy) {
     List<Integer> ports = new ArrayList<>(noOfParties);
     for (int i = 1; i <= noOfParties; i++) {
       ports.add(9000 + i * (noOfParties - 1));
@@ -106,8 +110,13 @@ public abstract class AbstractDummyArithmeticTest {
         batchEvaluationStrategy = new BatchEvaluationLoggingDecorator<>(batchEvaluationStrategy);
         aggregate.add((PerformanceLogger) batchEvaluationStrategy);
       }
-      ProtocolEvaluator<DummyArithmeticResourcePool> evaluator =
-          new BatchedProtocolEvaluator<>(batchEvaluationStrategy, ps);
+      ProtocolEvaluator<DummyArithmeticResourcePool> evaluator;
+      if (batchSizePolicy == null) {
+        evaluator = new BatchedProtocolEvaluator<>(batchEvaluationStrategy, ps);
+      } else {
+        evaluator = new BatchedProtocolEvaluator<>(batchEvaluationStrategy, ps,
+            batchSizePolicy.apply(playerId), 2);
+      }
       if (logPerformance) {
         evaluator = new EvaluatorLoggingDecorator<>(evaluator);
         aggregate.add((PerformanceLogger) evaluator);
@@ -153,6 +162,7 @@ public abstract class AbstractDummyArithmeticTest {
     private int numParties = DEFAULT_PARTIES;
     private EvaluationStrategy evaluationStrategy = DEFAULT_EVALUATION_STRATEGY;
     private boolean performanceLogging = DEFAULT_PERFORMANCE_LOGGING;
+    private IntFunction<BatchSizePolicy> batchSizePolicy = null;
 
     public TestParameters field(FieldDefinition field) {
       this.modulus = field;
@@ -183,5 +193,10 @@ public abstract class AbstractDummyArithmeticTest {
       this.performanceLogging = performanceLogging;
       return this;
     }
+
+    public TestParameters batchSizePolicy(IntFunction<BatchSizePolicy> batchSizePolicy) {
+      this.batchSizePolicy = batchSizePolicy;
+      return this;
+    }
   }
 }
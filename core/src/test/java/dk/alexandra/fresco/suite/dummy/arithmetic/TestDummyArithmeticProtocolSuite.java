@@ -7,6 +7,10 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.numeric.ExponentiationPipeTests;
 import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.LongMersennePrimeFieldDefinition;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSizePolicy;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchSizePolicy;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.util.ModulusFinder;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.arithmetic.AdvancedNumericTests.TestMinInfFrac;
@@ -68,6 +72,47 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new BasicArithmeticTests.TestInputFromAll<>(), new TestParameters().numParties(2));
   }
 
+  @Test
+  public void testInputFromAllEachStrategy() {
+    for (EvaluationStrategy strategy : EvaluationStrategy.values()) {
+      runTest(new BasicArithmeticTests.TestInputFromAll<>(), new TestParameters()
+          .numParties(3)
+          .evaluationStrategy(strategy));
+    }
+  }
+
+  @Test
+  public void testLotsMultEachStrategy() {
+    for (EvaluationStrategy strategy : EvaluationStrategy.values()) {
+      runTest(new BasicArithmeticTests.TestLotsMult<>(), new TestParameters()
+          .numParties(2)
+          .evaluationStrategy(strategy));
+    }
+  }
+
+  @Test
+  public void testCompareLtEachStrategy() {
+    for (EvaluationStrategy strategy : EvaluationStrategy.values()) {
+      runTest(new CompareTests.TestCompareLT<>(), new TestParameters()
+          .numParties(2)
+          .evaluationStrategy(strategy));
+    }
+  }
+
+  @Test
+  public void testLotsMultAgreedBatchSize() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), new TestParameters()
+        .numParties(3)
+        .batchSizePolicy(VaryingBatchSizePolicy::new));
+  }
+
+  @Test
+  public void testCompareLtAdaptiveBatchSize() {
+    runTest(new CompareTests.TestCompareLT<>(), new TestParameters()
+        .numParties(2)
+        .batchSizePolicy(playerId -> new AdaptiveBatchSizePolicy()));
+  }
+
   @Test
   public void test_OutputToTarget_Sequential() {
     runTest(new BasicArithmeticTests.TestOutputToSingleParty<>(), new TestParameters()
@@ -531,6 +576,14 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new LinAlgTests.TestInnerProductClosed<>(), new TestParameters().numParties(2));
   }
 
+  @Test
+  public void test_InnerProductClosedLongMersenneField() {
+    runTest(new LinAlgTests.TestInnerProductClosed<>(), new TestParameters()
+        .numParties(2)
+        .field(new LongMersennePrimeFieldDefinition(127, 1))
+        .maxBitLength(60));
+  }
+
   @Test
   public void test_InnerProductOpen() {
     runTest(new LinAlgTests.TestInnerProductOpen<>(), new TestParameters().numParties(2));
@@ -796,4 +849,29 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
   public void test_trunctation() {
     runTest(new TruncationTests.TestTruncation<>(), new TestParameters().numParties(2));
   }
+
+  /**
+   * Policy proposing different batch sizes for each party and batch, such that evaluation only
+   * succeeds if the parties agree on the batch size.
+   */
+  private static class VaryingBatchSizePolicy implements BatchSizePolicy {
+
+    private final int[] sizes = {7, 1000, 64, 4096, 300};
+    private int index;
+
+    VaryingBatchSizePolicy(int playerId) {
+      this.index = playerId;
+    }
+
+    @Override
+    public int getBatchSize() {
+      return sizes[index % sizes.length];
+    }
+
+    @Override
+    public void batchEvaluated(int batchSize, int noOfProtocols, long durationNanos,
+        long bytesSent) {
+      index++;
+    }
+  }
 }
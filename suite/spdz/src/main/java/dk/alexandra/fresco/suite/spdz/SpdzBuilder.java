@@ -13,6 +13,7 @@ import dk.alexandra.fresco.suite.spdz.gates.SpdzAddProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzAddProtocolKnownLeft;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzInputProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzKnownSIntProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzMultBatchProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMultProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMultProtocolKnownLeft;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputSingleProtocol;
@@ -59,6 +60,10 @@ class SpdzBuilder implements BuilderFactoryNumeric {
   @Override
   public Numeric createNumeric(ProtocolBuilderNumeric protocolBuilder) {
     return new Numeric() {
+
+      private SpdzMultBatchProtocol multBatch;
+      private int multBatchEnd;
+
       @Override
       public DRes<SInt> add(DRes<SInt> a, DRes<SInt> b) {
         SpdzAddProtocol spdzAddProtocol = new SpdzAddProtocol(a, b);
@@ -93,8 +98,19 @@ class SpdzBuilder implements BuilderFactoryNumeric {
 
       @Override
       public DRes<SInt> mult(DRes<SInt> a, DRes<SInt> b) {
-        SpdzMultProtocol spdzMultProtocol = new SpdzMultProtocol(a, b);
-        return protocolBuilder.append(spdzMultProtocol);
+        if (!protocolBuilder.isParallel()) {
+          SpdzMultProtocol spdzMultProtocol = new SpdzMultProtocol(a, b);
+          return protocolBuilder.append(spdzMultProtocol);
+        }
+        // Consecutive multiplications in a parallel scope are evaluated in a single protocol
+        if (multBatch == null || protocolBuilder.getNumberOfProducers() != multBatchEnd
+            || multBatch.produces(a) || multBatch.produces(b)) {
+          multBatch = new SpdzMultBatchProtocol();
+          protocolBuilder.append(multBatch);
+        }
+        DRes<SInt> product = multBatch.append(a, b);
+        multBatchEnd = protocolBuilder.getNumberOfProducers();
+        return product;
       }
 
       @Override
@@ -1,18 +1,39 @@
 package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
+import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
 import dk.alexandra.fresco.lib.real.RealNumericContext;
 import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import java.util.function.Supplier;
 
 public class SpdzProtocolSuite implements ProtocolSuiteNumeric<SpdzResourcePool> {
 
   private final int maxBitLength;
   private final int fixedPointPrecision;
+  private final Supplier<Network> macCheckNetwork;
+  private Network network;
 
-  public SpdzProtocolSuite(int maxBitLength, int fixedPointPrecision) {
+  /**
+   * Creates a SPDZ protocol suite running the MAC checks concurrently with the evaluation, using a
+   * separate network.
+   *
+   * @param maxBitLength the maximum bit length of the numbers in the computation
+   * @param fixedPointPrecision the precision of fixed point numbers
+   * @param macCheckNetwork supplier of the network used for the MAC checks. This must be a
+   *     network between the same parties as the one used for the evaluation. The supplier is called
+   *     once, when the first MAC check is run, and the network is reused by all later evaluations
+   *     which must therefore not run concurrently.
+   */
+  public SpdzProtocolSuite(int maxBitLength, int fixedPointPrecision,
+      Supplier<Network> macCheckNetwork) {
     this.maxBitLength = maxBitLength;
     this.fixedPointPrecision = fixedPointPrecision;
+    this.macCheckNetwork = macCheckNetwork;
+  }
+
+  public SpdzProtocolSuite(int maxBitLength, int fixedPointPrecision) {
+    this(maxBitLength, fixedPointPrecision, null);
   }
 
   public SpdzProtocolSuite(int maxBitLength) {
@@ -37,6 +58,16 @@ public class SpdzProtocolSuite implements ProtocolSuiteNumeric<SpdzResourcePool>
 
   @Override
   public RoundSynchronization<SpdzResourcePool> createRoundSynchronization() {
-    return new SpdzRoundSynchronization(this);
+    if (macCheckNetwork == null) {
+      return new SpdzRoundSynchronization(this);
+    }
+    return new SpdzRoundSynchronization(this, this::getMacCheckNetwork);
+  }
+
+  private synchronized Network getMacCheckNetwork() {
+    if (network == null) {
+      network = macCheckNetwork.get();
+    }
+    return network;
   }
 }
@@ -1,11 +1,9 @@
 package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.framework.builder.numeric.NumericResourcePool;
-import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.util.Drbg;
-import dk.alexandra.fresco.framework.util.OpenedValueStore;
-import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStore;
 import java.security.MessageDigest;
 
 /**
@@ -31,9 +29,9 @@ public interface SpdzResourcePool extends NumericResourcePool {
   Drbg getRandomGenerator();
 
   /**
-   * Returns instance of {@link OpenedValueStore} which tracks all opened, unchecked values.
+   * Returns instance of {@link SpdzOpenedValueStore} which tracks all opened, unchecked values.
    */
-  OpenedValueStore<SpdzSInt, FieldElement> getOpenedValueStore();
+  SpdzOpenedValueStore getOpenedValueStore();
 
   /**
    * Returns instance of {@link SpdzDataSupplier} which provides pre-processed material such as
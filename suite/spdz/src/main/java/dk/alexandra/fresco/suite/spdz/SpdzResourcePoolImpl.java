@@ -1,19 +1,18 @@
 package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
-import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.ExceptionConverter;
-import dk.alexandra.fresco.framework.util.OpenedValueStore;
-import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStore;
 import java.security.MessageDigest;
 
-public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResourcePool {
+public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResourcePool,
+    AutoCloseable {
 
   private final MessageDigest messageDigest;
-  private final OpenedValueStore<SpdzSInt, FieldElement> openedValueStore;
+  private final SpdzOpenedValueStore openedValueStore;
   private final SpdzDataSupplier dataSupplier;
   private final Drbg drbg;
 
@@ -26,7 +25,7 @@ public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResour
    * @param dataSupplier Pre-processing material supplier
    */
   public SpdzResourcePoolImpl(int myId, int noOfPlayers,
-      OpenedValueStore<SpdzSInt, FieldElement> openedValueStore, SpdzDataSupplier dataSupplier,
+      SpdzOpenedValueStore openedValueStore, SpdzDataSupplier dataSupplier,
       Drbg drbg) {
     super(myId, noOfPlayers);
     this.dataSupplier = dataSupplier;
@@ -44,7 +43,7 @@ public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResour
   }
 
   @Override
-  public OpenedValueStore<SpdzSInt, FieldElement> getOpenedValueStore() {
+  public SpdzOpenedValueStore getOpenedValueStore() {
     return openedValueStore;
   }
 
@@ -65,4 +64,19 @@ public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResour
     }
     return drbg;
   }
+
+  /**
+   * Closes the data supplier if it holds resources, e.g., the background thread of a {@link
+   * dk.alexandra.fresco.suite.spdz.storage.SpdzMascotDataSupplier}. The resource pool should not
+   * be used after it has been closed.
+   */
+  @Override
+  public void close() {
+    if (dataSupplier instanceof AutoCloseable) {
+      ExceptionConverter.safe(() -> {
+        ((AutoCloseable) dataSupplier).close();
+        return null;
+      }, "Failed to close the data supplier");
+    }
+  }
 }
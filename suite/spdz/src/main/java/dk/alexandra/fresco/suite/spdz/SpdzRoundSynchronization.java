@@ -2,22 +2,51 @@ package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.framework.ProtocolCollection;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
 import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.suite.ProtocolSuite.RoundSynchronization;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMacCheckProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputProtocol;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStore;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.stream.StreamSupport;
 
 /**
  * A default implementation of the round synchronization for spdz - mostly doing the MAC check if
  * needed.
+ *
+ * <p>
+ * If a network for the MAC check is supplied, the MAC checks are run on a separate thread using
+ * this network, while the evaluation continues. Batches containing output protocols are held back
+ * until all MAC checks of the values opened so far have succeeded, and the evaluation does not
+ * continue past such a batch until the values it opened have been checked too. Any other failed
+ * MAC check is reported at the latest when the next batch is done. The mac-check thread uses its
+ * own joint DRBG, seeded from the joint DRBG of the resource pool, so the two threads never share
+ * a DRBG.
+ * </p>
  */
 public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResourcePool> {
 
@@ -28,6 +57,11 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
   private final SecureRandom secRand;
   private boolean isCheckRequired = false;
   private final int batchSize;
+  private final Supplier<Network> macCheckNetwork;
+  private final Deque<Future<?>> pendingChecks;
+  private ExecutorService checker;
+  private Network checkNetwork;
+  private Drbg checkDrbg;
 
   /**
    * Creates new {@link SpdzRoundSynchronization}.
@@ -42,16 +76,49 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
    */
   public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite, int openValueThreshold,
       int batchSize) {
+    this(spdzProtocolSuite, openValueThreshold, batchSize, null);
+  }
+
+  /**
+   * Creates new {@link SpdzRoundSynchronization} running the MAC checks concurrently with the
+   * evaluation.
+   *
+   * @param spdzProtocolSuite the spdz protocol suite which we will use for the mac-check
+   *     computation
+   * @param openValueThreshold number of open values we accumulating before forcing mac-check
+   * @param batchSize batch size for mac-check protocol
+   * @param macCheckNetwork supplier of the network used exclusively for the mac-check, or null to
+   *     run the mac-check on the network of the evaluation. The supplier is called once, on the
+   *     thread running the mac-check, and the network is not closed by this class.
+   */
+  public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite, int openValueThreshold,
+      int batchSize, Supplier<Network> macCheckNetwork) {
     this.spdzProtocolSuite = spdzProtocolSuite;
     this.secRand = new SecureRandom();
     this.openValueThreshold = openValueThreshold;
     this.batchSize = batchSize;
+    this.macCheckNetwork = macCheckNetwork;
+    this.pendingChecks = new ArrayDeque<>();
   }
 
   public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite) {
     this(spdzProtocolSuite, DEFAULT_VALUE_THRESHOLD, DEFAULT_BATCH_SIZE);
   }
 
+  /**
+   * Creates new {@link SpdzRoundSynchronization} with default threshold and batch size, running the
+   * MAC checks concurrently with the evaluation if a network for the mac-check is given.
+   */
+  public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite,
+      Supplier<Network> macCheckNetwork) {
+    this(spdzProtocolSuite, DEFAULT_VALUE_THRESHOLD, DEFAULT_BATCH_SIZE, macCheckNetwork);
+  }
+
+  /**
+   * Runs a mac-check of the values in the opened value store of the given resource pool. When the
+   * mac-checks run concurrently with the evaluation, this is called on the mac-check thread with a
+   * view of the resource pool holding only the values to check.
+   */
   protected void doMacCheck(SpdzResourcePool resourcePool, Network network) {
     SpdzBuilder spdzBuilder = new SpdzBuilder(
         spdzProtocolSuite.createNumericContext(resourcePool),
@@ -59,10 +126,10 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
     BatchEvaluationStrategy<SpdzResourcePool> batchStrategy = new BatchedStrategy<>();
     BatchedProtocolEvaluator<SpdzResourcePool> evaluator =
         new BatchedProtocolEvaluator<>(batchStrategy, spdzProtocolSuite, batchSize);
-    OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
     SpdzMacCheckProtocol macCheck = new SpdzMacCheckProtocol(secRand,
         resourcePool.getMessageDigest(),
-        store.popValues(),
+        resourcePool.getOpenedValueStore(),
+        resourcePool.getFieldDefinition(),
         resourcePool.getModulus(),
         resourcePool.getRandomGenerator(),
         resourcePool.getDataSupplier().getSecretSharedKey());
@@ -71,23 +138,105 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
     evaluator.eval(sequential.build(), resourcePool, network);
   }
 
+  /**
+   * Checks the macs of the opened values in the store, either immediately or by scheduling a
+   * check on the mac-check thread.
+   */
+  private void macCheck(SpdzResourcePool resourcePool, Network network) {
+    if (macCheckNetwork == null) {
+      doMacCheck(resourcePool, network);
+      return;
+    }
+    if (checker == null) {
+      checker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SpdzMacCheck-P" + resourcePool.getMyId());
+        thread.setDaemon(true);
+        return thread;
+      });
+      // All parties draw the seed at the same point of the evaluation, so the seed is joint
+      byte[] seed = new byte[AesCtrDrbg.SEED_LENGTH];
+      resourcePool.getRandomGenerator().nextBytes(seed);
+      checkDrbg = new AesCtrDrbg(seed);
+    }
+    // The values and key are taken on this thread since the store and supplier are not thread safe
+    SpdzOpenedValueStore values = new SpdzOpenedValueStoreImpl();
+    Pair<List<SpdzSInt>, List<FieldElement>> pending =
+        resourcePool.getOpenedValueStore().popValues();
+    values.pushOpenedValues(pending.getFirst(), pending.getSecond());
+    SpdzResourcePool checkResourcePool = new MacCheckResourcePool(resourcePool, checkDrbg, values,
+        resourcePool.getDataSupplier().getSecretSharedKey());
+    pendingChecks.add(checker.submit(() -> {
+      if (checkNetwork == null) {
+        checkNetwork = macCheckNetwork.get();
+      }
+      doMacCheck(checkResourcePool, checkNetwork);
+    }));
+  }
+
+  /**
+   * Reports the failure of any completed mac-check. If <code>wait</code> is true, this first waits
+   * for all scheduled mac-checks to complete.
+   */
+  private void awaitChecks(boolean wait) {
+    while (!pendingChecks.isEmpty() && (wait || pendingChecks.peek().isDone())) {
+      Future<?> check = pendingChecks.pop();
+      try {
+        check.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RuntimeException("Mac check failed", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for mac check", e);
+      }
+    }
+  }
+
+  /**
+   * Cancels the scheduled mac-checks, if any, and stops the mac-check thread.
+   */
+  private void stopChecker() {
+    pendingChecks.forEach(pending -> pending.cancel(true));
+    pendingChecks.clear();
+    if (checker != null) {
+      checker.shutdownNow();
+      checker = null;
+      checkDrbg = null;
+    }
+  }
+
   @Override
   public void finishedBatch(int gatesEvaluated, SpdzResourcePool resourcePool, Network network) {
-    OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
-    if (isCheckRequired) {
-      doMacCheck(resourcePool, network);
-      isCheckRequired = false;
-    } else if (store.exceedsThreshold(openValueThreshold)) {
-      doMacCheck(resourcePool, network);
-      isCheckRequired = false;
+    try {
+      awaitChecks(false);
+      OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
+      if (isCheckRequired) {
+        macCheck(resourcePool, network);
+        // The outputs of this batch may only be used once the values it opened are checked
+        awaitChecks(true);
+        isCheckRequired = false;
+      } else if (store.exceedsThreshold(openValueThreshold)) {
+        macCheck(resourcePool, network);
+        isCheckRequired = false;
+      }
+    } catch (RuntimeException e) {
+      stopChecker();
+      throw e;
     }
   }
 
   @Override
   public void finishedEval(SpdzResourcePool resourcePool, Network network) {
-    OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
-    if (store.hasPendingValues()) {
-      doMacCheck(resourcePool, network);
+    try {
+      OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
+      if (store.hasPendingValues()) {
+        macCheck(resourcePool, network);
+      }
+      awaitChecks(true);
+    } finally {
+      stopChecker();
     }
   }
 
@@ -95,15 +244,134 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
   public void beforeBatch(
       ProtocolCollection<SpdzResourcePool> protocols, SpdzResourcePool resourcePool,
       Network network) {
-    isCheckRequired = StreamSupport.stream(protocols.spliterator(), false)
-        .anyMatch(p -> p instanceof SpdzOutputProtocol);
-    OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
-    if (store.hasPendingValues() && isCheckRequired) {
-      doMacCheck(resourcePool, network);
+    try {
+      isCheckRequired = StreamSupport.stream(protocols.spliterator(), false)
+          .anyMatch(p -> p instanceof SpdzOutputProtocol);
+      OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
+      if (store.hasPendingValues() && isCheckRequired) {
+        macCheck(resourcePool, network);
+      }
+      if (isCheckRequired) {
+        // Hold back the outputs until all opened values are known to be correct
+        awaitChecks(true);
+      }
+    } catch (RuntimeException e) {
+      stopChecker();
+      throw e;
     }
   }
 
   public int getBatchSize() {
     return batchSize;
   }
+
+  /**
+   * View of the resource pool used by the mac-check thread, with its own message digest, joint DRBG
+   * and opened value store since those of the resource pool are also used by the evaluation. The
+   * data supplier only provides the secret shared key.
+   */
+  private static final class MacCheckResourcePool implements SpdzResourcePool {
+
+    private final SpdzResourcePool delegate;
+    private final MessageDigest messageDigest;
+    private final Drbg drbg;
+    private final SpdzOpenedValueStore openedValueStore;
+    private final SpdzDataSupplier dataSupplier;
+
+    private MacCheckResourcePool(SpdzResourcePool delegate, Drbg drbg,
+        SpdzOpenedValueStore openedValueStore, FieldElement secretSharedKey) {
+      this.delegate = delegate;
+      this.drbg = drbg;
+      this.openedValueStore = openedValueStore;
+      this.dataSupplier = new MacCheckDataSupplier(delegate.getFieldDefinition(), secretSharedKey);
+      this.messageDigest = ExceptionConverter.safe(
+          () -> MessageDigest.getInstance(delegate.getMessageDigest().getAlgorithm()),
+          "Configuration error, " + delegate.getMessageDigest().getAlgorithm()
+              + " is needed for Spdz");
+    }
+
+    @Override
+    public MessageDigest getMessageDigest() {
+      return messageDigest;
+    }
+
+    @Override
+    public Drbg getRandomGenerator() {
+      return drbg;
+    }
+
+    @Override
+    public SpdzOpenedValueStore getOpenedValueStore() {
+      return openedValueStore;
+    }
+
+    @Override
+    public SpdzDataSupplier getDataSupplier() {
+      return dataSupplier;
+    }
+
+    @Override
+    public FieldDefinition getFieldDefinition() {
+      return delegate.getFieldDefinition();
+    }
+
+    @Override
+    public int getMyId() {
+      return delegate.getMyId();
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return delegate.getNoOfParties();
+    }
+  }
+
+  /**
+   * Data supplier of the mac-check thread, which only holds the secret shared key.
+   */
+  private static final class MacCheckDataSupplier implements SpdzDataSupplier {
+
+    private final FieldDefinition fieldDefinition;
+    private final FieldElement secretSharedKey;
+
+    private MacCheckDataSupplier(FieldDefinition fieldDefinition, FieldElement secretSharedKey) {
+      this.fieldDefinition = fieldDefinition;
+      this.secretSharedKey = secretSharedKey;
+    }
+
+    @Override
+    public SpdzTriple getNextTriple() {
+      throw new IllegalStateException("The mac-check does not use preprocessed data");
+    }
+
+    @Override
+    public SpdzSInt[] getNextExpPipe() {
+      throw new IllegalStateException("The mac-check does not use preprocessed data");
+    }
+
+    @Override
+    public SpdzInputMask getNextInputMask(int towardPlayerId) {
+      throw new IllegalStateException("The mac-check does not use preprocessed data");
+    }
+
+    @Override
+    public SpdzSInt getNextBit() {
+      throw new IllegalStateException("The mac-check does not use preprocessed data");
+    }
+
+    @Override
+    public FieldDefinition getFieldDefinition() {
+      return fieldDefinition;
+    }
+
+    @Override
+    public FieldElement getSecretSharedKey() {
+      return secretSharedKey;
+    }
+
+    @Override
+    public SpdzSInt getNextRandomFieldElement() {
+      throw new IllegalStateException("The mac-check does not use preprocessed data");
+    }
+  }
 }
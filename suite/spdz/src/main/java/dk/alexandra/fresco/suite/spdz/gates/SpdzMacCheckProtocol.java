@@ -9,11 +9,10 @@ import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzCommitment;
-import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStore;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
-import java.util.List;
 
 /**
  * Protocol which handles the MAC check internal to SPDZ. If this protocol reaches the end, no
@@ -25,58 +24,52 @@ public class SpdzMacCheckProtocol implements Computation<Void, ProtocolBuilderNu
   private final MessageDigest digest;
   private final BigInteger modulus;
   private final Drbg jointDrbg;
-  private final List<SpdzSInt> closedValues;
-  private final List<FieldElement> openedValues;
+  private final FieldElement openedSum;
+  private final FieldElement macSum;
   private final FieldElement alpha;
 
   /**
    * Protocol which handles the MAC check internal to SPDZ. If this protocol reaches the end, no
    * malicious activity was detected and the storage is reset.
    *
+   * <p>
+   * The values to check are popped from the store when the protocol is created, and the random
+   * coefficients are drawn from the joint DRBG at the same time.
+   * </p>
+   *
    * @param rand A secure randomness source
    * @param digest A secure hash used for the commitment scheme
+   * @param store The store holding the opened values to check
+   * @param fieldDefinition The field definition of the values
    * @param modulus The global modulus used.
    */
   public SpdzMacCheckProtocol(
       final SecureRandom rand,
       final MessageDigest digest,
-      final Pair<List<SpdzSInt>, List<FieldElement>> toCheck,
+      final SpdzOpenedValueStore store,
+      final FieldDefinition fieldDefinition,
       final BigInteger modulus,
       final Drbg jointDrbg,
       final FieldElement alpha) {
     this.rand = rand;
     this.digest = digest;
-    this.closedValues = toCheck.getFirst();
-    this.openedValues = toCheck.getSecond();
     this.modulus = modulus;
     this.jointDrbg = jointDrbg;
     this.alpha = alpha;
+    // compute a as the sum of the opened values times r_j, and gamma_i as the sum of all
+    // MAC's on the opened values times r_j.
+    Pair<FieldElement, FieldElement> sums = store.popMacCheckSums(fieldDefinition,
+        () -> sampleRandomCoefficient(fieldDefinition));
+    this.openedSum = sums.getFirst();
+    this.macSum = sums.getSecond();
   }
 
   @Override
   public DRes<Void> buildComputation(ProtocolBuilderNumeric builder) {
     return builder
         .seq(seq -> {
-          FieldDefinition fieldDefinition = builder.getBasicNumericContext().getFieldDefinition();
-          FieldElement[] rs = sampleRandomCoefficients(openedValues.size(), fieldDefinition);
-          FieldElement a = fieldDefinition.createElement(0);
-          int index = 0;
-          for (FieldElement openedValue : openedValues) {
-            FieldElement openedValueHidden = openedValue.multiply(rs[index++]);
-            a = a.add(openedValueHidden);
-          }
-
-          // compute gamma_i as the sum of all MAC's on the opened values times
-          // r_j.
-          FieldElement gamma = fieldDefinition.createElement(0);
-          index = 0;
-          for (SpdzSInt closedValue : closedValues) {
-            FieldElement closedValueHidden = rs[index++].multiply(closedValue.getMac());
-            gamma = gamma.add(closedValueHidden);
-          }
-
           // compute delta_i as: gamma_i - alpha_i*a
-          FieldElement delta = gamma.subtract(alpha.multiply(a));
+          FieldElement delta = macSum.subtract(alpha.multiply(openedSum));
           // Commit to delta and open it afterwards
           SpdzCommitment deltaCommitment = new SpdzCommitment(digest, delta, rand,
               modulus.bitLength());
@@ -93,26 +86,16 @@ public class SpdzMacCheckProtocol implements Computation<Void, ProtocolBuilderNu
 
           if (!BigInteger.ZERO.equals(fieldDefinition.convertToUnsigned(deltaSum))) {
             throw new MaliciousException(
-                "The sum of delta's was not 0. Someone was corrupting something amongst "
-                    + openedValues.size()
+                "The sum of delta's was not 0. Someone was corrupting something amongst the"
                     + " macs. Sum was " + deltaSum.toString() + " Aborting!");
           }
-          // clean up store before returning to evaluating such that we only
-          // evaluate the next macs, not those we already checked.
-          openedValues.clear();
-          closedValues.clear();
           return null;
         });
   }
 
-  private FieldElement[] sampleRandomCoefficients(int numCoefficients,
-      FieldDefinition fieldDefinition) {
-    FieldElement[] coefficients = new FieldElement[numCoefficients];
-    for (int i = 0; i < numCoefficients; i++) {
-      byte[] bytes = new byte[modulus.bitLength() / Byte.SIZE];
-      jointDrbg.nextBytes(bytes);
-      coefficients[i] = fieldDefinition.createElement(new BigInteger(bytes));
-    }
-    return coefficients;
+  private FieldElement sampleRandomCoefficient(FieldDefinition fieldDefinition) {
+    byte[] bytes = new byte[modulus.bitLength() / Byte.SIZE];
+    jointDrbg.nextBytes(bytes);
+    return fieldDefinition.createElement(new BigInteger(bytes));
   }
 }
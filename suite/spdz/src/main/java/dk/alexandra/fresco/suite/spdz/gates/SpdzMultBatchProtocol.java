@@ -0,0 +1,155 @@
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Multiplies a number of pairs of secret shared values at once. This is equivalent to using a
+ * {@link SpdzMultProtocol} for each pair, but the shares of the differences to the triples are
+ * sent to the other parties in a single message.
+ *
+ * <p>
+ * Pairs are appended while the protocol is being built, and the result of each multiplication is
+ * available once the protocol is done. Since all pairs are multiplied in the same rounds, the
+ * inputs of a pair must not depend on the result of another pair.
+ * </p>
+ */
+public class SpdzMultBatchProtocol extends SpdzNativeProtocol<List<SInt>> {
+
+  private final List<DRes<SInt>> lefts;
+  private final List<DRes<SInt>> rights;
+  private SpdzTriple[] triples;
+  private SpdzSInt[] epsilons; // my shares of the differences [x]-[a]
+  private SpdzSInt[] deltas; // and [y]-[b].
+  private SpdzSInt[] out;
+
+  public SpdzMultBatchProtocol() {
+    this.lefts = new ArrayList<>();
+    this.rights = new ArrayList<>();
+  }
+
+  /**
+   * Appends a pair of values to multiply.
+   *
+   * @param left the left factor
+   * @param right the right factor
+   * @return the product which is available when this protocol is done
+   */
+  public DRes<SInt> append(DRes<SInt> left, DRes<SInt> right) {
+    if (out != null) {
+      throw new IllegalStateException("Cannot append to a protocol which has been evaluated");
+    }
+    lefts.add(left);
+    rights.add(right);
+    return new Product(lefts.size() - 1);
+  }
+
+  /**
+   * Tells whether the given value is the result of a multiplication in this protocol.
+   */
+  public boolean produces(DRes<SInt> value) {
+    return value instanceof Product && ((Product) value).owner() == this;
+  }
+
+  /**
+   * Returns the number of multiplications in this protocol.
+   */
+  public int size() {
+    return lefts.size();
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, SpdzResourcePool spdzResourcePool,
+      Network network) {
+    SpdzDataSupplier dataSupplier = spdzResourcePool.getDataSupplier();
+    int noOfPlayers = spdzResourcePool.getNoOfParties();
+    FieldDefinition definition = spdzResourcePool.getFieldDefinition();
+    int size = lefts.size();
+    if (round == 0) {
+      triples = new SpdzTriple[size];
+      epsilons = new SpdzSInt[size];
+      deltas = new SpdzSInt[size];
+      int elementLength = definition.getElementByteLength();
+      byte[] shares = new byte[2 * size * elementLength];
+      for (int i = 0; i < size; i++) {
+        SpdzTriple triple = dataSupplier.getNextTriple();
+        triples[i] = triple;
+        epsilons[i] = ((SpdzSInt) lefts.get(i).out()).subtract(triple.getA());
+        deltas[i] = ((SpdzSInt) rights.get(i).out()).subtract(triple.getB());
+        definition.serialize(epsilons[i].getShare(), shares, 2 * i * elementLength);
+        definition.serialize(deltas[i].getShare(), shares, (2 * i + 1) * elementLength);
+      }
+      network.sendToAll(shares);
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      int elementLength = definition.getElementByteLength();
+      FieldElement[] openings = new FieldElement[2 * size];
+      for (int i = 1; i <= noOfPlayers; i++) {
+        byte[] shares = network.receive(i);
+        if (shares.length != openings.length * elementLength) {
+          throw new IllegalStateException("Expected " + openings.length
+              + " shares from party " + i + " but got " + shares.length / elementLength);
+        }
+        for (int j = 0; j < openings.length; j++) {
+          FieldElement share = definition.deserialize(shares, j * elementLength);
+          openings[j] = i == 1 ? share : openings[j].add(share);
+        }
+      }
+      FieldElement ssk = dataSupplier.getSecretSharedKey();
+      OpenedValueStore<SpdzSInt, FieldElement> openedValueStore =
+          spdzResourcePool.getOpenedValueStore();
+      SpdzSInt[] products = new SpdzSInt[size];
+      for (int i = 0; i < size; i++) {
+        FieldElement e = openings[2 * i];
+        FieldElement d = openings[2 * i + 1];
+        FieldElement product = e.multiply(d);
+        SpdzSInt ed = new SpdzSInt(product, ssk.multiply(product));
+        SpdzTriple triple = triples[i];
+        products[i] = triple.getC().add(triple.getB().multiply(e))
+            .add(triple.getA().multiply(d))
+            .add(ed, spdzResourcePool.getMyId());
+        openedValueStore.pushOpenedValue(epsilons[i], e);
+        openedValueStore.pushOpenedValue(deltas[i], d);
+      }
+      out = products;
+      triples = null;
+      epsilons = null;
+      deltas = null;
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public List<SInt> out() {
+    return Arrays.asList(out);
+  }
+
+  private final class Product implements DRes<SInt> {
+
+    private final int index;
+
+    private Product(int index) {
+      this.index = index;
+    }
+
+    private SpdzMultBatchProtocol owner() {
+      return SpdzMultBatchProtocol.this;
+    }
+
+    @Override
+    public SInt out() {
+      return out == null ? null : out[index];
+    }
+  }
+}
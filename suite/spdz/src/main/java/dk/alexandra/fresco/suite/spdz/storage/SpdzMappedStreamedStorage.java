@@ -0,0 +1,418 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streamed storage for SPDZ pre-processed material using a compact binary file format which is
+ * read through memory mapped buffers.
+ *
+ * <p>
+ * Each store is a file with a header followed by records of a single kind. The header holds a
+ * magic number, a version, the kind of record, the byte length of a field element and the modulus.
+ * Field elements are stored as fixed width big endian values as given by the serialization of the
+ * field definition, so records can be decoded directly from the mapped buffer without any per
+ * object overhead. The supported kinds are {@link BigInteger} (only used for the modulus), {@link
+ * FieldElement}, {@link SpdzSInt}, {@link SpdzTriple}, {@link SpdzInputMask} and arrays of {@link
+ * SpdzSInt} (used for exponentiation pipes).
+ * </p>
+ *
+ * <p>
+ * A field definition is required to write material. When reading without a field definition the
+ * elements are read using a {@link BigIntegerFieldDefinition} of the modulus stored in the header.
+ * Use {@link SpdzStorageConverter} to convert material stored by {@link
+ * dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl}.
+ * </p>
+ */
+public class SpdzMappedStreamedStorage implements StreamedStorage {
+
+  static final int MAGIC = 0x5350445A;
+  static final byte VERSION = 1;
+  /**
+   * The maximum number of bytes mapped at a time.
+   */
+  static final int MAX_MAPPED_BYTES = 1 << 28;
+
+  private static final byte MODULUS = 1;
+  private static final byte ELEMENT = 2;
+  private static final byte SINT = 3;
+  private static final byte TRIPLE = 4;
+  private static final byte INPUT_MASK = 5;
+  private static final byte EXP_PIPE = 6;
+
+  private final Storage storage;
+  private final FieldDefinition definition;
+  private final Map<String, Reader> readers;
+  private final Map<String, Writer> writers;
+
+  /**
+   * Creates a storage which can only read material. For non-streamable objects, the given internal
+   * storage is used.
+   *
+   * @param internalStorage The storage used for non-streamable objects
+   */
+  public SpdzMappedStreamedStorage(Storage internalStorage) {
+    this(internalStorage, null);
+  }
+
+  /**
+   * Creates a storage for material in the given field. For non-streamable objects, the given
+   * internal storage is used.
+   *
+   * @param internalStorage The storage used for non-streamable objects
+   * @param definition The field definition of the stored material
+   */
+  public SpdzMappedStreamedStorage(Storage internalStorage, FieldDefinition definition) {
+    this.storage = internalStorage;
+    this.definition = definition;
+    this.readers = new HashMap<>();
+    this.writers = new HashMap<>();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T extends Serializable> T getNext(String name) throws NoMoreElementsException {
+    Reader reader = readers.get(name);
+    if (reader == null) {
+      reader = new Reader(name);
+      readers.put(name, reader);
+    }
+    return (T) reader.next();
+  }
+
+  @Override
+  public boolean putNext(String name, Serializable o) {
+    Writer writer = writers.get(name);
+    if (writer == null) {
+      writer = new Writer(name, typeOf(o));
+      writers.put(name, writer);
+    }
+    writer.write(o);
+    return true;
+  }
+
+  @Override
+  public void shutdown() {
+    for (Reader reader : readers.values()) {
+      reader.close();
+    }
+    readers.clear();
+    for (Writer writer : writers.values()) {
+      writer.close();
+    }
+    writers.clear();
+  }
+
+  @Override
+  public boolean putObject(String name, String key, Serializable o) {
+    return this.storage.putObject(name, key, o);
+  }
+
+  @Override
+  public <T extends Serializable> T getObject(String name, String key) {
+    return this.storage.getObject(name, key);
+  }
+
+  private static byte typeOf(Serializable o) {
+    if (o instanceof BigInteger) {
+      return MODULUS;
+    } else if (o instanceof FieldElement) {
+      return ELEMENT;
+    } else if (o instanceof SpdzSInt) {
+      return SINT;
+    } else if (o instanceof SpdzTriple) {
+      return TRIPLE;
+    } else if (o instanceof SpdzInputMask) {
+      return INPUT_MASK;
+    } else if (o instanceof SpdzSInt[]) {
+      return EXP_PIPE;
+    } else {
+      throw new IllegalArgumentException("Cannot store objects of type " + o.getClass());
+    }
+  }
+
+  /**
+   * Reads the records of a single store from the memory mapped file.
+   */
+  private final class Reader {
+
+    private final String name;
+    private final FileChannel channel;
+    private final long size;
+    private final byte type;
+    private final FieldDefinition definition;
+    private final byte[] element;
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+
+    private Reader(String name) throws NoMoreElementsException {
+      this.name = name;
+      try {
+        this.channel = FileChannel.open(Paths.get(name), StandardOpenOption.READ);
+        this.size = channel.size();
+      } catch (NoSuchFileException e) {
+        throw new NoMoreElementsException("Store " + name + " does not exist", e);
+      } catch (IOException e) {
+        throw new NoMoreElementsException(
+            "IOException accessing store name: " + name + ". Likely the file does not exist", e);
+      }
+      this.buffer = map(0);
+      if (!ensure(Integer.BYTES + 2 + 2 * Integer.BYTES) || buffer.getInt() != MAGIC) {
+        close();
+        throw new RuntimeException("Store " + name + " is not a SPDZ pre-processing file");
+      }
+      byte version = buffer.get();
+      if (version != VERSION) {
+        close();
+        throw new RuntimeException("Unsupported version " + version + " of store " + name);
+      }
+      this.type = buffer.get();
+      int elementLength = buffer.getInt();
+      int modulusLength = buffer.getInt();
+      if (elementLength <= 0 || modulusLength <= 0 || !ensure(modulusLength)) {
+        close();
+        throw new RuntimeException("Malformed header in store " + name);
+      }
+      byte[] modulusBytes = new byte[modulusLength];
+      buffer.get(modulusBytes);
+      BigInteger modulus = new BigInteger(1, modulusBytes);
+      if (SpdzMappedStreamedStorage.this.definition == null) {
+        this.definition = new BigIntegerFieldDefinition(modulus);
+      } else if (SpdzMappedStreamedStorage.this.definition.getModulus().equals(modulus)) {
+        this.definition = SpdzMappedStreamedStorage.this.definition;
+      } else {
+        close();
+        throw new RuntimeException("Store " + name + " holds material for the modulus " + modulus
+            + " which does not match the field definition");
+      }
+      if (definition.serialize(definition.createElement(0)).length != elementLength) {
+        close();
+        throw new RuntimeException("Store " + name + " holds elements of " + elementLength
+            + " bytes which does not match the field definition");
+      }
+      this.element = new byte[elementLength];
+    }
+
+    private Serializable next() throws NoMoreElementsException {
+      switch (type) {
+        case MODULUS:
+          require(element.length);
+          buffer.get(element);
+          return new BigInteger(1, element);
+        case ELEMENT:
+          require(element.length);
+          return nextElement();
+        case SINT:
+          require(2 * element.length);
+          return nextSInt();
+        case TRIPLE:
+          require(6 * element.length);
+          return new SpdzTriple(nextSInt(), nextSInt(), nextSInt());
+        case INPUT_MASK:
+          require(1 + 3 * element.length);
+          boolean hasRealValue = buffer.get() != 0;
+          SpdzSInt mask = nextSInt();
+          FieldElement realValue = nextElement();
+          return hasRealValue ? new SpdzInputMask(mask, realValue) : new SpdzInputMask(mask);
+        case EXP_PIPE:
+          require(Integer.BYTES);
+          int length = buffer.getInt();
+          if (length < 0) {
+            throw new RuntimeException("Malformed exponentiation pipe in store " + name);
+          }
+          require(2L * length * element.length);
+          SpdzSInt[] pipe = new SpdzSInt[length];
+          for (int i = 0; i < length; i++) {
+            pipe[i] = nextSInt();
+          }
+          return pipe;
+        default:
+          throw new RuntimeException("Unknown record type " + type + " in store " + name);
+      }
+    }
+
+    private SpdzSInt nextSInt() {
+      FieldElement share = nextElement();
+      return new SpdzSInt(share, nextElement());
+    }
+
+    private FieldElement nextElement() {
+      buffer.get(element);
+      return definition.deserialize(element);
+    }
+
+    private void require(long bytes) throws NoMoreElementsException {
+      if (!ensure(bytes)) {
+        throw new NoMoreElementsException("No more elements available in store " + name);
+      }
+    }
+
+    /**
+     * Ensures that the next given number of bytes are mapped, or returns false if the file holds
+     * fewer bytes.
+     */
+    private boolean ensure(long bytes) {
+      if (buffer.remaining() >= bytes) {
+        return true;
+      }
+      long position = bufferStart + buffer.position();
+      if (size - position < bytes) {
+        return false;
+      }
+      if (bytes > MAX_MAPPED_BYTES) {
+        throw new RuntimeException("Record of " + bytes + " bytes in store " + name
+            + " is too large");
+      }
+      buffer = map(position);
+      return true;
+    }
+
+    private MappedByteBuffer map(long position) {
+      try {
+        bufferStart = position;
+        return channel.map(MapMode.READ_ONLY, position,
+            Math.min(size - position, MAX_MAPPED_BYTES));
+      } catch (IOException e) {
+        close();
+        throw new RuntimeException("IOException mapping store " + name, e);
+      }
+    }
+
+    private void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Do nothing - nothing can be done
+      }
+    }
+  }
+
+  /**
+   * Appends the records of a single store to a file.
+   */
+  private final class Writer {
+
+    private final String name;
+    private final byte type;
+    private final int elementLength;
+    private final DataOutputStream output;
+
+    private Writer(String name, byte type) {
+      if (definition == null) {
+        throw new IllegalStateException("A field definition is needed to write the store " + name);
+      }
+      this.name = name;
+      this.type = type;
+      this.elementLength = definition.serialize(definition.createElement(0)).length;
+      try {
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(name)));
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeByte(type);
+        output.writeInt(elementLength);
+        writeUnsigned(definition.getModulus());
+      } catch (IOException e) {
+        throw new RuntimeException("IOException accessing store name: " + name, e);
+      }
+    }
+
+    private void write(Serializable o) {
+      if (typeOf(o) != type) {
+        throw new IllegalArgumentException("Cannot store " + o.getClass() + " in store " + name);
+      }
+      try {
+        switch (type) {
+          case MODULUS:
+            BigInteger modulus = (BigInteger) o;
+            if (modulus.signum() < 0 || modulus.bitLength() > Byte.SIZE * elementLength) {
+              throw new IllegalArgumentException("Value " + modulus + " does not fit in store "
+                  + name);
+            }
+            byte[] bytes = modulus.toByteArray();
+            int start = Math.max(0, bytes.length - elementLength);
+            output.write(new byte[elementLength - (bytes.length - start)]);
+            output.write(bytes, start, bytes.length - start);
+            break;
+          case ELEMENT:
+            writeElement((FieldElement) o);
+            break;
+          case SINT:
+            writeSInt((SpdzSInt) o);
+            break;
+          case TRIPLE:
+            SpdzTriple triple = (SpdzTriple) o;
+            writeSInt(triple.getA());
+            writeSInt(triple.getB());
+            writeSInt(triple.getC());
+            break;
+          case INPUT_MASK:
+            SpdzInputMask mask = (SpdzInputMask) o;
+            FieldElement realValue = mask.getRealValue();
+            output.writeByte(realValue == null ? 0 : 1);
+            writeSInt(mask.getMask());
+            if (realValue == null) {
+              output.write(new byte[elementLength]);
+            } else {
+              writeElement(realValue);
+            }
+            break;
+          default:
+            SpdzSInt[] pipe = (SpdzSInt[]) o;
+            output.writeInt(pipe.length);
+            for (SpdzSInt value : pipe) {
+              writeSInt(value);
+            }
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("IOException writing to store name " + name, e);
+      }
+    }
+
+    private void writeSInt(SpdzSInt value) throws IOException {
+      writeElement(value.getShare());
+      writeElement(value.getMac());
+    }
+
+    private void writeElement(FieldElement value) throws IOException {
+      output.write(definition.serialize(value));
+    }
+
+    private void writeUnsigned(BigInteger value) throws IOException {
+      byte[] bytes = value.toByteArray();
+      int start = bytes[0] == 0 && bytes.length > 1 ? 1 : 0;
+      byte[] unsigned = Arrays.copyOfRange(bytes, start, bytes.length);
+      output.writeInt(unsigned.length);
+      output.write(unsigned);
+    }
+
+    private void close() {
+      try {
+        output.close();
+      } catch (IOException e) {
+        // Do nothing - nothing can be done
+      }
+    }
+  }
+}
@@ -3,7 +3,9 @@ package dk.alexandra.fresco.suite.spdz.storage;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
@@ -21,16 +23,32 @@ import dk.alexandra.fresco.tools.ot.otextension.RotList;
 import java.security.SecureRandom;
 import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A data supplier based on the Mascot protocol. Uses concrete implementation {@link Mascot}.
+ *
+ * <p>
+ * If created with a positive high watermark the supplier generates pre-processed material ahead
+ * of demand on a background thread using its own network. For each kind of material a refill is
+ * requested whenever the number of available elements drops below the low watermark, and batches
+ * are requested until the high watermark is reached. Refills are requested by the thread consuming
+ * the material and are determined only by the amount consumed so far, so all parties request the
+ * same batches in the same order, which is required by Mascot. Otherwise the material is generated
+ * by the consuming thread whenever it runs out.
+ * </p>
  */
-public class SpdzMascotDataSupplier implements SpdzDataSupplier {
+public class SpdzMascotDataSupplier implements SpdzDataSupplier, AutoCloseable {
 
   private static final Logger logger = LoggerFactory.getLogger(SpdzMascotDataSupplier.class);
   private final int myId;
@@ -41,15 +59,18 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
   private final Function<Integer, SpdzSInt[]> preprocessedValues;
   private final FieldElement ssk;
 
-  private final ArrayDeque<MultiplicationTriple> triples;
-  private final Map<Integer, ArrayDeque<InputMask>> masks;
-  private final ArrayDeque<AuthenticatedElement> randomElements;
-  private final ArrayDeque<AuthenticatedElement> randomBits;
+  private final Pool<MultiplicationTriple> triples;
+  private final Map<Integer, Pool<InputMask>> masks;
+  private final Pool<AuthenticatedElement> randomElements;
+  private final Pool<AuthenticatedElement> randomBits;
   private final int prgSeedLength;
   private final int modBitLength;
   private final int batchSize;
+  private final int lowWatermark;
+  private final int highWatermark;
   private final Drbg drbg;
   private final Map<Integer, RotList> seedOts;
+  private final ExecutorService producer;
   private Mascot mascot;
 
   /**
@@ -72,25 +93,83 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
       Supplier<Network> tripleNetwork, FieldDefinition fieldDefinition, int modBitLength,
       Function<Integer, SpdzSInt[]> preprocessedValues, int prgSeedLength, int batchSize,
       FieldElement ssk, Map<Integer, RotList> seedOts, Drbg drbg) {
+    this(myId, numberOfPlayers, instanceId, tripleNetwork, fieldDefinition, modBitLength,
+        preprocessedValues, prgSeedLength, batchSize, ssk, seedOts, drbg, 0, 0);
+  }
+
+  /**
+   * Creates {@link SpdzMascotDataSupplier} generating pre-processed material in the background.
+   *
+   * <p>
+   * If the high watermark is zero no background thread is started and material is generated on
+   * demand. Otherwise the network supplied by <code>tripleNetwork</code> is used exclusively by the
+   * background thread, and a seed for a new source of randomness for the background thread is drawn
+   * from <code>drbg</code>.
+   * </p>
+   *
+   * @param myId this party's id
+   * @param numberOfPlayers number of players
+   * @param instanceId identifier used to distinguish parallel instances of Mascot
+   * @param tripleNetwork network supplier for network to be used by Mascot instance
+   * @param fieldDefinition field definition
+   * @param modBitLength bit length of modulus
+   * @param preprocessedValues callback to generate exponentiation pipes
+   * @param prgSeedLength bit length of prg
+   * @param batchSize batch size in which Mascot will generate pre-processed material
+   * @param ssk mac key share
+   * @param seedOts pre-computed base OTs
+   * @param drbg source of randomness
+   * @param lowWatermark number of available elements of a kind below which more are generated
+   * @param highWatermark number of available elements of a kind to generate up to
+   */
+  public SpdzMascotDataSupplier(int myId, int numberOfPlayers, int instanceId,
+      Supplier<Network> tripleNetwork, FieldDefinition fieldDefinition, int modBitLength,
+      Function<Integer, SpdzSInt[]> preprocessedValues, int prgSeedLength, int batchSize,
+      FieldElement ssk, Map<Integer, RotList> seedOts, Drbg drbg, int lowWatermark,
+      int highWatermark) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive, but was " + batchSize);
+    }
+    if (lowWatermark < 0 || highWatermark < lowWatermark) {
+      throw new IllegalArgumentException("Watermarks must satisfy 0 <= low <= high, but were "
+          + lowWatermark + " and " + highWatermark);
+    }
     this.myId = myId;
     this.numberOfPlayers = numberOfPlayers;
     this.instanceId = instanceId;
     this.tripleNetwork = tripleNetwork;
     this.fieldDefinition = fieldDefinition;
     this.preprocessedValues = preprocessedValues;
-    this.triples = new ArrayDeque<>();
-    this.masks = new HashMap<>();
-    for (int partyId = 1; partyId <= numberOfPlayers; partyId++) {
-      masks.put(partyId, new ArrayDeque<>());
-    }
-    this.randomElements = new ArrayDeque<>();
-    this.randomBits = new ArrayDeque<>();
     this.prgSeedLength = prgSeedLength;
     this.modBitLength = modBitLength;
     this.batchSize = batchSize;
+    this.lowWatermark = lowWatermark;
+    this.highWatermark = highWatermark;
     this.ssk = ssk;
     this.seedOts = seedOts;
-    this.drbg = drbg;
+    if (highWatermark > 0) {
+      byte[] seed = new byte[AesCtrDrbg.SEED_LENGTH];
+      drbg.nextBytes(seed);
+      this.drbg = new AesCtrDrbg(seed);
+      this.producer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "MascotProducer-P" + myId + "-" + instanceId);
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.drbg = drbg;
+      this.producer = null;
+    }
+    this.triples = new Pool<>("triple", size -> getMascot().getTriples(size));
+    this.masks = new HashMap<>();
+    for (int partyId = 1; partyId <= numberOfPlayers; partyId++) {
+      final int towardsPlayerId = partyId;
+      masks.put(partyId,
+          new Pool<>("mask", size -> getMascot().getInputMasks(towardsPlayerId, size)));
+    }
+    this.randomElements = new Pool<>("random element",
+        size -> getMascot().getRandomElements(size));
+    this.randomBits = new Pool<>("bit", size -> getMascot().getRandomBits(size));
   }
 
   /**
@@ -118,25 +197,12 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
 
   @Override
   public SpdzTriple getNextTriple() {
-    ensureInitialized();
-    if (triples.isEmpty()) {
-      logger.trace("Getting another triple batch");
-      triples.addAll(mascot.getTriples(batchSize));
-      logger.trace("Got another triple batch");
-    }
-    MultiplicationTriple triple = triples.pop();
-    return MascotFormatConverter.toSpdzTriple(triple);
+    return MascotFormatConverter.toSpdzTriple(triples.next());
   }
 
   @Override
   public SpdzSInt getNextRandomFieldElement() {
-    ensureInitialized();
-    if (randomElements.isEmpty()) {
-      logger.trace("Getting another random element batch");
-      randomElements.addAll(mascot.getRandomElements(batchSize));
-      logger.trace("Got another random element batch");
-    }
-    return MascotFormatConverter.toSpdzSInt(randomElements.pop());
+    return MascotFormatConverter.toSpdzSInt(randomElements.next());
   }
 
   @Override
@@ -149,25 +215,12 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
 
   @Override
   public SpdzInputMask getNextInputMask(int towardsPlayerId) {
-    ensureInitialized();
-    ArrayDeque<InputMask> inputMasks = masks.get(towardsPlayerId);
-    if (inputMasks.isEmpty()) {
-      logger.trace("Getting another mask batch");
-      inputMasks.addAll(mascot.getInputMasks(towardsPlayerId, batchSize));
-      logger.trace("Got another mask batch");
-    }
-    return MascotFormatConverter.toSpdzInputMask(inputMasks.pop());
+    return MascotFormatConverter.toSpdzInputMask(masks.get(towardsPlayerId).next());
   }
 
   @Override
   public SpdzSInt getNextBit() {
-    ensureInitialized();
-    if (randomBits.isEmpty()) {
-      logger.trace("Getting another bit batch");
-      randomBits.addAll(mascot.getRandomBits(batchSize));
-      logger.trace("Got another bit batch");
-    }
-    return MascotFormatConverter.toSpdzSInt(randomBits.pop());
+    return MascotFormatConverter.toSpdzSInt(randomBits.next());
   }
 
   @Override
@@ -180,14 +233,73 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
     return ssk;
   }
 
-  private void ensureInitialized() {
-    if (mascot != null) {
-      return;
+  /**
+   * Stops the background thread, if any. Material not yet generated will no longer be available.
+   */
+  @Override
+  public void close() {
+    if (producer != null) {
+      producer.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets the Mascot instance, creating it if needed. Only called by the thread generating material.
+   */
+  private Mascot getMascot() {
+    if (mascot == null) {
+      int numCandidatesPerTriple = 3;
+      mascot = new Mascot(
+          new MascotResourcePoolImpl(myId, numberOfPlayers, instanceId, drbg, seedOts,
+              new MascotSecurityParameters(modBitLength, prgSeedLength,
+                  numCandidatesPerTriple), this.fieldDefinition), tripleNetwork.get(), ssk);
+    }
+    return mascot;
+  }
+
+  /**
+   * Buffer of a single kind of pre-processed material along with the batches requested but not
+   * yet received.
+   */
+  private final class Pool<T> {
+
+    private final String name;
+    private final IntFunction<List<T>> generator;
+    private final ArrayDeque<T> ready;
+    private final ArrayDeque<Future<List<T>>> pending;
+
+    private Pool(String name, IntFunction<List<T>> generator) {
+      this.name = name;
+      this.generator = generator;
+      this.ready = new ArrayDeque<>();
+      this.pending = new ArrayDeque<>();
+    }
+
+    T next() {
+      int available = ready.size() + pending.size() * batchSize;
+      if (available == 0 || available < lowWatermark) {
+        do {
+          request();
+          available += batchSize;
+        } while (available < highWatermark);
+      }
+      if (ready.isEmpty()) {
+        logger.trace("Getting another {} batch", name);
+        ready.addAll(ExceptionConverter.safe(() -> pending.pop().get(),
+            "Failed to generate " + name + " batch"));
+        logger.trace("Got another {} batch", name);
+      }
+      return ready.pop();
+    }
+
+    private void request() {
+      FutureTask<List<T>> task = new FutureTask<>(() -> generator.apply(batchSize));
+      if (producer == null) {
+        task.run();
+      } else {
+        producer.execute(task);
+      }
+      pending.add(task);
     }
-    int numCandidatesPerTriple = 3;
-    mascot = new Mascot(
-        new MascotResourcePoolImpl(myId, numberOfPlayers, instanceId, drbg, seedOts,
-            new MascotSecurityParameters(modBitLength, prgSeedLength,
-                numCandidatesPerTriple), this.fieldDefinition), tripleNetwork.get(), ssk);
   }
 }
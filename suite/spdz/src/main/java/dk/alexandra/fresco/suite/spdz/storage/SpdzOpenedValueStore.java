@@ -0,0 +1,40 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Spdz-specific {@link OpenedValueStore} which can compute the sums needed by the mac-check
+ * directly from the stored values.
+ */
+public interface SpdzOpenedValueStore extends OpenedValueStore<SpdzSInt, FieldElement> {
+
+  /**
+   * Retrieves all values that haven't been checked yet, like {@link #popValues()}, and computes the
+   * random linear combinations of the mac-check, i.e., the sum of the opened values and the sum of
+   * the mac shares, each weighted by its own coefficient.
+   *
+   * @param definition the field definition of the values
+   * @param coefficients supplies the coefficients, one per value in the order the values were
+   *     stored
+   * @return a pair of the sum of the opened values and the sum of the mac shares
+   */
+  default Pair<FieldElement, FieldElement> popMacCheckSums(FieldDefinition definition,
+      Supplier<FieldElement> coefficients) {
+    Pair<List<SpdzSInt>, List<FieldElement>> values = popValues();
+    FieldElement openedSum = definition.createElement(0);
+    FieldElement macSum = definition.createElement(0);
+    for (int i = 0; i < values.getFirst().size(); i++) {
+      FieldElement coefficient = coefficients.get();
+      openedSum = openedSum.add(values.getSecond().get(i).multiply(coefficient));
+      macSum = macSum.add(values.getFirst().get(i).getMac().multiply(coefficient));
+    }
+    return new Pair<>(openedSum, macSum);
+  }
+
+}
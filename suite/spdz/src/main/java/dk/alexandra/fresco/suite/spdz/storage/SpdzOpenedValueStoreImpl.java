@@ -8,6 +8,7 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 /**
  * Spdz-specific instantiation of {@link OpenedValueStore}.
  */
-public class SpdzOpenedValueStoreImpl extends OpenedValueStoreImpl<SpdzSInt, FieldElement> {
+public class SpdzOpenedValueStoreImpl extends OpenedValueStoreImpl<SpdzSInt, FieldElement>
+    implements SpdzOpenedValueStore {
 
 }
@@ -0,0 +1,112 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Spdz-specific instantiation of {@link OpenedValueStore} keeping the values in arrays which are
+ * reused across mac-checks.
+ *
+ * <p>
+ * Popping the values only resets the size of the store, so once the arrays have grown to the
+ * number of values opened between two mac-checks, storing values does not allocate.
+ * {@link #popMacCheckSums(FieldDefinition, Supplier)} computes the sums directly from the arrays,
+ * while {@link #popValues()} copies the values into new lists owned by the caller.
+ * </p>
+ */
+public class SpdzPackedOpenedValueStore implements SpdzOpenedValueStore {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private SpdzSInt[] sharesWithMacs;
+  private FieldElement[] openValues;
+  private int size;
+
+  /**
+   * Creates a new empty store.
+   */
+  public SpdzPackedOpenedValueStore() {
+    this.sharesWithMacs = new SpdzSInt[INITIAL_CAPACITY];
+    this.openValues = new FieldElement[INITIAL_CAPACITY];
+  }
+
+  @Override
+  public void pushOpenedValues(List<SpdzSInt> newSharesWithMacs,
+      List<FieldElement> newOpenedValues) {
+    if (newSharesWithMacs.size() != newOpenedValues.size()) {
+      throw new IllegalArgumentException("Expected the same number of shares and opened values but"
+          + " got " + newSharesWithMacs.size() + " and " + newOpenedValues.size());
+    }
+    int count = newSharesWithMacs.size();
+    ensureCapacity(size + count);
+    for (int i = 0; i < count; i++) {
+      sharesWithMacs[size + i] = newSharesWithMacs.get(i);
+      openValues[size + i] = newOpenedValues.get(i);
+    }
+    size += count;
+  }
+
+  @Override
+  public void pushOpenedValue(SpdzSInt newShareWithMac, FieldElement newOpenedValue) {
+    ensureCapacity(size + 1);
+    sharesWithMacs[size] = newShareWithMac;
+    openValues[size] = newOpenedValue;
+    size++;
+  }
+
+  @Override
+  public Pair<List<SpdzSInt>, List<FieldElement>> popValues() {
+    List<SpdzSInt> sints = new ArrayList<>(Arrays.asList(sharesWithMacs).subList(0, size));
+    List<FieldElement> elements = new ArrayList<>(Arrays.asList(openValues).subList(0, size));
+    clear();
+    return new Pair<>(sints, elements);
+  }
+
+  @Override
+  public Pair<FieldElement, FieldElement> popMacCheckSums(FieldDefinition definition,
+      Supplier<FieldElement> coefficients) {
+    FieldElement openedSum = definition.createElement(0);
+    FieldElement macSum = definition.createElement(0);
+    for (int i = 0; i < size; i++) {
+      FieldElement coefficient = coefficients.get();
+      openedSum = openedSum.add(openValues[i].multiply(coefficient));
+      macSum = macSum.add(sharesWithMacs[i].getMac().multiply(coefficient));
+    }
+    clear();
+    return new Pair<>(openedSum, macSum);
+  }
+
+  @Override
+  public boolean hasPendingValues() {
+    return size > 0;
+  }
+
+  @Override
+  public boolean exceedsThreshold(int threshold) {
+    return size > threshold;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > sharesWithMacs.length) {
+      int newLength = Math.max(capacity, 2 * sharesWithMacs.length);
+      sharesWithMacs = Arrays.copyOf(sharesWithMacs, newLength);
+      openValues = Arrays.copyOf(openValues, newLength);
+    }
+  }
+
+  /**
+   * Empties the store, keeping the arrays but dropping the references to the checked values.
+   */
+  private void clear() {
+    Arrays.fill(sharesWithMacs, 0, size, null);
+    Arrays.fill(openValues, 0, size, null);
+    size = 0;
+  }
+}
@@ -0,0 +1,106 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts the SPDZ pre-processed material read by {@link SpdzStorageDataSupplier} from one
+ * streamed storage to another, e.g., from the Java serialized files of {@link
+ * FilebasedStreamedStorageImpl} to the binary files of {@link SpdzMappedStreamedStorage}.
+ */
+public final class SpdzStorageConverter {
+
+  private static final Logger logger = LoggerFactory.getLogger(SpdzStorageConverter.class);
+
+  private SpdzStorageConverter() {
+  }
+
+  /**
+   * Copies all material of the given storage name from the source to the target storage. Stores
+   * missing in the source are skipped.
+   *
+   * @param source the storage to read from
+   * @param sourceName the storage name used in the source, as given to {@link
+   *     SpdzStorageDataSupplier}
+   * @param target the storage to write to
+   * @param targetName the storage name to use in the target
+   * @param noOfParties the number of parties in the computation
+   * @return the number of objects copied
+   */
+  public static long convert(StreamedStorage source, String sourceName, StreamedStorage target,
+      String targetName, int noOfParties) {
+    long count = 0;
+    for (String store : getStores(noOfParties)) {
+      count += copy(source, sourceName + store, target, targetName + store);
+    }
+    return count;
+  }
+
+  /**
+   * Converts material stored with {@link FilebasedStreamedStorageImpl} to the format of {@link
+   * SpdzMappedStreamedStorage}.
+   *
+   * @param args the source storage name, the target storage name and the number of parties
+   */
+  public static void main(String[] args) throws NoMoreElementsException {
+    if (args.length != 3) {
+      throw new IllegalArgumentException(
+          "Usage: SpdzStorageConverter <source name> <target name> <number of parties>");
+    }
+    String sourceName = args[0];
+    String targetName = args[1];
+    int noOfParties = Integer.parseInt(args[2]);
+    StreamedStorage modulusSource = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+    BigInteger modulus =
+        modulusSource.getNext(sourceName + SpdzStorageDataSupplier.MODULUS_KEY);
+    modulusSource.shutdown();
+    StreamedStorage source = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+    StreamedStorage target = new SpdzMappedStreamedStorage(new InMemoryStorage(),
+        new BigIntegerFieldDefinition(modulus));
+    try {
+      long count = convert(source, sourceName, target, targetName, noOfParties);
+      logger.info("Converted {} objects from {} to {}", count, sourceName, targetName);
+    } finally {
+      source.shutdown();
+      target.shutdown();
+    }
+  }
+
+  private static List<String> getStores(int noOfParties) {
+    List<String> stores = new ArrayList<>();
+    stores.add(SpdzStorageDataSupplier.MODULUS_KEY);
+    stores.add(SpdzStorageDataSupplier.SSK_KEY);
+    stores.add(SpdzStorageDataSupplier.TRIPLE_STORAGE);
+    stores.add(SpdzStorageDataSupplier.EXP_PIPE_STORAGE);
+    stores.add(SpdzStorageDataSupplier.BIT_STORAGE);
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      stores.add(SpdzStorageDataSupplier.INPUT_STORAGE + partyId);
+    }
+    return stores;
+  }
+
+  private static long copy(StreamedStorage source, String sourceStore, StreamedStorage target,
+      String targetStore) {
+    long count = 0;
+    while (true) {
+      Serializable next;
+      try {
+        next = source.getNext(sourceStore);
+      } catch (NoMoreElementsException e) {
+        logger.debug("Copied {} objects from {}", count, sourceStore);
+        return count;
+      }
+      target.putNext(targetStore, next);
+      count++;
+    }
+  }
+}
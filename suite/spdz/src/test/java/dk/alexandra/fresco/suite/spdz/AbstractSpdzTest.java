@@ -9,6 +9,7 @@ import dk.alexandra.fresco.framework.TestThreadRunner;
 import dk.alexandra.fresco.framework.builder.numeric.DefaultPreprocessedValues;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.NetworkUtil;
@@ -27,7 +28,6 @@ import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.ModulusFinder;
-import dk.alexandra.fresco.framework.util.OpenedValueStoreImpl;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
 import dk.alexandra.fresco.lib.real.RealNumericContext;
@@ -45,12 +45,15 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzMascotDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzPackedOpenedValueStore;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageDataSupplier;
 import dk.alexandra.fresco.tools.ot.base.DummyOt;
 import dk.alexandra.fresco.tools.ot.base.Ot;
 import dk.alexandra.fresco.tools.ot.otextension.RotList;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -74,6 +77,7 @@ public abstract class AbstractSpdzTest {
   private int maxBitLength = DEFAULT_MAX_BIT_LENGTH;
   private int fixedPointPrecision = DEFAULT_FIXED_POINT_PRECISION;
   private static final int PRG_SEED_LENGTH = 256;
+  private static final int MASCOT_BATCH_SIZE = 16;
   private static EvaluationStrategy DEFAULT_EVAL_STRATEGY = EvaluationStrategy.SEQUENTIAL_BATCHED;
 
   protected void runTest(
@@ -112,6 +116,7 @@ public abstract class AbstractSpdzTest {
         NetworkUtil.getNetworkConfigurations(ports);
     Map<Integer, TestThreadRunner.TestThreadConfiguration<SpdzResourcePool, ProtocolBuilderNumeric>> conf =
         new HashMap<>();
+    List<SpdzResourcePoolImpl> resourcePools = Collections.synchronizedList(new ArrayList<>());
     for (int playerId : netConf.keySet()) {
       PerformanceLoggerCountingAggregate aggregate = new PerformanceLoggerCountingAggregate();
 
@@ -150,7 +155,13 @@ public abstract class AbstractSpdzTest {
       conf.put(playerId, ttc);
       performanceLoggers.putIfAbsent(playerId, aggregate);
     }
-    TestThreadRunner.run(f, conf);
+    try {
+      TestThreadRunner.run(f, conf);
+    } finally {
+      for (SpdzResourcePoolImpl resourcePool : resourcePools) {
+        resourcePool.close();
+      }
+    }
     PerformancePrinter printer = new DefaultPerformancePrinter();
     for (PerformanceLogger pl : performanceLoggers.values()) {
       printer.printPerformanceLog(pl);
@@ -192,7 +203,7 @@ public abstract class AbstractSpdzTest {
             tripleSupplier.getFieldDefinition()),
         new RealNumericContext(fixedPointPrecision)).createSequential();
     SpdzResourcePoolImpl tripleResourcePool =
-        new SpdzResourcePoolImpl(myId, noOfPlayers, new OpenedValueStoreImpl<>(), tripleSupplier,
+        new SpdzResourcePoolImpl(myId, noOfPlayers, new SpdzOpenedValueStoreImpl(), tripleSupplier,
             new AesCtrDrbg(new byte[32]));
 
     DRes<List<DRes<SInt>>> exponentiationPipe =
@@ -227,7 +238,18 @@ public abstract class AbstractSpdzTest {
     return seedOts;
   }
 
-  private SpdzResourcePool createResourcePool(int myId,
+  /**
+   * Creates the field definition used for the given modulus with the dummy and MASCOT
+   * preprocessing strategies.
+   *
+   * @param modulus the modulus
+   * @return a field definition for the modulus
+   */
+  protected FieldDefinition createFieldDefinition(BigInteger modulus) {
+    return new BigIntegerFieldDefinition(modulus);
+  }
+
+  private SpdzResourcePoolImpl createResourcePool(int myId,
       int numberOfParties,
       PreprocessingStrategy preProStrat,
       NetManager otGenerator,
@@ -237,20 +259,19 @@ public abstract class AbstractSpdzTest {
     if (preProStrat == DUMMY) {
       BigInteger suitableModulus = ModulusFinder.findSuitableModulus(modBitLength);
       supplier = new SpdzDummyDataSupplier(myId, numberOfParties,
-          new BigIntegerFieldDefinition(suitableModulus),
+          createFieldDefinition(suitableModulus),
           new BigInteger(suitableModulus.bitLength(), new Random(0)).mod(suitableModulus));
     } else if (preProStrat == MASCOT) {
       List<Integer> partyIds =
           IntStream.range(1, numberOfParties + 1).boxed().collect(Collectors.toList());
       Drbg drbg = getDrbg(myId, PRG_SEED_LENGTH);
       BigInteger modulus = ModulusFinder.findSuitableModulus(modBitLength);
-      final BigIntegerFieldDefinition definition = new BigIntegerFieldDefinition(modulus);
+      final FieldDefinition definition = createFieldDefinition(modulus);
       Map<Integer, RotList> seedOts =
           getSeedOts(myId, partyIds, PRG_SEED_LENGTH, drbg, otGenerator.createExtraNetwork(myId));
       FieldElement ssk = SpdzMascotDataSupplier.createRandomSsk(definition, PRG_SEED_LENGTH);
-      supplier = SpdzMascotDataSupplier.createSimpleSupplier(myId, numberOfParties,
-          () -> tripleGenerator.createExtraNetwork(myId), modBitLength,
-          definition,
+      supplier = new SpdzMascotDataSupplier(myId, numberOfParties, 1,
+          () -> tripleGenerator.createExtraNetwork(myId), definition, modBitLength,
           new Function<Integer, SpdzSInt[]>() {
 
             private SpdzMascotDataSupplier tripleSupplier;
@@ -268,7 +289,8 @@ public abstract class AbstractSpdzTest {
                   createPipe(myId, numberOfParties, pipeLength, pipeNetwork, tripleSupplier);
               return computeSInts(pipe);
             }
-          }, seedOts, drbg, ssk);
+          }, PRG_SEED_LENGTH, MASCOT_BATCH_SIZE, ssk, seedOts, drbg, MASCOT_BATCH_SIZE,
+          2 * MASCOT_BATCH_SIZE);
     } else {
       // case STATIC:
       int noOfThreadsUsed = 1;
@@ -278,8 +300,8 @@ public abstract class AbstractSpdzTest {
           new FilebasedStreamedStorageImpl(new InMemoryStorage());
       supplier = new SpdzStorageDataSupplier(storage, storageName, numberOfParties);
     }
-    return new SpdzResourcePoolImpl(myId, numberOfParties, new OpenedValueStoreImpl<>(), supplier,
-        new AesCtrDrbg(new byte[32]));
+    return new SpdzResourcePoolImpl(myId, numberOfParties, new SpdzPackedOpenedValueStore(),
+        supplier, new AesCtrDrbg(new byte[32]));
   }
 
   private SpdzSInt[] computeSInts(DRes<List<DRes<SInt>>> pipe) {
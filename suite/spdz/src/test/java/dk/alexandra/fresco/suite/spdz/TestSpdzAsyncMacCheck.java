@@ -0,0 +1,175 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
+import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkUtil;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.compare.CompareTests;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSpdzAsyncMacCheck {
+
+  @Test
+  public void testInputSumAndMult() {
+    runTest(new BasicArithmeticTests.TestSumAndMult<>(), 2, false, false);
+  }
+
+  @Test
+  public void testCompareWithFrequentChecks() {
+    runTest(new CompareTests.TestCompareLT<>(), 3, true, false);
+  }
+
+  @Test
+  public void testOutputToSingleParty() {
+    runTest(new BasicArithmeticTests.TestOutputToSingleParty<>(), 2, true, false);
+  }
+
+  @Test
+  public void testMacCheckHookRunsOnCheckerThread() {
+    Set<String> checkThreads = ConcurrentHashMap.newKeySet();
+    runTest(new BasicArithmeticTests.TestSumAndMult<>(), 2, true, false, checkThreads);
+    Assert.assertFalse(checkThreads.isEmpty());
+    for (String thread : checkThreads) {
+      Assert.assertTrue(thread, thread.startsWith("SpdzMacCheck-P"));
+    }
+  }
+
+  @Test
+  public void testMaliciousInput() {
+    try {
+      runTest(new BasicArithmeticTests.TestInput<>(), 2, true, true);
+      Assert.fail("Should not go well");
+    } catch (RuntimeException e) {
+      if (e.getCause().getCause() == null || !(e.getCause()
+          .getCause() instanceof MaliciousException)) {
+        Assert.fail();
+      }
+    }
+  }
+
+  private void runTest(
+      TestThreadRunner.TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> f,
+      int noOfParties, boolean checkEveryBatch, boolean corruptInput) {
+    runTest(f, noOfParties, checkEveryBatch, corruptInput, null);
+  }
+
+  private void runTest(
+      TestThreadRunner.TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> f,
+      int noOfParties, boolean checkEveryBatch, boolean corruptInput, Set<String> checkThreads) {
+    List<Integer> ports = new ArrayList<>(noOfParties);
+    for (int i = 1; i <= noOfParties; i++) {
+      ports.add(9000 + i * (noOfParties - 1));
+    }
+    NetManager macCheckManager = new NetManager(ports);
+
+    Map<Integer, NetworkConfiguration> netConf =
+        NetworkUtil.getNetworkConfigurations(ports);
+    Map<Integer, TestThreadConfiguration<SpdzResourcePool, ProtocolBuilderNumeric>> conf =
+        new HashMap<>();
+    for (int playerId : netConf.keySet()) {
+      ProtocolSuiteNumeric<SpdzResourcePool> protocolSuite = new AsyncSpdzProtocolSuite(150,
+          () -> macCheckManager.createExtraNetwork(playerId), checkEveryBatch,
+          corruptInput && playerId == 1, checkThreads);
+      ProtocolEvaluator<SpdzResourcePool> evaluator = new BatchedProtocolEvaluator<>(
+          EvaluationStrategy.SEQUENTIAL_BATCHED.getStrategy(), protocolSuite);
+      SecureComputationEngine<SpdzResourcePool, ProtocolBuilderNumeric> sce =
+          new SecureComputationEngineImpl<>(protocolSuite, evaluator);
+      TestThreadRunner.TestThreadConfiguration<SpdzResourcePool, ProtocolBuilderNumeric> ttc =
+          new TestThreadRunner.TestThreadConfiguration<>(sce,
+              () -> createResourcePool(playerId, noOfParties),
+              () -> new SocketNetwork(netConf.get(playerId)));
+      conf.put(playerId, ttc);
+    }
+    try {
+      TestThreadRunner.run(f, conf);
+    } finally {
+      macCheckManager.close();
+    }
+  }
+
+  private SpdzResourcePool createResourcePool(int myId, int size) {
+    BigInteger modulus = ModulusFinder.findSuitableModulus(512);
+    return new SpdzResourcePoolImpl(myId, size, new SpdzOpenedValueStoreImpl(),
+        new SpdzDummyDataSupplier(myId, size,
+            new BigIntegerFieldDefinition(modulus), modulus),
+        new AesCtrDrbg(new byte[32]));
+  }
+
+  private static class AsyncSpdzProtocolSuite extends SpdzProtocolSuite {
+
+    private final Supplier<Network> macCheckNetwork;
+    private final boolean checkEveryBatch;
+    private final boolean corruptInput;
+    private final Set<String> checkThreads;
+    private Network network;
+
+    AsyncSpdzProtocolSuite(int maxBitLength, Supplier<Network> macCheckNetwork,
+        boolean checkEveryBatch, boolean corruptInput, Set<String> checkThreads) {
+      super(maxBitLength, maxBitLength / 8, macCheckNetwork);
+      this.macCheckNetwork = macCheckNetwork;
+      this.checkEveryBatch = checkEveryBatch;
+      this.corruptInput = corruptInput;
+      this.checkThreads = checkThreads;
+    }
+
+    @Override
+    public BuilderFactoryNumeric init(SpdzResourcePool resourcePool) {
+      if (corruptInput) {
+        return new MaliciousSpdzBuilder(createNumericContext(resourcePool),
+            createRealNumericContext());
+      }
+      return super.init(resourcePool);
+    }
+
+    @Override
+    public RoundSynchronization<SpdzResourcePool> createRoundSynchronization() {
+      if (!checkEveryBatch) {
+        return super.createRoundSynchronization();
+      }
+      Supplier<Network> sharedNetwork = () -> {
+        synchronized (this) {
+          if (network == null) {
+            network = macCheckNetwork.get();
+          }
+          return network;
+        }
+      };
+      if (checkThreads == null) {
+        return new SpdzRoundSynchronization(this, 0, 128, sharedNetwork);
+      }
+      return new SpdzRoundSynchronization(this, 0, 128, sharedNetwork) {
+        @Override
+        protected void doMacCheck(SpdzResourcePool resourcePool, Network network) {
+          checkThreads.add(Thread.currentThread().getName());
+          super.doMacCheck(resourcePool, network);
+        }
+      };
+    }
+  }
+}
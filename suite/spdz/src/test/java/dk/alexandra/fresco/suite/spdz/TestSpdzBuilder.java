@@ -0,0 +1,76 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
+import dk.alexandra.fresco.lib.real.RealNumericContext;
+import java.math.BigInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSpdzBuilder {
+
+  private SpdzBuilder builder;
+  private DRes<SInt> value;
+
+  @Before
+  public void setUp() {
+    builder = new SpdzBuilder(new BasicNumericContext(64, 1, 2,
+        new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(128))),
+        new RealNumericContext(16));
+    value = () -> null;
+  }
+
+  @Test
+  public void testParallelMultiplicationsAreBatched() {
+    ProtocolBuilderNumeric parallel = builder.createParallel();
+    Numeric numeric = parallel.numeric();
+    for (int i = 0; i < 100; i++) {
+      numeric.mult(value, value);
+    }
+    assertThat(parallel.getNumberOfProducers(), is(1));
+  }
+
+  @Test
+  public void testSequentialMultiplicationsAreNotBatched() {
+    ProtocolBuilderNumeric sequential = builder.createSequential();
+    Numeric numeric = sequential.numeric();
+    for (int i = 0; i < 10; i++) {
+      numeric.mult(value, value);
+    }
+    assertThat(sequential.getNumberOfProducers(), is(10));
+  }
+
+  @Test
+  public void testOtherProtocolsEndBatch() {
+    ProtocolBuilderNumeric parallel = builder.createParallel();
+    Numeric numeric = parallel.numeric();
+    numeric.mult(value, value);
+    numeric.mult(value, value);
+    numeric.add(value, value);
+    numeric.mult(value, value);
+    parallel.seq(seq -> value);
+    numeric.mult(value, value);
+    numeric.mult(BigInteger.ONE, value);
+    numeric.mult(value, value);
+    assertThat(parallel.getNumberOfProducers(), is(7));
+  }
+
+  @Test
+  public void testDependentMultiplicationEndsBatch() {
+    ProtocolBuilderNumeric parallel = builder.createParallel();
+    Numeric numeric = parallel.numeric();
+    DRes<SInt> product = numeric.mult(value, value);
+    numeric.mult(value, value);
+    numeric.mult(value, product);
+    numeric.mult(value, value);
+    assertThat(parallel.getNumberOfProducers(), is(2));
+  }
+}
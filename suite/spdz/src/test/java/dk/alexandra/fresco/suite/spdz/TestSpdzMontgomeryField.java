@@ -0,0 +1,38 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.MontgomeryFieldDefinition;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.compare.CompareTests;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import java.math.BigInteger;
+import org.junit.Test;
+
+/**
+ * Runs a selection of tests using the {@link MontgomeryFieldDefinition} in place of the default
+ * field definition.
+ */
+public class TestSpdzMontgomeryField extends AbstractSpdzTest {
+
+  @Override
+  protected FieldDefinition createFieldDefinition(BigInteger modulus) {
+    return new MontgomeryFieldDefinition(modulus);
+  }
+
+  @Test
+  public void testLotsMult() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void testCompareLt() {
+    runTest(new CompareTests.TestCompareLT<>(), PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void testInputFromAllMascot() {
+    runTest(new BasicArithmeticTests.TestInputFromAll<>(), EvaluationStrategy.SEQUENTIAL_BATCHED,
+        PreprocessingStrategy.MASCOT, 3, 16, 16, 16);
+  }
+}
@@ -0,0 +1,223 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestSpdzMappedStreamedStorage {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private FieldDefinition definition;
+  private String prefix;
+
+  @Before
+  public void setUp() {
+    definition = new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(128));
+    prefix = folder.getRoot().getAbsolutePath() + File.separator;
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    InitializeStorage.cleanup();
+  }
+
+  @Test
+  public void testRoundTrip() throws NoMoreElementsException {
+    StreamedStorage storage = new SpdzMappedStreamedStorage(new InMemoryStorage(), definition);
+    for (int i = 0; i < 100; i++) {
+      storage.putNext(prefix + "MOD", definition.getModulus());
+      storage.putNext(prefix + "ELEMENT", element(i));
+      storage.putNext(prefix + "SINT", sint(i));
+      storage.putNext(prefix + "TRIPLE", new SpdzTriple(sint(i), sint(i + 1), sint(i + 2)));
+      storage.putNext(prefix + "MASK", i % 2 == 0
+          ? new SpdzInputMask(sint(i), element(i + 3)) : new SpdzInputMask(sint(i)));
+      storage.putNext(prefix + "EXP", new SpdzSInt[] { sint(i), sint(2 * i), sint(3 * i) });
+    }
+    storage.shutdown();
+    StreamedStorage reader = new SpdzMappedStreamedStorage(new InMemoryStorage());
+    for (int i = 0; i < 100; i++) {
+      assertThat(reader.getNext(prefix + "MOD"), is(definition.getModulus()));
+      assertElement(reader.getNext(prefix + "ELEMENT"), i);
+      assertSInt(reader.getNext(prefix + "SINT"), i);
+      SpdzTriple triple = reader.getNext(prefix + "TRIPLE");
+      assertSInt(triple.getA(), i);
+      assertSInt(triple.getB(), i + 1);
+      assertSInt(triple.getC(), i + 2);
+      SpdzInputMask mask = reader.getNext(prefix + "MASK");
+      assertSInt(mask.getMask(), i);
+      if (i % 2 == 0) {
+        assertElement(mask.getRealValue(), i + 3);
+      } else {
+        assertThat(mask.getRealValue(), nullValue());
+      }
+      SpdzSInt[] pipe = reader.getNext(prefix + "EXP");
+      assertThat(pipe.length, is(3));
+      for (int j = 0; j < 3; j++) {
+        assertSInt(pipe[j], (j + 1) * i);
+      }
+    }
+    reader.shutdown();
+  }
+
+  @Test
+  public void testFixedWidthRecords() {
+    StreamedStorage storage = new SpdzMappedStreamedStorage(new InMemoryStorage(), definition);
+    for (int i = 0; i < 10; i++) {
+      storage.putNext(prefix + "TRIPLE", new SpdzTriple(sint(i), sint(i), sint(i)));
+    }
+    storage.shutdown();
+    int elementLength = definition.serialize(element(0)).length;
+    int headerLength = 3 * Integer.BYTES + 2 + elementLength;
+    assertThat(new File(prefix + "TRIPLE").length(), is((long) headerLength
+        + 10 * 6 * elementLength));
+  }
+
+  @Test(expected = NoMoreElementsException.class)
+  public void testNoMoreElements() throws NoMoreElementsException {
+    StreamedStorage storage = new SpdzMappedStreamedStorage(new InMemoryStorage(), definition);
+    storage.putNext(prefix + "SINT", sint(1));
+    storage.shutdown();
+    StreamedStorage reader = new SpdzMappedStreamedStorage(new InMemoryStorage(), definition);
+    try {
+      assertSInt(reader.getNext(prefix + "SINT"), 1);
+      reader.getNext(prefix + "SINT");
+    } finally {
+      reader.shutdown();
+    }
+  }
+
+  @Test(expected = NoMoreElementsException.class)
+  public void testMissingStore() throws NoMoreElementsException {
+    new SpdzMappedStreamedStorage(new InMemoryStorage()).getNext(prefix + "MISSING");
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testWrongModulus() throws NoMoreElementsException {
+    StreamedStorage storage = new SpdzMappedStreamedStorage(new InMemoryStorage(), definition);
+    storage.putNext(prefix + "SINT", sint(1));
+    storage.shutdown();
+    new SpdzMappedStreamedStorage(new InMemoryStorage(),
+        new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(64)))
+        .getNext(prefix + "SINT");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteWithoutDefinition() {
+    new SpdzMappedStreamedStorage(new InMemoryStorage()).putNext(prefix + "SINT", sint(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMixedTypes() {
+    StreamedStorage storage = new SpdzMappedStreamedStorage(new InMemoryStorage(), definition);
+    try {
+      storage.putNext(prefix + "SINT", sint(1));
+      storage.putNext(prefix + "SINT", element(1));
+    } finally {
+      storage.shutdown();
+    }
+  }
+
+  @Test
+  public void testConvertFromFilebasedStorage() throws NoMoreElementsException {
+    int noOfParties = 2;
+    StreamedStorage source = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+    InitializeStorage.initStreamedStorage(source, noOfParties, 1, 20, 5, 10, 2, definition);
+    source.shutdown();
+    String sourceName = SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + "1_1_0_";
+    String targetName = prefix + "SPDZ_1_";
+    source = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+    StreamedStorage target = new SpdzMappedStreamedStorage(new InMemoryStorage(), definition);
+    long count = SpdzStorageConverter.convert(source, sourceName, target, targetName, noOfParties);
+    source.shutdown();
+    target.shutdown();
+    assertThat(count, is(2L + 20 + 2 + 10 + 5 * noOfParties));
+
+    source = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+    target = new SpdzMappedStreamedStorage(new InMemoryStorage());
+    SpdzDataSupplier expected = new SpdzStorageDataSupplier(source, sourceName, noOfParties);
+    SpdzDataSupplier actual = new SpdzStorageDataSupplier(target, targetName, noOfParties);
+    assertThat(actual.getFieldDefinition().getModulus(),
+        is(expected.getFieldDefinition().getModulus()));
+    assertValue(actual.getSecretSharedKey(), expected.getSecretSharedKey());
+    for (int i = 0; i < 20; i++) {
+      SpdzTriple expectedTriple = expected.getNextTriple();
+      SpdzTriple actualTriple = actual.getNextTriple();
+      assertSInt(actualTriple.getA(), expectedTriple.getA());
+      assertSInt(actualTriple.getB(), expectedTriple.getB());
+      assertSInt(actualTriple.getC(), expectedTriple.getC());
+    }
+    for (int i = 0; i < 10; i++) {
+      assertSInt(actual.getNextBit(), expected.getNextBit());
+    }
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      for (int i = 0; i < 5; i++) {
+        SpdzInputMask expectedMask = expected.getNextInputMask(partyId);
+        SpdzInputMask actualMask = actual.getNextInputMask(partyId);
+        assertSInt(actualMask.getMask(), expectedMask.getMask());
+        if (expectedMask.getRealValue() == null) {
+          assertThat(actualMask.getRealValue(), nullValue());
+        } else {
+          assertValue(actualMask.getRealValue(), expectedMask.getRealValue());
+        }
+      }
+    }
+    for (int i = 0; i < 2; i++) {
+      SpdzSInt[] expectedPipe = expected.getNextExpPipe();
+      SpdzSInt[] actualPipe = actual.getNextExpPipe();
+      assertThat(actualPipe.length, is(expectedPipe.length));
+      for (int j = 0; j < expectedPipe.length; j++) {
+        assertSInt(actualPipe[j], expectedPipe[j]);
+      }
+    }
+    source.shutdown();
+    target.shutdown();
+  }
+
+  private FieldElement element(int value) {
+    return definition.createElement(value);
+  }
+
+  private SpdzSInt sint(int value) {
+    return new SpdzSInt(element(value), element(value + 1000));
+  }
+
+  private void assertElement(FieldElement actual, int expected) {
+    assertThat(definition.convertToUnsigned(actual), is(BigInteger.valueOf(expected)));
+  }
+
+  private void assertSInt(SpdzSInt actual, int expected) {
+    assertElement(actual.getShare(), expected);
+    assertElement(actual.getMac(), expected + 1000);
+  }
+
+  private void assertValue(FieldElement actual, FieldElement expected) {
+    assertThat(definition.convertToUnsigned(actual), is(definition.convertToUnsigned(expected)));
+  }
+
+  private void assertSInt(SpdzSInt actual, SpdzSInt expected) {
+    assertValue(actual.getShare(), expected.getShare());
+    assertValue(actual.getMac(), expected.getMac());
+  }
+}
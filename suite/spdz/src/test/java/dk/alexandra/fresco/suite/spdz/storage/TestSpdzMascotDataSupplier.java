@@ -0,0 +1,170 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.suite.spdz.NetManager;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import dk.alexandra.fresco.tools.ot.base.Ot;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSpdzMascotDataSupplier {
+
+  private static final int PRG_SEED_LENGTH = 256;
+  private static final int NO_OF_PARTIES = 2;
+  private static final int TRIPLES = 40;
+
+  private ExecutorService executorService;
+  private FieldDefinition definition;
+  private List<Integer> ports;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newCachedThreadPool();
+    definition = new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(128));
+    ports = new ArrayList<>(NO_OF_PARTIES);
+    for (int i = 1; i <= NO_OF_PARTIES; i++) {
+      ports.add(11000 + i * (NO_OF_PARTIES - 1));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeLowWatermark() {
+    createSupplier(1, () -> null, getDrbg(1), new HashMap<>(), -1, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLowWatermarkAboveHigh() {
+    createSupplier(1, () -> null, getDrbg(1), new HashMap<>(), 20, 10);
+  }
+
+  @Test
+  public void testBackgroundTriples() throws Exception {
+    List<List<SpdzTriple>> triples = generateTriples(4, 12);
+    checkTriples(triples);
+  }
+
+  @Test
+  public void testOnDemandTriples() throws Exception {
+    List<List<SpdzTriple>> triples = generateTriples(0, 0);
+    checkTriples(triples);
+  }
+
+  private List<List<SpdzTriple>> generateTriples(int lowWatermark, int highWatermark)
+      throws Exception {
+    NetManager otManager = new NetManager(ports);
+    NetManager tripleManager = new NetManager(ports);
+    try {
+      List<Callable<List<SpdzTriple>>> tasks = new ArrayList<>();
+      for (int myId = 1; myId <= NO_OF_PARTIES; myId++) {
+        final int id = myId;
+        tasks.add(() -> {
+          Drbg drbg = getDrbg(id);
+          Map<Integer, RotList> seedOts = getSeedOts(id, drbg, otManager.createExtraNetwork(id));
+          try (SpdzMascotDataSupplier supplier = createSupplier(id,
+              () -> tripleManager.createExtraNetwork(id), drbg, seedOts, lowWatermark,
+              highWatermark)) {
+            List<SpdzTriple> result = new ArrayList<>(TRIPLES);
+            for (int i = 0; i < TRIPLES; i++) {
+              result.add(supplier.getNextTriple());
+              if (i % 3 == 0) {
+                // Interleave other kinds of material to check that refills stay in sync
+                supplier.getNextBit();
+                supplier.getNextInputMask(1 + i % NO_OF_PARTIES);
+              }
+            }
+            return result;
+          }
+        });
+      }
+      List<List<SpdzTriple>> results = new ArrayList<>(NO_OF_PARTIES);
+      for (Future<List<SpdzTriple>> future : executorService.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      tripleManager.close();
+      otManager.close();
+    }
+  }
+
+  private void checkTriples(List<List<SpdzTriple>> triples) {
+    for (int i = 0; i < TRIPLES; i++) {
+      BigInteger a = BigInteger.ZERO;
+      BigInteger b = BigInteger.ZERO;
+      BigInteger c = BigInteger.ZERO;
+      for (List<SpdzTriple> partyTriples : triples) {
+        SpdzTriple triple = partyTriples.get(i);
+        a = a.add(value(triple.getA()));
+        b = b.add(value(triple.getB()));
+        c = c.add(value(triple.getC()));
+      }
+      BigInteger modulus = definition.getModulus();
+      assertThat(a.multiply(b).mod(modulus), is(c.mod(modulus)));
+    }
+  }
+
+  private BigInteger value(SpdzSInt share) {
+    return definition.convertToUnsigned(share.getShare());
+  }
+
+  private SpdzMascotDataSupplier createSupplier(int myId, Supplier<Network> network, Drbg drbg,
+      Map<Integer, RotList> seedOts, int lowWatermark, int highWatermark) {
+    FieldElement ssk = SpdzMascotDataSupplier.createRandomSsk(definition, PRG_SEED_LENGTH);
+    return new SpdzMascotDataSupplier(myId, NO_OF_PARTIES, 1, network, definition, 128, null,
+        PRG_SEED_LENGTH, 4, ssk, seedOts, drbg, lowWatermark, highWatermark);
+  }
+
+  private Drbg getDrbg(int myId) {
+    byte[] seed = new byte[PRG_SEED_LENGTH / 8];
+    Arrays.fill(seed, (byte) myId);
+    return AesCtrDrbgFactory.fromDerivedSeed(seed);
+  }
+
+  private Map<Integer, RotList> getSeedOts(int myId, Drbg drbg, Network network) {
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    for (int otherId = 1; otherId <= NO_OF_PARTIES; otherId++) {
+      if (myId != otherId) {
+        Ot ot = new DummyOt(otherId, network);
+        RotList currentSeedOts = new RotList(drbg, PRG_SEED_LENGTH);
+        if (myId < otherId) {
+          currentSeedOts.send(ot);
+          currentSeedOts.receive(ot);
+        } else {
+          currentSeedOts.receive(ot);
+          currentSeedOts.send(ot);
+        }
+        seedOts.put(otherId, currentSeedOts);
+      }
+    }
+    return seedOts;
+  }
+}
@@ -0,0 +1,152 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSpdzPackedOpenedValueStore {
+
+  private FieldDefinition definition;
+  private SpdzOpenedValueStore store;
+
+  @Before
+  public void setUp() {
+    definition = new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(128));
+    store = new SpdzPackedOpenedValueStore();
+  }
+
+  @Test
+  public void testPushOpenedValues() {
+    Assert.assertFalse(store.hasPendingValues());
+    store.pushOpenedValue(sint(1), element(2));
+    Assert.assertTrue("Store expected to have pending values", store.hasPendingValues());
+    Assert.assertTrue(store.exceedsThreshold(0));
+    Assert.assertFalse(store.exceedsThreshold(1));
+  }
+
+  @Test
+  public void testPopValuesBeyondInitialCapacity() {
+    int count = 3000;
+    List<SpdzSInt> sints = new ArrayList<>();
+    List<FieldElement> elements = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      if (i < count / 2) {
+        store.pushOpenedValue(sint(i), element(i + 7));
+      } else {
+        sints.add(sint(i));
+        elements.add(element(i + 7));
+        if (sints.size() == 100) {
+          store.pushOpenedValues(sints, elements);
+          sints.clear();
+          elements.clear();
+        }
+      }
+    }
+    store.pushOpenedValues(sints, elements);
+    Assert.assertTrue(store.exceedsThreshold(count - 1));
+    Assert.assertFalse(store.exceedsThreshold(count));
+    Pair<List<SpdzSInt>, List<FieldElement>> values = store.popValues();
+    Assert.assertFalse("Store not expected to have pending values", store.hasPendingValues());
+    List<SpdzSInt> first = values.getFirst();
+    List<FieldElement> second = values.getSecond();
+    assertThat(first.size(), is(count));
+    assertThat(second.size(), is(count));
+    for (int i = 0; i < count; i++) {
+      assertValue(first.get(i).getShare(), i);
+      assertValue(first.get(i).getMac(), i + 1000);
+      assertValue(second.get(i), i + 7);
+    }
+  }
+
+  @Test
+  public void testPopTwice() {
+    store.pushOpenedValues(Collections.singletonList(sint(3)),
+        Collections.singletonList(element(4)));
+    Pair<List<SpdzSInt>, List<FieldElement>> both = store.popValues();
+    Pair<List<SpdzSInt>, List<FieldElement>> actual = store.popValues();
+    Assert.assertTrue("Second pop statement should return empty list", actual.getFirst().isEmpty());
+    Assert.assertTrue(actual.getSecond().isEmpty());
+    assertThat(both.getFirst().size(), is(1));
+    assertValue(both.getFirst().get(0).getShare(), 3);
+    assertValue(both.getSecond().get(0), 4);
+    both.getFirst().clear();
+    both.getSecond().clear();
+    Assert.assertTrue(both.getFirst().isEmpty());
+    Assert.assertTrue(both.getSecond().isEmpty());
+  }
+
+  @Test
+  public void testPopMacCheckSums() {
+    for (int i = 0; i < 10; i++) {
+      store.pushOpenedValue(sint(i), element(i + 7));
+    }
+    int[] coefficient = {0};
+    Pair<FieldElement, FieldElement> sums = store.popMacCheckSums(definition,
+        () -> element(++coefficient[0]));
+    Assert.assertFalse("Store not expected to have pending values", store.hasPendingValues());
+    int openedSum = 0;
+    int macSum = 0;
+    for (int i = 0; i < 10; i++) {
+      openedSum += (i + 1) * (i + 7);
+      macSum += (i + 1) * (i + 1000);
+    }
+    assertValue(sums.getFirst(), openedSum);
+    assertValue(sums.getSecond(), macSum);
+  }
+
+  @Test
+  public void testReuseAfterPop() {
+    for (int i = 0; i < 2000; i++) {
+      store.pushOpenedValue(sint(i), element(i + 7));
+    }
+    Pair<List<SpdzSInt>, List<FieldElement>> first = store.popValues();
+    for (int i = 0; i < 3; i++) {
+      store.pushOpenedValue(sint(i + 10), element(i + 20));
+    }
+    Pair<List<SpdzSInt>, List<FieldElement>> second = store.popValues();
+    assertThat(first.getFirst().size(), is(2000));
+    assertValue(first.getSecond().get(1999), 2006);
+    assertThat(second.getFirst().size(), is(3));
+    assertThat(second.getSecond().size(), is(3));
+    for (int i = 0; i < 3; i++) {
+      assertValue(second.getFirst().get(i).getShare(), i + 10);
+      assertValue(second.getSecond().get(i), i + 20);
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    store.pushOpenedValue(sint(1), element(2));
+    store.popValues().getSecond().get(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPushDifferentSizes() {
+    store.pushOpenedValues(Collections.singletonList(sint(1)), Collections.emptyList());
+  }
+
+  private FieldElement element(int value) {
+    return definition.createElement(value);
+  }
+
+  private SpdzSInt sint(int value) {
+    return new SpdzSInt(element(value), element(value + 1000));
+  }
+
+  private void assertValue(FieldElement actual, int expected) {
+    assertThat(definition.convertToUnsigned(actual), is(BigInteger.valueOf(expected)));
+  }
+}
@@ -2,16 +2,23 @@ package dk.alexandra.fresco.suite.spdz.storage;
 
 import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import java.io.File;
 import java.math.BigInteger;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class TestSpdzStorage {
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void testDataSupplierModFoundTwice() {
     FilebasedStreamedStorageImpl storage = new FilebasedStreamedStorageImpl(new InMemoryStorage());
-    storage.putNext("valid" + SpdzStorageDataSupplier.MODULUS_KEY, BigInteger.ONE);
-    SpdzStorageDataSupplier supplier = new SpdzStorageDataSupplier(storage, "valid", 2);
+    String storageName = folder.getRoot().getAbsolutePath() + File.separator + "valid";
+    storage.putNext(storageName + SpdzStorageDataSupplier.MODULUS_KEY, BigInteger.ONE);
+    SpdzStorageDataSupplier supplier = new SpdzStorageDataSupplier(storage, storageName, 2);
     supplier.getFieldDefinition();
     supplier.getFieldDefinition();
   }
@@ -14,8 +14,10 @@ import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
 import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kInputComputation;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kAddKnownProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kKnownSIntProtocol;
+import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kMultiplyBatchProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kMultiplyProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kOutputSinglePartyProtocol;
+import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kOutputToAllBatchProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kOutputToAllProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kRandomBitProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kRandomElementProtocol;
@@ -47,6 +49,12 @@ public class Spdz2kBuilder<PlainT extends CompUInt<?, ?, PlainT>> implements
   @Override
   public Numeric createNumeric(ProtocolBuilderNumeric builder) {
     return new Numeric() {
+
+      private Spdz2kMultiplyBatchProtocol<PlainT> multiplyBatch;
+      private int multiplyBatchEnd;
+      private Spdz2kOutputToAllBatchProtocol<PlainT> openBatch;
+      private int openBatchEnd;
+
       @Override
       public DRes<SInt> add(DRes<SInt> a, DRes<SInt> b) {
         return () -> toSpdz2kSInt(a).add(toSpdz2kSInt(b));
@@ -76,7 +84,18 @@ public class Spdz2kBuilder<PlainT extends CompUInt<?, ?, PlainT>> implements
 
       @Override
       public DRes<SInt> mult(DRes<SInt> a, DRes<SInt> b) {
-        return builder.append(new Spdz2kMultiplyProtocol<>(a, b));
+        if (!builder.isParallel()) {
+          return builder.append(new Spdz2kMultiplyProtocol<>(a, b));
+        }
+        // Consecutive multiplications in a parallel scope are evaluated in a single protocol
+        if (multiplyBatch == null || builder.getNumberOfProducers() != multiplyBatchEnd
+            || multiplyBatch.produces(a) || multiplyBatch.produces(b)) {
+          multiplyBatch = new Spdz2kMultiplyBatchProtocol<>();
+          builder.append(multiplyBatch);
+        }
+        DRes<SInt> product = multiplyBatch.append(a, b);
+        multiplyBatchEnd = builder.getNumberOfProducers();
+        return product;
       }
 
       @Override
@@ -108,7 +127,17 @@ public class Spdz2kBuilder<PlainT extends CompUInt<?, ?, PlainT>> implements
 
       @Override
       public DRes<BigInteger> open(DRes<SInt> secretShare) {
-        return builder.append(new Spdz2kOutputToAllProtocol<>(secretShare));
+        if (!builder.isParallel()) {
+          return builder.append(new Spdz2kOutputToAllProtocol<>(secretShare));
+        }
+        // Consecutive openings in a parallel scope are evaluated in a single protocol
+        if (openBatch == null || builder.getNumberOfProducers() != openBatchEnd) {
+          openBatch = new Spdz2kOutputToAllBatchProtocol<>();
+          builder.append(openBatch);
+        }
+        DRes<BigInteger> opened = openBatch.append(secretShare);
+        openBatchEnd = builder.getNumberOfProducers();
+        return opened;
       }
 
       @Override
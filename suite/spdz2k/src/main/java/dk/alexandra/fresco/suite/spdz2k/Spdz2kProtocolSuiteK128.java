@@ -0,0 +1,17 @@
+package dk.alexandra.fresco.suite.spdz2k;
+
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt256;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntConverter256;
+
+/**
+ * Protocol suite using {@link CompUInt256} as the underlying plain-value type.
+ */
+public class Spdz2kProtocolSuiteK128 extends
+    Spdz2kProtocolSuite<CompUInt128, CompUInt128, CompUInt256> {
+
+  public Spdz2kProtocolSuiteK128() {
+    super(new CompUIntConverter256());
+  }
+
+}
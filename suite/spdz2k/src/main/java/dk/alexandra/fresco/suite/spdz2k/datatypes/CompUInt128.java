@@ -10,6 +10,7 @@ import java.math.BigInteger;
  */
 public class CompUInt128 implements CompUInt<UInt64, UInt64, CompUInt128> {
 
+  private static final long serialVersionUID = 602544026216433145L;
   private static final CompUInt128 ONE = new CompUInt128(1);
   private final long high;
   private final int mid;
@@ -197,6 +198,18 @@ public class CompUInt128 implements CompUInt<UInt64, UInt64, CompUInt128> {
     return bytes;
   }
 
+  long getHigh() {
+    return high;
+  }
+
+  int getMid() {
+    return mid;
+  }
+
+  int getLow() {
+    return low;
+  }
+
   static BigInteger extractValue(FieldElement element) {
     return ((CompUInt128) element).toBigInteger();
   }
@@ -1,11 +1,12 @@
 package dk.alexandra.fresco.suite.spdz2k.datatypes;
 
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.util.CompUInt128Serializer;
 import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
 import java.math.BigInteger;
 import java.security.SecureRandom;
+import java.util.List;
 
 public class CompUInt128Factory implements CompUIntFactory<CompUInt128> {
 
@@ -14,11 +15,11 @@ public class CompUInt128Factory implements CompUIntFactory<CompUInt128> {
   private static final BigInteger valueHalfModulus = BigInteger.ONE.shiftLeft(32);
 
   private final SecureRandom random;
-  private final ByteSerializer<CompUInt128> serializer;
+  private final UIntSerializer<CompUInt128> serializer;
 
   public CompUInt128Factory() {
     random = new SecureRandom();
-    serializer = new UIntSerializer<>(this);
+    serializer = new CompUInt128Serializer(this);
   }
 
   @Override
@@ -34,7 +35,7 @@ public class CompUInt128Factory implements CompUIntFactory<CompUInt128> {
   }
 
   @Override
-  public ByteSerializer<CompUInt128> getSerializer() {
+  public UIntSerializer<CompUInt128> getSerializer() {
     // TODO hack for now until we figure out a clean way to do serialization using the factory only
     // while keeping things compliant with FieldDefinition interface
     return serializer;
@@ -94,4 +95,9 @@ public class CompUInt128Factory implements CompUIntFactory<CompUInt128> {
     return ZERO;
   }
 
+  @Override
+  public CompUInt128 innerProduct(List<CompUInt128> left, List<CompUInt128> right) {
+    return new CompUInt128Vector(left).innerProduct(new CompUInt128Vector(right));
+  }
+
 }
@@ -0,0 +1,372 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutable vector of unsigned 128-bit integers with support for in-place bulk operations. <p>The
+ * values are stored in parallel arrays holding the high 64 bits, the middle 32 bits and the low 32
+ * bits of each value, using the same split as {@link CompUInt128}, so operations on a vector do not
+ * allocate an object per value. All arithmetic is modulo 2<sup>128</sup>.</p>
+ */
+public class CompUInt128Vector {
+
+  /**
+   * Number of bytes of a serialized value.
+   */
+  public static final int BYTE_LENGTH = 16;
+  /**
+   * Number of bytes of the serialized 64 least significant bits of a value.
+   */
+  public static final int LOW_BYTE_LENGTH = 8;
+  private final long[] high;
+  private final int[] mid;
+  private final int[] low;
+
+  /**
+   * Creates a new vector of zeroes.
+   *
+   * @param size the number of values
+   */
+  public CompUInt128Vector(int size) {
+    this.high = new long[size];
+    this.mid = new int[size];
+    this.low = new int[size];
+  }
+
+  /**
+   * Creates a new vector holding a list of values.
+   *
+   * @param values the values
+   */
+  public CompUInt128Vector(List<CompUInt128> values) {
+    this(values.size());
+    for (int i = 0; i < values.size(); i++) {
+      set(i, values.get(i));
+    }
+  }
+
+  /**
+   * Returns the number of values.
+   */
+  public int size() {
+    return high.length;
+  }
+
+  /**
+   * Gets a value of this vector.
+   *
+   * @param index the index of the value
+   * @return the value
+   */
+  public CompUInt128 get(int index) {
+    return new CompUInt128(high[index], mid[index], low[index]);
+  }
+
+  /**
+   * Sets a value of this vector.
+   *
+   * @param index the index of the value
+   * @param value the new value
+   */
+  public void set(int index, CompUInt128 value) {
+    high[index] = value.getHigh();
+    mid[index] = value.getMid();
+    low[index] = value.getLow();
+  }
+
+  /**
+   * Returns the values of this vector as a list.
+   */
+  public List<CompUInt128> toList() {
+    List<CompUInt128> values = new ArrayList<>(size());
+    for (int i = 0; i < size(); i++) {
+      values.add(get(i));
+    }
+    return values;
+  }
+
+  /**
+   * Adds another vector to this vector, element-wise.
+   *
+   * @param other the vector to add
+   * @return this vector
+   */
+  public CompUInt128Vector add(CompUInt128Vector other) {
+    checkSize(other);
+    for (int i = 0; i < high.length; i++) {
+      add(i, other.high[i], other.mid[i], other.low[i]);
+    }
+    return this;
+  }
+
+  /**
+   * Subtracts another vector from this vector, element-wise.
+   *
+   * @param other the vector to subtract
+   * @return this vector
+   */
+  public CompUInt128Vector subtract(CompUInt128Vector other) {
+    checkSize(other);
+    for (int i = 0; i < high.length; i++) {
+      // add the two's complement of the other value, i.e., its bitwise negation plus one
+      add(i, ~other.high[i], ~other.mid[i], ~other.low[i]);
+      add(i, 0, 0, 1);
+    }
+    return this;
+  }
+
+  /**
+   * Multiplies this vector by another vector, element-wise.
+   *
+   * @param other the vector to multiply by
+   * @return this vector
+   */
+  public CompUInt128Vector multiply(CompUInt128Vector other) {
+    checkSize(other);
+    for (int i = 0; i < high.length; i++) {
+      multiply(i, other.high[i], other.mid[i], other.low[i]);
+    }
+    return this;
+  }
+
+  /**
+   * Multiplies each value of this vector by a scalar.
+   *
+   * @param scalar the scalar
+   * @return this vector
+   */
+  public CompUInt128Vector multiply(CompUInt128 scalar) {
+    long scalarHigh = scalar.getHigh();
+    int scalarMid = scalar.getMid();
+    int scalarLow = scalar.getLow();
+    for (int i = 0; i < high.length; i++) {
+      multiply(i, scalarHigh, scalarMid, scalarLow);
+    }
+    return this;
+  }
+
+  /**
+   * Adds the product of another vector and a scalar to this vector, i.e., computes <i>this +
+   * scalar * other</i>. This is the typical update of a mac share.
+   *
+   * @param other the vector to multiply by the scalar
+   * @param scalar the scalar
+   * @return this vector
+   */
+  public CompUInt128Vector addScaled(CompUInt128Vector other, CompUInt128 scalar) {
+    checkSize(other);
+    CompUInt128Vector product = new CompUInt128Vector(1);
+    for (int i = 0; i < high.length; i++) {
+      product.high[0] = other.high[i];
+      product.mid[0] = other.mid[i];
+      product.low[0] = other.low[i];
+      product.multiply(0, scalar.getHigh(), scalar.getMid(), scalar.getLow());
+      add(i, product.high[0], product.mid[0], product.low[0]);
+    }
+    return this;
+  }
+
+  /**
+   * Left-shifts the 64 least significant bits of each value by 64, as {@link
+   * CompUInt128#shiftLowIntoHigh()}.
+   *
+   * @return this vector
+   */
+  public CompUInt128Vector shiftLowIntoHigh() {
+    for (int i = 0; i < high.length; i++) {
+      high[i] = (UInt.toUnLong(mid[i]) << 32) | UInt.toUnLong(low[i]);
+      mid[i] = 0;
+      low[i] = 0;
+    }
+    return this;
+  }
+
+  /**
+   * Computes the inner product of this vector and another vector.
+   *
+   * @param other the other vector
+   * @return the inner product
+   */
+  public CompUInt128 innerProduct(CompUInt128Vector other) {
+    checkSize(other);
+    CompUInt128Vector accumulator = new CompUInt128Vector(2);
+    for (int i = 0; i < high.length; i++) {
+      accumulator.high[1] = high[i];
+      accumulator.mid[1] = mid[i];
+      accumulator.low[1] = low[i];
+      accumulator.multiply(1, other.high[i], other.mid[i], other.low[i]);
+      accumulator.add(0, accumulator.high[1], accumulator.mid[1], accumulator.low[1]);
+    }
+    return accumulator.get(0);
+  }
+
+  /**
+   * Serializes the values of this vector into an array, using the big-endian representation of
+   * {@link CompUInt128#toByteArray()} for each value.
+   *
+   * @param bytes the array to write {@value #BYTE_LENGTH} bytes per value to
+   * @param offset the position in the array of the first byte to write
+   */
+  public void serialize(byte[] bytes, int offset) {
+    for (int i = 0; i < high.length; i++) {
+      int start = offset + i * BYTE_LENGTH;
+      writeLong(bytes, start, high[i]);
+      writeInt(bytes, start + 8, mid[i]);
+      writeInt(bytes, start + 12, low[i]);
+    }
+  }
+
+  /**
+   * Serializes the values of this vector into a new array.
+   *
+   * @return the serialized values
+   */
+  public byte[] toByteArray() {
+    byte[] bytes = new byte[high.length * BYTE_LENGTH];
+    serialize(bytes, 0);
+    return bytes;
+  }
+
+  /**
+   * Reads a vector of values serialized by {@link #serialize(byte[], int)}.
+   *
+   * @param bytes the array to read from
+   * @param offset the position in the array of the first byte of the first value
+   * @param size the number of values to read
+   * @return the vector of values
+   */
+  public static CompUInt128Vector deserialize(byte[] bytes, int offset, int size) {
+    if (offset < 0 || size < 0 || offset > bytes.length - size * BYTE_LENGTH) {
+      throw new IllegalArgumentException("Cannot read " + size + " values at offset " + offset
+          + " from " + bytes.length + " bytes");
+    }
+    CompUInt128Vector vector = new CompUInt128Vector(size);
+    for (int i = 0; i < size; i++) {
+      int start = offset + i * BYTE_LENGTH;
+      vector.high[i] = readLong(bytes, start);
+      vector.mid[i] = readInt(bytes, start + 8);
+      vector.low[i] = readInt(bytes, start + 12);
+    }
+    return vector;
+  }
+
+  /**
+   * Serializes the 64 least significant bits of the values of this vector into an array, using the
+   * big-endian representation of {@link UInt64#toByteArray()} for each value.
+   *
+   * @param bytes the array to write {@value #LOW_BYTE_LENGTH} bytes per value to
+   * @param offset the position in the array of the first byte to write
+   */
+  public void serializeLeastSignificant(byte[] bytes, int offset) {
+    for (int i = 0; i < high.length; i++) {
+      int start = offset + i * LOW_BYTE_LENGTH;
+      writeInt(bytes, start, mid[i]);
+      writeInt(bytes, start + 4, low[i]);
+    }
+  }
+
+  /**
+   * Reads a vector of values from their 64 least significant bits, serialized by {@link
+   * #serializeLeastSignificant(byte[], int)}. The 64 most significant bits of the values are zero.
+   *
+   * @param bytes the array to read from
+   * @param offset the position in the array of the first byte of the first value
+   * @param size the number of values to read
+   * @return the vector of values
+   */
+  public static CompUInt128Vector deserializeLeastSignificant(byte[] bytes, int offset,
+      int size) {
+    if (offset < 0 || size < 0 || offset > bytes.length - size * LOW_BYTE_LENGTH) {
+      throw new IllegalArgumentException("Cannot read " + size + " values at offset " + offset
+          + " from " + bytes.length + " bytes");
+    }
+    CompUInt128Vector vector = new CompUInt128Vector(size);
+    for (int i = 0; i < size; i++) {
+      int start = offset + i * LOW_BYTE_LENGTH;
+      vector.mid[i] = readInt(bytes, start);
+      vector.low[i] = readInt(bytes, start + 4);
+    }
+    return vector;
+  }
+
+  private void add(int index, long otherHigh, int otherMid, int otherLow) {
+    long newLow = UInt.toUnLong(low[index]) + UInt.toUnLong(otherLow);
+    long newMid = UInt.toUnLong(mid[index]) + UInt.toUnLong(otherMid) + (newLow >>> 32);
+    high[index] = high[index] + otherHigh + (newMid >>> 32);
+    mid[index] = (int) newMid;
+    low[index] = (int) newLow;
+  }
+
+  /**
+   * Multiplies a value of this vector in place, following {@link
+   * CompUInt128#multiply(CompUInt128)}.
+   */
+  private void multiply(int index, long otherHigh, int otherMid, int otherLow) {
+    long thisHigh = high[index];
+    long thisLowAsLong = UInt.toUnLong(low[index]);
+    long thisMidAsLong = UInt.toUnLong(mid[index]);
+    long otherLowAsLong = UInt.toUnLong(otherLow);
+    long otherMidAsLong = UInt.toUnLong(otherMid);
+
+    long t1 = thisLowAsLong * otherLowAsLong;
+    long t2 = thisLowAsLong * otherMidAsLong;
+    long t3 = thisLowAsLong * otherHigh;
+    long t4 = thisMidAsLong * otherLowAsLong;
+    long t5 = thisMidAsLong * otherMidAsLong;
+    int t6 = (int) (mid[index] * otherHigh);
+    long t7 = thisHigh * otherLowAsLong;
+    int t8 = (int) (thisHigh * otherMid);
+
+    long m1 = (t1 >>> 32) + (t2 & 0xffffffffL);
+    long newMid = UInt.toUnLong((int) m1) + (t4 & 0xffffffffL);
+    high[index] = (t2 >>> 32)
+        + t3
+        + (t4 >>> 32)
+        + t5
+        + (UInt.toUnLong(t6) << 32)
+        + t7
+        + (UInt.toUnLong(t8) << 32)
+        + (m1 >>> 32)
+        + (newMid >>> 32);
+    mid[index] = (int) newMid;
+    low[index] = (int) t1;
+  }
+
+  private void checkSize(CompUInt128Vector other) {
+    if (other.size() != size()) {
+      throw new IllegalArgumentException(
+          "Vectors must have same size, but were " + size() + " and " + other.size());
+    }
+  }
+
+  private static void writeLong(byte[] bytes, int start, long value) {
+    for (int i = 7; i >= 0; i--) {
+      bytes[start + i] = (byte) value;
+      value >>>= 8;
+    }
+  }
+
+  private static void writeInt(byte[] bytes, int start, int value) {
+    for (int i = 3; i >= 0; i--) {
+      bytes[start + i] = (byte) value;
+      value >>>= 8;
+    }
+  }
+
+  private static long readLong(byte[] bytes, int start) {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | (bytes[start + i] & 0xFFL);
+    }
+    return value;
+  }
+
+  private static int readInt(byte[] bytes, int start) {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      value = (value << 8) | (bytes[start + i] & 0xFF);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,194 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import java.math.BigInteger;
+
+/**
+ * Unsigned 256-bit integer composed of two 128-bit halves, i.e., k = s = 128. <p>The halves are
+ * represented as {@link CompUInt128}, which is used as a plain 128-bit unsigned integer here.
+ * Internally the value is stored as eight 32-bit limbs, least significant limb first.</p>
+ */
+public class CompUInt256 implements CompUInt<CompUInt128, CompUInt128, CompUInt256> {
+
+  private static final long serialVersionUID = -5000792103588122564L;
+  private static final int LIMBS = 8;
+  private static final BigInteger MODULUS = BigInteger.ONE.shiftLeft(256);
+  private final int[] limbs;
+
+  /**
+   * Creates new {@link CompUInt256}.
+   *
+   * @param bytes bytes interpreted in big-endian order. May be shorter than 32 bytes in which case
+   * the bytes represent the least significant bits.
+   */
+  public CompUInt256(byte[] bytes) {
+    if (bytes.length > 4 * LIMBS) {
+      throw new IllegalArgumentException("Exceeds capacity");
+    }
+    this.limbs = new int[LIMBS];
+    for (int i = 0; i < bytes.length; i++) {
+      int bytePos = bytes.length - 1 - i;
+      limbs[i / 4] |= (bytes[bytePos] & 0xFF) << (8 * (i % 4));
+    }
+  }
+
+  /**
+   * Creates new {@link CompUInt256} from {@link BigInteger}. <p>The value is reduced modulo
+   * 2^256.</p>
+   */
+  public CompUInt256(BigInteger value) {
+    this(CompUInt.pad(value.mod(MODULUS).toByteArray(), 256));
+  }
+
+  /**
+   * Creates new {@link CompUInt256} whose 128 least significant bits are the given value.
+   */
+  CompUInt256(CompUInt128 value) {
+    this.limbs = new int[LIMBS];
+    limbs[0] = value.getLow();
+    limbs[1] = value.getMid();
+    limbs[2] = (int) value.getHigh();
+    limbs[3] = (int) (value.getHigh() >>> 32);
+  }
+
+  CompUInt256(long value) {
+    this.limbs = new int[LIMBS];
+    limbs[0] = (int) value;
+    limbs[1] = (int) (value >>> 32);
+  }
+
+  private CompUInt256(int[] limbs) {
+    this.limbs = limbs;
+  }
+
+  @Override
+  public CompUInt256 add(CompUInt256 other) {
+    int[] result = new int[LIMBS];
+    long carry = 0;
+    for (int i = 0; i < LIMBS; i++) {
+      long sum = UInt.toUnLong(limbs[i]) + UInt.toUnLong(other.limbs[i]) + carry;
+      result[i] = (int) sum;
+      carry = sum >>> 32;
+    }
+    return new CompUInt256(result);
+  }
+
+  @Override
+  public CompUInt256 multiply(CompUInt256 other) {
+    int[] result = new int[LIMBS];
+    for (int i = 0; i < LIMBS; i++) {
+      long left = UInt.toUnLong(limbs[i]);
+      if (left == 0) {
+        continue;
+      }
+      long carry = 0;
+      // limbs of index LIMBS and above overflow 2^256 and are dropped
+      for (int j = 0; i + j < LIMBS; j++) {
+        long product = left * UInt.toUnLong(other.limbs[j])
+            + UInt.toUnLong(result[i + j])
+            + carry;
+        result[i + j] = (int) product;
+        carry = product >>> 32;
+      }
+    }
+    return new CompUInt256(result);
+  }
+
+  @Override
+  public CompUInt256 subtract(CompUInt256 other) {
+    int[] result = new int[LIMBS];
+    long borrow = 0;
+    for (int i = 0; i < LIMBS; i++) {
+      long difference = UInt.toUnLong(limbs[i]) - UInt.toUnLong(other.limbs[i]) - borrow;
+      result[i] = (int) difference;
+      borrow = difference < 0 ? 1 : 0;
+    }
+    return new CompUInt256(result);
+  }
+
+  @Override
+  public CompUInt256 negateUInt() {
+    return new CompUInt256(0).subtract(this);
+  }
+
+  @Override
+  public boolean isZero() {
+    for (int limb : limbs) {
+      if (limb != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public BigInteger toBigInteger() {
+    return new BigInteger(1, toByteArray());
+  }
+
+  @Override
+  public CompUInt128 getLeastSignificant() {
+    return toCompUInt128(0);
+  }
+
+  @Override
+  public CompUInt128 getMostSignificant() {
+    return toCompUInt128(LIMBS / 2);
+  }
+
+  @Override
+  public CompUInt128 getLeastSignificantAsHigh() {
+    return getLeastSignificant();
+  }
+
+  @Override
+  public long toLong() {
+    return (UInt.toUnLong(limbs[1]) << 32) + UInt.toUnLong(limbs[0]);
+  }
+
+  @Override
+  public int toInt() {
+    return limbs[0];
+  }
+
+  @Override
+  public CompUInt256 shiftLowIntoHigh() {
+    int[] result = new int[LIMBS];
+    System.arraycopy(limbs, 0, result, LIMBS / 2, LIMBS / 2);
+    return new CompUInt256(result);
+  }
+
+  @Override
+  public int getLowBitLength() {
+    return 128;
+  }
+
+  @Override
+  public int getHighBitLength() {
+    return 128;
+  }
+
+  @Override
+  public String toString() {
+    return toBigInteger().toString();
+  }
+
+  @Override
+  public byte[] toByteArray() {
+    byte[] bytes = new byte[4 * LIMBS];
+    for (int i = 0; i < LIMBS; i++) {
+      int limb = limbs[i];
+      int offset = bytes.length - 4 * i - 1;
+      for (int j = 0; j < 4; j++) {
+        bytes[offset - j] = (byte) (limb & 0xFF);
+        limb >>>= 8;
+      }
+    }
+    return bytes;
+  }
+
+  private CompUInt128 toCompUInt128(int from) {
+    long high = (UInt.toUnLong(limbs[from + 3]) << 32) | UInt.toUnLong(limbs[from + 2]);
+    return new CompUInt128(high, limbs[from + 1], limbs[from]);
+  }
+
+}
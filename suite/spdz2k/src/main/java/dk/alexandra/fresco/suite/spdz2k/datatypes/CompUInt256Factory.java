@@ -0,0 +1,94 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+public class CompUInt256Factory implements CompUIntFactory<CompUInt256> {
+
+  private static final CompUInt256 ZERO = new CompUInt256(0L);
+  private static final BigInteger valueModulus = BigInteger.ONE.shiftLeft(128);
+  private static final BigInteger valueHalfModulus = BigInteger.ONE.shiftLeft(127);
+
+  private final SecureRandom random;
+  private final UIntSerializer<CompUInt256> serializer;
+
+  public CompUInt256Factory() {
+    random = new SecureRandom();
+    serializer = new UIntSerializer<>(this);
+  }
+
+  @Override
+  public CompUInt256 deserialize(byte[] bytes) {
+    return new CompUInt256(bytes);
+  }
+
+  @Override
+  public CompUInt256 createRandom() {
+    byte[] bytes = new byte[32];
+    this.random.nextBytes(bytes);
+    return this.deserialize(bytes);
+  }
+
+  @Override
+  public UIntSerializer<CompUInt256> getSerializer() {
+    return serializer;
+  }
+
+  @Override
+  public int getLowBitLength() {
+    return 128;
+  }
+
+  @Override
+  public int getHighBitLength() {
+    return 128;
+  }
+
+  @Override
+  public CompUInt256 createElement(BigInteger value) {
+    return value == null ? null : new CompUInt256(value);
+  }
+
+  @Override
+  public CompUInt256 createElement(long value) {
+    return new CompUInt256(value);
+  }
+
+  @Override
+  public BigInteger getModulus() {
+    return valueModulus;
+  }
+
+  @Override
+  public StrictBitVector convertToBitVector(FieldElement fieldElement) {
+    byte[] bytes = ((CompUInt256) fieldElement)
+        .getLeastSignificant()
+        .toByteArray();
+    return new StrictBitVector(bytes);
+  }
+
+  @Override
+  public BigInteger convertToUnsigned(FieldElement value) {
+    return ((CompUInt256) value)
+        .getLeastSignificant()
+        .toBigInteger();
+  }
+
+  @Override
+  public BigInteger convertToSigned(BigInteger asUnsigned) {
+    if (asUnsigned.compareTo(valueHalfModulus) >= 0) {
+      return asUnsigned.subtract(valueModulus);
+    } else {
+      return asUnsigned;
+    }
+  }
+
+  @Override
+  public CompUInt256 zero() {
+    return ZERO;
+  }
+
+}
@@ -0,0 +1,128 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import dk.alexandra.fresco.framework.util.ByteAndBitConverter;
+import java.math.BigInteger;
+
+/**
+ * Unsigned 64-bit integer composed of two 32-bit halves, i.e., k = s = 32. <p>Backed by a single
+ * long so all arithmetic is native modulo 2^64 arithmetic.</p>
+ */
+public class CompUInt64 implements CompUInt<UInt32, UInt32, CompUInt64> {
+
+  private static final long serialVersionUID = -488557480985209452L;
+  private final long value;
+
+  /**
+   * Creates new {@link CompUInt64}.
+   *
+   * @param bytes bytes interpreted in big-endian order. May be shorter than 8 bytes in which case
+   * the bytes represent the least significant bits.
+   */
+  public CompUInt64(byte[] bytes) {
+    if (bytes.length > 8) {
+      throw new IllegalArgumentException("Exceeds capacity");
+    }
+    long result = 0;
+    for (byte b : bytes) {
+      result = (result << 8) | (b & 0xFFL);
+    }
+    this.value = result;
+  }
+
+  /**
+   * Creates new {@link CompUInt64} from {@link BigInteger}. <p>The value is reduced modulo
+   * 2^64.</p>
+   */
+  public CompUInt64(BigInteger value) {
+    this(value.longValue());
+  }
+
+  CompUInt64(UInt32 value) {
+    this(value.toLong());
+  }
+
+  CompUInt64(long value) {
+    this.value = value;
+  }
+
+  @Override
+  public CompUInt64 add(CompUInt64 other) {
+    return new CompUInt64(value + other.value);
+  }
+
+  @Override
+  public CompUInt64 multiply(CompUInt64 other) {
+    return new CompUInt64(value * other.value);
+  }
+
+  @Override
+  public CompUInt64 subtract(CompUInt64 other) {
+    return new CompUInt64(value - other.value);
+  }
+
+  @Override
+  public CompUInt64 negateUInt() {
+    return new CompUInt64(-value);
+  }
+
+  @Override
+  public boolean isZero() {
+    return value == 0;
+  }
+
+  @Override
+  public BigInteger toBigInteger() {
+    return new BigInteger(1, toByteArray());
+  }
+
+  @Override
+  public UInt32 getLeastSignificant() {
+    return new UInt32((int) value);
+  }
+
+  @Override
+  public UInt32 getMostSignificant() {
+    return new UInt32((int) (value >>> 32));
+  }
+
+  @Override
+  public UInt32 getLeastSignificantAsHigh() {
+    return getLeastSignificant();
+  }
+
+  @Override
+  public long toLong() {
+    return value;
+  }
+
+  @Override
+  public int toInt() {
+    return (int) value;
+  }
+
+  @Override
+  public CompUInt64 shiftLowIntoHigh() {
+    return new CompUInt64(value << 32);
+  }
+
+  @Override
+  public int getLowBitLength() {
+    return 32;
+  }
+
+  @Override
+  public int getHighBitLength() {
+    return 32;
+  }
+
+  @Override
+  public String toString() {
+    return Long.toUnsignedString(value);
+  }
+
+  @Override
+  public byte[] toByteArray() {
+    return ByteAndBitConverter.toByteArray(value);
+  }
+
+}
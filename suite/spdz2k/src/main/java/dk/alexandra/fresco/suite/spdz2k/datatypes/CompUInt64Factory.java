@@ -0,0 +1,92 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+public class CompUInt64Factory implements CompUIntFactory<CompUInt64> {
+
+  private static final CompUInt64 ZERO = new CompUInt64(0L);
+  private static final BigInteger valueModulus = BigInteger.ONE.shiftLeft(32);
+  private static final BigInteger valueHalfModulus = BigInteger.ONE.shiftLeft(31);
+
+  private final SecureRandom random;
+  private final UIntSerializer<CompUInt64> serializer;
+
+  public CompUInt64Factory() {
+    random = new SecureRandom();
+    serializer = new UIntSerializer<>(this);
+  }
+
+  @Override
+  public CompUInt64 deserialize(byte[] bytes) {
+    return new CompUInt64(bytes);
+  }
+
+  @Override
+  public CompUInt64 createRandom() {
+    return new CompUInt64(random.nextLong());
+  }
+
+  @Override
+  public UIntSerializer<CompUInt64> getSerializer() {
+    return serializer;
+  }
+
+  @Override
+  public int getLowBitLength() {
+    return 32;
+  }
+
+  @Override
+  public int getHighBitLength() {
+    return 32;
+  }
+
+  @Override
+  public CompUInt64 createElement(BigInteger value) {
+    return value == null ? null : new CompUInt64(value);
+  }
+
+  @Override
+  public CompUInt64 createElement(long value) {
+    return new CompUInt64(value);
+  }
+
+  @Override
+  public BigInteger getModulus() {
+    return valueModulus;
+  }
+
+  @Override
+  public StrictBitVector convertToBitVector(FieldElement fieldElement) {
+    byte[] bytes = ((CompUInt64) fieldElement)
+        .getLeastSignificant()
+        .toByteArray();
+    return new StrictBitVector(bytes);
+  }
+
+  @Override
+  public BigInteger convertToUnsigned(FieldElement value) {
+    return ((CompUInt64) value)
+        .getLeastSignificant()
+        .toBigInteger();
+  }
+
+  @Override
+  public BigInteger convertToSigned(BigInteger asUnsigned) {
+    if (asUnsigned.compareTo(valueHalfModulus) >= 0) {
+      return asUnsigned.subtract(valueModulus);
+    } else {
+      return asUnsigned;
+    }
+  }
+
+  @Override
+  public CompUInt64 zero() {
+    return ZERO;
+  }
+
+}
@@ -0,0 +1,16 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+public class CompUIntConverter256 implements
+    CompUIntConverter<CompUInt128, CompUInt128, CompUInt256> {
+
+  @Override
+  public CompUInt256 createFromHigh(CompUInt128 value) {
+    return new CompUInt256(value);
+  }
+
+  @Override
+  public CompUInt256 createFromLow(CompUInt128 value) {
+    return new CompUInt256(value);
+  }
+
+}
@@ -2,8 +2,8 @@ package dk.alexandra.fresco.suite.spdz2k.datatypes;
 
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -21,7 +21,7 @@ public interface CompUIntFactory<CompT extends CompUInt<?, ?, CompT>> extends Fi
   /**
    * Creates serializer for {@link CompT} instances.
    */
-  ByteSerializer<CompT> getSerializer();
+  UIntSerializer<CompT> getSerializer();
 
   /**
    * Get length of most significant bits which represent the masking portion.
@@ -45,6 +45,14 @@ public interface CompUIntFactory<CompT extends CompUInt<?, ?, CompT>> extends Fi
    */
   CompT zero();
 
+  /**
+   * Computes the inner product of two lists of elements of the same size. <p>Factories may
+   * override this with a bulk implementation for their element type.</p>
+   */
+  default CompT innerProduct(List<CompT> left, List<CompT> right) {
+    return UInt.innerProduct(left, right);
+  }
+
   /**
    * Creates new {@link CompT} from a {@link BigInteger}.
    */
@@ -0,0 +1,162 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Native protocol for computing the products of a number of pairs of secret numbers at once.
+ * <p>This is equivalent to using a {@link Spdz2kMultiplyProtocol} for each pair, but all epsilon
+ * and delta shares are sent to the other parties in a single message.</p>
+ *
+ * <p>Pairs are appended while the protocol is being built, and the result of each multiplication
+ * is available once the protocol is done. Since all pairs are multiplied in the same rounds, the
+ * inputs of a pair must not depend on the result of another pair.</p>
+ */
+public class Spdz2kMultiplyBatchProtocol<PlainT extends CompUInt<?, ?, PlainT>> extends
+    Spdz2kNativeProtocol<List<SInt>, PlainT> {
+
+  private final List<DRes<SInt>> lefts;
+  private final List<DRes<SInt>> rights;
+  private List<Spdz2kTriple<PlainT>> triples;
+  private List<Spdz2kSInt<PlainT>> epsilonsAndDeltas;
+  private SInt[] products;
+
+  /**
+   * Creates new, empty {@link Spdz2kMultiplyBatchProtocol}.
+   */
+  public Spdz2kMultiplyBatchProtocol() {
+    this.lefts = new ArrayList<>();
+    this.rights = new ArrayList<>();
+  }
+
+  /**
+   * Appends a pair of values to multiply.
+   *
+   * @param left left factor
+   * @param right right factor
+   * @return the product which is available when this protocol is done
+   */
+  public DRes<SInt> append(DRes<SInt> left, DRes<SInt> right) {
+    if (products != null) {
+      throw new IllegalStateException("Cannot append to a protocol which has been evaluated");
+    }
+    lefts.add(left);
+    rights.add(right);
+    return new Product(lefts.size() - 1);
+  }
+
+  /**
+   * Tells whether the given value is the result of a multiplication in this protocol.
+   */
+  public boolean produces(DRes<SInt> value) {
+    return value instanceof Spdz2kMultiplyBatchProtocol<?>.Product
+        && ((Spdz2kMultiplyBatchProtocol<?>.Product) value).owner() == this;
+  }
+
+  /**
+   * Returns the number of multiplications in this protocol.
+   */
+  public int size() {
+    return lefts.size();
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, Spdz2kResourcePool<PlainT> resourcePool,
+      Network network) {
+    CompUIntFactory<PlainT> factory = resourcePool.getFactory();
+    UIntSerializer<PlainT> serializer = factory.getSerializer();
+    int size = lefts.size();
+    if (round == 0) {
+      triples = new ArrayList<>(size);
+      epsilonsAndDeltas = new ArrayList<>(2 * size);
+      List<PlainT> shares = new ArrayList<>(2 * size);
+      for (int i = 0; i < size; i++) {
+        Spdz2kTriple<PlainT> triple = resourcePool.getDataSupplier().getNextTripleShares();
+        triples.add(triple);
+        Spdz2kSInt<PlainT> epsilon = toSpdz2kSInt(lefts.get(i)).subtract(triple.getLeft());
+        Spdz2kSInt<PlainT> delta = toSpdz2kSInt(rights.get(i)).subtract(triple.getRight());
+        epsilonsAndDeltas.add(epsilon);
+        epsilonsAndDeltas.add(delta);
+        shares.add(epsilon.getShare());
+        shares.add(delta.getShare());
+      }
+      network.sendToAll(serializer.serializeLeastSignificant(shares));
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      List<PlainT> openings = receiveAndReconstruct(network, factory,
+          resourcePool.getNoOfParties(), 2 * size);
+      final PlainT macKeyShare = resourcePool.getDataSupplier().getSecretSharedKey();
+      boolean isPartyOne = resourcePool.getMyId() == 1;
+      products = new SInt[size];
+      for (int i = 0; i < size; i++) {
+        // compute [prod] = [c] + epsilon * [b] + delta * [a] + epsilon * delta
+        PlainT e = openings.get(2 * i);
+        PlainT d = openings.get(2 * i + 1);
+        Spdz2kTriple<PlainT> triple = triples.get(i);
+        products[i] = triple.getProduct()
+            .add(triple.getRight().multiply(e))
+            .add(triple.getLeft().multiply(d))
+            .addConstant(e.multiply(d),
+                macKeyShare,
+                factory.zero(),
+                isPartyOne);
+      }
+      resourcePool.getOpenedValueStore().pushOpenedValues(epsilonsAndDeltas, openings);
+      triples = null;
+      epsilonsAndDeltas = null;
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  /**
+   * Retrieves shares of all epsilons and deltas and reconstructs each.
+   */
+  private List<PlainT> receiveAndReconstruct(Network network, CompUIntFactory<PlainT> factory,
+      int noOfParties, int expectedSize) {
+    int expectedLength = expectedSize * factory.getLowBitLength() / Byte.SIZE;
+    List<byte[]> shares = new ArrayList<>(noOfParties);
+    for (int i = 1; i <= noOfParties; i++) {
+      byte[] partyShares = network.receive(i);
+      if (partyShares.length != expectedLength) {
+        throw new IllegalStateException("Expected " + expectedSize + " shares from party " + i
+            + " but got " + partyShares.length + " bytes");
+      }
+      shares.add(partyShares);
+    }
+    return factory.getSerializer().reconstructLeastSignificant(shares);
+  }
+
+  @Override
+  public List<SInt> out() {
+    return Arrays.asList(products);
+  }
+
+  private final class Product implements DRes<SInt> {
+
+    private final int index;
+
+    private Product(int index) {
+      this.index = index;
+    }
+
+    private Spdz2kMultiplyBatchProtocol<?> owner() {
+      return Spdz2kMultiplyBatchProtocol.this;
+    }
+
+    @Override
+    public SInt out() {
+      return products == null ? null : products[index];
+    }
+  }
+
+}
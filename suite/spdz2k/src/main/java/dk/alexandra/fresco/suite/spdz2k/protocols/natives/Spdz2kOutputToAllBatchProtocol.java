@@ -0,0 +1,102 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Native protocol for opening a number of secret values to all parties at once. <p>This is
+ * equivalent to using a {@link Spdz2kOutputToAllProtocol} for each value, but all shares are sent
+ * to the other parties in a single message.</p>
+ */
+public class Spdz2kOutputToAllBatchProtocol<PlainT extends CompUInt<?, ?, PlainT>>
+    extends Spdz2kNativeProtocol<List<BigInteger>, PlainT>
+    implements RequiresMacCheck {
+
+  private final List<DRes<SInt>> shares;
+  private List<Spdz2kSInt<PlainT>> authenticatedElements;
+  private BigInteger[] opened;
+
+  /**
+   * Creates new, empty {@link Spdz2kOutputToAllBatchProtocol}.
+   */
+  public Spdz2kOutputToAllBatchProtocol() {
+    this.shares = new ArrayList<>();
+  }
+
+  /**
+   * Appends a value to open.
+   *
+   * @param share value to open
+   * @return the opened value which is available when this protocol is done
+   */
+  public DRes<BigInteger> append(DRes<SInt> share) {
+    if (opened != null) {
+      throw new IllegalStateException("Cannot append to a protocol which has been evaluated");
+    }
+    shares.add(share);
+    final int index = shares.size() - 1;
+    return () -> opened == null ? null : opened[index];
+  }
+
+  /**
+   * Returns the number of values opened by this protocol.
+   */
+  public int size() {
+    return shares.size();
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, Spdz2kResourcePool<PlainT> resourcePool,
+      Network network) {
+    CompUIntFactory<PlainT> factory = resourcePool.getFactory();
+    UIntSerializer<PlainT> serializer = factory.getSerializer();
+    int size = shares.size();
+    if (round == 0) {
+      authenticatedElements = new ArrayList<>(size);
+      List<PlainT> myShares = new ArrayList<>(size);
+      for (DRes<SInt> share : shares) {
+        Spdz2kSInt<PlainT> authenticatedElement = toSpdz2kSInt(share);
+        authenticatedElements.add(authenticatedElement);
+        myShares.add(authenticatedElement.getShare());
+      }
+      network.sendToAll(serializer.serializeLeastSignificant(myShares));
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      int expectedLength = size * factory.getLowBitLength() / Byte.SIZE;
+      List<byte[]> received = network.receiveFromAll();
+      for (int i = 0; i < received.size(); i++) {
+        if (received.get(i).length != expectedLength) {
+          throw new IllegalStateException("Expected " + size + " shares from party " + (i + 1)
+              + " but got " + received.get(i).length + " bytes");
+        }
+      }
+      List<PlainT> recombined = serializer.reconstructLeastSignificant(received);
+      resourcePool.getOpenedValueStore().pushOpenedValues(authenticatedElements, recombined);
+      BigInteger[] result = new BigInteger[size];
+      for (int i = 0; i < size; i++) {
+        result[i] = recombined.get(i)
+            .getLeastSignificant()
+            .toBigInteger();
+      }
+      opened = result;
+      authenticatedElements = null;
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public List<BigInteger> out() {
+    return Arrays.asList(opened);
+  }
+
+}
@@ -0,0 +1,72 @@
+package dk.alexandra.fresco.suite.spdz2k.util;
+
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Vector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import java.util.List;
+
+/**
+ * Serializer for {@link CompUInt128} instances. <p>Lists of values are serialized and
+ * deserialized in bulk through a {@link CompUInt128Vector} rather than through a byte array per
+ * value, and shares are reconstructed by adding up the vectors of all parties in place.</p>
+ */
+public class CompUInt128Serializer extends UIntSerializer<CompUInt128> {
+
+  /**
+   * Creates new {@link CompUInt128Serializer}.
+   *
+   * @param factory factory for creating {@link CompUInt128} instances.
+   */
+  public CompUInt128Serializer(CompUIntFactory<CompUInt128> factory) {
+    super(factory);
+  }
+
+  @Override
+  public byte[] serialize(List<CompUInt128> objects) {
+    return new CompUInt128Vector(objects).toByteArray();
+  }
+
+  @Override
+  public List<CompUInt128> deserializeList(byte[] bytes) {
+    int numElements = numElements(bytes, CompUInt128Vector.BYTE_LENGTH);
+    return CompUInt128Vector.deserialize(bytes, 0, numElements).toList();
+  }
+
+  @Override
+  public byte[] serializeLeastSignificant(List<CompUInt128> objects) {
+    byte[] all = new byte[CompUInt128Vector.LOW_BYTE_LENGTH * objects.size()];
+    new CompUInt128Vector(objects).serializeLeastSignificant(all, 0);
+    return all;
+  }
+
+  @Override
+  public List<CompUInt128> deserializeLeastSignificantList(byte[] bytes) {
+    return deserializeLeastSignificant(bytes).toList();
+  }
+
+  @Override
+  public List<CompUInt128> reconstructLeastSignificant(List<byte[]> shares) {
+    CompUInt128Vector sums = deserializeLeastSignificant(shares.get(0));
+    for (int i = 1; i < shares.size(); i++) {
+      CompUInt128Vector partyShares = deserializeLeastSignificant(shares.get(i));
+      if (partyShares.size() != sums.size()) {
+        throw new IllegalArgumentException("All parties must send the same number of shares");
+      }
+      sums.add(partyShares);
+    }
+    return sums.toList();
+  }
+
+  private CompUInt128Vector deserializeLeastSignificant(byte[] bytes) {
+    int numElements = numElements(bytes, CompUInt128Vector.LOW_BYTE_LENGTH);
+    return CompUInt128Vector.deserializeLeastSignificant(bytes, 0, numElements);
+  }
+
+  private int numElements(byte[] bytes, int elementLength) {
+    if (bytes.length % elementLength != 0) {
+      throw new IllegalArgumentException(
+          "Total number of bytes must be a multiple of length of single element");
+    }
+    return bytes.length / elementLength;
+  }
+}
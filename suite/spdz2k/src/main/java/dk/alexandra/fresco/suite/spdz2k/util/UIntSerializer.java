@@ -15,6 +15,7 @@ public class UIntSerializer<PlainT extends CompUInt<?, ?, PlainT>> implements
 
   private final CompUIntFactory<PlainT> factory;
   private final int byteLength;
+  private final int lowByteLength;
 
   /**
    * Creates new {@link UIntSerializer}.
@@ -24,6 +25,7 @@ public class UIntSerializer<PlainT extends CompUInt<?, ?, PlainT>> implements
   public UIntSerializer(CompUIntFactory<PlainT> factory) {
     this.factory = factory;
     this.byteLength = factory.getCompositeBitLength() / 8;
+    this.lowByteLength = factory.getLowBitLength() / 8;
   }
 
   @Override
@@ -60,4 +62,58 @@ public class UIntSerializer<PlainT extends CompUInt<?, ?, PlainT>> implements
     return elements;
   }
 
+  /**
+   * Serializes the k least significant bits of each element into a single array. <p>This is what is
+   * sent when opening values, since the top s bits of the shares must not be revealed.</p>
+   */
+  public byte[] serializeLeastSignificant(List<PlainT> objects) {
+    byte[] all = new byte[lowByteLength * objects.size()];
+    for (int i = 0; i < objects.size(); i++) {
+      byte[] serialized = objects.get(i).getLeastSignificant().toByteArray();
+      System.arraycopy(serialized, 0, all, i * lowByteLength, lowByteLength);
+    }
+    return all;
+  }
+
+  /**
+   * Deserializes elements serialized via {@link #serializeLeastSignificant(List)}. <p>The top s
+   * bits of the resulting elements are zero.</p>
+   */
+  public List<PlainT> deserializeLeastSignificantList(byte[] bytes) {
+    if (bytes.length % lowByteLength != 0) {
+      throw new IllegalArgumentException(
+          "Total number of bytes must be a multiple of length of single element");
+    }
+    int numElements = bytes.length / lowByteLength;
+    List<PlainT> elements = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      byte[] padded = new byte[byteLength];
+      System.arraycopy(bytes, i * lowByteLength, padded, byteLength - lowByteLength,
+          lowByteLength);
+      elements.add(deserialize(padded));
+    }
+    return elements;
+  }
+
+  /**
+   * Reconstructs values from the shares of all parties, each serialized via {@link
+   * #serializeLeastSignificant(List)}, by adding up the shares element-wise.
+   *
+   * @param shares the serialized shares of each party
+   * @return the sums of the shares
+   */
+  public List<PlainT> reconstructLeastSignificant(List<byte[]> shares) {
+    List<PlainT> sums = deserializeLeastSignificantList(shares.get(0));
+    for (int i = 1; i < shares.size(); i++) {
+      List<PlainT> partyShares = deserializeLeastSignificantList(shares.get(i));
+      if (partyShares.size() != sums.size()) {
+        throw new IllegalArgumentException("All parties must send the same number of shares");
+      }
+      for (int j = 0; j < sums.size(); j++) {
+        sums.set(j, sums.get(j).add(partyShares.get(j)));
+      }
+    }
+    return sums;
+  }
+
 }
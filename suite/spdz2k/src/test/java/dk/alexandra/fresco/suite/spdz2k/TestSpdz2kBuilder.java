@@ -1,13 +1,83 @@
 package dk.alexandra.fresco.suite.spdz2k;
 
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import java.math.BigInteger;
 import org.junit.Test;
 
 public class TestSpdz2kBuilder {
 
+  private final Spdz2kBuilder<CompUInt128> builder =
+      new Spdz2kBuilder<>(new CompUInt128Factory(), null);
+  private final DRes<SInt> value = () -> null;
+
   @Test(expected = UnsupportedOperationException.class)
   public void getBigIntegerHelper() {
     new Spdz2kBuilder<CompUInt128>(null, null).getBigIntegerHelper();
   }
 
+  @Test
+  public void testParallelMultiplicationsAreBatched() {
+    ProtocolBuilderNumeric parallel = builder.createParallel();
+    Numeric numeric = parallel.numeric();
+    for (int i = 0; i < 100; i++) {
+      numeric.mult(value, value);
+    }
+    assertThat(parallel.getNumberOfProducers(), is(1));
+  }
+
+  @Test
+  public void testSequentialMultiplicationsAreNotBatched() {
+    ProtocolBuilderNumeric sequential = builder.createSequential();
+    Numeric numeric = sequential.numeric();
+    for (int i = 0; i < 10; i++) {
+      numeric.mult(value, value);
+    }
+    assertThat(sequential.getNumberOfProducers(), is(10));
+  }
+
+  @Test
+  public void testDependentMultiplicationEndsBatch() {
+    ProtocolBuilderNumeric parallel = builder.createParallel();
+    Numeric numeric = parallel.numeric();
+    DRes<SInt> product = numeric.mult(value, value);
+    numeric.mult(value, value);
+    numeric.mult(value, product);
+    numeric.mult(value, value);
+    assertThat(parallel.getNumberOfProducers(), is(2));
+  }
+
+  @Test
+  public void testParallelOpeningsAreBatched() {
+    ProtocolBuilderNumeric parallel = builder.createParallel();
+    Numeric numeric = parallel.numeric();
+    for (int i = 0; i < 100; i++) {
+      numeric.open(value);
+    }
+    assertThat(parallel.getNumberOfProducers(), is(1));
+  }
+
+  @Test
+  public void testOtherProtocolsEndBatch() {
+    ProtocolBuilderNumeric parallel = builder.createParallel();
+    Numeric numeric = parallel.numeric();
+    numeric.mult(value, value);
+    numeric.mult(value, value);
+    numeric.open(value);
+    numeric.open(value);
+    numeric.mult(value, value);
+    numeric.add(BigInteger.ONE, value);
+    numeric.open(value);
+    numeric.open(value, 1);
+    numeric.open(value);
+    assertThat(parallel.getNumberOfProducers(), is(7));
+  }
+
 }
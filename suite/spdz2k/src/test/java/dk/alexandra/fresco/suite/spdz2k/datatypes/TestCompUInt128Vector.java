@@ -0,0 +1,150 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestCompUInt128Vector {
+
+  private final BigInteger twoTo128 = BigInteger.ONE.shiftLeft(128);
+  private final Random random = new Random(42);
+
+  private List<CompUInt128> randomValues(int size) {
+    List<CompUInt128> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      // include values with zero parts to exercise the carries
+      int bits = random.nextInt(4) == 0 ? random.nextInt(128) + 1 : 128;
+      values.add(new CompUInt128(new BigInteger(bits, random)));
+    }
+    values.add(new CompUInt128(twoTo128.subtract(BigInteger.ONE)));
+    values.add(new CompUInt128(BigInteger.ZERO));
+    return values;
+  }
+
+  private void assertValues(List<BigInteger> expected, CompUInt128Vector actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).mod(twoTo128), actual.get(i).toBigInteger());
+    }
+  }
+
+  @Test
+  public void testGetSet() {
+    List<CompUInt128> values = randomValues(10);
+    CompUInt128Vector vector = new CompUInt128Vector(values);
+    assertEquals(values.size(), vector.size());
+    for (int i = 0; i < values.size(); i++) {
+      assertEquals(values.get(i).toBigInteger(), vector.get(i).toBigInteger());
+    }
+    vector.set(3, new CompUInt128(BigInteger.TEN));
+    assertEquals(BigInteger.TEN, vector.toList().get(3).toBigInteger());
+    assertEquals(BigInteger.ZERO, new CompUInt128Vector(5).get(4).toBigInteger());
+  }
+
+  @Test
+  public void testAddSubtract() {
+    List<CompUInt128> left = randomValues(100);
+    List<CompUInt128> right = randomValues(100);
+    List<BigInteger> sums = new ArrayList<>();
+    List<BigInteger> differences = new ArrayList<>();
+    for (int i = 0; i < left.size(); i++) {
+      sums.add(left.get(i).toBigInteger().add(right.get(i).toBigInteger()));
+      differences.add(left.get(i).toBigInteger().subtract(right.get(i).toBigInteger()));
+    }
+    assertValues(sums, new CompUInt128Vector(left).add(new CompUInt128Vector(right)));
+    assertValues(differences, new CompUInt128Vector(left).subtract(new CompUInt128Vector(right)));
+  }
+
+  @Test
+  public void testMultiply() {
+    List<CompUInt128> left = randomValues(100);
+    List<CompUInt128> right = randomValues(100);
+    CompUInt128 scalar = new CompUInt128(new BigInteger(128, random));
+    List<BigInteger> products = new ArrayList<>();
+    List<BigInteger> scaled = new ArrayList<>();
+    List<BigInteger> accumulated = new ArrayList<>();
+    BigInteger innerProduct = BigInteger.ZERO;
+    for (int i = 0; i < left.size(); i++) {
+      BigInteger product = left.get(i).toBigInteger().multiply(right.get(i).toBigInteger());
+      products.add(product);
+      innerProduct = innerProduct.add(product);
+      scaled.add(left.get(i).toBigInteger().multiply(scalar.toBigInteger()));
+      accumulated.add(left.get(i).toBigInteger()
+          .add(right.get(i).toBigInteger().multiply(scalar.toBigInteger())));
+      assertEquals(left.get(i).multiply(right.get(i)).toBigInteger(), product.mod(twoTo128));
+    }
+    assertValues(products, new CompUInt128Vector(left).multiply(new CompUInt128Vector(right)));
+    assertValues(scaled, new CompUInt128Vector(left).multiply(scalar));
+    assertValues(accumulated,
+        new CompUInt128Vector(left).addScaled(new CompUInt128Vector(right), scalar));
+    assertEquals(innerProduct.mod(twoTo128),
+        new CompUInt128Vector(left).innerProduct(new CompUInt128Vector(right)).toBigInteger());
+  }
+
+  @Test
+  public void testShiftLowIntoHigh() {
+    List<CompUInt128> values = randomValues(20);
+    CompUInt128Vector vector = new CompUInt128Vector(values).shiftLowIntoHigh();
+    for (int i = 0; i < values.size(); i++) {
+      assertEquals(values.get(i).shiftLowIntoHigh().toBigInteger(), vector.get(i).toBigInteger());
+    }
+  }
+
+  @Test
+  public void testSerialization() {
+    List<CompUInt128> values = randomValues(20);
+    CompUInt128Vector vector = new CompUInt128Vector(values);
+    byte[] bytes = vector.toByteArray();
+    assertEquals(values.size() * CompUInt128Vector.BYTE_LENGTH, bytes.length);
+    for (int i = 0; i < values.size(); i++) {
+      byte[] expected = values.get(i).toByteArray();
+      byte[] actual = new byte[CompUInt128Vector.BYTE_LENGTH];
+      System.arraycopy(bytes, i * CompUInt128Vector.BYTE_LENGTH, actual, 0, actual.length);
+      assertArrayEquals(expected, actual);
+    }
+    byte[] padded = new byte[bytes.length + 3];
+    vector.serialize(padded, 3);
+    CompUInt128Vector deserialized = CompUInt128Vector.deserialize(padded, 3, values.size());
+    assertArrayEquals(bytes, deserialized.toByteArray());
+  }
+
+  @Test
+  public void testSerializeLeastSignificant() {
+    List<CompUInt128> values = randomValues(20);
+    byte[] bytes = new byte[values.size() * CompUInt128Vector.LOW_BYTE_LENGTH + 5];
+    new CompUInt128Vector(values).serializeLeastSignificant(bytes, 5);
+    for (int i = 0; i < values.size(); i++) {
+      byte[] expected = values.get(i).getLeastSignificant().toByteArray();
+      int start = 5 + i * CompUInt128Vector.LOW_BYTE_LENGTH;
+      assertArrayEquals(expected,
+          Arrays.copyOfRange(bytes, start, start + CompUInt128Vector.LOW_BYTE_LENGTH));
+    }
+    CompUInt128Vector deserialized =
+        CompUInt128Vector.deserializeLeastSignificant(bytes, 5, values.size());
+    for (int i = 0; i < values.size(); i++) {
+      assertEquals(values.get(i).getLeastSignificant().toBigInteger(),
+          deserialized.get(i).toBigInteger());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDeserializeLeastSignificantTooShort() {
+    CompUInt128Vector.deserializeLeastSignificant(new byte[15], 0, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDeserializeTooShort() {
+    CompUInt128Vector.deserialize(new byte[31], 0, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSizeMismatch() {
+    new CompUInt128Vector(2).add(new CompUInt128Vector(3));
+  }
+}
@@ -0,0 +1,123 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestCompUInt256 {
+
+  private final BigInteger two = BigInteger.valueOf(2);
+  private final BigInteger twoTo128 = BigInteger.ONE.shiftLeft(128);
+  private final BigInteger twoTo256 = BigInteger.ONE.shiftLeft(256);
+
+  @Test
+  public void testConstruct() {
+    assertEquals(BigInteger.ZERO, new CompUInt256(BigInteger.ZERO).toBigInteger());
+    assertEquals(BigInteger.ONE, new CompUInt256(BigInteger.ONE).toBigInteger());
+    assertEquals(twoTo128, new CompUInt256(twoTo128).toBigInteger());
+    assertEquals(
+        twoTo256.subtract(BigInteger.ONE),
+        new CompUInt256(twoTo256.subtract(BigInteger.ONE)).toBigInteger()
+    );
+    assertEquals(
+        twoTo256.subtract(BigInteger.ONE),
+        new CompUInt256(BigInteger.ONE.negate()).toBigInteger()
+    );
+  }
+
+  @Test
+  public void testArithmetic() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100; i++) {
+      BigInteger left = new BigInteger(256 - random.nextInt(256), random);
+      BigInteger right = new BigInteger(256 - random.nextInt(256), random);
+      CompUInt256 leftUInt = new CompUInt256(left);
+      CompUInt256 rightUInt = new CompUInt256(right);
+      assertEquals(left.add(right).mod(twoTo256), leftUInt.add(rightUInt).toBigInteger());
+      assertEquals(left.subtract(right).mod(twoTo256),
+          leftUInt.subtract(rightUInt).toBigInteger());
+      assertEquals(left.multiply(right).mod(twoTo256),
+          leftUInt.multiply(rightUInt).toBigInteger());
+      assertEquals(left.negate().mod(twoTo256), leftUInt.negateUInt().toBigInteger());
+    }
+  }
+
+  @Test
+  public void testMultiplyWithOverflow() {
+    assertEquals(
+        twoTo256.subtract(two),
+        new CompUInt256(twoTo256.subtract(BigInteger.ONE)).multiply(new CompUInt256(two))
+            .toBigInteger()
+    );
+    assertEquals(
+        BigInteger.ZERO,
+        new CompUInt256(twoTo128).multiply(new CompUInt256(twoTo128)).toBigInteger()
+    );
+  }
+
+  @Test
+  public void testLeastAndMostSignificant() {
+    BigInteger high = new BigInteger("123456789012345678901234567890");
+    BigInteger low = new BigInteger("987654321098765432109876543210");
+    CompUInt256 uint = new CompUInt256(high.shiftLeft(128).add(low));
+    assertEquals(low, uint.getLeastSignificant().toBigInteger());
+    assertEquals(low, uint.getLeastSignificantAsHigh().toBigInteger());
+    assertEquals(high, uint.getMostSignificant().toBigInteger());
+    assertEquals(low.shiftLeft(128), uint.shiftLowIntoHigh().toBigInteger());
+    assertEquals(low, new CompUInt256(uint.getLeastSignificant()).toBigInteger());
+  }
+
+  @Test
+  public void testToByteArray() {
+    byte[] bytes = new byte[32];
+    new Random(1).nextBytes(bytes);
+    UInt<CompUInt256> uint = new CompUInt256(bytes);
+    assertArrayEquals(bytes, uint.toByteArray());
+  }
+
+  @Test
+  public void testFromShortByteArray() {
+    byte[] bytes = new byte[16];
+    new Random(1).nextBytes(bytes);
+    assertEquals(new BigInteger(1, bytes), new CompUInt256(bytes).toBigInteger());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromByteArrayIllegal() {
+    new CompUInt256(new byte[33]);
+  }
+
+  @Test
+  public void testGetBitLength() {
+    CompUInt256 uint = new CompUInt256(1);
+    assertEquals(256, uint.getBitLength());
+    assertEquals(128, uint.getHighBitLength());
+    assertEquals(128, uint.getLowBitLength());
+  }
+
+  @Test
+  public void testToIntAndLong() {
+    CompUInt256 uint = new CompUInt256(twoTo128.add(BigInteger.valueOf(0x1234567890L)));
+    assertEquals(0x34567890, uint.toInt());
+    assertEquals(0x1234567890L, uint.toLong());
+  }
+
+  @Test
+  public void testToString() {
+    UInt<CompUInt256> uint = new CompUInt256(12135);
+    assertEquals("12135", uint.toString());
+  }
+
+  @Test
+  public void testIsZero() {
+    assertTrue(new CompUInt256(0).isZero());
+    assertFalse(new CompUInt256(1).isZero());
+    assertFalse(new CompUInt256(twoTo128).isZero());
+  }
+
+}
@@ -0,0 +1,99 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestCompUInt64 {
+
+  private final BigInteger twoTo32 = BigInteger.ONE.shiftLeft(32);
+  private final BigInteger twoTo64 = BigInteger.ONE.shiftLeft(64);
+
+  @Test
+  public void testConstruct() {
+    assertEquals(BigInteger.ZERO, new CompUInt64(BigInteger.ZERO).toBigInteger());
+    assertEquals(BigInteger.ONE, new CompUInt64(BigInteger.ONE).toBigInteger());
+    assertEquals(twoTo32, new CompUInt64(twoTo32).toBigInteger());
+    assertEquals(
+        twoTo64.subtract(BigInteger.ONE),
+        new CompUInt64(twoTo64.subtract(BigInteger.ONE)).toBigInteger()
+    );
+    assertEquals(
+        twoTo64.subtract(BigInteger.ONE),
+        new CompUInt64(BigInteger.ONE.negate()).toBigInteger()
+    );
+  }
+
+  @Test
+  public void testArithmetic() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100; i++) {
+      BigInteger left = new BigInteger(64, random);
+      BigInteger right = new BigInteger(64, random);
+      CompUInt64 leftUInt = new CompUInt64(left);
+      CompUInt64 rightUInt = new CompUInt64(right);
+      assertEquals(left.add(right).mod(twoTo64), leftUInt.add(rightUInt).toBigInteger());
+      assertEquals(left.subtract(right).mod(twoTo64),
+          leftUInt.subtract(rightUInt).toBigInteger());
+      assertEquals(left.multiply(right).mod(twoTo64),
+          leftUInt.multiply(rightUInt).toBigInteger());
+      assertEquals(left.negate().mod(twoTo64), leftUInt.negateUInt().toBigInteger());
+    }
+  }
+
+  @Test
+  public void testLeastAndMostSignificant() {
+    CompUInt64 uint = new CompUInt64(0x12345678_9abcdef0L);
+    assertEquals(0x9abcdef0L, uint.getLeastSignificant().toLong());
+    assertEquals(0x9abcdef0L, uint.getLeastSignificantAsHigh().toLong());
+    assertEquals(0x12345678L, uint.getMostSignificant().toLong());
+    assertEquals(0x9abcdef0_00000000L, uint.shiftLowIntoHigh().toLong());
+    assertEquals(0x9abcdef0L, new CompUInt64(uint.getLeastSignificant()).toLong());
+  }
+
+  @Test
+  public void testToByteArray() {
+    byte[] bytes = new byte[8];
+    new Random(1).nextBytes(bytes);
+    UInt<CompUInt64> uint = new CompUInt64(bytes);
+    assertArrayEquals(bytes, uint.toByteArray());
+  }
+
+  @Test
+  public void testFromShortByteArray() {
+    byte[] bytes = new byte[]{0x01, 0x02, 0x03, 0x04};
+    assertEquals(0x01020304L, new CompUInt64(bytes).toLong());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromByteArrayIllegal() {
+    new CompUInt64(new byte[9]);
+  }
+
+  @Test
+  public void testGetBitLength() {
+    CompUInt64 uint = new CompUInt64(1);
+    assertEquals(64, uint.getBitLength());
+    assertEquals(32, uint.getHighBitLength());
+    assertEquals(32, uint.getLowBitLength());
+  }
+
+  @Test
+  public void testToString() {
+    UInt<CompUInt64> uint = new CompUInt64(-1L);
+    assertEquals(twoTo64.subtract(BigInteger.ONE).toString(), uint.toString());
+  }
+
+  @Test
+  public void testIsZero() {
+    assertTrue(new CompUInt64(0).isZero());
+    assertFalse(new CompUInt64(1).isZero());
+    assertFalse(new CompUInt64(1L << 32).isZero());
+  }
+
+}
@@ -9,6 +9,9 @@ import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
@@ -74,4 +77,108 @@ public class TestCompUIntFactorySerialization {
     factory.deserializeList(rawBytes);
   }
 
+  @Test
+  public void testSerializeLeastSignificant() {
+    Random random = new Random(42);
+    byte[] rawBytes = new byte[32];
+    random.nextBytes(rawBytes);
+    List<CompUInt128> elements = Arrays.asList(
+        factory.deserialize(Arrays.copyOfRange(rawBytes, 0, 16)),
+        factory.deserialize(Arrays.copyOfRange(rawBytes, 16, 32))
+    );
+    byte[] actual = factory.getSerializer().serializeLeastSignificant(elements);
+    assertEquals(16, actual.length);
+    assertArrayEquals(Arrays.copyOfRange(rawBytes, 8, 16), Arrays.copyOfRange(actual, 0, 8));
+    assertArrayEquals(Arrays.copyOfRange(rawBytes, 24, 32), Arrays.copyOfRange(actual, 8, 16));
+  }
+
+  @Test
+  public void testDeserializeLeastSignificantList() {
+    Random random = new Random(42);
+    byte[] rawBytes = new byte[32];
+    random.nextBytes(rawBytes);
+    List<CompUInt128> elements = Arrays.asList(
+        factory.deserialize(Arrays.copyOfRange(rawBytes, 0, 16)),
+        factory.deserialize(Arrays.copyOfRange(rawBytes, 16, 32))
+    );
+    UIntSerializer<CompUInt128> serializer = factory.getSerializer();
+    List<CompUInt128> actual = serializer
+        .deserializeLeastSignificantList(serializer.serializeLeastSignificant(elements));
+    assertEquals(elements.size(), actual.size());
+    for (int i = 0; i < actual.size(); i++) {
+      assertEquals(elements.get(i).getLeastSignificant().toBigInteger(),
+          actual.get(i).toBigInteger());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDeserializeLeastSignificantListWrongLength() {
+    byte[] rawBytes = new byte[17];
+    factory.getSerializer().deserializeLeastSignificantList(rawBytes);
+  }
+
+  @Test
+  public void testBulkSerializationMatchesGeneric() {
+    List<CompUInt128> elements = randomElements(new Random(42), 10);
+    UIntSerializer<CompUInt128> bulk = factory.getSerializer();
+    UIntSerializer<CompUInt128> generic = new UIntSerializer<>(factory);
+    byte[] bytes = bulk.serialize(elements);
+    assertArrayEquals(generic.serialize(elements), bytes);
+    assertEqualValues(generic.deserializeList(bytes), bulk.deserializeList(bytes));
+    byte[] lowBytes = bulk.serializeLeastSignificant(elements);
+    assertArrayEquals(generic.serializeLeastSignificant(elements), lowBytes);
+    assertEqualValues(generic.deserializeLeastSignificantList(lowBytes),
+        bulk.deserializeLeastSignificantList(lowBytes));
+  }
+
+  @Test
+  public void testReconstructLeastSignificant() {
+    Random random = new Random(42);
+    List<byte[]> shares = new ArrayList<>();
+    List<CompUInt128> expected = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      expected.add(factory.zero());
+    }
+    UIntSerializer<CompUInt128> serializer = factory.getSerializer();
+    for (int party = 0; party < 3; party++) {
+      List<CompUInt128> partyShares = randomElements(random, 10);
+      shares.add(serializer.serializeLeastSignificant(partyShares));
+      for (int i = 0; i < expected.size(); i++) {
+        BigInteger low = partyShares.get(i).getLeastSignificant().toBigInteger();
+        expected.set(i, expected.get(i).add(new CompUInt128(low)));
+      }
+    }
+    assertEqualValues(expected, serializer.reconstructLeastSignificant(shares));
+    assertEqualValues(expected, new UIntSerializer<>(factory).reconstructLeastSignificant(shares));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReconstructLeastSignificantDifferentSizes() {
+    factory.getSerializer().reconstructLeastSignificant(Arrays.asList(new byte[16], new byte[8]));
+  }
+
+  @Test
+  public void testInnerProduct() {
+    Random random = new Random(42);
+    List<CompUInt128> left = randomElements(random, 10);
+    List<CompUInt128> right = randomElements(random, 10);
+    assertEquals(UInt.innerProduct(left, right).toBigInteger(),
+        factory.innerProduct(left, right).toBigInteger());
+  }
+
+  private List<CompUInt128> randomElements(Random random, int size) {
+    List<CompUInt128> elements = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      elements.add(new CompUInt128(new BigInteger(128, random)));
+    }
+    return elements;
+  }
+
+  private void assertEqualValues(List<CompUInt128> expected, List<CompUInt128> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).toBigInteger(), actual.get(i).toBigInteger());
+    }
+  }
+
 }
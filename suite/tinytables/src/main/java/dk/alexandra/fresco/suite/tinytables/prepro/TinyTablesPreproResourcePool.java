@@ -16,21 +16,19 @@ import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesOt;
 import dk.alexandra.fresco.suite.tinytables.prepro.protocols.TinyTablesPreproANDProtocol;
 import dk.alexandra.fresco.suite.tinytables.prepro.protocols.TinyTablesPreproProtocol;
 import dk.alexandra.fresco.suite.tinytables.storage.BatchTinyTablesTripleProvider;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesMappedStorage;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
-import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorageImpl;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesTripleProvider;
 import dk.alexandra.fresco.suite.tinytables.util.TinyTablesTripleGenerator;
 import dk.alexandra.fresco.suite.tinytables.util.Util;
 import dk.alexandra.fresco.tools.cointossing.CoinTossing;
 import dk.alexandra.fresco.tools.ot.otextension.BristolOtFactory;
+import dk.alexandra.fresco.tools.ot.otextension.KosRotFactory;
 import dk.alexandra.fresco.tools.ot.otextension.OtExtensionResourcePool;
 import dk.alexandra.fresco.tools.ot.otextension.OtExtensionResourcePoolImpl;
 import dk.alexandra.fresco.tools.ot.otextension.RotFactory;
 import dk.alexandra.fresco.tools.ot.otextension.RotList;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -47,10 +45,10 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
 
   private final Drng drng;
   private final List<TinyTablesPreproANDProtocol> unprocessedAnds;
-  private final TinyTablesStorage storage;
   private final File tinyTablesFile;
   private final Supplier<TinyTablesTripleProvider> supplier;
   private TinyTablesTripleProvider tinyTablesTripleProvider;
+  private TinyTablesMappedStorage storage;
 
   /**
    * Creates an instance of the default implementation of a resource pool. This contains the basic
@@ -60,14 +58,14 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
    * @param baseOt OT functionality for the base OTs
    * @param drbg Secure bit randomness generator
    * @param otBatchSize The amount of OTs to preprocess in a batch
-   * @param tinyTablesFile file for data
+   * @param tinyTablesFile file to which the TinyTables are written during preprocessing. The file
+   *     is created, or truncated, when the first value is stored
    */
   public TinyTablesPreproResourcePool(int myId, TinyTablesOt baseOt, Drbg drbg,
       int computationalSecurity, int statisticalSecurity,
       int otBatchSize, File tinyTablesFile, Supplier<Network> network) {
     super(myId, 2);
     this.unprocessedAnds = Collections.synchronizedList(new ArrayList<>());
-    this.storage = new TinyTablesStorageImpl();
     this.tinyTablesFile = tinyTablesFile;
     this.drng = new DrngImpl(drbg);
     this.supplier = () -> {
@@ -88,7 +86,7 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
       }
       ct.initialize(network.get());
       // Setup the OT extension
-      RotFactory rotFactory = new RotFactory(otExtRes, network.get());
+      RotFactory rotFactory = new KosRotFactory(otExtRes, network.get());
       BristolOtFactory otFactory = new BristolOtFactory(rotFactory, otExtRes, network.get(),
           otBatchSize);
       TinyTablesTripleGenerator generator =
@@ -161,7 +159,7 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
 
       TinyTable tinyTable = gate.calculateTinyTable(getMyId(), product);
 
-      this.storage.storeTinyTable(gate.getId(), tinyTable);
+      getStorage().storeTinyTable(gate.getId(), tinyTable);
     }
 
     this.unprocessedAnds.clear();
@@ -172,24 +170,29 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
       tinyTablesTripleProvider.close();
     }
     /*
-     * Store the TinyTables to a file.
+     * The TinyTables have been written to the file as they were computed, so only the header
+     * remains to be completed. The file is created here if nothing was stored, since the online
+     * phase expects it.
      */
+    getStorage();
     ExceptionConverter.safe(() -> {
-      storeTinyTables(storage, tinyTablesFile);
+      storage.close();
       LOGGER.info("TinyTables stored to " + tinyTablesFile);
       return null;
     }, "Failed to store TinyTables");
   }
 
-  private void storeTinyTables(TinyTablesStorage tinyTablesStorage, File file) throws IOException {
-    file.createNewFile();
-    FileOutputStream fout = new FileOutputStream(file);
-    ObjectOutputStream oos = new ObjectOutputStream(fout);
-    oos.writeObject(tinyTablesStorage);
-    oos.close();
-  }
-
-  public TinyTablesStorage getStorage() {
+  /**
+   * Gets the storage for the values of the preprocessing, creating the TinyTables file on first
+   * use.
+   *
+   * @return the storage
+   */
+  public synchronized TinyTablesStorage getStorage() {
+    if (storage == null) {
+      storage = ExceptionConverter.safe(() -> TinyTablesMappedStorage.create(tinyTablesFile),
+          "Unable to create TinyTables file " + tinyTablesFile);
+    }
     return storage;
   }
 }
@@ -0,0 +1,210 @@
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link TinyTablesStorage} backed by a compact binary file which is accessed through memory
+ * mapped buffers.
+ *
+ * <p>
+ * The file has a header holding a magic number, a version and the number of records, followed by
+ * one record byte per protocol ID in ID order. The lowest four bits of a record hold the entries of
+ * the TinyTable of the protocol, if any, and the next bits tell if the protocol has a TinyTable,
+ * if it has a mask share and the value of the mask share. Protocols without any pre-processed
+ * values, e.g. XOR protocols, simply have a zero record.
+ * </p>
+ *
+ * <p>
+ * When created using {@link #create(File)} the records are written to the file as they are stored
+ * during the preprocessing, and the header is completed by {@link #close()}. When opened using
+ * {@link #open(File)} the records are read directly from the mapped file. In both cases the values
+ * are not kept on the heap, so the memory used does not grow with the size of the circuit.
+ * </p>
+ */
+public class TinyTablesMappedStorage implements TinyTablesStorage, Closeable {
+
+  static final int MAGIC = 0x5454424C;
+  static final byte VERSION = 1;
+  static final int HEADER_BYTES = 16;
+  /**
+   * The number of records in each mapped segment.
+   */
+  static final int SEGMENT_BYTES = 1 << 20;
+
+  private static final int TABLE_MASK = 0x0F;
+  private static final int HAS_TABLE = 0x10;
+  private static final int HAS_MASK = 0x20;
+  private static final int MASK_VALUE = 0x40;
+
+  private final FileChannel channel;
+  private final List<MappedByteBuffer> segments;
+  private final boolean writable;
+  private long size;
+
+  private TinyTablesMappedStorage(FileChannel channel, boolean writable, long size) {
+    this.channel = channel;
+    this.writable = writable;
+    this.segments = new ArrayList<>();
+    this.size = size;
+  }
+
+  /**
+   * Creates a new, empty storage which is written to the given file. Any existing file is
+   * overwritten.
+   *
+   * @param file the file to write
+   * @return the new storage
+   * @throws IOException if the file cannot be created
+   */
+  public static TinyTablesMappedStorage create(File file) throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    return new TinyTablesMappedStorage(channel, true, 0);
+  }
+
+  /**
+   * Opens a storage written by an instance created using {@link #create(File)} for reading.
+   *
+   * @param file the file to read
+   * @return the storage
+   * @throws IOException if the file cannot be read or is not a TinyTables file
+   */
+  public static TinyTablesMappedStorage open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // keep reading until the header is complete
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new IOException(file + " is not a TinyTables file");
+      }
+      byte version = header.get();
+      if (version != VERSION) {
+        throw new IOException("Unsupported TinyTables file version " + version);
+      }
+      long size = header.getLong(8);
+      if (channel.size() < HEADER_BYTES + size) {
+        throw new IOException("TinyTables file " + file + " is truncated");
+      }
+      TinyTablesMappedStorage storage = new TinyTablesMappedStorage(channel, false, size);
+      for (long position = 0; position < size; position += SEGMENT_BYTES) {
+        storage.segments.add(channel.map(MapMode.READ_ONLY, HEADER_BYTES + position,
+            Math.min(SEGMENT_BYTES, size - position)));
+      }
+      // The mapped segments stay valid after the channel has been closed
+      return storage;
+    }
+  }
+
+  @Override
+  public void storeTinyTable(int id, TinyTable table) {
+    int record = HAS_TABLE;
+    for (int u = 0; u < 2; u++) {
+      for (int v = 0; v < 2; v++) {
+        if (table.getValue(TinyTablesElement.getInstance(u == 1),
+            TinyTablesElement.getInstance(v == 1)).getShare()) {
+          record |= 1 << (2 * u + v);
+        }
+      }
+    }
+    write(id, record);
+  }
+
+  @Override
+  public TinyTable getTinyTable(int id) {
+    int record = read(id);
+    if ((record & HAS_TABLE) == 0) {
+      return null;
+    }
+    TinyTablesElement[] values = new TinyTablesElement[4];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = TinyTablesElement.getInstance(((record & TABLE_MASK) >>> i & 1) == 1);
+    }
+    return new TinyTable(values);
+  }
+
+  @Override
+  public void storeMaskShare(int id, TinyTablesElement r) {
+    write(id, r.getShare() ? HAS_MASK | MASK_VALUE : HAS_MASK);
+  }
+
+  @Override
+  public TinyTablesElement getMaskShare(int id) {
+    int record = read(id);
+    if ((record & HAS_MASK) == 0) {
+      return null;
+    }
+    return TinyTablesElement.getInstance((record & MASK_VALUE) != 0);
+  }
+
+  /**
+   * Returns the number of records in this storage, i.e., one more than the largest ID stored.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Completes the header of the file if this storage was created for writing and releases the
+   * file. Records which have been read or written are still available after the storage is
+   * closed, but no more records can be written.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (!channel.isOpen()) {
+      return;
+    }
+    if (writable) {
+      for (MappedByteBuffer segment : segments) {
+        segment.force();
+      }
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).put(VERSION).putLong(8, size).rewind();
+      channel.write(header, 0);
+      channel.force(false);
+    }
+    channel.close();
+  }
+
+  private int read(int id) {
+    if (id < 0 || id >= size) {
+      return 0;
+    }
+    return segments.get(id / SEGMENT_BYTES).get(id % SEGMENT_BYTES);
+  }
+
+  private synchronized void write(int id, int record) {
+    if (!writable || !channel.isOpen()) {
+      throw new IllegalStateException("Cannot write to this storage");
+    }
+    if (id < 0) {
+      throw new IllegalArgumentException("Negative ID " + id);
+    }
+    int segmentIndex = id / SEGMENT_BYTES;
+    while (segments.size() <= segmentIndex) {
+      long position = HEADER_BYTES + (long) segments.size() * SEGMENT_BYTES;
+      try {
+        segments.add(channel.map(MapMode.READ_WRITE, position, SEGMENT_BYTES));
+      } catch (IOException e) {
+        throw new RuntimeException("Unable to extend TinyTables file", e);
+      }
+    }
+    MappedByteBuffer segment = segments.get(segmentIndex);
+    int offset = id % SEGMENT_BYTES;
+    segment.put(offset, (byte) (segment.get(offset) | record));
+    size = Math.max(size, id + 1L);
+  }
+
+}
@@ -0,0 +1,116 @@
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTinyTablesMappedStorage {
+
+  private File file;
+
+  @Before
+  public void setup() throws IOException {
+    file = File.createTempFile("tinytables", ".bin");
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    TinyTablesMappedStorage writer = TinyTablesMappedStorage.create(file);
+    for (int id = 0; id < 16; id++) {
+      writer.storeTinyTable(2 * id, table(id));
+    }
+    writer.storeMaskShare(1, TinyTablesElement.getInstance(true));
+    writer.storeMaskShare(3, TinyTablesElement.getInstance(false));
+    writer.storeMaskShare(30, TinyTablesElement.getInstance(true));
+    writer.close();
+
+    TinyTablesMappedStorage reader = TinyTablesMappedStorage.open(file);
+    assertThat(reader.size(), is(31L));
+    for (int id = 0; id < 16; id++) {
+      assertTable(reader.getTinyTable(2 * id), id);
+    }
+    assertThat(reader.getMaskShare(1).getShare(), is(true));
+    assertThat(reader.getMaskShare(3).getShare(), is(false));
+    assertThat(reader.getMaskShare(30).getShare(), is(true));
+    assertTable(reader.getTinyTable(30), 15);
+    reader.close();
+  }
+
+  @Test
+  public void testMissingValues() throws IOException {
+    TinyTablesMappedStorage writer = TinyTablesMappedStorage.create(file);
+    writer.storeTinyTable(2, table(5));
+    writer.close();
+
+    TinyTablesMappedStorage reader = TinyTablesMappedStorage.open(file);
+    assertNull(reader.getTinyTable(1));
+    assertNull(reader.getTinyTable(3));
+    assertNull(reader.getTinyTable(-1));
+    assertNull(reader.getMaskShare(2));
+    assertNull(reader.getMaskShare(100));
+    reader.close();
+  }
+
+  @Test
+  public void testSpanningSegments() throws IOException {
+    int id = 2 * TinyTablesMappedStorage.SEGMENT_BYTES + 7;
+    TinyTablesMappedStorage writer = TinyTablesMappedStorage.create(file);
+    writer.storeTinyTable(id, table(9));
+    writer.storeMaskShare(0, TinyTablesElement.getInstance(true));
+    writer.close();
+
+    TinyTablesMappedStorage reader = TinyTablesMappedStorage.open(file);
+    assertThat(reader.size(), is(id + 1L));
+    assertTable(reader.getTinyTable(id), 9);
+    assertThat(reader.getMaskShare(0).getShare(), is(true));
+    reader.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testOpenInvalidFile() throws IOException {
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(new byte[32]);
+    }
+    TinyTablesMappedStorage.open(file);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteToReader() throws IOException {
+    TinyTablesMappedStorage.create(file).close();
+    TinyTablesMappedStorage.open(file).storeTinyTable(0, table(0));
+  }
+
+  private static TinyTable table(int bits) {
+    TinyTablesElement[] values = new TinyTablesElement[4];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = TinyTablesElement.getInstance((bits >>> i & 1) == 1);
+    }
+    return new TinyTable(values);
+  }
+
+  private static void assertTable(TinyTable table, int bits) {
+    for (int u = 0; u < 2; u++) {
+      for (int v = 0; v < 2; v++) {
+        boolean entry = table.getValue(TinyTablesElement.getInstance(u == 1),
+            TinyTablesElement.getInstance(v == 1)).getShare();
+        assertThat(entry, is((bits >>> (2 * u + v) & 1) == 1));
+      }
+    }
+  }
+
+}
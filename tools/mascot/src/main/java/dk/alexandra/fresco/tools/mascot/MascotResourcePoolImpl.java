@@ -11,9 +11,9 @@ import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrgImpl;
 import dk.alexandra.fresco.tools.ot.base.RotBatch;
 import dk.alexandra.fresco.tools.ot.otextension.BristolRotBatch;
+import dk.alexandra.fresco.tools.ot.otextension.KosRotFactory;
 import dk.alexandra.fresco.tools.ot.otextension.OtExtensionResourcePool;
 import dk.alexandra.fresco.tools.ot.otextension.OtExtensionResourcePoolImpl;
-import dk.alexandra.fresco.tools.ot.otextension.RotFactory;
 import dk.alexandra.fresco.tools.ot.otextension.RotList;
 import java.security.MessageDigest;
 import java.util.Map;
@@ -98,7 +98,7 @@ public class MascotResourcePoolImpl extends ResourcePoolImpl implements MascotRe
     OtExtensionResourcePool otResources = new OtExtensionResourcePoolImpl(getMyId(), otherId,
         getPrgSeedLength(), getLambdaSecurityParam(), getInstanceId(),
         getRandomGenerator(), ct, seedOts.get(otherId));
-    return new BristolRotBatch(new RotFactory(otResources, network),
+    return new BristolRotBatch(new KosRotFactory(otResources, network),
         getPrgSeedLength(), getLambdaSecurityParam());
   }
 
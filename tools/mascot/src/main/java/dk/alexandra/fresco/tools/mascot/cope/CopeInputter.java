@@ -11,9 +11,7 @@ import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrgImpl;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * Actively-secure implementation of the inputter party's side of the Correlated Oblivious Product
@@ -57,38 +55,30 @@ public class CopeInputter {
    * @return shares of products of mac key share and input elements
    */
   public List<FieldElement> extend(List<FieldElement> inputElements) {
-    // use seeds to generate mask pairs
-    List<Pair<FieldElement, FieldElement>> maskPairs = generateMaskPairs(inputElements.size());
-    // compute t0 - t1 + x for each input x for each mask pair
-    List<FieldElement> diffs = helper.computeDiffs(maskPairs, inputElements);
+    FieldDefinition definition = resourcePool.getFieldDefinition();
+    int numInputs = inputElements.size();
+    int numBits = leftPrgs.size();
+    int elementLength = definition.getElementByteLength();
+    // use seeds to generate mask pairs, keeping the zero index masks, and compute t0 - t1 + x for
+    // each input x for each mask pair directly into the message to send
+    FieldElement[] zeroMasks = new FieldElement[numInputs * numBits];
+    byte[] diffs = new byte[numInputs * numBits * elementLength];
+    IntStream.range(0, numBits).parallel().forEach(bit -> {
+      FieldElementPrg leftPrg = leftPrgs.get(bit);
+      FieldElementPrg rightPrg = rightPrgs.get(bit);
+      for (int i = 0; i < numInputs; i++) {
+        int index = i * numBits + bit;
+        FieldElement t0 = leftPrg.getNext();
+        FieldElement t1 = rightPrg.getNext();
+        zeroMasks[index] = t0;
+        definition.serialize(t0.subtract(t1).add(inputElements.get(i)), diffs,
+            index * elementLength);
+      }
+    });
     // send diffs
-    network.send(otherId, resourcePool.getFieldDefinition().serialize(diffs));
-    // get zero index masks
-    List<FieldElement> feZeroSeeds =
-        maskPairs.parallelStream().map(Pair::getFirst).collect(Collectors.toList());
-
+    network.send(otherId, diffs);
     // compute product shares
-    return helper.computeProductShares(feZeroSeeds, inputElements.size());
-  }
-
-  private List<Pair<FieldElement, FieldElement>> generateMaskPairs(int numInputs) {
-    // for each input pair, we use our prf to get the next set of masks
-    List<Pair<FieldElement, FieldElement>> maskPairs = new ArrayList<>();
-    for (int i = 0; i < numInputs; i++) {
-      // generate masks for single input
-      maskPairs.addAll(generateMaskPairs());
-    }
-    return maskPairs;
-  }
-
-  private List<Pair<FieldElement, FieldElement>> generateMaskPairs() {
-    Stream<Pair<FieldElement, FieldElement>> maskStream =
-        IntStream.range(0, leftPrgs.size()).parallel().mapToObj(idx -> {
-          FieldElement t0 = this.leftPrgs.get(idx).getNext();
-          FieldElement t1 = this.rightPrgs.get(idx).getNext();
-          return new Pair<>(t0, t1);
-        });
-    return maskStream.collect(Collectors.toList());
+    return helper.computeProductShares(zeroMasks, numInputs);
   }
 
   private void seedPrgs(List<Pair<StrictBitVector, StrictBitVector>> seeds) {
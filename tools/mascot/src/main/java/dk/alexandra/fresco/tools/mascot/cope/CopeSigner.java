@@ -9,7 +9,6 @@ import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrgImpl;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -61,28 +60,23 @@ public class CopeSigner {
    */
   public List<FieldElement> extend(int numInputs) {
     // compute chosen masks
-    List<FieldElement> chosenMasks = generateMasks(numInputs);
-    // use mac share for each input
-    List<FieldElement> macKeyShares =
-        IntStream.range(0, numInputs).mapToObj(idx -> macKeyShare).collect(Collectors.toList());
+    FieldElement[] chosenMasks = generateMasks(numInputs);
     // receive diffs from other party
-    List<FieldElement> diffs =
-        resourcePool.getFieldDefinition().deserializeList(network.receive(otherId));
+    byte[] diffs = network.receive(otherId);
     // compute product shares
-    return multiplier.computeProductShares(macKeyShares, chosenMasks, diffs);
+    return multiplier.computeProductShares(macKeyShare, numInputs, chosenMasks, diffs);
   }
 
-  private List<FieldElement> generateMasks(int numInputs) {
-    // for each input pair, we use our prgs to get the next set of masks
-    List<FieldElement> masks = new ArrayList<>();
-    // generate mask for each input
-    for (int i = 0; i < numInputs; i++) {
-      // generate masks for single input
-      List<FieldElement> singleInputMasks = prgs.parallelStream()
-          .map(FieldElementPrg::getNext)
-          .collect(Collectors.toList());
-      masks.addAll(singleInputMasks);
-    }
+  private FieldElement[] generateMasks(int numInputs) {
+    // for each input we use our prgs to get the next set of masks, one mask per prg
+    int numBits = prgs.size();
+    FieldElement[] masks = new FieldElement[numInputs * numBits];
+    IntStream.range(0, numBits).parallel().forEach(bit -> {
+      FieldElementPrg prg = prgs.get(bit);
+      for (int i = 0; i < numInputs; i++) {
+        masks[i * numBits + bit] = prg.getNext();
+      }
+    });
     return masks;
   }
 
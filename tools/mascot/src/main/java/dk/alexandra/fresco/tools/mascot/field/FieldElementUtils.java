@@ -1,20 +1,24 @@
 package dk.alexandra.fresco.tools.mascot.field;
 
-import dk.alexandra.fresco.framework.builder.numeric.Addable;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
-import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
+/**
+ * Helper methods for operations on vectors of field elements, as used throughout MASCOT.
+ *
+ * <p>
+ * Each operation is available both on lists and on arrays of field elements. The array versions
+ * take offsets where this lets callers work on parts of a larger array without copying, and all
+ * operations are computed with plain loops so that no intermediate lists or streams are created.
+ * </p>
+ */
 public final class FieldElementUtils {
 
   private final FieldDefinition definition;
-  private final List<FieldElement> generators;
 
   /**
    * Creates new {@link FieldElementUtils}.
@@ -23,17 +27,6 @@ public final class FieldElementUtils {
    */
   public FieldElementUtils(FieldDefinition definition) {
     this.definition = definition;
-    this.generators = precomputeGenerators();
-  }
-
-  private List<FieldElement> precomputeGenerators() {
-    List<FieldElement> generators = new ArrayList<>(definition.getBitLength());
-    BigInteger current = BigInteger.ONE;
-    for (int i = 0; i < definition.getBitLength(); i++) {
-      generators.add(definition.createElement(current));
-      current = current.shiftLeft(1);
-    }
-    return generators;
   }
 
   /**
@@ -48,23 +41,30 @@ public final class FieldElementUtils {
     if (leftFactors.size() != rightFactors.size()) {
       throw new IllegalArgumentException("Lists must be same size");
     }
-    return pairWiseMultiplyStream(leftFactors, rightFactors).collect(Collectors.toList());
+    List<FieldElement> products = new ArrayList<>(leftFactors.size());
+    for (int i = 0; i < leftFactors.size(); i++) {
+      products.add(leftFactors.get(i).multiply(rightFactors.get(i)));
+    }
+    return products;
   }
 
   /**
-   * Multiplies two lists of field elements, pair-wise.
+   * Multiplies two arrays of field elements, pair-wise.
    *
    * @param leftFactors left factors
    * @param rightFactors right factors
-   * @return stream of products
+   * @return array of products
    */
-  private Stream<FieldElement> pairWiseMultiplyStream(List<FieldElement> leftFactors,
-      List<FieldElement> rightFactors) {
-    return IntStream.range(0, leftFactors.size()).mapToObj(idx -> {
-      FieldElement l = leftFactors.get(idx);
-      FieldElement r = rightFactors.get(idx);
-      return l.multiply(r);
-    });
+  public FieldElement[] pairWiseMultiply(FieldElement[] leftFactors,
+      FieldElement[] rightFactors) {
+    if (leftFactors.length != rightFactors.length) {
+      throw new IllegalArgumentException("Arrays must be same size");
+    }
+    FieldElement[] products = new FieldElement[leftFactors.length];
+    for (int i = 0; i < leftFactors.length; i++) {
+      products[i] = leftFactors[i].multiply(rightFactors[i]);
+    }
+    return products;
   }
 
   /**
@@ -78,7 +78,34 @@ public final class FieldElementUtils {
     if (left.size() != right.size()) {
       throw new IllegalArgumentException("Lists must have same size");
     }
-    return Addable.sum(pairWiseMultiplyStream(left, right));
+    FieldElement sum = definition.createElement(0);
+    for (int i = 0; i < left.size(); i++) {
+      sum = sum.add(left.get(i).multiply(right.get(i)));
+    }
+    return sum;
+  }
+
+  /**
+   * Computes inner product of two ranges of field elements, each given by an array and an offset.
+   *
+   * @param left array holding the left factors
+   * @param leftOffset index of the first left factor
+   * @param right array holding the right factors
+   * @param rightOffset index of the first right factor
+   * @param length number of factors in each range
+   * @return inner product
+   */
+  public FieldElement innerProduct(FieldElement[] left, int leftOffset, FieldElement[] right,
+      int rightOffset, int length) {
+    if (leftOffset < 0 || rightOffset < 0 || length < 0 || leftOffset > left.length - length
+        || rightOffset > right.length - length) {
+      throw new IllegalArgumentException("Ranges must be within the arrays");
+    }
+    FieldElement sum = definition.createElement(0);
+    for (int i = 0; i < length; i++) {
+      sum = sum.add(left[leftOffset + i].multiply(right[rightOffset + i]));
+    }
+    return sum;
   }
 
   /**
@@ -89,7 +116,11 @@ public final class FieldElementUtils {
    * @return list of products
    */
   public List<FieldElement> scalarMultiply(List<FieldElement> values, FieldElement scalar) {
-    return values.stream().map(scalar::multiply).collect(Collectors.toList());
+    List<FieldElement> products = new ArrayList<>(values.size());
+    for (FieldElement value : values) {
+      products.add(scalar.multiply(value));
+    }
+    return products;
   }
 
   /**
@@ -100,10 +131,30 @@ public final class FieldElementUtils {
    * @return recombined elements
    */
   public FieldElement recombine(List<FieldElement> elements) {
-    if (elements.size() > definition.getBitLength()) {
+    return recombine(elements.toArray(new FieldElement[0]), 0, elements.size());
+  }
+
+  /**
+   * Computes inner product of a range of elements in an array and powers of twos, like {@link
+   * #recombine(List)}. The sum is computed using Horner's rule, i.e., using additions only.
+   *
+   * @param elements array holding the elements to recombine
+   * @param offset index of the first element to recombine
+   * @param length number of elements to recombine
+   * @return recombined elements
+   */
+  public FieldElement recombine(FieldElement[] elements, int offset, int length) {
+    if (length > definition.getBitLength()) {
       throw new IllegalArgumentException("Number of elements cannot exceed bit-length");
     }
-    return innerProduct(elements, generators.subList(0, elements.size()));
+    if (length == 0) {
+      return definition.createElement(0);
+    }
+    FieldElement result = elements[offset + length - 1];
+    for (int i = offset + length - 2; i >= offset; i--) {
+      result = result.add(result).add(elements[i]);
+    }
+    return result;
   }
 
   /**
@@ -122,6 +173,21 @@ public final class FieldElementUtils {
     return stretched;
   }
 
+  /**
+   * Duplicates each element of an array stretchBy times, like {@link #stretch(List, int)}.
+   *
+   * @param elements elements to be stretched
+   * @param stretchBy number of duplications per element
+   * @return stretched array
+   */
+  public FieldElement[] stretch(FieldElement[] elements, int stretchBy) {
+    FieldElement[] stretched = new FieldElement[elements.length * stretchBy];
+    for (int i = 0; i < elements.length; i++) {
+      Arrays.fill(stretched, i * stretchBy, (i + 1) * stretchBy, elements[i]);
+    }
+    return stretched;
+  }
+
   /**
    * Appends padding elements to end of list numPads times.
    *
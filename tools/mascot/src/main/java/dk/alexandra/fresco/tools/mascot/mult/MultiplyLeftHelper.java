@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.tools.mascot.mult;
 
+import dk.alexandra.fresco.framework.MaliciousException;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
@@ -9,6 +10,7 @@ import dk.alexandra.fresco.tools.mascot.field.FieldElementUtils;
 import dk.alexandra.fresco.tools.ot.base.RotBatch;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -89,4 +91,42 @@ public class MultiplyLeftHelper {
     }
     return result;
   }
+
+  /**
+   * Computes this party's shares of the products of a single left factor and a number of right
+   * factors of the other party. <br> There is a seed and a diff per bit of the left factor for each
+   * product, ordered by product, where the diffs are serialized in a single array as received from
+   * the other party.
+   *
+   * @param leftFactor this party's multiplication factor
+   * @param numProducts the number of products
+   * @param feSeeds seeds as field elements
+   * @param diffs the serialized diffs received from other party
+   * @return product shares
+   */
+  public List<FieldElement> computeProductShares(FieldElement leftFactor, int numProducts,
+      FieldElement[] feSeeds, byte[] diffs) {
+    FieldDefinition fieldDefinition = resourcePool.getFieldDefinition();
+    int numBits = resourcePool.getModBitLength();
+    int elementLength = fieldDefinition.getElementByteLength();
+    if (diffs.length != numProducts * numBits * elementLength) {
+      throw new MaliciousException("Expected " + numProducts * numBits + " diffs of "
+          + elementLength + " bytes, but received " + diffs.length + " bytes");
+    }
+    StrictBitVector bits = fieldDefinition.convertToBitVector(leftFactor);
+    FieldElement[] summands = new FieldElement[numBits];
+    FieldElement[] result = new FieldElement[numProducts];
+    for (int i = 0; i < numProducts; i++) {
+      for (int b = 0; b < numBits; b++) {
+        int index = i * numBits + b;
+        FieldElement summand = feSeeds[index];
+        if (bits.getBit(b, true)) {
+          summand = summand.add(fieldDefinition.deserialize(diffs, index * elementLength));
+        }
+        summands[b] = summand;
+      }
+      result[i] = fieldElementUtils.recombine(summands, 0, numBits);
+    }
+    return Arrays.asList(result);
+  }
 }
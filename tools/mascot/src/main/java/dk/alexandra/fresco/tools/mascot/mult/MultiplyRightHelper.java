@@ -8,6 +8,7 @@ import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
 import dk.alexandra.fresco.tools.mascot.field.FieldElementUtils;
 import dk.alexandra.fresco.tools.ot.base.RotBatch;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -97,6 +98,25 @@ public class MultiplyRightHelper {
     return productShares;
   }
 
+  /**
+   * Computes this party's shares of the final products from an array of zero choice seeds, holding
+   * the seeds for each bit of each factor, ordered by factor.
+   *
+   * @param feZeroSeeds the zero choice seeds
+   * @param numRightFactors number of total right factors
+   * @return shares of products
+   */
+  public List<FieldElement> computeProductShares(FieldElement[] feZeroSeeds,
+      int numRightFactors) {
+    int numBits = resourcePool.getModBitLength();
+    FieldElement[] productShares = new FieldElement[numRightFactors];
+    for (int rightFactIdx = 0; rightFactIdx < numRightFactors; rightFactIdx++) {
+      productShares[rightFactIdx] =
+          fieldElementUtils.recombine(feZeroSeeds, rightFactIdx * numBits, numBits).negate();
+    }
+    return Arrays.asList(productShares);
+  }
+
   private FieldElement computeDiff(Pair<FieldElement, FieldElement> feSeedPair,
       FieldElement factor) {
     FieldElement left = feSeedPair.getFirst();
@@ -2,8 +2,8 @@ package dk.alexandra.fresco.tools.mascot.prg;
 
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
-import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.BufferedAesCtrDrbg;
 import dk.alexandra.fresco.framework.util.Drng;
 import dk.alexandra.fresco.framework.util.DrngImpl;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
@@ -21,10 +21,10 @@ public class FieldElementPrgImpl implements FieldElementPrg {
   public FieldElementPrgImpl(StrictBitVector seed, FieldDefinition definition) {
     this.definition = definition;
     byte[] bytes = seed.toByteArray();
-    if (bytes.length != AesCtrDrbg.SEED_LENGTH) {
-      this.drng = new DrngImpl(AesCtrDrbgFactory.fromDerivedSeed(bytes));
+    if (bytes.length != BufferedAesCtrDrbg.SEED_LENGTH) {
+      this.drng = new DrngImpl(AesCtrDrbgFactory.bufferedFromDerivedSeed(bytes));
     } else {
-      this.drng = new DrngImpl(AesCtrDrbgFactory.fromRandomSeed(bytes));
+      this.drng = new DrngImpl(AesCtrDrbgFactory.bufferedFromRandomSeed(bytes));
     }
   }
 
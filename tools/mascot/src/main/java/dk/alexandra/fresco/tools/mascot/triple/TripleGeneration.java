@@ -10,6 +10,7 @@ import dk.alexandra.fresco.tools.mascot.field.FieldElementUtils;
 import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -88,11 +89,10 @@ public class TripleGeneration {
     List<FieldElement> rightFactors = resourcePool.getLocalSampler().getNext(numTriples);
     // compute product groups
     List<FieldElement> productGroups = multiply(leftFactorGroups, rightFactors);
-    // combine into unauthenticated triples
-    List<UnauthenticatedTriple> unauthTriples =
-        toUnauthenticatedTriple(leftFactorGroups, rightFactors, productGroups);
-    // combine unauthenticated triples into unauthenticated triple candidates
-    List<UnauthenticatedCandidate> candidates = combine(unauthTriples);
+    // combine the factor and product groups into unauthenticated triple candidates
+    List<UnauthenticatedCandidate> candidates = combine(
+        leftFactorGroups.toArray(new FieldElement[0]), rightFactors,
+        productGroups.toArray(new FieldElement[0]));
     // use el-gen to input candidates and combine them to the authenticated candidates
     List<AuthenticatedCandidate> authenticated = authenticate(candidates);
     // for each candidate, run sacrifice and get valid triple
@@ -120,9 +120,9 @@ public class TripleGeneration {
       List<FieldElement> rightFactors) {
     // step 1 of protocol occurred before this method
     // "stretch" right factors, so we have one right factor for each left factor
-    List<FieldElement> stretched =
-        fieldElementUtils
-            .stretch(rightFactors, resourcePool.getNumCandidatesPerTriple());
+    FieldElement[] stretched = fieldElementUtils.stretch(
+        rightFactors.toArray(new FieldElement[0]), resourcePool.getNumCandidatesPerTriple());
+    List<FieldElement> stretchedList = Arrays.asList(stretched);
 
     // step 2 of protocol
     // for each value we will have two sub-factors for each other party
@@ -132,47 +132,60 @@ public class TripleGeneration {
         MultiplyLeft leftMult = leftMultipliers.get(partyId);
         MultiplyRight rightMult = rightMultipliers.get(partyId);
         if (resourcePool.getMyId() < partyId) {
-          subFactors.add(rightMult.multiply(stretched));
+          subFactors.add(rightMult.multiply(stretchedList));
           subFactors.add(leftMult.multiply(leftFactorGroups));
         } else {
           subFactors.add(leftMult.multiply(leftFactorGroups));
-          subFactors.add(rightMult.multiply(stretched));
+          subFactors.add(rightMult.multiply(stretchedList));
         }
       }
     }
 
     // step 3 or protocol
-    // own part of the product
-    List<FieldElement> localSubFactors =
-        fieldElementUtils.pairWiseMultiply(leftFactorGroups, stretched);
-    subFactors.add(localSubFactors);
-
-    // combine all sub-factors into product shares
-    return Addable.sumRows(subFactors);
+    // own part of the product, which the sub-factors are added onto
+    FieldElement[] products = fieldElementUtils
+        .pairWiseMultiply(leftFactorGroups.toArray(new FieldElement[0]), stretched);
+    for (List<FieldElement> subFactor : subFactors) {
+      for (int i = 0; i < products.length; i++) {
+        products[i] = products[i].add(subFactor.get(i));
+      }
+    }
+    return Arrays.asList(products);
   }
 
   /**
-   * Implements batched version of Combine sub-protocol of Protocol 4.
+   * Implements batched version of Combine sub-protocol of Protocol 4. The left factor group and
+   * product group of the triple with right factor <i>i</i> are the <i>numCandidatesPerTriple</i>
+   * elements starting at index <i>i * numCandidatesPerTriple</i> of the respective arrays.
    */
-  private List<UnauthenticatedCandidate> combine(List<UnauthenticatedTriple> triples) {
+  private List<UnauthenticatedCandidate> combine(FieldElement[] leftFactorGroups,
+      List<FieldElement> rightFactors, FieldElement[] productGroups) {
     // step 1 of protocol
-    int numTriples = triples.size();
+    int numTriples = rightFactors.size();
+    int groupSize = resourcePool.getNumCandidatesPerTriple();
 
-    List<List<FieldElement>> masks = jointSampler
-        .getNext(numTriples, resourcePool.getNumCandidatesPerTriple());
+    FieldElement[] masks = jointSampler.getNext(numTriples * groupSize)
+        .toArray(new FieldElement[0]);
 
-    List<List<FieldElement>> sacrificeMasks = jointSampler
-        .getNext(numTriples, resourcePool.getNumCandidatesPerTriple());
+    FieldElement[] sacrificeMasks = jointSampler.getNext(numTriples * groupSize)
+        .toArray(new FieldElement[0]);
 
     // step 2 of protocol
-    return IntStream.range(0, numTriples)
-        .mapToObj(idx -> {
-          UnauthenticatedTriple triple = triples.get(idx);
-          List<FieldElement> m = masks.get(idx);
-          List<FieldElement> ms = sacrificeMasks.get(idx);
-          return triple.toCandidate(m, ms);
-        })
-        .collect(Collectors.toList());
+    List<UnauthenticatedCandidate> candidates = new ArrayList<>(numTriples);
+    for (int idx = 0; idx < numTriples; idx++) {
+      int groupStart = idx * groupSize;
+      FieldElement left = fieldElementUtils
+          .innerProduct(leftFactorGroups, groupStart, masks, groupStart, groupSize);
+      FieldElement prod = fieldElementUtils
+          .innerProduct(productGroups, groupStart, masks, groupStart, groupSize);
+      FieldElement leftSac = fieldElementUtils
+          .innerProduct(leftFactorGroups, groupStart, sacrificeMasks, groupStart, groupSize);
+      FieldElement prodSac = fieldElementUtils
+          .innerProduct(productGroups, groupStart, sacrificeMasks, groupStart, groupSize);
+      candidates.add(
+          new UnauthenticatedCandidate(left, rightFactors.get(idx), prod, leftSac, prodSac));
+    }
+    return candidates;
   }
 
   /**
@@ -228,18 +241,6 @@ public class TripleGeneration {
     return toMultTriples(candidates);
   }
 
-  private List<UnauthenticatedTriple> toUnauthenticatedTriple(List<FieldElement> left,
-      List<FieldElement> right,
-      List<FieldElement> products) {
-    Stream<UnauthenticatedTriple> stream = IntStream.range(0, right.size()).mapToObj(idx -> {
-      int groupStart = idx * resourcePool.getNumCandidatesPerTriple();
-      int groupEnd = (idx + 1) * resourcePool.getNumCandidatesPerTriple();
-      return new UnauthenticatedTriple(left.subList(groupStart, groupEnd), right.get(idx),
-          products.subList(groupStart, groupEnd));
-    });
-    return stream.collect(Collectors.toList());
-  }
-
   private List<AuthenticatedCandidate> toAuthenticatedCandidate(List<AuthenticatedElement> list,
       int partSize) {
     int numParts = list.size() / partSize;
@@ -273,35 +274,6 @@ public class TripleGeneration {
     return candidates.stream().map(AuthenticatedCandidate::toTriple).collect(Collectors.toList());
   }
 
-  /**
-   * Represents single unauthenticated multiplication triple. <p>Contains a single left factor group
-   * <b>a</b>, single right factor <i>b</i>, and product group <b>c</b>. An unauthenticated triple
-   * will go into the Combine sub-protocol of Protocol 4.</p>
-   */
-  private final class UnauthenticatedTriple {
-
-    private final List<FieldElement> leftFactors;
-    private final FieldElement rightFactor;
-    private final List<FieldElement> product;
-
-    UnauthenticatedTriple(List<FieldElement> leftFactors, FieldElement rightFactor,
-        List<FieldElement> product) {
-      super();
-      this.leftFactors = leftFactors;
-      this.rightFactor = rightFactor;
-      this.product = product;
-    }
-
-    UnauthenticatedCandidate toCandidate(List<FieldElement> masks,
-        List<FieldElement> sacrificeMasks) {
-      FieldElement left = fieldElementUtils.innerProduct(leftFactors, masks);
-      FieldElement prod = fieldElementUtils.innerProduct(product, masks);
-      FieldElement leftSac = fieldElementUtils.innerProduct(leftFactors, sacrificeMasks);
-      FieldElement prodSac = fieldElementUtils.innerProduct(product, sacrificeMasks);
-      return new UnauthenticatedCandidate(left, rightFactor, prod, leftSac, prodSac);
-    }
-  }
-
   /**
    * Represents single unauthenticated triple candidate (<i>a</i>, <i>b</i>, <i>c</i>, <i>a'</i>,
    * <i>c'</i>). <p>An unauthenticated triple candidate is the input to the authentication
@@ -5,6 +5,7 @@ import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.tools.mascot.CustomAsserts;
 import dk.alexandra.fresco.tools.mascot.MascotTestUtils;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.junit.Test;
@@ -66,6 +67,18 @@ public class TestMascotFieldElementUtils {
     CustomAsserts.assertEquals(definition, definition.createElement(49), actual);
   }
 
+  @Test
+  public void testRecombineArray() {
+    FieldElement[] elements = new FieldElement[left.size() + 2];
+    elements[0] = definition.createElement(5);
+    for (int i = 0; i < left.size(); i++) {
+      elements[i + 1] = left.get(i);
+    }
+    elements[left.size() + 1] = definition.createElement(5);
+    FieldElement actual = fieldElementUtils.recombine(elements, 1, left.size());
+    CustomAsserts.assertEquals(definition, definition.createElement(49), actual);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void recombineLengthMismatch() {
     List<FieldElement> elements =
@@ -82,6 +95,35 @@ public class TestMascotFieldElementUtils {
     CustomAsserts.assertEquals(definition, expected, actual);
   }
 
+  @Test
+  public void testArrayOperations() {
+    FieldElement[] leftArray = left.toArray(new FieldElement[0]);
+    FieldElement[] rightArray = right.toArray(new FieldElement[0]);
+    CustomAsserts.assertEquals(definition,
+        MascotTestUtils.generateSingleRow(new int[]{5, 12, 21, 32}, definition),
+        Arrays.asList(fieldElementUtils.pairWiseMultiply(leftArray, rightArray)));
+    CustomAsserts.assertEquals(definition,
+        MascotTestUtils.generateSingleRow(new int[]{1, 1, 2, 2, 3, 3, 4, 4}, definition),
+        Arrays.asList(fieldElementUtils.stretch(leftArray, 2)));
+    CustomAsserts.assertEquals(definition, definition.createElement(70),
+        fieldElementUtils.innerProduct(leftArray, 0, rightArray, 0, 4));
+    // 2 * 5 + 3 * 6
+    CustomAsserts.assertEquals(definition, definition.createElement(28),
+        fieldElementUtils.innerProduct(leftArray, 1, rightArray, 0, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void pairWiseMultiplyArrayLengthMismatch() {
+    fieldElementUtils.pairWiseMultiply(left.toArray(new FieldElement[0]),
+        right.subList(0, 2).toArray(new FieldElement[0]));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void innerProductArrayOutOfRange() {
+    FieldElement[] leftArray = left.toArray(new FieldElement[0]);
+    fieldElementUtils.innerProduct(leftArray, 1, leftArray, 0, 4);
+  }
+
   @Test
   public void testPadWith() {
     int[] expectedArr = {1, 2, 3, 4, 0, 0};
@@ -0,0 +1,187 @@
+package dk.alexandra.fresco.tools.ot.base;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Drng;
+import dk.alexandra.fresco.framework.util.DrngImpl;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.ot.otextension.PseudoOtp;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implementation of the "simplest" OT of Chou and Orlandi over the elliptic curve secp256r1.
+ *
+ * <p>
+ * The sender picks a secret <i>a</i> and sends <i>A = aG</i>. For each OT the receiver picks a
+ * secret <i>b</i> and sends <i>B = bG</i> if its choice bit is 0 and <i>B = A + bG</i> otherwise.
+ * The sender then derives the keys <i>H(aB)</i> and <i>H(a(B - A))</i> used to encrypt the zero-
+ * and one-message, of which the receiver can derive exactly the one for its choice as
+ * <i>H(bA)</i>. The keys are additionally bound to the index of the OT and the points exchanged.
+ * </p>
+ *
+ * <p>
+ * Contrary to {@link NaorPinkasOt} a batch of OTs sent using {@link #send(List)} and received using
+ * {@link #receive(StrictBitVector)} is completed in three messages in total, and the sender only
+ * does a single scalar multiplication per OT. All message pairs of a batch must have the same
+ * length, since the cipher texts are sent as one message which the receiver splits into equal
+ * parts. A single OT is run as a batch of one, so the batch sizes used by the sender and the
+ * receiver must match.
+ * </p>
+ */
+public class ChouOrlandiOt implements Ot {
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private final int otherId;
+  private final Network network;
+  private final Drng randNum;
+  private final MessageDigest hashDigest;
+
+  /**
+   * Constructs a Chou-Orlandi OT instance.
+   *
+   * @param otherId The ID of the other party
+   * @param randBit The calling party's secure randomness generator
+   * @param network The underlying network to use
+   */
+  public ChouOrlandiOt(int otherId, Drbg randBit, Network network) {
+    this.otherId = otherId;
+    this.network = network;
+    this.hashDigest = ExceptionConverter.safe(() -> MessageDigest.getInstance(HASH_ALGORITHM),
+        "Missing secure, hash function which is dependent in this library");
+    this.randNum = new DrngImpl(randBit);
+  }
+
+  @Override
+  public void send(StrictBitVector messageZero, StrictBitVector messageOne) {
+    send(Collections.singletonList(new Pair<>(messageZero, messageOne)));
+  }
+
+  @Override
+  public StrictBitVector receive(boolean choiceBit) {
+    StrictBitVector choice = new StrictBitVector(Byte.SIZE);
+    if (choiceBit) {
+      choice.setBit(0, true, false);
+    }
+    return receive(choice, 1).get(0);
+  }
+
+  @Override
+  public void send(List<Pair<StrictBitVector, StrictBitVector>> messages) {
+    int length = messages.isEmpty() ? 0 : messageLength(messages.get(0));
+    for (Pair<StrictBitVector, StrictBitVector> pair : messages) {
+      if (messageLength(pair) != length) {
+        throw new IllegalArgumentException(
+            "All messages of a batch must have the same length, but got " + length + " and "
+                + messageLength(pair) + " bytes");
+      }
+    }
+    BigInteger secret = nextScalar();
+    Secp256r1Point publicKey = Secp256r1Point.GENERATOR.multiply(secret);
+    byte[] encodedPublicKey = publicKey.encode();
+    network.send(otherId, encodedPublicKey);
+    byte[] encodedChoices = network.receive(otherId);
+    if (encodedChoices.length != messages.size() * Secp256r1Point.ENCODED_LENGTH) {
+      throw new MaliciousException("Expected " + messages.size() + " points but received "
+          + encodedChoices.length + " bytes");
+    }
+    Secp256r1Point sharedPublicKey = publicKey.multiply(secret);
+    byte[] cipherTexts = new byte[2 * length * messages.size()];
+    for (int i = 0; i < messages.size(); i++) {
+      int offset = i * Secp256r1Point.ENCODED_LENGTH;
+      Secp256r1Point choice = Secp256r1Point.decode(encodedChoices, offset);
+      Secp256r1Point sharedZero = choice.multiply(secret);
+      Secp256r1Point sharedOne = sharedZero.subtract(sharedPublicKey);
+      byte[] encodedChoice = Arrays.copyOfRange(encodedChoices, offset,
+          offset + Secp256r1Point.ENCODED_LENGTH);
+      StrictBitVector messageZero = messages.get(i).getFirst();
+      StrictBitVector messageOne = messages.get(i).getSecond();
+      System.arraycopy(PseudoOtp.encrypt(messageZero.toByteArray(),
+          deriveKey(i, encodedPublicKey, encodedChoice, sharedZero), length), 0,
+          cipherTexts, 2 * i * length, length);
+      System.arraycopy(PseudoOtp.encrypt(messageOne.toByteArray(),
+          deriveKey(i, encodedPublicKey, encodedChoice, sharedOne), length), 0,
+          cipherTexts, (2 * i + 1) * length, length);
+    }
+    network.send(otherId, cipherTexts);
+  }
+
+  @Override
+  public List<StrictBitVector> receive(StrictBitVector choiceBits) {
+    return receive(choiceBits, choiceBits.getSize());
+  }
+
+  private List<StrictBitVector> receive(StrictBitVector choiceBits, int amount) {
+    byte[] encodedPublicKey = network.receive(otherId);
+    if (encodedPublicKey.length != Secp256r1Point.ENCODED_LENGTH) {
+      throw new MaliciousException("Malformed encoding of curve point");
+    }
+    Secp256r1Point publicKey = Secp256r1Point.decode(encodedPublicKey, 0);
+    List<Pair<BigInteger, byte[]>> choices = new ArrayList<>(amount);
+    ByteBuffer encodedChoices = ByteBuffer.allocate(amount * Secp256r1Point.ENCODED_LENGTH);
+    for (int i = 0; i < amount; i++) {
+      BigInteger secret = nextScalar();
+      Secp256r1Point choice = Secp256r1Point.GENERATOR.multiply(secret);
+      if (choiceBits.getBit(i, false)) {
+        choice = choice.add(publicKey);
+      }
+      byte[] encodedChoice = choice.encode();
+      encodedChoices.put(encodedChoice);
+      choices.add(new Pair<>(secret, encodedChoice));
+    }
+    network.send(otherId, encodedChoices.array());
+    byte[] cipherTexts = network.receive(otherId);
+    int length = amount == 0 ? 0 : cipherTexts.length / (2 * amount);
+    if (cipherTexts.length != 2 * amount * length) {
+      throw new MaliciousException("The length of the choice messages is not equal");
+    }
+    List<StrictBitVector> messages = new ArrayList<>(amount);
+    for (int i = 0; i < amount; i++) {
+      int start = (choiceBits.getBit(i, false) ? 2 * i + 1 : 2 * i) * length;
+      byte[] key = deriveKey(i, encodedPublicKey, choices.get(i).getSecond(),
+          publicKey.multiply(choices.get(i).getFirst()));
+      messages.add(new StrictBitVector(
+          PseudoOtp.decrypt(Arrays.copyOfRange(cipherTexts, start, start + length), key)));
+    }
+    return messages;
+  }
+
+  /**
+   * Returns the length in bytes of the cipher texts of a pair of messages.
+   */
+  private static int messageLength(Pair<StrictBitVector, StrictBitVector> pair) {
+    return Math.max(pair.getFirst().getSize(), pair.getSecond().getSize()) / Byte.SIZE;
+  }
+
+  /**
+   * Samples a uniformly random, non-zero scalar.
+   */
+  private BigInteger nextScalar() {
+    BigInteger scalar;
+    do {
+      scalar = randNum.nextBigInteger(Secp256r1Point.ORDER);
+    } while (scalar.signum() == 0);
+    return scalar;
+  }
+
+  /**
+   * Derives the key of a single OT by hashing its index, the points exchanged and the shared point.
+   */
+  private byte[] deriveKey(int index, byte[] publicKey, byte[] choice, Secp256r1Point shared) {
+    hashDigest.update(ByteBuffer.allocate(Integer.BYTES).putInt(index).array());
+    hashDigest.update(publicKey);
+    hashDigest.update(choice);
+    if (!shared.isInfinity()) {
+      hashDigest.update(shared.encode());
+    }
+    return hashDigest.digest();
+  }
+}
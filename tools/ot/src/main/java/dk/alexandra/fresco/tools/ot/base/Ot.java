@@ -1,6 +1,9 @@
 package dk.alexandra.fresco.tools.ot.base;
 
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Oblivious Transfer interface for 1-out-of-2 oblivious transfer. That is, the sending party inputs
@@ -30,4 +33,33 @@ public interface Ot {
    * @return The message indicated by the choice bit
    */
   StrictBitVector receive(boolean choiceBit);
+
+  /**
+   * Send a batch of message pairs, for the recipient to choose one message from each pair. The
+   * default implementation sends each pair using {@link #send(StrictBitVector, StrictBitVector)},
+   * implementations may run the whole batch at once.
+   *
+   * @param messages
+   *          The pairs of messages to send
+   */
+  default void send(List<Pair<StrictBitVector, StrictBitVector>> messages) {
+    for (Pair<StrictBitVector, StrictBitVector> pair : messages) {
+      send(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  /**
+   * Receive one-out-of-two messages for each of a batch of OTs, matching {@link #send(List)}.
+   *
+   * @param choiceBits
+   *          Bits indicating which message to receive in each OT
+   * @return The messages indicated by the choice bits
+   */
+  default List<StrictBitVector> receive(StrictBitVector choiceBits) {
+    List<StrictBitVector> messages = new ArrayList<>(choiceBits.getSize());
+    for (int i = 0; i < choiceBits.getSize(); i++) {
+      messages.add(receive(choiceBits.getBit(i, false)));
+    }
+    return messages;
+  }
 }
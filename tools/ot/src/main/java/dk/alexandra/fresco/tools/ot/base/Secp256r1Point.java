@@ -0,0 +1,269 @@
+package dk.alexandra.fresco.tools.ot.base;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A point on the NIST P-256 (secp256r1) elliptic curve <i>y<sup>2</sup> = x<sup>3</sup> - 3x +
+ * b</i> over the prime field of order <i>p = 2<sup>256</sup> - 2<sup>224</sup> + 2<sup>192</sup> +
+ * 2<sup>96</sup> - 1</i>.
+ *
+ * <p>
+ * Points are kept in Jacobian coordinates <i>(X, Y, Z)</i> representing the affine point <i>(X /
+ * Z<sup>2</sup>, Y / Z<sup>3</sup>)</i>, with <i>Z = 0</i> representing the point at infinity, so
+ * that additions and doublings need no field inversions. The curve has prime order and cofactor
+ * one, so any point on the curve, except the point at infinity, generates the whole group.
+ * </p>
+ *
+ * <p>
+ * Note that the arithmetic is based on {@link BigInteger} and is not constant time.
+ * </p>
+ */
+final class Secp256r1Point {
+
+  static final BigInteger PRIME = new BigInteger(
+      "ffffffff00000001000000000000000000000000ffffffffffffffffffffffff", 16);
+  static final BigInteger ORDER = new BigInteger(
+      "ffffffff00000000ffffffffffffffffbce6faada7179e84f3b9cac2fc632551", 16);
+  private static final BigInteger B = new BigInteger(
+      "5ac635d8aa3a93e7b3ebbd55769886bc651d06b0cc53b0f63bce3c3e27d2604b", 16);
+  private static final BigInteger THREE = BigInteger.valueOf(3);
+  private static final BigInteger SQRT_EXPONENT = PRIME.add(BigInteger.ONE).shiftRight(2);
+  /**
+   * Byte length of a coordinate.
+   */
+  private static final int COORDINATE_LENGTH = 32;
+  /**
+   * Byte length of an encoded point, consisting of a sign byte and the x-coordinate.
+   */
+  static final int ENCODED_LENGTH = COORDINATE_LENGTH + 1;
+  private static final int WINDOW_BITS = 4;
+
+  static final Secp256r1Point INFINITY =
+      new Secp256r1Point(BigInteger.ONE, BigInteger.ONE, BigInteger.ZERO);
+  static final Secp256r1Point GENERATOR = new Secp256r1Point(
+      new BigInteger("6b17d1f2e12c4247f8bce6e563a440f277037d812deb33a0f4a13945d898c296", 16),
+      new BigInteger("4fe342e2fe1a7f9b8ee7eb4a7c0f9e162bce33576b315ececbb6406837bf51f5", 16),
+      BigInteger.ONE);
+  private static final Secp256r1Point[] GENERATOR_TABLE = GENERATOR.createTable();
+
+  private final BigInteger x;
+  private final BigInteger y;
+  private final BigInteger z;
+
+  private Secp256r1Point(BigInteger x, BigInteger y, BigInteger z) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+  }
+
+  /**
+   * Creates a point from affine coordinates, checking that it is on the curve.
+   *
+   * @param x the x-coordinate
+   * @param y the y-coordinate
+   * @return the point
+   */
+  static Secp256r1Point fromAffine(BigInteger x, BigInteger y) {
+    if (x.signum() < 0 || x.compareTo(PRIME) >= 0 || y.signum() < 0 || y.compareTo(PRIME) >= 0
+        || !y.multiply(y).mod(PRIME).equals(rightHandSide(x))) {
+      throw new IllegalArgumentException("The point is not on the curve");
+    }
+    return new Secp256r1Point(x, y, BigInteger.ONE);
+  }
+
+  /**
+   * Decodes a point in compressed form as produced by {@link #encode()}. Since the point is
+   * received from another party, malformed encodings result in a {@link MaliciousException}.
+   *
+   * @param bytes the array holding the encoded point
+   * @param offset the position of the encoded point in the array
+   * @return the decoded point, which is never the point at infinity
+   */
+  static Secp256r1Point decode(byte[] bytes, int offset) {
+    if (bytes.length < offset + ENCODED_LENGTH || (bytes[offset] != 2 && bytes[offset] != 3)) {
+      throw new MaliciousException("Malformed encoding of curve point");
+    }
+    BigInteger x = new BigInteger(1,
+        Arrays.copyOfRange(bytes, offset + 1, offset + ENCODED_LENGTH));
+    if (x.compareTo(PRIME) >= 0) {
+      throw new MaliciousException("Malformed encoding of curve point");
+    }
+    BigInteger rhs = rightHandSide(x);
+    BigInteger y = rhs.modPow(SQRT_EXPONENT, PRIME);
+    if (!y.multiply(y).mod(PRIME).equals(rhs)) {
+      throw new MaliciousException("Encoded point is not on the curve");
+    }
+    if (y.testBit(0) != (bytes[offset] == 3)) {
+      y = PRIME.subtract(y);
+    }
+    return new Secp256r1Point(x, y, BigInteger.ONE);
+  }
+
+  /**
+   * Encodes this point in the compressed form of SEC 1, i.e., a byte indicating the parity of the
+   * y-coordinate followed by the x-coordinate.
+   *
+   * @return the {@value #ENCODED_LENGTH} byte encoding of the point
+   */
+  byte[] encode() {
+    if (isInfinity()) {
+      throw new IllegalStateException("Cannot encode the point at infinity");
+    }
+    BigInteger[] affine = toAffine();
+    byte[] bytes = new byte[ENCODED_LENGTH];
+    bytes[0] = (byte) (affine[1].testBit(0) ? 3 : 2);
+    byte[] xBytes = affine[0].toByteArray();
+    int length = Math.min(xBytes.length, COORDINATE_LENGTH);
+    System.arraycopy(xBytes, xBytes.length - length, bytes, ENCODED_LENGTH - length, length);
+    return bytes;
+  }
+
+  boolean isInfinity() {
+    return z.signum() == 0;
+  }
+
+  /**
+   * Returns the affine x- and y-coordinates of this point.
+   */
+  BigInteger[] toAffine() {
+    BigInteger zInverse = z.modInverse(PRIME);
+    BigInteger zInverseSquared = zInverse.multiply(zInverse).mod(PRIME);
+    return new BigInteger[]{
+        x.multiply(zInverseSquared).mod(PRIME),
+        y.multiply(zInverseSquared).multiply(zInverse).mod(PRIME)
+    };
+  }
+
+  Secp256r1Point negate() {
+    return isInfinity() ? this : new Secp256r1Point(x, PRIME.subtract(y), z);
+  }
+
+  /**
+   * Doubles this point (formula dbl-2001-b for curves with <i>a = -3</i>).
+   */
+  Secp256r1Point twice() {
+    if (isInfinity() || y.signum() == 0) {
+      return INFINITY;
+    }
+    BigInteger delta = z.multiply(z).mod(PRIME);
+    BigInteger gamma = y.multiply(y).mod(PRIME);
+    BigInteger beta = x.multiply(gamma).mod(PRIME);
+    BigInteger alpha = THREE.multiply(x.subtract(delta)).multiply(x.add(delta)).mod(PRIME);
+    BigInteger beta4 = beta.shiftLeft(2);
+    BigInteger x3 = alpha.multiply(alpha).subtract(beta4.shiftLeft(1)).mod(PRIME);
+    BigInteger yz = y.add(z);
+    BigInteger z3 = yz.multiply(yz).subtract(gamma).subtract(delta).mod(PRIME);
+    BigInteger y3 = alpha.multiply(beta4.subtract(x3))
+        .subtract(gamma.multiply(gamma).shiftLeft(3)).mod(PRIME);
+    return new Secp256r1Point(x3, y3, z3);
+  }
+
+  /**
+   * Adds another point to this point (formula add-2007-bl).
+   */
+  Secp256r1Point add(Secp256r1Point other) {
+    if (isInfinity()) {
+      return other;
+    }
+    if (other.isInfinity()) {
+      return this;
+    }
+    BigInteger z1z1 = z.multiply(z).mod(PRIME);
+    BigInteger z2z2 = other.z.multiply(other.z).mod(PRIME);
+    BigInteger u1 = x.multiply(z2z2).mod(PRIME);
+    BigInteger u2 = other.x.multiply(z1z1).mod(PRIME);
+    BigInteger s1 = y.multiply(other.z).multiply(z2z2).mod(PRIME);
+    BigInteger s2 = other.y.multiply(z).multiply(z1z1).mod(PRIME);
+    BigInteger h = u2.subtract(u1).mod(PRIME);
+    BigInteger r = s2.subtract(s1).shiftLeft(1).mod(PRIME);
+    if (h.signum() == 0) {
+      return r.signum() == 0 ? twice() : INFINITY;
+    }
+    BigInteger i = h.shiftLeft(1).pow(2).mod(PRIME);
+    BigInteger j = h.multiply(i).mod(PRIME);
+    BigInteger v = u1.multiply(i).mod(PRIME);
+    BigInteger x3 = r.multiply(r).subtract(j).subtract(v.shiftLeft(1)).mod(PRIME);
+    BigInteger y3 = r.multiply(v.subtract(x3)).subtract(s1.multiply(j).shiftLeft(1)).mod(PRIME);
+    BigInteger zz = z.add(other.z);
+    BigInteger z3 = zz.multiply(zz).subtract(z1z1).subtract(z2z2).multiply(h).mod(PRIME);
+    return new Secp256r1Point(x3, y3, z3);
+  }
+
+  Secp256r1Point subtract(Secp256r1Point other) {
+    return add(other.negate());
+  }
+
+  /**
+   * Multiplies this point by a scalar using a fixed window of {@value #WINDOW_BITS} bits.
+   *
+   * @param scalar a non-negative scalar
+   * @return the product
+   */
+  Secp256r1Point multiply(BigInteger scalar) {
+    if (scalar.signum() < 0) {
+      throw new IllegalArgumentException("Scalar must be non-negative");
+    }
+    Secp256r1Point[] table = this == GENERATOR ? GENERATOR_TABLE : createTable();
+    Secp256r1Point result = INFINITY;
+    int windows = (scalar.bitLength() + WINDOW_BITS - 1) / WINDOW_BITS;
+    for (int window = windows - 1; window >= 0; window--) {
+      for (int i = 0; i < WINDOW_BITS; i++) {
+        result = result.twice();
+      }
+      int index = 0;
+      for (int i = WINDOW_BITS - 1; i >= 0; i--) {
+        index = (index << 1) | (scalar.testBit(window * WINDOW_BITS + i) ? 1 : 0);
+      }
+      result = result.add(table[index]);
+    }
+    return result;
+  }
+
+  /**
+   * Creates the table of the multiples <i>0, 1, ..., 2<sup>w</sup> - 1</i> of this point used for
+   * a window of <i>w</i> bits.
+   */
+  private Secp256r1Point[] createTable() {
+    Secp256r1Point[] table = new Secp256r1Point[1 << WINDOW_BITS];
+    table[0] = INFINITY;
+    for (int i = 1; i < table.length; i++) {
+      table[i] = table[i - 1].add(this);
+    }
+    return table;
+  }
+
+  private static BigInteger rightHandSide(BigInteger x) {
+    return x.multiply(x).subtract(THREE).multiply(x).add(B).mod(PRIME);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof Secp256r1Point)) {
+      return false;
+    }
+    Secp256r1Point other = (Secp256r1Point) obj;
+    if (isInfinity() || other.isInfinity()) {
+      return isInfinity() && other.isInfinity();
+    }
+    return Arrays.equals(toAffine(), other.toAffine());
+  }
+
+  @Override
+  public int hashCode() {
+    return isInfinity() ? 0 : Arrays.hashCode(toAffine());
+  }
+
+  @Override
+  public String toString() {
+    if (isInfinity()) {
+      return "Secp256r1Point{infinity}";
+    }
+    BigInteger[] affine = toAffine();
+    return "Secp256r1Point{x=" + affine[0] + ", y=" + affine[1] + '}';
+  }
+}
@@ -33,6 +33,6 @@ public abstract class CoteShared {
     byte[] seedBytes = originalSeed.toByteArray();
     ByteBuffer idBuffer = ByteBuffer.allocate(seedBytes.length + Integer.BYTES);
     byte[] newSeed = idBuffer.putInt(instanceId).put(seedBytes).array();
-    return AesCtrDrbgFactory.fromDerivedSeed(newSeed);
+    return AesCtrDrbgFactory.bufferedFromDerivedSeed(newSeed);
   }
 }
@@ -0,0 +1,31 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * Factory for a protocol instance of the KOS random OT extension, see {@link KosRotSender} and
+ * {@link KosRotReceiver}. This can be used in place of a {@link RotFactory}, but note that both
+ * parties must use the same kind of extension.
+ */
+public class KosRotFactory extends RotFactory {
+
+  /**
+   * Constructs a new factory for the KOS random OT extension.
+   *
+   * @param resources The common resource pool for OT extension
+   * @param network The network instance
+   */
+  public KosRotFactory(OtExtensionResourcePool resources, Network network) {
+    super(resources, network);
+  }
+
+  @Override
+  public RotSender createSender() {
+    return new KosRotSender(resources, network);
+  }
+
+  @Override
+  public RotReceiver createReceiver() {
+    return new KosRotReceiver(resources, network);
+  }
+}
@@ -0,0 +1,96 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.ByteArrayHelper;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Protocol class for the party acting as the receiver in the KOS random OT extension, as specified
+ * in the paper https://eprint.iacr.org/2015/546.
+ *
+ * <p>
+ * The receiver sends exactly two messages per extension: the correlated OT message and the
+ * response to the consistency check.
+ * </p>
+ */
+public class KosRotReceiver extends KosRotShared implements RotReceiver {
+
+  // The prgs based on the seeds sent in OT
+  private final List<Pair<Drbg, Drbg>> prgs;
+
+  /**
+   * Constructs a receiving party for an instance of the KOS random OT extension protocol.
+   *
+   * @param resources The common OT extension resources
+   * @param network The network to use
+   */
+  public KosRotReceiver(OtExtensionResourcePool resources, Network network) {
+    super(resources, network);
+    this.prgs = new ArrayList<>(kappa);
+    for (Pair<StrictBitVector, StrictBitVector> pair : resources.getSeedOts().getSentMessages()) {
+      prgs.add(new Pair<>(initPrg(pair.getFirst()), initPrg(pair.getSecond())));
+    }
+  }
+
+  @Override
+  public List<StrictBitVector> extend(StrictBitVector choices) {
+    int size = choices.getSize();
+    int ellPrime = getExtensionSize(size);
+    int columnBytes = ellPrime / Byte.SIZE;
+    // Extend the choices with random choices for padding
+    byte[] extendedChoices = new byte[columnBytes];
+    System.arraycopy(choices.toByteArray(), 0, extendedChoices, 0, size / Byte.SIZE);
+    resources.getRandomGenerator().nextBytes(extendedChoices, size / Byte.SIZE,
+        columnBytes - size / Byte.SIZE);
+    // Construct the correlated OTs t_i and the message u_i = t_i XOR G(k_i^1) XOR x
+    byte[] tlist = new byte[kappa * columnBytes];
+    byte[] ulist = new byte[kappa * columnBytes];
+    IntStream.range(0, kappa).parallel().forEach(i -> {
+      int offset = i * columnBytes;
+      byte[] rowChoices = getChoices(i, extendedChoices);
+      prgs.get(i).getFirst().nextBytes(tlist, offset, columnBytes);
+      prgs.get(i).getSecond().nextBytes(ulist, offset, columnBytes);
+      for (int j = 0; j < columnBytes; j++) {
+        ulist[offset + j] ^= tlist[offset + j] ^ rowChoices[j];
+      }
+    });
+    network.send(resources.getOtherId(), ulist);
+    byte[] rows = Transpose.transpose(tlist, kappa, ellPrime);
+    // Respond to the consistency check with x = sum chi_j x_j and t = sum chi_j t_j
+    byte[] challenges = getChallenges(ellPrime, ulist);
+    long[] xvec = new long[words];
+    long[] challenge = new long[words];
+    for (int j = 0; j < ellPrime; j++) {
+      if (ByteArrayHelper.getBit(extendedChoices, j)) {
+        toWords(challenges, j * rowBytes, challenge);
+        for (int w = 0; w < words; w++) {
+          xvec[w] ^= challenge[w];
+        }
+      }
+    }
+    long[] tvec = computeCheckSum(challenges, rows, ellPrime);
+    ByteBuffer response = ByteBuffer.allocate(3 * words * Long.BYTES);
+    response.asLongBuffer().put(xvec).put(tvec);
+    network.send(resources.getOtherId(), response.array());
+    // Remove the correlation of the OTs by hashing
+    return hashRows(rows, size, reserveIndices(ellPrime), null);
+  }
+
+  /**
+   * Gets the choices used in the message u_i of a base OT. An honest receiver uses the same
+   * choices for all base OTs, which is what the consistency check verifies.
+   *
+   * @param i the index of the base OT
+   * @param choices the padded choices of the extension
+   * @return the choices to use for the base OT
+   */
+  byte[] getChoices(int i, byte[] choices) {
+    return choices;
+  }
+}
@@ -0,0 +1,93 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.ByteArrayHelper;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Protocol class for the party acting as the sender in the KOS random OT extension, as specified
+ * in the paper https://eprint.iacr.org/2015/546.
+ *
+ * <p>
+ * Contrary to {@link RotSenderImpl} the correlated OTs are not padded to a power of two and the
+ * whole extension is computed on contiguous arrays. The sender receives exactly two messages per
+ * extension from the receiver: the correlated OT message and the response to the consistency
+ * check.
+ * </p>
+ */
+public class KosRotSender extends KosRotShared implements RotSender {
+
+  // The prgs based on the seeds learned from OT
+  private final List<Drbg> prgs;
+  // The random choices for the seed OTs, i.e., the correlation of the OTs
+  private final byte[] delta;
+
+  /**
+   * Constructs a sending party for an instance of the KOS random OT extension protocol.
+   *
+   * @param resources The common OT extension resources
+   * @param network The network to use
+   */
+  public KosRotSender(OtExtensionResourcePool resources, Network network) {
+    super(resources, network);
+    this.prgs = new ArrayList<>(kappa);
+    for (StrictBitVector message : resources.getSeedOts().getLearnedMessages()) {
+      // Initialize the PRGs with the random messages
+      prgs.add(initPrg(message));
+    }
+    this.delta = resources.getSeedOts().getChoices().toByteArray().clone();
+  }
+
+  @Override
+  public Pair<List<StrictBitVector>, List<StrictBitVector>> extend(int size) {
+    int ellPrime = getExtensionSize(size);
+    int columnBytes = ellPrime / Byte.SIZE;
+    byte[] ulist = network.receive(resources.getOtherId());
+    if (ulist.length != kappa * columnBytes) {
+      throw new MaliciousException("Expected " + kappa * columnBytes
+          + " bytes for the correlated OTs but received " + ulist.length);
+    }
+    // Construct the correlated OTs, q_i = t_i XOR delta_i * (x XOR e)
+    byte[] qlist = new byte[ulist.length];
+    IntStream.range(0, kappa).parallel().forEach(i -> {
+      int offset = i * columnBytes;
+      prgs.get(i).nextBytes(qlist, offset, columnBytes);
+      if (ByteArrayHelper.getBit(delta, i)) {
+        for (int j = offset; j < offset + columnBytes; j++) {
+          qlist[j] ^= ulist[j];
+        }
+      }
+    });
+    byte[] rows = Transpose.transpose(qlist, kappa, ellPrime);
+    byte[] challenges = getChallenges(ellPrime, ulist);
+    long[] qvec = computeCheckSum(challenges, rows, ellPrime);
+    // Verify the response of the receiver, t = q XOR x * delta
+    ByteBuffer response = ByteBuffer.wrap(network.receive(resources.getOtherId()));
+    if (response.capacity() != 3 * words * Long.BYTES) {
+      throw new MaliciousException("Malformed response to the correlation check");
+    }
+    long[] xvec = new long[words];
+    long[] tvec = new long[2 * words];
+    response.asLongBuffer().get(xvec).get(tvec);
+    long[] deltaWords = new long[words];
+    toWords(delta, 0, deltaWords);
+    multiplyAccumulate(xvec, deltaWords, qvec);
+    if (!Arrays.equals(qvec, tvec)) {
+      throw new MaliciousException(
+          "Correlation check failed for the sender in the random OT extension");
+    }
+    // Remove the correlation by hashing, for choice-zero and choice-one respectively
+    int firstIndex = reserveIndices(ellPrime);
+    List<StrictBitVector> vlistZero = hashRows(rows, size, firstIndex, null);
+    List<StrictBitVector> vlistOne = hashRows(rows, size, firstIndex, delta);
+    return new Pair<>(vlistZero, vlistOne);
+  }
+}
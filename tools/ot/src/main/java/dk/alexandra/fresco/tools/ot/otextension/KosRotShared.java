@@ -0,0 +1,205 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Superclass containing the common variables and methods for the sender and receiver parties of
+ * the KOS random OT extension.
+ *
+ * <p>
+ * The correlated OTs of an extension are kept as a single contiguous matrix, holding one row of
+ * <i>kappa</i> bits per OT after transposition, where <i>kappa</i> is the computational security
+ * parameter. The consistency check multiplies each row with a random challenge as polynomials over
+ * GF(2), without reduction, and is computed on words of 64 bits.
+ * </p>
+ */
+abstract class KosRotShared extends CoteShared {
+
+  /**
+   * Amount of OTs for which the check sum is computed in a single task.
+   */
+  private static final int CHECK_CHUNK_SIZE = 1 << 12;
+  private static final int CHALLENGE_SEED_BYTES = 32;
+  protected final OtExtensionResourcePool resources;
+  protected final Network network;
+  protected final int kappa;
+  protected final int rowBytes;
+  protected final int words;
+  private final MessageDigest digest;
+  private int counter;
+
+  /**
+   * Constructs a KOS random OT extension super-class.
+   *
+   * @param resources The common OT extension resources
+   * @param network The network to use
+   */
+  KosRotShared(OtExtensionResourcePool resources, Network network) {
+    super(resources.getInstanceId());
+    this.resources = resources;
+    this.network = network;
+    this.kappa = resources.getComputationalSecurityParameter();
+    this.rowBytes = kappa / Byte.SIZE;
+    this.words = (kappa + Long.SIZE - 1) / Long.SIZE;
+    this.digest = resources.getDigest();
+    this.counter = 0;
+  }
+
+  /**
+   * Computes the amount of correlated OTs needed to extend a given amount of random OTs. These are
+   * the OTs themselves, plus computational security parameter plus lambda security parameter OTs
+   * sacrificed in the consistency check, rounded up to a multiple of 8.
+   *
+   * @param size the amount of random OTs
+   * @return the amount of correlated OTs
+   */
+  int getExtensionSize(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("The amount of OTs must be a positive integer");
+    }
+    int minOts = size + kappa + resources.getLambdaSecurityParam();
+    return (minOts + Byte.SIZE - 1) / Byte.SIZE * Byte.SIZE;
+  }
+
+  /**
+   * Reserves the indices of a batch of OTs, which are used to make the hashes of all OTs of this
+   * instance distinct.
+   *
+   * @param size the amount of OTs in the batch
+   * @return the index of the first OT in the batch
+   */
+  int reserveIndices(int size) {
+    int first = counter;
+    counter += size;
+    return first;
+  }
+
+  /**
+   * Agrees on the challenges of the consistency check, consisting of <i>kappa</i> bits per OT. The
+   * challenges are derived from coin-tossed randomness and the message of the receiver, so they
+   * are not known to the receiver before it has sent its message.
+   *
+   * @param amount the amount of OTs to check
+   * @param receiverMessage the message sent by the receiver in the extension
+   * @return the challenges, stored contiguously
+   */
+  byte[] getChallenges(int amount, byte[] receiverMessage) {
+    byte[] coins = resources.getCoinTossing().toss(CHALLENGE_SEED_BYTES * Byte.SIZE)
+        .toByteArray();
+    digest.update(coins);
+    byte[] seed = digest.digest(receiverMessage);
+    byte[] challenges = new byte[amount * rowBytes];
+    AesCtrDrbgFactory.bufferedFromRandomSeed(seed).nextBytes(challenges);
+    return challenges;
+  }
+
+  /**
+   * Computes the sum of the products of each row of the transposed matrix of OTs and the
+   * corresponding challenge.
+   *
+   * @param challenges the challenges
+   * @param matrix the transposed matrix of correlated OTs
+   * @param amount the amount of OTs
+   * @return the check sum of <i>2 kappa</i> bits, as words
+   */
+  long[] computeCheckSum(byte[] challenges, byte[] matrix, int amount) {
+    int chunks = (amount + CHECK_CHUNK_SIZE - 1) / CHECK_CHUNK_SIZE;
+    return IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+      long[] sum = new long[2 * words];
+      long[] challenge = new long[words];
+      long[] row = new long[words];
+      int end = Math.min(amount, (chunk + 1) * CHECK_CHUNK_SIZE);
+      for (int j = chunk * CHECK_CHUNK_SIZE; j < end; j++) {
+        toWords(challenges, j * rowBytes, challenge);
+        toWords(matrix, j * rowBytes, row);
+        multiplyAccumulate(challenge, row, sum);
+      }
+      return sum;
+    }).reduce(new long[2 * words], (a, b) -> {
+      long[] res = a.clone();
+      for (int i = 0; i < res.length; i++) {
+        res[i] ^= b[i];
+      }
+      return res;
+    });
+  }
+
+  /**
+   * Hashes the first rows of the transposed matrix of OTs, optionally XOR'ed with a mask, together
+   * with their index.
+   *
+   * @param matrix the transposed matrix of OTs
+   * @param amount the amount of rows to hash
+   * @param firstIndex the index of the first row
+   * @param mask a mask to XOR onto each row before hashing, or null
+   * @return the hashes
+   */
+  List<StrictBitVector> hashRows(byte[] matrix, int amount, int firstIndex, byte[] mask) {
+    List<StrictBitVector> res = new ArrayList<>(amount);
+    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + rowBytes);
+    byte[] bytes = buffer.array();
+    for (int j = 0; j < amount; j++) {
+      buffer.clear();
+      buffer.putInt(firstIndex + j);
+      buffer.put(matrix, j * rowBytes, rowBytes);
+      if (mask != null) {
+        for (int i = 0; i < rowBytes; i++) {
+          bytes[Integer.BYTES + i] ^= mask[i];
+        }
+      }
+      res.add(new StrictBitVector(digest.digest(bytes)));
+    }
+    return res;
+  }
+
+  /**
+   * Reads <i>kappa</i> bits from an array into words, most significant byte first.
+   *
+   * @param bytes the array to read from
+   * @param offset the position of the first byte
+   * @param res the words to write to
+   */
+  void toWords(byte[] bytes, int offset, long[] res) {
+    for (int w = 0; w < words; w++) {
+      long word = 0;
+      int start = offset + w * Long.BYTES;
+      int end = Math.min(start + Long.BYTES, offset + rowBytes);
+      for (int i = start; i < end; i++) {
+        word = (word << Byte.SIZE) | (bytes[i] & 0xFF);
+      }
+      res[w] = word;
+    }
+  }
+
+  /**
+   * Multiplies two polynomials over GF(2) given as words and adds the product to a sum.
+   *
+   * @param left the first factor
+   * @param right the second factor
+   * @param sum the sum, with twice as many words as the factors
+   */
+  static void multiplyAccumulate(long[] left, long[] right, long[] sum) {
+    for (int i = 0; i < left.length; i++) {
+      for (int j = 0; j < right.length; j++) {
+        long a = left[i];
+        long b = right[j];
+        long low = b & -(a & 1L);
+        long high = 0;
+        for (int k = 1; k < Long.SIZE; k++) {
+          long mask = -((a >>> k) & 1L);
+          low ^= (b << k) & mask;
+          high ^= (b >>> (Long.SIZE - k)) & mask;
+        }
+        sum[i + j] ^= low;
+        sum[i + j + 1] ^= high;
+      }
+    }
+  }
+}
@@ -7,8 +7,8 @@ import dk.alexandra.fresco.framework.network.Network;
  */
 public class RotFactory {
 
-  private final OtExtensionResourcePool resources;
-  private final Network network;
+  protected final OtExtensionResourcePool resources;
+  protected final Network network;
 
   /**
    * Constructs a new random OT protocol and constructs the internal sender and
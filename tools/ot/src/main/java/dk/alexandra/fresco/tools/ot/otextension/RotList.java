@@ -62,9 +62,7 @@ public class RotList {
     if (sent == true) {
       throw new IllegalStateException("Seed OTs have already been sent.");
     }
-    for (Pair<StrictBitVector, StrictBitVector> pair : sendMessages) {
-      ot.send(pair.getFirst(), pair.getSecond());
-    }
+    ot.send(sendMessages);
     sent = true;
   }
 
@@ -82,10 +80,7 @@ public class RotList {
     if (received == true) {
       throw new IllegalStateException("Seed OTs have already been received.");
     }
-    for (int i = 0; i < amount; i++) {
-      StrictBitVector message = ot.receive(choices.getBit(i, false));
-      learnedMessages.add(message);
-    }
+    learnedMessages.addAll(ot.receive(choices));
     received = true;
   }
 
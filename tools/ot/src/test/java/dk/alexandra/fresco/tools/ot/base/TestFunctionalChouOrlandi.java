@@ -0,0 +1,169 @@
+package dk.alexandra.fresco.tools.ot.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.helper.HelperForTests;
+import dk.alexandra.fresco.tools.helper.RuntimeForTests;
+import dk.alexandra.fresco.tools.ot.otextension.CheatingNetworkDecorator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFunctionalChouOrlandi {
+
+  private RuntimeForTests testRuntime;
+  private int messageLength = 1024;
+
+  @Before
+  public void initializeRuntime() {
+    this.testRuntime = new RuntimeForTests();
+  }
+
+  @After
+  public void shutdown() {
+    testRuntime.shutdown();
+  }
+
+  private List<Pair<StrictBitVector, StrictBitVector>> otSend(int iterations, boolean batch)
+      throws IOException {
+    Network network =
+        new SocketNetwork(RuntimeForTests.defaultNetworkConfiguration(1, Arrays.asList(1, 2)));
+    try {
+      Drbg rand = new AesCtrDrbg(HelperForTests.seedOne);
+      Ot otSender = new ChouOrlandiOt(2, rand, network);
+      List<Pair<StrictBitVector, StrictBitVector>> messages = new ArrayList<>(iterations);
+      for (int i = 0; i < iterations; i++) {
+        StrictBitVector msgZero = new StrictBitVector(messageLength, rand);
+        StrictBitVector msgOne = new StrictBitVector(messageLength, rand);
+        messages.add(new Pair<>(msgZero, msgOne));
+        if (!batch) {
+          otSender.send(msgZero, msgOne);
+        }
+      }
+      if (batch) {
+        otSender.send(messages);
+      }
+      return messages;
+    } finally {
+      ((Closeable) network).close();
+    }
+  }
+
+  private List<StrictBitVector> otReceive(StrictBitVector choices, boolean batch)
+      throws IOException {
+    Network network =
+        new SocketNetwork(RuntimeForTests.defaultNetworkConfiguration(2, Arrays.asList(1, 2)));
+    try {
+      Drbg rand = new AesCtrDrbg(HelperForTests.seedTwo);
+      Ot otReceiver = new ChouOrlandiOt(1, rand, network);
+      if (batch) {
+        return otReceiver.receive(choices);
+      }
+      List<StrictBitVector> messages = new ArrayList<>(choices.getSize());
+      for (int i = 0; i < choices.getSize(); i++) {
+        messages.add(otReceiver.receive(choices.getBit(i, false)));
+      }
+      return messages;
+    } finally {
+      ((Closeable) network).close();
+    }
+  }
+
+  private void runOts(int iterations, boolean batch) {
+    StrictBitVector choices = new StrictBitVector(iterations,
+        new AesCtrDrbg(HelperForTests.seedThree));
+    Callable<List<?>> partyOneOt = () -> otSend(iterations, batch);
+    Callable<List<?>> partyTwoOt = () -> otReceive(choices, batch);
+    List<List<?>> results = testRuntime.runPerPartyTasks(Arrays.asList(partyOneOt, partyTwoOt));
+    List<?> senderResults = results.get(0);
+    List<?> receiverResults = results.get(1);
+    assertEquals(iterations, senderResults.size());
+    assertEquals(iterations, receiverResults.size());
+    for (int i = 0; i < iterations; i++) {
+      Pair<?, ?> messages = (Pair<?, ?>) senderResults.get(i);
+      Object expected = choices.getBit(i, false) ? messages.getSecond() : messages.getFirst();
+      Object other = choices.getBit(i, false) ? messages.getFirst() : messages.getSecond();
+      assertEquals(expected, receiverResults.get(i));
+      assertNotEquals(other, receiverResults.get(i));
+    }
+    assertNotEquals(new StrictBitVector(iterations), choices);
+  }
+
+  @Test
+  public void testBatchOt() {
+    runOts(128, true);
+  }
+
+  @Test
+  public void testSingleOt() {
+    runOts(8, false);
+  }
+
+  /***** NEGATIVE TESTS. *****/
+  @Test(expected = IllegalArgumentException.class)
+  public void testBatchWithDifferentLengths() {
+    Drbg rand = new AesCtrDrbg(HelperForTests.seedOne);
+    Ot otSender = new ChouOrlandiOt(2, rand, null);
+    otSender.send(Arrays.asList(
+        new Pair<>(new StrictBitVector(messageLength, rand),
+            new StrictBitVector(messageLength, rand)),
+        new Pair<>(new StrictBitVector(messageLength / 2, rand),
+            new StrictBitVector(messageLength / 2, rand))));
+  }
+
+  private List<StrictBitVector> otSendCheat() throws IOException {
+    Network network =
+        new CheatingNetworkDecorator(
+            new SocketNetwork(RuntimeForTests.defaultNetworkConfiguration(1, Arrays.asList(1, 2))));
+    try {
+      Drbg rand = new AesCtrDrbg(HelperForTests.seedOne);
+      Ot otSender = new ChouOrlandiOt(2, rand, network);
+      StrictBitVector msgZero = new StrictBitVector(messageLength, rand);
+      StrictBitVector msgOne = new StrictBitVector(messageLength, rand);
+      // Flip a bit in the encryption of the one-message
+      ((CheatingNetworkDecorator) network).cheatInNextMessage(1, messageLength / 8);
+      otSender.send(msgZero, msgOne);
+      return Arrays.asList(msgZero, msgOne);
+    } finally {
+      ((Closeable) network).close();
+    }
+  }
+
+  /**
+   * Test that a sender who flips a bit in its encrypted messages results in the receiver learning
+   * neither of the messages. This is not meant to capture the best possible cheating strategy.
+   */
+  @Test
+  public void testCheatingInChouOrlandiOt() {
+    Callable<List<StrictBitVector>> partyOneInit = () -> otSendCheat();
+    Callable<List<StrictBitVector>> partyTwoInit = () -> {
+      Network network =
+          new SocketNetwork(RuntimeForTests.defaultNetworkConfiguration(2, Arrays.asList(1, 2)));
+      try {
+        Ot otReceiver = new ChouOrlandiOt(1, new AesCtrDrbg(HelperForTests.seedTwo), network);
+        return Arrays.asList(otReceiver.receive(true));
+      } finally {
+        ((Closeable) network).close();
+      }
+    };
+    List<List<StrictBitVector>> results =
+        testRuntime.runPerPartyTasks(Arrays.asList(partyOneInit, partyTwoInit));
+    List<StrictBitVector> senderResults = results.get(0);
+    StrictBitVector receiverResult = results.get(1).get(0);
+    assertNotEquals(senderResults.get(0), receiverResult);
+    assertNotEquals(senderResults.get(1), receiverResult);
+  }
+}
@@ -0,0 +1,91 @@
+package dk.alexandra.fresco.tools.ot.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECPoint;
+import org.junit.Test;
+
+public class TestSecp256r1Point {
+
+  @Test
+  public void testMultiplyGeneratorMatchesJca() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"), new SecureRandom(new byte[]{42}));
+    for (int i = 0; i < 5; i++) {
+      KeyPair keyPair = generator.generateKeyPair();
+      BigInteger secret = ((ECPrivateKey) keyPair.getPrivate()).getS();
+      ECPoint expected = ((ECPublicKey) keyPair.getPublic()).getW();
+      BigInteger[] actual = Secp256r1Point.GENERATOR.multiply(secret).toAffine();
+      assertEquals(expected.getAffineX(), actual[0]);
+      assertEquals(expected.getAffineY(), actual[1]);
+    }
+  }
+
+  @Test
+  public void testArithmetic() {
+    Secp256r1Point g = Secp256r1Point.GENERATOR;
+    Secp256r1Point two = g.twice();
+    assertEquals(two, g.add(g));
+    assertEquals(two.add(g), g.multiply(BigInteger.valueOf(3)));
+    assertEquals(g, two.subtract(g));
+    assertTrue(g.subtract(g).isInfinity());
+    assertTrue(g.multiply(Secp256r1Point.ORDER).isInfinity());
+    assertEquals(g, g.add(Secp256r1Point.INFINITY));
+    assertEquals(g, Secp256r1Point.INFINITY.add(g));
+    BigInteger a = new BigInteger("123456789123456789123456789");
+    BigInteger b = new BigInteger("987654321987654321");
+    assertEquals(g.multiply(a).multiply(b), g.multiply(b).multiply(a));
+    assertEquals(g.multiply(a.add(b)), g.multiply(a).add(g.multiply(b)));
+  }
+
+  @Test
+  public void testEncodeDecode() {
+    for (int i = 1; i < 20; i++) {
+      Secp256r1Point point = Secp256r1Point.GENERATOR.multiply(BigInteger.valueOf(i));
+      byte[] encoded = point.encode();
+      assertEquals(Secp256r1Point.ENCODED_LENGTH, encoded.length);
+      assertEquals(point, Secp256r1Point.decode(encoded, 0));
+      byte[] padded = new byte[encoded.length + 5];
+      System.arraycopy(encoded, 0, padded, 5, encoded.length);
+      assertEquals(point, Secp256r1Point.decode(padded, 5));
+      assertNotEquals(point.negate(), Secp256r1Point.decode(encoded, 0));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromAffineNotOnCurve() {
+    Secp256r1Point.fromAffine(BigInteger.ONE, BigInteger.ONE);
+  }
+
+  @Test(expected = MaliciousException.class)
+  public void testDecodeIllegalPrefix() {
+    byte[] encoded = Secp256r1Point.GENERATOR.encode();
+    encoded[0] = 4;
+    Secp256r1Point.decode(encoded, 0);
+  }
+
+  @Test(expected = MaliciousException.class)
+  public void testDecodeTooShort() {
+    byte[] encoded = Secp256r1Point.GENERATOR.encode();
+    Secp256r1Point.decode(encoded, 1);
+  }
+
+  @Test(expected = MaliciousException.class)
+  public void testDecodeNotOnCurve() {
+    // x = 1 gives y^2 = b - 2, which is not a square modulo p
+    byte[] encoded = new byte[Secp256r1Point.ENCODED_LENGTH];
+    encoded[0] = 2;
+    encoded[Secp256r1Point.ENCODED_LENGTH - 1] = 1;
+    Secp256r1Point.decode(encoded, 0);
+  }
+}
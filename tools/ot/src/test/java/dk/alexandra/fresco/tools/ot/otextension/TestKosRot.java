@@ -0,0 +1,165 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.helper.HelperForTests;
+import dk.alexandra.fresco.tools.helper.RuntimeForTests;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestKosRot {
+  private RuntimeForTests testRuntime;
+  private RotSender rotSender;
+  private OtExtensionResourcePool senderResources;
+  private Network senderNetwork;
+  private RotReceiver rotReceiver;
+  private OtExtensionResourcePool receiverResources;
+  private Network receiverNetwork;
+  private int kbitLength = 128;
+  private int lambdaSecurityParam = 64;
+
+  /**
+   * Initializes the test runtime and constructs a KOS sender and receiver.
+   */
+  @Before
+  public void initializeRuntime() {
+    this.testRuntime = new RuntimeForTests();
+    Callable<List<?>> partyOneTask = () -> setup(1, 2);
+    Callable<List<?>> partyTwoTask = () -> setup(2, 1);
+    List<List<?>> results = testRuntime
+        .runPerPartyTasks(Arrays.asList(partyOneTask, partyTwoTask));
+    rotSender = ((RotFactory) results.get(0).get(0)).createSender();
+    senderResources = (OtExtensionResourcePool) results.get(0).get(1);
+    senderNetwork = (Network) results.get(0).get(2);
+    rotReceiver = ((RotFactory) results.get(1).get(0)).createReceiver();
+    receiverResources = (OtExtensionResourcePool) results.get(1).get(1);
+    receiverNetwork = (Network) results.get(1).get(2);
+  }
+
+  /**
+   * Shuts down the network and test runtime.
+   *
+   * @throws IOException
+   *           Thrown if the network fails to shut down
+   */
+  @After
+  public void shutdown() throws IOException {
+    ((Closeable) senderNetwork).close();
+    ((Closeable) receiverNetwork).close();
+    testRuntime.shutdown();
+  }
+
+  private List<?> setup(int myId, int otherId) {
+    OtExtensionTestContext ctx = new OtExtensionTestContext(myId, otherId, kbitLength,
+        lambdaSecurityParam);
+    OtExtensionResourcePool resources = ctx.createResources(1);
+    Network network = ctx.getNetwork();
+    List<Object> res = new ArrayList<>(3);
+    res.add(new KosRotFactory(resources, network));
+    res.add(resources);
+    res.add(network);
+    return res;
+  }
+
+  private List<Pair<StrictBitVector, StrictBitVector>> extendSender(int size) {
+    Pair<List<StrictBitVector>, List<StrictBitVector>> messages = rotSender.extend(size);
+    List<Pair<StrictBitVector, StrictBitVector>> res = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      res.add(new Pair<>(messages.getFirst().get(i), messages.getSecond().get(i)));
+    }
+    return res;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void runExtension(StrictBitVector choices) {
+    Callable<List<?>> partyOneExtend = () -> extendSender(choices.getSize());
+    Callable<List<?>> partyTwoExtend = () -> rotReceiver.extend(choices);
+    List<List<?>> extendResults = testRuntime.runPerPartyTasks(Arrays.asList(
+        partyOneExtend, partyTwoExtend));
+    List<Pair<StrictBitVector, StrictBitVector>> senderResults =
+        (List<Pair<StrictBitVector, StrictBitVector>>) extendResults.get(0);
+    List<StrictBitVector> receiverResults = (List<StrictBitVector>) extendResults.get(1);
+    HelperForTests.verifyOts(senderResults, receiverResults, choices);
+  }
+
+  /***** POSITIVE TESTS. *****/
+
+  @Test
+  public void testKosRot() {
+    runExtension(new StrictBitVector(1800, new AesCtrDrbg(HelperForTests.seedThree)));
+  }
+
+  @Test
+  public void testRepeatedKosRot() {
+    AesCtrDrbg rand = new AesCtrDrbg(HelperForTests.seedThree);
+    runExtension(new StrictBitVector(8, rand));
+    runExtension(new StrictBitVector(1024, rand));
+    runExtension(new StrictBitVector(20000, rand));
+  }
+
+  @Test
+  public void testMultiplyAccumulate() {
+    // (x + 1) * (x + 1) = x^2 + 1 and x^63 * x^64 = x^127 over GF(2)
+    long[] sum = new long[4];
+    KosRotShared.multiplyAccumulate(new long[] { 3, 0 }, new long[] { 3, 0 }, sum);
+    assertArrayEquals(new long[] { 5, 0, 0, 0 }, sum);
+    KosRotShared.multiplyAccumulate(new long[] { 1L << 63, 0 }, new long[] { 0, 1 }, sum);
+    assertArrayEquals(new long[] { 5, 1L << 63, 0, 0 }, sum);
+    KosRotShared.multiplyAccumulate(new long[] { 0, -1L }, new long[] { 0, -1L }, sum);
+    assertArrayEquals(new long[] { 5, 1L << 63, 0x5555555555555555L, 0x5555555555555555L }, sum);
+  }
+
+  /***** NEGATIVE TESTS. *****/
+
+  /**
+   * Test that a receiver who uses inconsistent choices in the correlated OT message of a base OT,
+   * for which the sender's choice bit is 1, results in a failure of the correlation check. The
+   * receiver otherwise follows the protocol, so both parties compute the same challenges.
+   */
+  @Test
+  public void testCheatingInKosRot() {
+    int extendSize = 1800;
+    StrictBitVector delta = senderResources.getSeedOts().getChoices();
+    int firstSet = 0;
+    while (!delta.getBit(firstSet, false)) {
+      firstSet++;
+    }
+    final int row = firstSet;
+    RotReceiver cheatingReceiver = new KosRotReceiver(receiverResources, receiverNetwork) {
+      @Override
+      byte[] getChoices(int i, byte[] choices) {
+        if (i != row) {
+          return choices;
+        }
+        byte[] inconsistent = choices.clone();
+        inconsistent[0] ^= 1;
+        return inconsistent;
+      }
+    };
+    StrictBitVector choices = new StrictBitVector(extendSize,
+        new AesCtrDrbg(HelperForTests.seedThree));
+    Callable<List<?>> partyOneExtend = () -> extendSender(extendSize);
+    Callable<List<?>> partyTwoExtend = () -> cheatingReceiver.extend(choices);
+    List<?> extendResults = testRuntime
+        .runPerPartyTasks(Arrays.asList(partyOneExtend, partyTwoExtend));
+    assertTrue(extendResults.get(0) instanceof MaliciousException);
+    assertEquals(
+        "Correlation check failed for the sender in the random OT extension",
+        ((MaliciousException) extendResults.get(0)).getMessage());
+    assertTrue(!(extendResults.get(1) instanceof MaliciousException));
+  }
+}
@@ -1,7 +1,10 @@
 package dk.alexandra.fresco.tools.ot.otextension;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 
 import java.lang.reflect.InvocationTargetException;
@@ -106,9 +109,7 @@ public class TestTranspose {
   }
 
   @Test
-  public void testTransposeOneByteBlock() throws NoSuchMethodException,
-      IllegalAccessException, IllegalArgumentException,
-      InvocationTargetException {
+  public void testTransposeOneByteBlock() {
     /**
      * Construct the following bit matrix
      * 1 1 1 1 1 1 1 1, 0xFF
@@ -120,20 +121,7 @@ public class TestTranspose {
      * 0 0 0 0 0 0 0 0, 0x00
      * 1 1 1 1 1 1 1 1, 0xFF.
      */
-    List<byte[]> input = new ArrayList<>(
-        Arrays.asList(
-            new byte[] { (byte) 0xFF },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0x01 },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0xFF }));
-    Method transposeByteBlock = Transpose.class.getDeclaredMethod(
-        "transposeByteBlock", List.class, int.class, int.class);
-    transposeByteBlock.setAccessible(true);
-    transposeByteBlock.invoke(Transpose.class, input, 0, 0);
+    long block = Transpose.transposeByteBlock(0xFF000001000000FFL);
     /**
      * Verify that the result is
      * 1 0 0 0 0 0 0 1 0x81
@@ -145,70 +133,65 @@ public class TestTranspose {
      * 1 0 0 0 0 0 0 1 0x81
      * 1 0 0 1 0 0 0 1 0x91
      */
-    for (int i = 0; i < 7; i++) {
-      assertEquals((byte) 0x81, input.get(i)[0]);
-    }
-    assertEquals((byte) 0x91, input.get(7)[0]);
+    assertEquals(0x8181818181818191L, block);
   }
 
   @Test
-  public void testTransposeFourByteBlocks() throws NoSuchMethodException,
-      SecurityException, IllegalAccessException, IllegalArgumentException,
-      InvocationTargetException {
-    List<byte[]> input = getSquareByteMatrix();
-    Method transposeAllByteBlocks = Transpose.class.getDeclaredMethod(
-        "transposeAllByteBlocks", List.class);
-    transposeAllByteBlocks.setAccessible(true);
-    transposeAllByteBlocks.invoke(Transpose.class, input);
-    for (int i = 0; i < 8; i++) {
-      assertEquals((byte) 0x81, input.get(i)[0]);
-    }
-    for (int i = 0; i < 8; i++) {
-      assertEquals((byte) 0x81, input.get(i)[1]);
+  public void testContiguousSquareTranspose() {
+    List<byte[]> rows = getSquareByteMatrix();
+    byte[] input = new byte[32];
+    for (int i = 0; i < rows.size(); i++) {
+      System.arraycopy(rows.get(i), 0, input, 2 * i, 2);
     }
-    for (int i = 0; i < 8; i++) {
-      assertEquals((byte) 0x7E, input.get(i + 8)[0]);
-    }
-    for (int i = 0; i < 8; i++) {
-      assertEquals((byte) 0x7E, input.get(i + 8)[1]);
+    byte[] res = Transpose.transpose(input, 16, 16);
+    for (int i = 0; i < 16; i++) {
+      assertEquals((byte) 0x81, res[2 * i]);
+      assertEquals((byte) 0x7E, res[2 * i + 1]);
     }
   }
 
   @Test
-  public void testEklundh() throws NoSuchMethodException, SecurityException,
-      IllegalAccessException, IllegalArgumentException,
-      InvocationTargetException {
-    List<byte[]> input = getSquareByteMatrix();
-    Method doEklundh = Transpose.class.getDeclaredMethod("doEklundh",
-        List.class);
-    doEklundh.setAccessible(true);
-    doEklundh.invoke(Transpose.class, input);
-    List<byte[]> referenceMatrix = new ArrayList<>(
-        Arrays.asList(
-            new byte[] { (byte) 0xFF, (byte) 0x00 },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0xFF, (byte) 0x00 },
-            new byte[] { (byte) 0xFF, (byte) 0x00 },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0xFF, (byte) 0x00 }));
-
-    for (int i = 0; i < 16; i++) {
-      for (int j = 0; j < 2; j++) {
-        assertEquals(referenceMatrix.get(i)[j], input.get(i)[j]);
+  public void testContiguousTransposeRandom() {
+    Drbg rand = new AesCtrDrbg(new byte[32]);
+    int[][] dimensions = { { 8, 8 }, { 128, 1024 }, { 1024, 128 }, { 24, 136 }, { 128, 65536 } };
+    for (int[] dimension : dimensions) {
+      int rows = dimension[0];
+      int columns = dimension[1];
+      byte[] input = new byte[rows * columns / 8];
+      rand.nextBytes(input);
+      byte[] res = Transpose.transpose(input, rows, columns);
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < columns; j++) {
+          assertEquals(getBit(input, i * columns + j), getBit(res, j * rows + i));
+        }
       }
+      assertArrayEquals(input, Transpose.transpose(res, columns, rows));
+    }
+  }
+
+  @Test
+  public void testListTransposeMatchesContiguous() {
+    Drbg rand = new AesCtrDrbg(new byte[32]);
+    List<StrictBitVector> input = new ArrayList<>(128);
+    byte[] matrix = new byte[128 * 2048 / 8];
+    for (int i = 0; i < 128; i++) {
+      StrictBitVector row = new StrictBitVector(2048, rand);
+      System.arraycopy(row.toByteArray(), 0, matrix, i * 256, 256);
+      input.add(row);
+    }
+    List<StrictBitVector> res = Transpose.transpose(input);
+    byte[] expected = Transpose.transpose(matrix, 128, 2048);
+    assertEquals(2048, res.size());
+    for (int i = 0; i < res.size(); i++) {
+      assertArrayEquals(Arrays.copyOfRange(expected, i * 16, (i + 1) * 16),
+          res.get(i).toByteArray());
     }
   }
 
+  private static boolean getBit(byte[] bytes, int index) {
+    return (bytes[index / 8] & (0x80 >>> (index % 8))) != 0;
+  }
+
   @Test
   public void testSquareTranspose() {
     List<StrictBitVector> input = getSquareMatrix();
@@ -276,6 +259,16 @@ public class TestTranspose {
   }
 
   /**** NEGATIVE TESTS. ****/
+  @Test(expected = IllegalArgumentException.class)
+  public void testContiguousWrongDimensions() {
+    Transpose.transpose(new byte[12], 12, 8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testContiguousWrongLength() {
+    Transpose.transpose(new byte[16], 8, 8);
+  }
+
   @Test
   public void testWrongAmountOfRows() {
     boolean thrown;